@@ -63,6 +63,13 @@ public class DataGenerator {
         return firstGroup + "-" + secondGroup + "-" + thirdGroup;
     }
 
+    /**
+     * Makes sure generated IDs do not collide with an ID already in use, for example by a recovered call.
+     */
+    public static void reserveIdsUpTo(long usedId) {
+        NEXT_ID.accumulateAndGet(usedId + 1, Math::max);
+    }
+
     private static long nextId() {
         return NEXT_ID.getAndIncrement();
     }
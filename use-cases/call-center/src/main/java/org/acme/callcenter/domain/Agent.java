@@ -1,18 +1,22 @@
 package org.acme.callcenter.domain;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Agent extends PreviousCallOrAgent {
 
     private String name;
     private Set<Skill> skills;
+    @JsonIgnore
+    private long skillMask;
+    @JsonIgnore
+    private int index = -1;
 
     public Agent() {
         // Required by Timefold.
@@ -22,12 +26,14 @@ public class Agent extends PreviousCallOrAgent {
         super(id);
         this.name = name;
         this.skills = EnumSet.noneOf(Skill.class);
+        this.skillMask = 0L;
     }
 
     public Agent(long id, String name, Set<Skill> skills) {
         super(id);
         this.name = name;
         this.skills = EnumSet.copyOf(skills);
+        this.skillMask = Skill.toMask(skills);
     }
 
     public Agent(long id, String name, Skill... skills) {
@@ -46,8 +52,8 @@ public class Agent extends PreviousCallOrAgent {
     }
 
     @Override
-    public Duration getDurationTillPickUp() {
-        return Duration.ZERO;
+    public long getSecondsTillPickUp() {
+        return 0L;
     }
 
     public String getName() {
@@ -57,4 +63,24 @@ public class Agent extends PreviousCallOrAgent {
     public Set<Skill> getSkills() {
         return skills;
     }
+
+    /**
+     * @return the {@link Skill#toMask(java.util.Collection) skill mask} of {@link #getSkills()}
+     */
+    public long getSkillMask() {
+        return skillMask;
+    }
+
+    /**
+     * Dense index of this agent in the {@link SkillCompatibilityTable}.
+     *
+     * @return {@code -1} if the table has not been built yet
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
 }
@@ -22,6 +22,8 @@ public class Call extends PreviousCallOrAgent {
 
     private String phoneNumber;
     private Set<Skill> requiredSkills;
+    @JsonIgnore
+    private long requiredSkillMask;
     private Duration duration = Duration.ZERO;
     private LocalTime startTime;
     private LocalTime pickUpTime;
@@ -37,8 +39,10 @@ public class Call extends PreviousCallOrAgent {
     @AnchorShadowVariable(sourceVariableName = "previousCallOrAgent")
     private Agent agent;
 
+    // In seconds, null until the call is assigned. Boxed because a shadow variable cannot be primitive.
+    @JsonIgnore
     @ShadowVariable(variableListenerClass = ResponseTimeUpdatingVariableListener.class, sourceVariableName = "previousCallOrAgent")
-    private Duration estimatedWaiting;
+    private Long estimatedWaitingSeconds;
 
     public Call() {
         // Required by Timefold.
@@ -48,6 +52,7 @@ public class Call extends PreviousCallOrAgent {
         super(id);
         this.phoneNumber = phoneNumber;
         this.requiredSkills = EnumSet.noneOf(Skill.class);
+        this.requiredSkillMask = 0L;
         this.startTime = LocalTime.now();
     }
 
@@ -55,6 +60,7 @@ public class Call extends PreviousCallOrAgent {
         super(id);
         this.phoneNumber = phoneNumber;
         this.requiredSkills = EnumSet.copyOf(requiredSkills);
+        this.requiredSkillMask = Skill.toMask(requiredSkills);
         this.duration = Duration.ofSeconds(durationSeconds);
         this.startTime = LocalTime.now();
     }
@@ -62,30 +68,26 @@ public class Call extends PreviousCallOrAgent {
     public Call(long id, String phoneNumber, Skill... requiredSkills) {
         this(id, phoneNumber);
         this.requiredSkills.addAll(Arrays.asList(requiredSkills));
+        this.requiredSkillMask = Skill.toMask(this.requiredSkills);
     }
 
     public int getMissingSkillCount() {
         if (agent == null) {
             return 0;
         }
-
-        return (int) requiredSkills.stream()
-                .filter(skill -> !agent.getSkills().contains(skill))
-                .count();
+        return Long.bitCount(requiredSkillMask & ~agent.getSkillMask());
     }
 
     @Override
-    public Duration getDurationTillPickUp() {
-        Duration durationTillPickUp;
-        if (estimatedWaiting == null) {
-            return null;
-        } else {
-            durationTillPickUp = estimatedWaiting.plus(getDuration());
-            if (pickUpTime != null) {
-                durationTillPickUp = durationTillPickUp.minus(Duration.between(pickUpTime, LocalTime.now()));
-            }
+    public long getSecondsTillPickUp() {
+        if (estimatedWaitingSeconds == null) {
+            return NO_ESTIMATE;
+        }
+        long secondsTillPickUp = estimatedWaitingSeconds + duration.getSeconds();
+        if (pickUpTime != null) {
+            secondsTillPickUp -= LocalTime.now().toSecondOfDay() - pickUpTime.toSecondOfDay();
         }
-        return durationTillPickUp;
+        return secondsTillPickUp;
     }
 
     public String getPhoneNumber() {
@@ -96,6 +98,13 @@ public class Call extends PreviousCallOrAgent {
         return requiredSkills;
     }
 
+    /**
+     * @return the {@link Skill#toMask(java.util.Collection) skill mask} of {@link #getRequiredSkills()}
+     */
+    public long getRequiredSkillMask() {
+        return requiredSkillMask;
+    }
+
     public boolean isPinned() {
         return pinned;
     }
@@ -109,7 +118,15 @@ public class Call extends PreviousCallOrAgent {
     }
 
     public Duration getEstimatedWaiting() {
-        return estimatedWaiting;
+        return estimatedWaitingSeconds == null ? null : Duration.ofSeconds(estimatedWaitingSeconds);
+    }
+
+    /**
+     * @return {@link #NO_ESTIMATE} if the call is not assigned
+     */
+    @JsonIgnore
+    public long getEstimatedWaitingSeconds() {
+        return estimatedWaitingSeconds == null ? NO_ESTIMATE : estimatedWaitingSeconds;
     }
 
     public void setPinned(boolean pinned) {
@@ -125,7 +142,14 @@ public class Call extends PreviousCallOrAgent {
     }
 
     public void setEstimatedWaiting(Duration estimatedWaiting) {
-        this.estimatedWaiting = estimatedWaiting;
+        this.estimatedWaitingSeconds = estimatedWaiting == null ? null : estimatedWaiting.getSeconds();
+    }
+
+    /**
+     * @param estimatedWaitingSeconds {@link #NO_ESTIMATE} if the call is not assigned
+     */
+    public void setEstimatedWaitingSeconds(long estimatedWaitingSeconds) {
+        this.estimatedWaitingSeconds = estimatedWaitingSeconds == NO_ESTIMATE ? null : estimatedWaitingSeconds;
     }
 
     public Duration getDuration() {
@@ -140,6 +164,10 @@ public class Call extends PreviousCallOrAgent {
         return startTime;
     }
 
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
     public LocalTime getPickUpTime() {
         return pickUpTime;
     }
@@ -10,6 +10,8 @@ import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @PlanningSolution
 public class CallCenter {
 
@@ -29,6 +31,14 @@ public class CallCenter {
 
     private boolean solving;
 
+    // The sequence number of the last logged problem change applied to this call center, 0 if none.
+    @JsonIgnore
+    private long lastChangeSequence;
+
+    // Shared with the planning clones, of which the agents have the same indexes.
+    @JsonIgnore
+    private SkillCompatibilityTable skillCompatibilityTable;
+
     public CallCenter() {
         // Required by Timefold.
     }
@@ -67,6 +77,29 @@ public class CallCenter {
         this.solving = solving;
     }
 
+    public long getLastChangeSequence() {
+        return lastChangeSequence;
+    }
+
+    public void setLastChangeSequence(long lastChangeSequence) {
+        this.lastChangeSequence = lastChangeSequence;
+    }
+
+    /**
+     * Builds the table on first use and reuses it as long as the number of agents does not change.
+     *
+     * @return never null
+     */
+    @JsonIgnore
+    public SkillCompatibilityTable getSkillCompatibilityTable() {
+        SkillCompatibilityTable table = skillCompatibilityTable;
+        if (table == null || table.getAgentCount() != agents.size()) {
+            table = new SkillCompatibilityTable(agents);
+            skillCompatibilityTable = table;
+        }
+        return table;
+    }
+
     public boolean isFeasible() {
         return score.isFeasible();
     }
@@ -11,6 +11,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @PlanningEntity
 public abstract class PreviousCallOrAgent {
 
+    /**
+     * The {@link #getSecondsTillPickUp() seconds till pick up} of a call that is not assigned yet.
+     */
+    public static final long NO_ESTIMATE = Long.MIN_VALUE;
+
     private Long id;
 
     @JsonIgnore
@@ -33,7 +38,16 @@ public abstract class PreviousCallOrAgent {
         this.nextCall = nextCall;
     }
 
-    public abstract Duration getDurationTillPickUp();
+    /**
+     * @return {@link #NO_ESTIMATE} if unknown, otherwise the seconds until the agent can pick up the next call
+     */
+    @JsonIgnore
+    public abstract long getSecondsTillPickUp();
+
+    public Duration getDurationTillPickUp() {
+        long secondsTillPickUp = getSecondsTillPickUp();
+        return secondsTillPickUp == NO_ESTIMATE ? null : Duration.ofSeconds(secondsTillPickUp);
+    }
 
     @PlanningId
     public Long getId() {
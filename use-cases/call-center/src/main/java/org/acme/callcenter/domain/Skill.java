@@ -1,5 +1,9 @@
 package org.acme.callcenter.domain;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum Skill {
@@ -11,6 +15,13 @@ public enum Skill {
     LIFE_INSURANCE("Life insurance"),
     PROPERTY_INSURANCE("Property insurance");
 
+    static {
+        if (values().length > Long.SIZE) {
+            throw new IllegalStateException("The skill count (%d) exceeds the bits of a skill mask (%d)."
+                    .formatted(values().length, Long.SIZE));
+        }
+    }
+
     private String name;
 
     Skill(String name) {
@@ -21,4 +32,37 @@ public enum Skill {
     public String getName() {
         return name;
     }
+
+    /**
+     * @return the bit of this skill in a skill mask
+     */
+    public long getMask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * @param skills never null
+     * @return a bit mask with the {@link #getMask() bit} of each skill set
+     */
+    public static long toMask(Collection<Skill> skills) {
+        long skillMask = 0L;
+        for (Skill skill : skills) {
+            skillMask |= skill.getMask();
+        }
+        return skillMask;
+    }
+
+    /**
+     * @param skillMask a bit mask from {@link #toMask(Collection)}
+     * @return never null
+     */
+    public static Set<Skill> fromMask(long skillMask) {
+        Set<Skill> skills = EnumSet.noneOf(Skill.class);
+        for (Skill skill : values()) {
+            if ((skillMask & skill.getMask()) != 0L) {
+                skills.add(skill);
+            }
+        }
+        return skills;
+    }
 }
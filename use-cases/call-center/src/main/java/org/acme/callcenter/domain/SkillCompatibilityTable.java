@@ -0,0 +1,76 @@
+package org.acme.callcenter.domain;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * For every skill profile (the {@link Call#getRequiredSkillMask() required skill mask} of a call),
+ * the agents that have all of its skills, as a bit set over the {@link Agent#getIndex() agent indexes}.
+ * <p>
+ * A profile is looked up on first use only, so the table stays as small as the number of distinct profiles.
+ * This class is thread-safe: planning clones on other threads share the same table.
+ */
+public final class SkillCompatibilityTable {
+
+    private final long[] agentSkillMasks;
+    private final Map<Long, long[]> skillMaskToCompatibleAgents = new ConcurrentHashMap<>();
+
+    /**
+     * Gives each agent its {@link Agent#getIndex() index}, which is its position in the list.
+     *
+     * @param agents never null
+     */
+    public SkillCompatibilityTable(List<Agent> agents) {
+        agentSkillMasks = new long[agents.size()];
+        for (int i = 0; i < agents.size(); i++) {
+            Agent agent = agents.get(i);
+            agent.setIndex(i);
+            agentSkillMasks[i] = agent.getSkillMask();
+        }
+    }
+
+    public int getAgentCount() {
+        return agentSkillMasks.length;
+    }
+
+    /**
+     * @param agent never null, indexed by this table
+     * @param requiredSkillMask a {@link Skill#toMask(java.util.Collection) skill mask}
+     * @return true if the agent has all the required skills
+     */
+    public boolean isCompatible(Agent agent, long requiredSkillMask) {
+        int index = agent.getIndex();
+        if (index < 0 || index >= agentSkillMasks.length) {
+            throw new IllegalArgumentException("The agent (%s) has an index (%d) outside of this table (%d agents)."
+                    .formatted(agent.getName(), index, agentSkillMasks.length));
+        }
+        long[] compatibleAgents = getCompatibleAgents(requiredSkillMask);
+        return (compatibleAgents[index >>> 6] & (1L << index)) != 0L;
+    }
+
+    /**
+     * @param requiredSkillMask a {@link Skill#toMask(java.util.Collection) skill mask}
+     * @return true if at least one agent has all the required skills
+     */
+    public boolean hasCompatibleAgent(long requiredSkillMask) {
+        for (long word : getCompatibleAgents(requiredSkillMask)) {
+            if (word != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] getCompatibleAgents(long requiredSkillMask) {
+        return skillMaskToCompatibleAgents.computeIfAbsent(requiredSkillMask, skillMask -> {
+            long[] compatibleAgents = new long[(agentSkillMasks.length + Long.SIZE - 1) / Long.SIZE];
+            for (int i = 0; i < agentSkillMasks.length; i++) {
+                if ((skillMask & ~agentSkillMasks[i]) == 0L) {
+                    compatibleAgents[i >>> 6] |= 1L << i;
+                }
+            }
+            return compatibleAgents;
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package org.acme.callcenter.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Set;
+
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.Skill;
+
+/**
+ * The binary encoding of the values that the change log and the snapshots share.
+ */
+final class CallCenterCodec {
+
+    private static final long NULL_VALUE = -1L;
+
+    static void writeSkills(DataOutput output, Set<Skill> skills) throws IOException {
+        output.writeLong(Skill.toMask(skills));
+    }
+
+    static Set<Skill> readSkills(DataInput input) throws IOException {
+        return Skill.fromMask(input.readLong());
+    }
+
+    static void writeTime(DataOutput output, LocalTime time) throws IOException {
+        output.writeLong(time == null ? NULL_VALUE : time.toNanoOfDay());
+    }
+
+    static LocalTime readTime(DataInput input) throws IOException {
+        long nanoOfDay = input.readLong();
+        return nanoOfDay == NULL_VALUE ? null : LocalTime.ofNanoOfDay(nanoOfDay);
+    }
+
+    static void writeDuration(DataOutput output, Duration duration) throws IOException {
+        output.writeLong(duration == null ? NULL_VALUE : duration.toNanos());
+    }
+
+    static Duration readDuration(DataInput input) throws IOException {
+        long nanos = input.readLong();
+        return nanos == NULL_VALUE ? null : Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Writes the problem properties of a call, not its planning variables.
+     */
+    static void writeCall(DataOutput output, Call call) throws IOException {
+        output.writeLong(call.getId());
+        output.writeUTF(call.getPhoneNumber());
+        writeSkills(output, call.getRequiredSkills());
+        writeDuration(output, call.getDuration());
+        writeTime(output, call.getStartTime());
+        writeTime(output, call.getPickUpTime());
+        output.writeBoolean(call.isPinned());
+    }
+
+    static Call readCall(DataInput input) throws IOException {
+        long id = input.readLong();
+        String phoneNumber = input.readUTF();
+        Call call = new Call(id, phoneNumber, readSkills(input), 0);
+        call.setDuration(readDuration(input));
+        call.setStartTime(readTime(input));
+        call.setPickUpTime(readTime(input));
+        call.setPinned(input.readBoolean());
+        return call;
+    }
+
+    private CallCenterCodec() {
+    }
+}
@@ -0,0 +1,117 @@
+package org.acme.callcenter.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.PreviousCallOrAgent;
+import org.acme.callcenter.domain.Skill;
+
+/**
+ * Keeps the last snapshot of a call center in a compact binary file, including the calls assigned to each agent
+ * and the {@link CallCenter#getLastChangeSequence() sequence number} of the last logged change it includes.
+ * Together with the {@link ChangeLog}, a snapshot restores the call center after a restart.
+ */
+public final class CallCenterSnapshotStore {
+
+    private static final int MAGIC_NUMBER = 0x43435353; // "CCSS"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+
+    public CallCenterSnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Replaces the previous snapshot atomically, so a crash while writing keeps the previous one.
+     *
+     * @param callCenter never null
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(CallCenter callCenter) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(callCenter.getLastChangeSequence());
+            CallCenterCodec.writeSkills(output, callCenter.getSkills());
+            output.writeInt(callCenter.getCalls().size());
+            for (Call call : callCenter.getCalls()) {
+                CallCenterCodec.writeCall(output, call);
+                CallCenterCodec.writeDuration(output, call.getEstimatedWaiting());
+            }
+            output.writeInt(callCenter.getAgents().size());
+            for (Agent agent : callCenter.getAgents()) {
+                output.writeLong(agent.getId());
+                output.writeUTF(agent.getName());
+                CallCenterCodec.writeSkills(output, agent.getSkills());
+                List<Call> assignedCalls = agent.getAssignedCalls();
+                output.writeInt(assignedCalls.size());
+                for (Call assignedCall : assignedCalls) {
+                    output.writeLong(assignedCall.getId());
+                }
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return empty if no snapshot has been written yet
+     * @throws IOException if the snapshot cannot be read
+     */
+    public Optional<CallCenter> read() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION) {
+                throw new IOException("The file (%s) is not a call center snapshot of this version.".formatted(file));
+            }
+            long lastChangeSequence = input.readLong();
+            EnumSet<Skill> skills = EnumSet.copyOf(CallCenterCodec.readSkills(input));
+            int callCount = input.readInt();
+            List<Call> calls = new ArrayList<>(callCount);
+            Map<Long, Call> idToCall = new HashMap<>(callCount);
+            for (int i = 0; i < callCount; i++) {
+                Call call = CallCenterCodec.readCall(input);
+                call.setEstimatedWaiting(CallCenterCodec.readDuration(input));
+                calls.add(call);
+                idToCall.put(call.getId(), call);
+            }
+            int agentCount = input.readInt();
+            List<Agent> agents = new ArrayList<>(agentCount);
+            for (int i = 0; i < agentCount; i++) {
+                Agent agent = new Agent(input.readLong(), input.readUTF(), CallCenterCodec.readSkills(input));
+                int assignedCallCount = input.readInt();
+                PreviousCallOrAgent previousCallOrAgent = agent;
+                for (int j = 0; j < assignedCallCount; j++) {
+                    Call assignedCall = idToCall.get(input.readLong());
+                    assignedCall.setPreviousCallOrAgent(previousCallOrAgent);
+                    assignedCall.setAgent(agent);
+                    previousCallOrAgent.setNextCall(assignedCall);
+                    previousCallOrAgent = assignedCall;
+                }
+                agents.add(agent);
+            }
+            CallCenter callCenter = new CallCenter(skills, agents, calls);
+            callCenter.setLastChangeSequence(lastChangeSequence);
+            return Optional.of(callCenter);
+        }
+    }
+}
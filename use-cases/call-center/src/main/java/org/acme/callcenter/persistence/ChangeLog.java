@@ -0,0 +1,291 @@
+package org.acme.callcenter.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.ProlongCallByMinuteProblemChange;
+import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.acme.callcenter.solver.change.SequencedProblemChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of the call changes, in a memory-mapped file.
+ * Every appended change gets the next sequence number, also after {@link #truncateUpTo(long) truncation}.
+ * <p>
+ * A record is its body length, the body (sequence number, change type and payload) and a CRC32 of the body.
+ * Opening the log scans the records and stops at the first one that is incomplete, for example after a crash,
+ * so the next change overwrites it.
+ * <p>
+ * Appending only writes to memory. {@link #force()} makes the changes appended since the previous call durable,
+ * so a batch of changes needs a single disk write.
+ */
+public final class ChangeLog implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeLog.class);
+
+    private static final int MAGIC_NUMBER = 0x43434C47; // "CCLG"
+    private static final int FORMAT_VERSION = 2;
+    // Magic number, format version and the sequence number of the last change dropped by a truncation.
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    private static final int BASE_SEQUENCE_OFFSET = 2 * Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private static final byte ADD_CALL = 1;
+    private static final byte REMOVE_CALL = 2;
+    private static final byte PROLONG_CALL = 3;
+
+    private final Path file;
+    // Guarded by this.
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private int forcedPosition;
+    private long lastSequence;
+
+    private ChangeLog(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the log, creating it if it does not exist yet.
+     *
+     * @param file never null
+     * @return never null
+     * @throws IOException if the file cannot be read or written, or is not a change log
+     */
+    public static ChangeLog open(Path file) throws IOException {
+        ChangeLog changeLog = new ChangeLog(file);
+        changeLog.map();
+        return changeLog;
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0L;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+        if (created) {
+            buffer.putInt(0, MAGIC_NUMBER);
+            buffer.putInt(Integer.BYTES, FORMAT_VERSION);
+            buffer.putLong(BASE_SEQUENCE_OFFSET, 0L);
+            buffer.force(0, HEADER_BYTES);
+        } else if (buffer.getInt(0) != MAGIC_NUMBER || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            channel.close();
+            throw new IOException("The file (%s) is not a change log of this version.".formatted(file));
+        }
+        position = HEADER_BYTES;
+        lastSequence = buffer.getLong(BASE_SEQUENCE_OFFSET);
+        int recordLength;
+        while ((recordLength = readRecordLength(position)) > 0) {
+            lastSequence = buffer.getLong(position + Integer.BYTES);
+            position += recordLength;
+        }
+        if (buffer.getInt(position) != 0) {
+            LOGGER.warn("Discarding the incomplete change at the end of the change log ({}).", file);
+            byte[] zeros = new byte[buffer.capacity() - position];
+            buffer.put(position, zeros);
+        }
+        forcedPosition = position;
+    }
+
+    /**
+     * @return the length of the complete record at the offset, including its length and CRC, or 0 if there is none
+     */
+    private int readRecordLength(int offset) {
+        if (offset + Integer.BYTES > buffer.capacity()) {
+            return 0;
+        }
+        int bodyLength = buffer.getInt(offset);
+        if (bodyLength <= Long.BYTES
+                || (long) offset + Integer.BYTES + bodyLength + Integer.BYTES > buffer.capacity()) {
+            return 0;
+        }
+        int recordLength = Integer.BYTES + bodyLength + Integer.BYTES;
+        int crcOffset = offset + Integer.BYTES + bodyLength;
+        return buffer.getInt(crcOffset) == calculateCrc(offset + Integer.BYTES, bodyLength) ? recordLength : 0;
+    }
+
+    private int calculateCrc(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @param problemChange never null, an {@link AddCallProblemChange}, {@link RemoveCallProblemChange}
+     *        or {@link ProlongCallByMinuteProblemChange}
+     * @return the sequence number of the change
+     */
+    public synchronized long append(ProblemChange<CallCenter> problemChange) {
+        long sequence = lastSequence + 1;
+        byte[] body = encode(sequence, problemChange);
+        int recordLength = Integer.BYTES + body.length + Integer.BYTES;
+        ensureCapacity(position + recordLength + Integer.BYTES);
+        buffer.put(position + Integer.BYTES, body);
+        buffer.putInt(position + Integer.BYTES + body.length, calculateCrc(position + Integer.BYTES, body.length));
+        // The length goes last, so a reader never finds a record of which only the length is written.
+        buffer.putInt(position, body.length);
+        position += recordLength;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    private void ensureCapacity(long capacity) {
+        if (capacity <= buffer.capacity()) {
+            return;
+        }
+        long newCapacity = buffer.capacity();
+        while (newCapacity < capacity) {
+            newCapacity *= 2;
+        }
+        if (newCapacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The change log (%s) is full.".formatted(file));
+        }
+        try {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed growing the change log (%s).".formatted(file), e);
+        }
+    }
+
+    /**
+     * Writes the changes appended since the previous call to disk.
+     */
+    public synchronized void force() {
+        if (forcedPosition < position) {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    /**
+     * @return 0 if no change has been appended yet
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @param sequence 0 to read all changes
+     * @return never null, the changes after the sequence number, in order
+     */
+    public synchronized List<SequencedProblemChange> readAfter(long sequence) {
+        List<SequencedProblemChange> problemChanges = new ArrayList<>();
+        int offset = HEADER_BYTES;
+        while (offset < position) {
+            int bodyLength = buffer.getInt(offset);
+            long recordSequence = buffer.getLong(offset + Integer.BYTES);
+            if (recordSequence > sequence) {
+                problemChanges.add(decode(offset + Integer.BYTES, bodyLength));
+            }
+            offset += Integer.BYTES + bodyLength + Integer.BYTES;
+        }
+        return problemChanges;
+    }
+
+    /**
+     * Drops the changes up to the sequence number, for example because a snapshot includes them.
+     * The log is rewritten to a new file, which then atomically replaces it.
+     *
+     * @param sequence the last sequence number to drop
+     */
+    public synchronized void truncateUpTo(long sequence) {
+        int offset = HEADER_BYTES;
+        while (offset < position && buffer.getLong(offset + Integer.BYTES) <= sequence) {
+            offset += Integer.BYTES + buffer.getInt(offset) + Integer.BYTES;
+        }
+        if (offset == HEADER_BYTES) {
+            return;
+        }
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        long baseSequence = Math.min(sequence, lastSequence);
+        try {
+            try (FileChannel temporaryChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                int keptLength = position - offset;
+                MappedByteBuffer temporaryBuffer = temporaryChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        Math.max(INITIAL_CAPACITY, HEADER_BYTES + keptLength + Integer.BYTES));
+                temporaryBuffer.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putLong(baseSequence);
+                temporaryBuffer.put(buffer.slice(offset, keptLength));
+                temporaryBuffer.force();
+            }
+            channel.close();
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed truncating the change log (%s).".formatted(file), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // ************************************************************************
+    // Encoding
+    // ************************************************************************
+
+    private static byte[] encode(long sequence, ProblemChange<CallCenter> problemChange) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(sequence);
+            if (problemChange instanceof AddCallProblemChange addCallProblemChange) {
+                output.writeByte(ADD_CALL);
+                CallCenterCodec.writeCall(output, addCallProblemChange.getCall());
+            } else if (problemChange instanceof RemoveCallProblemChange removeCallProblemChange) {
+                output.writeByte(REMOVE_CALL);
+                output.writeLong(removeCallProblemChange.getCallId());
+            } else if (problemChange instanceof ProlongCallByMinuteProblemChange prolongCallProblemChange) {
+                output.writeByte(PROLONG_CALL);
+                output.writeLong(prolongCallProblemChange.getCallId());
+            } else {
+                throw new IllegalArgumentException("The problemChange (%s) cannot be logged."
+                        .formatted(problemChange.getClass().getSimpleName()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private SequencedProblemChange decode(int offset, int bodyLength) {
+        byte[] body = new byte[bodyLength];
+        buffer.get(offset, body);
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(body))) {
+            long sequence = input.readLong();
+            byte type = input.readByte();
+            ProblemChange<CallCenter> problemChange = switch (type) {
+                case ADD_CALL -> new AddCallProblemChange(CallCenterCodec.readCall(input));
+                case REMOVE_CALL -> new RemoveCallProblemChange(input.readLong());
+                case PROLONG_CALL -> new ProlongCallByMinuteProblemChange(input.readLong());
+                default -> throw new IllegalStateException("The change log (%s) has an unknown change type (%d)."
+                        .formatted(file, type));
+            };
+            return new SequencedProblemChange(sequence, problemChange);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -20,15 +20,15 @@ public class CallCenterResource {
     private AtomicReference<CallCenter> bestSolution = new AtomicReference<>();
     private AtomicReference<Throwable> solvingError = new AtomicReference<>();
 
-    @Inject
     SolverService solverService;
 
     @Inject
     SimulationService simulationService;
 
     @Inject
-    CallCenterResource(DataGenerator dataGenerator) {
-        bestSolution.set(dataGenerator.generateCallCenter());
+    CallCenterResource(DataGenerator dataGenerator, SolverService solverService) {
+        this.solverService = solverService;
+        bestSolution.set(solverService.recoverCallCenter(dataGenerator::generateCallCenter));
     }
 
     @GET
@@ -0,0 +1,93 @@
+package org.acme.callcenter.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+
+/**
+ * Coalesces the problem changes that arrive within a batch window into a single {@link CompositeProblemChange},
+ * so the solver restarts its step once per batch instead of once per change.
+ * <p>
+ * Any number of threads may {@link #submit(ProblemChange)} without locking.
+ * The first change of a batch schedules a flush after the batch window, which submits the whole batch
+ * and completes the future of each change once the batch has been processed.
+ */
+public class ProblemChangeBatcher {
+
+    private final Queue<PendingProblemChange> pendingProblemChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService executorService;
+    private final long batchWindowMillis;
+    private final Function<ProblemChange<CallCenter>, CompletableFuture<Void>> batchConsumer;
+
+    /**
+     * @param executorService never null, flushes the batches
+     * @param batchWindow never null, how long the first change of a batch waits for others
+     * @param batchConsumer never null, submits a batch and returns a future completed once it has been processed
+     */
+    public ProblemChangeBatcher(ScheduledExecutorService executorService, Duration batchWindow,
+            Function<ProblemChange<CallCenter>, CompletableFuture<Void>> batchConsumer) {
+        this.executorService = executorService;
+        this.batchWindowMillis = batchWindow.toMillis();
+        this.batchConsumer = batchConsumer;
+    }
+
+    /**
+     * @param problemChange never null
+     * @return never null, completed once the batch with this change has been processed
+     */
+    public CompletableFuture<Void> submit(ProblemChange<CallCenter> problemChange) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        pendingProblemChanges.add(new PendingProblemChange(problemChange, completion));
+        if (flushScheduled.compareAndSet(false, true)) {
+            executorService.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+        }
+        return completion;
+    }
+
+    private void flush() {
+        // Reset before draining: a change added after draining schedules the next flush.
+        flushScheduled.set(false);
+        List<ProblemChange<CallCenter>> batch = new ArrayList<>();
+        List<CompletableFuture<Void>> completions = new ArrayList<>();
+        PendingProblemChange pendingProblemChange;
+        while ((pendingProblemChange = pendingProblemChanges.poll()) != null) {
+            batch.add(pendingProblemChange.problemChange());
+            completions.add(pendingProblemChange.completion());
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> batchCompletion;
+        try {
+            batchCompletion = batchConsumer.apply(batch.size() == 1 ? batch.get(0) : new CompositeProblemChange(batch));
+        } catch (RuntimeException e) {
+            completions.forEach(completion -> completion.completeExceptionally(e));
+            return;
+        }
+        batchCompletion.whenComplete((ignored, exception) -> {
+            for (CompletableFuture<Void> completion : completions) {
+                if (exception == null) {
+                    completion.complete(null);
+                } else {
+                    completion.completeExceptionally(exception);
+                }
+            }
+        });
+    }
+
+    private record PendingProblemChange(ProblemChange<CallCenter> problemChange, CompletableFuture<Void> completion) {
+    }
+}
@@ -23,7 +23,7 @@ public class SimulationService {
 
     private static final int MAX_DURATION_SECONDS = 60;
     private static final int MIN_DURATION_SECONDS = 10;
-    private static final int MAX_FREQUENCY_PER_MINUTE = 60;
+    private static final int MAX_FREQUENCY_PER_MINUTE = 6000;
 
     private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
     private final SolverService solverService;
@@ -84,10 +84,10 @@ public class SimulationService {
         if (frequency == 0) {
             return;
         }
-        int delayInSeconds = 60 / frequency;
+        long delayInMillis = 60_000L / frequency;
 
         addNewCallScheduledFuture = scheduledExecutorService.scheduleAtFixedRate(
-                () -> solverService.addCall(dataGenerator.generateCall(duration)), 0, delayInSeconds, TimeUnit.SECONDS);
+                () -> solverService.addCall(dataGenerator.generateCall(duration)), 0, delayInMillis, TimeUnit.MILLISECONDS);
     }
 
     public void stopSimulation() {
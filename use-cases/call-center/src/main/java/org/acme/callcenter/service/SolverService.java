@@ -1,75 +1,299 @@
 package org.acme.callcenter.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
 
+import org.acme.callcenter.data.DataGenerator;
 import org.acme.callcenter.domain.Agent;
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.persistence.CallCenterSnapshotStore;
+import org.acme.callcenter.persistence.ChangeLog;
+import org.acme.callcenter.service.shard.CallCenterShard;
+import org.acme.callcenter.service.shard.CallRouter;
 import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
 import org.acme.callcenter.solver.change.PinCallProblemChange;
 import org.acme.callcenter.solver.change.ProlongCallByMinuteProblemChange;
 import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.acme.callcenter.solver.change.SequencedProblemChange;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @ApplicationScoped
 public class SolverService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolverService.class);
+
     private final SolverManager<CallCenter, Long> solverManager;
     public static final long SINGLETON_ID = 1L;
 
+    // Also the lock that keeps changes from being added while solving starts.
     private final BlockingQueue<WaitingProblemChange> waitingProblemChanges = new LinkedBlockingQueue<>();
 
+    private final ScheduledExecutorService batchExecutorService = Executors.newSingleThreadScheduledExecutor();
+    private final ProblemChangeBatcher problemChangeBatcher;
+
+    // Null if the changes are not logged.
+    private final ChangeLog changeLog;
+    private final CallCenterSnapshotStore snapshotStore;
+    private final Duration snapshotInterval;
+    private volatile long lastSnapshotNanos = System.nanoTime();
+
+    // 0 if the call center is solved as a whole.
+    private final long shardingGroupSkillMask;
+    private final int saturationCallsPerAgent;
+    // Replaced every time solving starts, null before.
+    private volatile CallRouter callRouter;
+    // The latest feasible best solution of each shard, by shard ID.
+    // Also the lock that publishes the merged best solutions one at a time.
+    private final Map<Long, CallCenter> shardBestSolutions = new TreeMap<>();
+
+    public SolverService(SolverManager<CallCenter, Long> solverManager, Duration batchWindow) {
+        this(solverManager, batchWindow, Optional.empty(), Duration.ZERO, Optional.empty(), Integer.MAX_VALUE,
+                SolverManagerConfig.PARALLEL_SOLVER_COUNT_AUTO);
+    }
+
     @Inject
-    public SolverService(SolverManager<CallCenter, Long> solverManager) {
+    public SolverService(SolverManager<CallCenter, Long> solverManager,
+            @ConfigProperty(name = "problem-change.batch-window", defaultValue = "50ms") Duration batchWindow,
+            @ConfigProperty(name = "change-log.directory") Optional<String> changeLogDirectory,
+            @ConfigProperty(name = "change-log.snapshot-interval", defaultValue = "10s") Duration snapshotInterval,
+            @ConfigProperty(name = "sharding.group-skills") Optional<List<Skill>> shardingGroupSkills,
+            @ConfigProperty(name = "sharding.saturation-calls-per-agent",
+                    defaultValue = "5") int saturationCallsPerAgent,
+            @ConfigProperty(name = "quarkus.timefold.solver-manager.parallel-solver-count",
+                    defaultValue = SolverManagerConfig.PARALLEL_SOLVER_COUNT_AUTO) String parallelSolverCount) {
+        if (shardingGroupSkills.isPresent() && changeLogDirectory.isPresent()) {
+            throw new IllegalArgumentException("The shardingGroupSkills (%s) cannot be combined with a change log (%s)."
+                    .formatted(shardingGroupSkills.get(), changeLogDirectory.get()));
+        }
+        long groupSkillMask = shardingGroupSkills.map(Skill::toMask).orElse(0L);
+        // Every group skill can become a shard, and a shard that does not get a solver thread never solves.
+        int maxShardCount = Math.max(1, Long.bitCount(groupSkillMask));
+        int resolvedParallelSolverCount =
+                new SolverManagerConfig().withParallelSolverCount(parallelSolverCount).resolveParallelSolverCount();
+        if (maxShardCount > resolvedParallelSolverCount) {
+            throw new IllegalArgumentException(("The shardingGroupSkills (%s) can form %d shards,"
+                    + " more than the parallelSolverCount (%s, resolved to %d).")
+                    .formatted(shardingGroupSkills.orElseThrow(), maxShardCount, parallelSolverCount,
+                            resolvedParallelSolverCount));
+        }
         this.solverManager = solverManager;
+        this.problemChangeBatcher =
+                new ProblemChangeBatcher(batchExecutorService, batchWindow, this::submitProblemChange);
+        if (changeLogDirectory.isPresent()) {
+            Path directory = Path.of(changeLogDirectory.get());
+            try {
+                Files.createDirectories(directory);
+                this.changeLog = ChangeLog.open(directory.resolve("changes.log"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed opening the change log in (%s).".formatted(directory), e);
+            }
+            this.snapshotStore = new CallCenterSnapshotStore(directory.resolve("call-center.snapshot"));
+        } else {
+            this.changeLog = null;
+            this.snapshotStore = null;
+        }
+        this.snapshotInterval = snapshotInterval;
+        this.shardingGroupSkillMask = groupSkillMask;
+        this.saturationCallsPerAgent = saturationCallsPerAgent;
+    }
+
+    /**
+     * Restores the call center of the last snapshot.
+     * The changes logged since then are replayed once solving starts.
+     *
+     * @param initialCallCenter never null, creates the call center if there is no snapshot or no change log
+     * @return never null
+     */
+    public CallCenter recoverCallCenter(Supplier<CallCenter> initialCallCenter) {
+        if (changeLog == null) {
+            return initialCallCenter.get();
+        }
+        CallCenter callCenter;
+        try {
+            callCenter = snapshotStore.read().orElseGet(initialCallCenter);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading the call center snapshot.", e);
+        }
+        callCenter.getAgents().forEach(agent -> DataGenerator.reserveIdsUpTo(agent.getId()));
+        callCenter.getCalls().forEach(call -> DataGenerator.reserveIdsUpTo(call.getId()));
+        for (SequencedProblemChange loggedProblemChange : changeLog.readAfter(callCenter.getLastChangeSequence())) {
+            if (loggedProblemChange.getProblemChange() instanceof AddCallProblemChange addCallProblemChange) {
+                DataGenerator.reserveIdsUpTo(addCallProblemChange.getCall().getId());
+            }
+        }
+        LOGGER.info("Recovered the call center with {} calls, changes after sequence number {} are pending.",
+                callCenter.getCalls().size(), callCenter.getLastChangeSequence());
+        return callCenter;
     }
 
-    private void pinCallAssignedToAgents(List<Call> calls) {
-        calls.stream()
+    private void pinCallAssignedToAgents(long shardId, List<Call> calls) {
+        List<ProblemChange<CallCenter>> pinCallProblemChanges = calls.stream()
                 .filter(call -> !call.isPinned()
                         && call.getPreviousCallOrAgent() != null
                         && call.getPreviousCallOrAgent() instanceof Agent)
-                .map(PinCallProblemChange::new)
-                .forEach(problemChange -> solverManager.addProblemChange(SINGLETON_ID, problemChange));
+                .<ProblemChange<CallCenter>> map(PinCallProblemChange::new)
+                .toList();
+        if (!pinCallProblemChanges.isEmpty()) {
+            solverManager.addProblemChange(shardId, new CompositeProblemChange(pinCallProblemChanges));
+        }
     }
 
-    public void startSolving(CallCenter inputProblem,
+    private void solve(CallRouter router, CallCenterShard shard, CallCenter shardProblem,
             Consumer<CallCenter> bestSolutionConsumer, Consumer<Throwable> errorHandler) {
         solverManager.solveBuilder()
-                .withProblemId(SINGLETON_ID)
-                .withProblemFinder(id -> inputProblem)
+                .withProblemId(shard.getId())
+                .withProblemFinder(id -> shardProblem)
                 .withBestSolutionConsumer(bestSolution -> {
-                    if (bestSolution.isFeasible()) {
-                        bestSolutionConsumer.accept(bestSolution);
-                        pinCallAssignedToAgents(bestSolution.getCalls());
+                    if (bestSolution.isFeasible() && router == callRouter) {
+                        CallCenter mergedBestSolution =
+                                publishBestSolution(shard, bestSolution, bestSolutionConsumer);
+                        pinCallAssignedToAgents(shard.getId(), bestSolution.getCalls());
+                        rebalance(router, shard, bestSolution);
+                        snapshotIfDue(mergedBestSolution);
                     }
                 })
                 .withExceptionHandler((id, error) -> errorHandler.accept(error)).run();
+    }
+
+    /**
+     * Starts a solver job per shard of the input problem, see {@link CallRouter}.
+     * Without sharding, that is a single job with the ID {@link #SINGLETON_ID} for the whole call center.
+     */
+    public void startSolving(CallCenter inputProblem,
+            Consumer<CallCenter> bestSolutionConsumer, Consumer<Throwable> errorHandler) {
+        synchronized (waitingProblemChanges) {
+            CallRouter router = new CallRouter(inputProblem.getAgents(), shardingGroupSkillMask,
+                    saturationCallsPerAgent);
+            List<CallCenter> shardProblems = router.split(inputProblem);
+            synchronized (shardBestSolutions) {
+                shardBestSolutions.clear();
+                for (int i = 0; i < shardProblems.size(); i++) {
+                    shardBestSolutions.put(router.getShards().get(i).getId(), shardProblems.get(i));
+                }
+            }
+            callRouter = router;
+            if (shardProblems.size() > 1) {
+                LOGGER.info("Solving the call center in {} shards.", shardProblems.size());
+            }
+            for (int i = 0; i < shardProblems.size(); i++) {
+                solve(router, router.getShards().get(i), shardProblems.get(i), bestSolutionConsumer, errorHandler);
+            }
+            replayWaitingProblemChanges(inputProblem);
+        }
+    }
 
-        for (WaitingProblemChange waitingProblemChange : waitingProblemChanges) {
-            CompletableFuture<Void> changeInProgress =
-                    solverManager.addProblemChange(SINGLETON_ID, waitingProblemChange.getProblemChange());
-            changeInProgress.thenRun(() -> waitingProblemChange.getCompletion().complete(null));
+    /**
+     * @return the best solution of the whole call center, merged from the latest best solution of each shard
+     */
+    private CallCenter publishBestSolution(CallCenterShard shard, CallCenter shardBestSolution,
+            Consumer<CallCenter> bestSolutionConsumer) {
+        synchronized (shardBestSolutions) {
+            shardBestSolutions.put(shard.getId(), shardBestSolution);
+            CallCenter mergedBestSolution = shardBestSolutions.size() == 1 ? shardBestSolution
+                    : CallRouter.merge(shardBestSolutions.values());
+            bestSolutionConsumer.accept(mergedBestSolution);
+            return mergedBestSolution;
         }
-        waitingProblemChanges.clear();
+    }
+
+    private void rebalance(CallRouter router, CallCenterShard shard, CallCenter shardBestSolution) {
+        // Under the same lock as submitProblemChange: once the router moves a call to another shard,
+        // a later change of that call must not reach the new shard before the call itself.
+        synchronized (waitingProblemChanges) {
+            List<CallRouter.CallTransfer> callTransfers = router.rebalance(shard, shardBestSolution);
+            if (callTransfers.isEmpty()) {
+                return;
+            }
+            LOGGER.debug("Moving {} waiting calls away from the saturated {}.", callTransfers.size(), shard);
+            for (CallRouter.CallTransfer callTransfer : callTransfers) {
+                submitToShard(callTransfer.fromShard(), new RemoveCallProblemChange(callTransfer.call().getId()));
+                submitToShard(callTransfer.toShard(), new AddCallProblemChange(callTransfer.call()));
+            }
+        }
+    }
+
+    /**
+     * Without a change log, replays the changes that were registered while not solving.
+     * With one, replays all logged changes that the input problem does not include yet,
+     * also those that a previous solver did not publish in a best solution before it stopped.
+     */
+    private void replayWaitingProblemChanges(CallCenter inputProblem) {
+        List<WaitingProblemChange> replayedWaitingProblemChanges = new ArrayList<>();
+        waitingProblemChanges.drainTo(replayedWaitingProblemChanges);
+        List<ProblemChange<CallCenter>> replayedProblemChanges = changeLog == null
+                ? replayedWaitingProblemChanges.stream().map(WaitingProblemChange::getProblemChange).toList()
+                : new ArrayList<>(changeLog.readAfter(inputProblem.getLastChangeSequence()));
+        if (replayedProblemChanges.isEmpty()) {
+            replayedWaitingProblemChanges.forEach(
+                    waitingProblemChange -> waitingProblemChange.getCompletion().complete(null));
+            return;
+        }
+        submitToShards(callRouter, new CompositeProblemChange(replayedProblemChanges))
+                .whenComplete((ignored, exception) -> {
+                    for (WaitingProblemChange waitingProblemChange : replayedWaitingProblemChanges) {
+                        if (exception == null) {
+                            waitingProblemChange.getCompletion().complete(null);
+                        } else {
+                            waitingProblemChange.getCompletion().completeExceptionally(exception);
+                        }
+                    }
+                });
+    }
+
+    private void snapshotIfDue(CallCenter bestSolution) {
+        if (changeLog == null || System.nanoTime() - lastSnapshotNanos < snapshotInterval.toNanos()) {
+            return;
+        }
+        lastSnapshotNanos = System.nanoTime();
+        try {
+            snapshotStore.write(bestSolution);
+        } catch (IOException e) {
+            LOGGER.warn("Failed writing the call center snapshot, the change log keeps growing.", e);
+            return;
+        }
+        changeLog.truncateUpTo(bestSolution.getLastChangeSequence());
     }
 
     public void stopSolving() {
-        solverManager.terminateEarly(SINGLETON_ID);
+        CallRouter router = callRouter;
+        if (router != null) {
+            router.getShards().forEach(shard -> solverManager.terminateEarly(shard.getId()));
+        }
     }
 
     public boolean isSolving() {
-        return solverManager.getSolverStatus(SINGLETON_ID) != SolverStatus.NOT_SOLVING;
+        CallRouter router = callRouter;
+        return router != null && router.getShards().stream()
+                .anyMatch(shard -> solverManager.getSolverStatus(shard.getId()) != SolverStatus.NOT_SOLVING);
     }
 
     public CompletableFuture<Void> addCall(Call call) {
@@ -85,16 +309,78 @@ public class SolverService {
     }
 
     private CompletableFuture<Void> registerProblemChange(ProblemChange<CallCenter> problemChange) {
-        if (isSolving()) {
-            return solverManager.addProblemChange(SINGLETON_ID, problemChange);
-        } else {
-            /*
-             * Expose a temporary CompletableFuture that will get completed once the solver is started again
-             * and processes the change.
-             */
-            CompletableFuture<Void> completion = new CompletableFuture<>();
-            waitingProblemChanges.add(new WaitingProblemChange(completion, problemChange));
-            return completion;
+        if (changeLog == null) {
+            return problemChangeBatcher.submit(problemChange);
+        }
+        // Appending and submitting at once keeps the batches in the order of the sequence numbers.
+        synchronized (changeLog) {
+            long sequence = changeLog.append(problemChange);
+            return problemChangeBatcher.submit(new SequencedProblemChange(sequence, problemChange));
+        }
+    }
+
+    private CompletableFuture<Void> submitProblemChange(ProblemChange<CallCenter> problemChange) {
+        if (changeLog != null) {
+            // A single disk write for the whole batch.
+            changeLog.force();
+        }
+        synchronized (waitingProblemChanges) {
+            if (isSolving()) {
+                return submitToShards(callRouter, problemChange);
+            }
+            return waitForSolving(problemChange);
+        }
+    }
+
+    /**
+     * Guarded by {@link #waitingProblemChanges}.
+     */
+    private CompletableFuture<Void> submitToShards(CallRouter router, ProblemChange<CallCenter> problemChange) {
+        Map<CallCenterShard, List<ProblemChange<CallCenter>>> shardProblemChanges = router.route(problemChange);
+        if (shardProblemChanges.size() == 1) {
+            Map.Entry<CallCenterShard, List<ProblemChange<CallCenter>>> entry =
+                    shardProblemChanges.entrySet().iterator().next();
+            return submitToShard(entry.getKey(), toProblemChange(entry.getValue()));
+        }
+        return CompletableFuture.allOf(shardProblemChanges.entrySet().stream()
+                .map(entry -> submitToShard(entry.getKey(), toProblemChange(entry.getValue())))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static ProblemChange<CallCenter> toProblemChange(List<ProblemChange<CallCenter>> problemChanges) {
+        return problemChanges.size() == 1 ? problemChanges.get(0) : new CompositeProblemChange(problemChanges);
+    }
+
+    /**
+     * Guarded by {@link #waitingProblemChanges}.
+     */
+    private CompletableFuture<Void> submitToShard(CallCenterShard shard, ProblemChange<CallCenter> problemChange) {
+        try {
+            return solverManager.addProblemChange(shard.getId(), problemChange);
+        } catch (IllegalStateException e) {
+            // The solver terminated in the meantime, so the change waits for the next one.
+            return waitForSolving(problemChange);
+        }
+    }
+
+    /**
+     * Guarded by {@link #waitingProblemChanges}.
+     */
+    private CompletableFuture<Void> waitForSolving(ProblemChange<CallCenter> problemChange) {
+        /*
+         * Expose a temporary CompletableFuture that will get completed once the solver is started again
+         * and processes the change.
+         */
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        waitingProblemChanges.add(new WaitingProblemChange(completion, problemChange));
+        return completion;
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        batchExecutorService.shutdownNow();
+        if (changeLog != null) {
+            changeLog.close();
         }
     }
 
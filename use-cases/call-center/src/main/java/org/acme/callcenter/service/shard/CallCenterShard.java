@@ -0,0 +1,91 @@
+package org.acme.callcenter.service.shard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.callcenter.domain.Agent;
+
+/**
+ * A group of agents that is solved as a separate job, together with the calls routed to it.
+ * The {@link CallRouter} keeps the state of its shards, so a shard is only read and changed under its lock.
+ */
+public final class CallCenterShard {
+
+    private final long id;
+    private final long groupSkillMask;
+    private final List<Agent> agents;
+
+    // Guarded by the CallRouter.
+    private final Map<Long, Boolean> skillMaskToCompatible = new HashMap<>();
+    private int callCount = 0;
+
+    CallCenterShard(long id, long groupSkillMask, List<Agent> agents) {
+        this.id = id;
+        this.groupSkillMask = groupSkillMask;
+        this.agents = List.copyOf(agents);
+    }
+
+    /**
+     * @return the problem ID of the solver job of this shard
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the {@link org.acme.callcenter.domain.Skill#toMask(java.util.Collection) skill mask} of the group,
+     *         0 if the call center is not sharded
+     */
+    public long getGroupSkillMask() {
+        return groupSkillMask;
+    }
+
+    public List<Agent> getAgents() {
+        return agents;
+    }
+
+    int getCallCount() {
+        return callCount;
+    }
+
+    void addCall() {
+        callCount++;
+    }
+
+    void removeCall() {
+        callCount--;
+    }
+
+    /**
+     * @param saturationCallsPerAgent at least 1
+     * @return true if this shard has more calls than its agents handle without long waits
+     */
+    boolean isSaturated(int saturationCallsPerAgent) {
+        return callCount > (long) saturationCallsPerAgent * agents.size();
+    }
+
+    double getCallsPerAgent() {
+        return (double) callCount / agents.size();
+    }
+
+    /**
+     * @return true if the required skill mask is a home of this shard's group, for example the language of the call
+     */
+    boolean isHomeOf(long requiredSkillMask) {
+        return (groupSkillMask & requiredSkillMask) != 0L;
+    }
+
+    /**
+     * @return true if at least one agent of this shard has all the required skills
+     */
+    boolean hasCompatibleAgent(long requiredSkillMask) {
+        return skillMaskToCompatible.computeIfAbsent(requiredSkillMask, skillMask -> agents.stream()
+                .anyMatch(agent -> (skillMask & ~agent.getSkillMask()) == 0L));
+    }
+
+    @Override
+    public String toString() {
+        return "Shard " + id;
+    }
+}
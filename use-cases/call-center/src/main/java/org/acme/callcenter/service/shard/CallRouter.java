@@ -0,0 +1,293 @@
+package org.acme.callcenter.service.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.service.SolverService;
+import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.ProlongCallByMinuteProblemChange;
+import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.acme.callcenter.solver.change.SequencedProblemChange;
+
+/**
+ * Splits the agents of a call center into shards by skill group, for example by language,
+ * so that each shard is solved as an independent job, and routes every call to one shard.
+ * <p>
+ * Every agent joins the shard of one of its group skills, the one with the fewest agents so far.
+ * A call goes to a shard with an agent who has all its skills, preferring a shard that is not saturated,
+ * then the shard of its own group and then the shard with the fewest calls per agent.
+ * Once a shard saturates, {@link #rebalance(CallCenterShard, CallCenter)} moves its waiting calls to other shards.
+ * <p>
+ * Without group skills, or with agents of a single group, there is one shard with the ID
+ * {@link SolverService#SINGLETON_ID}, so the call center is solved as a whole. The shards get the IDs 1 to n.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class CallRouter {
+
+    private final List<CallCenterShard> shards;
+    private final int saturationCallsPerAgent;
+    private final Map<Long, CallCenterShard> agentIdToShard = new HashMap<>();
+
+    // Guarded by this.
+    private final Map<Long, CallCenterShard> callIdToShard = new HashMap<>();
+
+    /**
+     * @param agents never null, never empty
+     * @param groupSkillMask the {@link org.acme.callcenter.domain.Skill#toMask(Collection) skill mask}
+     *        of the skills that each form a group, 0 to keep all agents in one shard
+     * @param saturationCallsPerAgent at least 1, the calls per agent above which a shard is saturated
+     */
+    public CallRouter(List<Agent> agents, long groupSkillMask, int saturationCallsPerAgent) {
+        if (agents.isEmpty()) {
+            throw new IllegalArgumentException("The agents (%s) must not be empty.".formatted(agents));
+        }
+        if (saturationCallsPerAgent < 1) {
+            throw new IllegalArgumentException("The saturationCallsPerAgent (%d) must be at least 1."
+                    .formatted(saturationCallsPerAgent));
+        }
+        this.saturationCallsPerAgent = saturationCallsPerAgent;
+        this.shards = buildShards(agents, groupSkillMask);
+        for (CallCenterShard shard : shards) {
+            shard.getAgents().forEach(agent -> agentIdToShard.put(agent.getId(), shard));
+        }
+    }
+
+    private static List<CallCenterShard> buildShards(List<Agent> agents, long groupSkillMask) {
+        // Indexed by the ordinal of the group skill.
+        List<List<Agent>> groupAgents = new ArrayList<>(Long.SIZE);
+        for (int i = 0; i < Long.SIZE; i++) {
+            groupAgents.add(new ArrayList<>());
+        }
+        List<Agent> ungroupedAgents = new ArrayList<>();
+        for (Agent agent : agents) {
+            long agentGroupSkillMask = agent.getSkillMask() & groupSkillMask;
+            if (agentGroupSkillMask == 0L) {
+                ungroupedAgents.add(agent);
+                continue;
+            }
+            int smallestGroup = -1;
+            for (long mask = agentGroupSkillMask; mask != 0L; mask &= mask - 1) {
+                int group = Long.numberOfTrailingZeros(mask);
+                if (smallestGroup < 0 || groupAgents.get(group).size() < groupAgents.get(smallestGroup).size()) {
+                    smallestGroup = group;
+                }
+            }
+            groupAgents.get(smallestGroup).add(agent);
+        }
+        List<Integer> groups = new ArrayList<>();
+        for (int group = 0; group < Long.SIZE; group++) {
+            if (!groupAgents.get(group).isEmpty()) {
+                groups.add(group);
+            }
+        }
+        if (groups.size() <= 1) {
+            return List.of(new CallCenterShard(SolverService.SINGLETON_ID, 0L, agents));
+        }
+        for (Agent agent : ungroupedAgents) {
+            groups.stream()
+                    .min(Comparator.comparingInt(group -> groupAgents.get(group).size()))
+                    .ifPresent(group -> groupAgents.get(group).add(agent));
+        }
+        List<CallCenterShard> shards = new ArrayList<>(groups.size());
+        for (int group : groups) {
+            shards.add(new CallCenterShard(SolverService.SINGLETON_ID + shards.size(), 1L << group,
+                    groupAgents.get(group)));
+        }
+        return shards;
+    }
+
+    public List<CallCenterShard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Splits the call center into a call center per shard. An assigned call stays with the shard of its agent.
+     *
+     * @param callCenter never null, with the agents of this router
+     * @return never null, in the order of {@link #getShards()}; the call center itself if there is one shard
+     */
+    public synchronized List<CallCenter> split(CallCenter callCenter) {
+        List<List<Call>> shardCalls = new ArrayList<>(shards.size());
+        shards.forEach(shard -> shardCalls.add(new ArrayList<>()));
+        for (Call call : callCenter.getCalls()) {
+            CallCenterShard shard = call.getAgent() == null ? routeCall(call)
+                    : assignCall(call.getId(), agentIdToShard.get(call.getAgent().getId()));
+            shardCalls.get(shards.indexOf(shard)).add(call);
+        }
+        if (shards.size() == 1) {
+            return List.of(callCenter);
+        }
+        List<CallCenter> shardCallCenters = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            CallCenter shardCallCenter = new CallCenter(callCenter.getSkills(), shards.get(i).getAgents(),
+                    shardCalls.get(i));
+            shardCallCenter.setLastChangeSequence(callCenter.getLastChangeSequence());
+            shardCallCenters.add(shardCallCenter);
+        }
+        return shardCallCenters;
+    }
+
+    /**
+     * Routes the calls that the problem change adds, removes or prolongs.
+     * A change of a call that no shard has, for example one that was already removed, is dropped.
+     *
+     * @param problemChange never null, a change of a single call, a {@link SequencedProblemChange}
+     *        or a {@link CompositeProblemChange} of those
+     * @return never null, the changes for each shard, in order
+     */
+    public synchronized Map<CallCenterShard, List<ProblemChange<CallCenter>>> route(
+            ProblemChange<CallCenter> problemChange) {
+        Map<CallCenterShard, List<ProblemChange<CallCenter>>> shardProblemChanges = new LinkedHashMap<>();
+        route(problemChange, problemChange, shardProblemChanges);
+        return shardProblemChanges;
+    }
+
+    private void route(ProblemChange<CallCenter> routedProblemChange, ProblemChange<CallCenter> problemChange,
+            Map<CallCenterShard, List<ProblemChange<CallCenter>>> shardProblemChanges) {
+        CallCenterShard shard;
+        if (problemChange instanceof CompositeProblemChange compositeProblemChange) {
+            for (ProblemChange<CallCenter> childProblemChange : compositeProblemChange.getProblemChanges()) {
+                route(childProblemChange, childProblemChange, shardProblemChanges);
+            }
+            return;
+        } else if (problemChange instanceof SequencedProblemChange sequencedProblemChange) {
+            route(routedProblemChange, sequencedProblemChange.getProblemChange(), shardProblemChanges);
+            return;
+        } else if (problemChange instanceof AddCallProblemChange addCallProblemChange) {
+            shard = routeCall(addCallProblemChange.getCall());
+        } else if (problemChange instanceof RemoveCallProblemChange removeCallProblemChange) {
+            shard = callIdToShard.remove(removeCallProblemChange.getCallId());
+            if (shard != null) {
+                shard.removeCall();
+            }
+        } else if (problemChange instanceof ProlongCallByMinuteProblemChange prolongCallProblemChange) {
+            shard = callIdToShard.get(prolongCallProblemChange.getCallId());
+        } else {
+            throw new IllegalArgumentException("The problemChange (%s) cannot be routed."
+                    .formatted(problemChange.getClass().getSimpleName()));
+        }
+        if (shard == null && shards.size() == 1) {
+            // The only shard decides itself what to do with a call it does not have.
+            shard = shards.get(0);
+        }
+        if (shard != null) {
+            shardProblemChanges.computeIfAbsent(shard, key -> new ArrayList<>()).add(routedProblemChange);
+        }
+    }
+
+    private CallCenterShard routeCall(Call call) {
+        CallCenterShard shard = callIdToShard.get(call.getId());
+        if (shard != null) {
+            return shard;
+        }
+        return assignCall(call.getId(), selectShard(call, null));
+    }
+
+    private CallCenterShard assignCall(long callId, CallCenterShard shard) {
+        shard.addCall();
+        callIdToShard.put(callId, shard);
+        return shard;
+    }
+
+    /**
+     * @param excludedShard null to consider all shards
+     */
+    private CallCenterShard selectShard(Call call, CallCenterShard excludedShard) {
+        long requiredSkillMask = call.getRequiredSkillMask();
+        Comparator<CallCenterShard> preference = Comparator
+                .comparing((CallCenterShard shard) -> !shard.hasCompatibleAgent(requiredSkillMask))
+                .thenComparing(shard -> shard.isSaturated(saturationCallsPerAgent))
+                .thenComparing(shard -> !shard.isHomeOf(requiredSkillMask))
+                .thenComparingDouble(CallCenterShard::getCallsPerAgent);
+        CallCenterShard selectedShard = null;
+        for (CallCenterShard shard : shards) {
+            if (shard != excludedShard && (selectedShard == null || preference.compare(shard, selectedShard) < 0)) {
+                selectedShard = shard;
+            }
+        }
+        return selectedShard;
+    }
+
+    /**
+     * Moves waiting calls away from a saturated shard, to shards that are not saturated and have an agent
+     * with all their skills, starting with the call that waits longest. The call center of the shard is not changed:
+     * the caller removes each call from its old shard and adds the copy to its new shard.
+     *
+     * @param shard never null
+     * @param shardBestSolution never null, the best solution of the shard, which shows what calls are waiting
+     * @return never null, empty if the shard is not saturated
+     */
+    public synchronized List<CallTransfer> rebalance(CallCenterShard shard, CallCenter shardBestSolution) {
+        if (!shard.isSaturated(saturationCallsPerAgent)) {
+            return List.of();
+        }
+        // A call right after an agent is about to be picked up, so it stays.
+        List<Call> waitingCalls = shardBestSolution.getCalls().stream()
+                .filter(call -> !call.isPinned() && call.getPreviousCallOrAgent() instanceof Call
+                        && callIdToShard.get(call.getId()) == shard)
+                .sorted(Comparator.comparingLong(Call::getEstimatedWaitingSeconds).reversed())
+                .toList();
+        List<CallTransfer> callTransfers = new ArrayList<>();
+        for (Call call : waitingCalls) {
+            if (!shard.isSaturated(saturationCallsPerAgent)) {
+                break;
+            }
+            CallCenterShard toShard = selectShard(call, shard);
+            if (toShard == null || toShard.isSaturated(saturationCallsPerAgent)
+                    || !toShard.hasCompatibleAgent(call.getRequiredSkillMask())) {
+                continue;
+            }
+            shard.removeCall();
+            assignCall(call.getId(), toShard);
+            Call callCopy = new Call(call.getId(), call.getPhoneNumber(), call.getRequiredSkills(),
+                    Math.toIntExact(call.getDuration().getSeconds()));
+            callCopy.setStartTime(call.getStartTime());
+            callTransfers.add(new CallTransfer(callCopy, shard, toShard));
+        }
+        return callTransfers;
+    }
+
+    /**
+     * Combines the best solutions of all shards into a single call center, for example to show it.
+     *
+     * @param shardSolutions never null, never empty
+     * @return never null, its score is the sum of the scores of the shards
+     */
+    public static CallCenter merge(Collection<CallCenter> shardSolutions) {
+        List<Agent> agents = new ArrayList<>();
+        List<Call> calls = new ArrayList<>();
+        HardSoftScore score = HardSoftScore.ZERO;
+        long lastChangeSequence = Long.MAX_VALUE;
+        for (CallCenter shardSolution : shardSolutions) {
+            agents.addAll(shardSolution.getAgents());
+            calls.addAll(shardSolution.getCalls());
+            score = score == null || shardSolution.getScore() == null ? null : score.add(shardSolution.getScore());
+            lastChangeSequence = Math.min(lastChangeSequence, shardSolution.getLastChangeSequence());
+        }
+        CallCenter callCenter = new CallCenter(shardSolutions.iterator().next().getSkills(), agents, calls);
+        callCenter.setScore(score);
+        callCenter.setLastChangeSequence(lastChangeSequence);
+        return callCenter;
+    }
+
+    /**
+     * @param call never null, a copy of the call to add to the new shard
+     * @param fromShard never null
+     * @param toShard never null
+     */
+    public record CallTransfer(Call call, CallCenterShard fromShard, CallCenterShard toShard) {
+    }
+}
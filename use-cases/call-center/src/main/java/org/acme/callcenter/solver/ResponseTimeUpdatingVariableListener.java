@@ -1,7 +1,5 @@
 package org.acme.callcenter.solver;
 
-import java.time.Duration;
-
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import org.acme.callcenter.domain.PreviousCallOrAgent;
@@ -40,25 +38,27 @@ public class ResponseTimeUpdatingVariableListener implements VariableListener<Ca
 
     }
 
+    /**
+     * Updates the estimated waiting of the call and of the calls queued after it, until one keeps its estimate:
+     * the calls after that one keep theirs too, unless it is in progress and its remaining time has changed.
+     */
     protected void updateResponseTime(ScoreDirector<CallCenter> scoreDirector, Call call) {
         PreviousCallOrAgent previous = call.getPreviousCallOrAgent();
+        long estimatedWaitingSeconds = previous == null ? PreviousCallOrAgent.NO_ESTIMATE
+                : previous.getSecondsTillPickUp();
         Call shadowCall = call;
-        Duration previousDurationTillPickUp = (previous == null ? null : previous.getDurationTillPickUp());
-        Duration estimatedWaiting = calculateWaitingTimeEstimate(shadowCall, previousDurationTillPickUp);
         while (shadowCall != null) {
-            scoreDirector.beforeVariableChanged(shadowCall, "estimatedWaiting");
-            shadowCall.setEstimatedWaiting(estimatedWaiting);
-            scoreDirector.afterVariableChanged(shadowCall, "estimatedWaiting");
-            previousDurationTillPickUp = shadowCall.getDurationTillPickUp();
+            if (shadowCall.getEstimatedWaitingSeconds() == estimatedWaitingSeconds) {
+                if (shadowCall.getPickUpTime() == null) {
+                    break;
+                }
+            } else {
+                scoreDirector.beforeVariableChanged(shadowCall, "estimatedWaitingSeconds");
+                shadowCall.setEstimatedWaitingSeconds(estimatedWaitingSeconds);
+                scoreDirector.afterVariableChanged(shadowCall, "estimatedWaitingSeconds");
+            }
+            estimatedWaitingSeconds = shadowCall.getSecondsTillPickUp();
             shadowCall = shadowCall.getNextCall();
-            estimatedWaiting = calculateWaitingTimeEstimate(shadowCall, previousDurationTillPickUp);
-        }
-    }
-
-    private Duration calculateWaitingTimeEstimate(Call call, Duration previousEndTime) {
-        if (call == null || previousEndTime == null) {
-            return null;
         }
-        return previousEndTime;
     }
 }
@@ -0,0 +1,36 @@
+package org.acme.callcenter.solver;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.PreviousCallOrAgent;
+import org.acme.callcenter.domain.SkillCompatibilityTable;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.ChangeMove;
+
+/**
+ * Skips the moves that put a call in the queue of an agent who lacks one of its required skills,
+ * unless no agent has all of them, so such a call can still move to the agent who misses the fewest.
+ */
+public class SkillCompatibleChangeMoveFilter implements SelectionFilter<CallCenter, ChangeMove<CallCenter>> {
+
+    @Override
+    public boolean accept(ScoreDirector<CallCenter> scoreDirector, ChangeMove<CallCenter> move) {
+        Call call = (Call) move.getEntity();
+        Agent agent = getAgent((PreviousCallOrAgent) move.getToPlanningValue());
+        if (agent == null) {
+            return true;
+        }
+        SkillCompatibilityTable table = scoreDirector.getWorkingSolution().getSkillCompatibilityTable();
+        return table.isCompatible(agent, call.getRequiredSkillMask())
+                || !table.hasCompatibleAgent(call.getRequiredSkillMask());
+    }
+
+    static Agent getAgent(PreviousCallOrAgent previousCallOrAgent) {
+        if (previousCallOrAgent instanceof Agent agent) {
+            return agent;
+        }
+        return previousCallOrAgent == null ? null : ((Call) previousCallOrAgent).getAgent();
+    }
+}
@@ -0,0 +1,30 @@
+package org.acme.callcenter.solver;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.SkillCompatibilityTable;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import ai.timefold.solver.core.impl.heuristic.selector.move.generic.SwapMove;
+
+/**
+ * Skips the moves that swap two calls if either call ends up with an agent who lacks one of its required skills,
+ * see {@link SkillCompatibleChangeMoveFilter}.
+ */
+public class SkillCompatibleSwapMoveFilter implements SelectionFilter<CallCenter, SwapMove<CallCenter>> {
+
+    @Override
+    public boolean accept(ScoreDirector<CallCenter> scoreDirector, SwapMove<CallCenter> move) {
+        Call leftCall = (Call) move.getLeftEntity();
+        Call rightCall = (Call) move.getRightEntity();
+        SkillCompatibilityTable table = scoreDirector.getWorkingSolution().getSkillCompatibilityTable();
+        return isAcceptable(table, leftCall, rightCall.getAgent())
+                && isAcceptable(table, rightCall, leftCall.getAgent());
+    }
+
+    private static boolean isAcceptable(SkillCompatibilityTable table, Call call, Agent agent) {
+        return agent == null || table.isCompatible(agent, call.getRequiredSkillMask())
+                || !table.hasCompatibleAgent(call.getRequiredSkillMask());
+    }
+}
@@ -13,6 +13,10 @@ public class AddCallProblemChange implements ProblemChange<CallCenter> {
         this.call = call;
     }
 
+    public Call getCall() {
+        return call;
+    }
+
     @Override
     public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
         problemChangeDirector.addEntity(call, workingCallCenter.getCalls()::add);
@@ -0,0 +1,30 @@
+package org.acme.callcenter.solver.change;
+
+import java.util.List;
+
+import org.acme.callcenter.domain.CallCenter;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Applies several problem changes in order, so the solver restarts its step only once for all of them.
+ */
+public class CompositeProblemChange implements ProblemChange<CallCenter> {
+
+    private final List<ProblemChange<CallCenter>> problemChanges;
+
+    public CompositeProblemChange(List<ProblemChange<CallCenter>> problemChanges) {
+        this.problemChanges = List.copyOf(problemChanges);
+    }
+
+    public List<ProblemChange<CallCenter>> getProblemChanges() {
+        return problemChanges;
+    }
+
+    @Override
+    public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
+        for (ProblemChange<CallCenter> problemChange : problemChanges) {
+            problemChange.doChange(workingCallCenter, problemChangeDirector);
+        }
+    }
+}
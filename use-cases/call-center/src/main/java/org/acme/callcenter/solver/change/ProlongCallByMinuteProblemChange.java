@@ -16,11 +16,22 @@ public class ProlongCallByMinuteProblemChange implements ProblemChange<CallCente
         this.callId = callId;
     }
 
+    public long getCallId() {
+        return callId;
+    }
+
     @Override
     public void doChange(CallCenter workingSolution, ProblemChangeDirector problemChangeDirector) {
         Call call = new Call(callId, null);
 
         problemChangeDirector.changeProblemProperty(call,
                 workingCall -> workingCall.setDuration(workingCall.getDuration().plus(PROLONGATION)));
+        // The variable listener only updates the estimated waiting after a planning variable changes,
+        // so it is notified through the next call to update the calls queued after the prolonged one.
+        problemChangeDirector.lookUpWorkingObject(call)
+                .map(Call::getNextCall)
+                .ifPresent(nextCall -> problemChangeDirector.changeVariable(nextCall, "previousCallOrAgent",
+                        workingNextCall -> {
+                        }));
     }
 }
@@ -16,6 +16,10 @@ public class RemoveCallProblemChange implements ProblemChange<CallCenter> {
         this.callId = callId;
     }
 
+    public long getCallId() {
+        return callId;
+    }
+
     @Override
     public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
         Call call = new Call(callId, null);
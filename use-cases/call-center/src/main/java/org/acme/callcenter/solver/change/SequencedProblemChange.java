@@ -0,0 +1,38 @@
+package org.acme.callcenter.solver.change;
+
+import org.acme.callcenter.domain.CallCenter;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Applies a logged problem change unless the call center already includes it,
+ * so replaying the change log on top of a call center applies each change exactly once.
+ * Logged problem changes must be applied in the order of their sequence numbers.
+ */
+public class SequencedProblemChange implements ProblemChange<CallCenter> {
+
+    private final long sequence;
+    private final ProblemChange<CallCenter> problemChange;
+
+    public SequencedProblemChange(long sequence, ProblemChange<CallCenter> problemChange) {
+        this.sequence = sequence;
+        this.problemChange = problemChange;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ProblemChange<CallCenter> getProblemChange() {
+        return problemChange;
+    }
+
+    @Override
+    public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
+        if (workingCallCenter.getLastChangeSequence() >= sequence) {
+            return;
+        }
+        problemChange.doChange(workingCallCenter, problemChangeDirector);
+        workingCallCenter.setLastChangeSequence(sequence);
+    }
+}
@@ -0,0 +1,53 @@
+package org.acme.callcenter.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SkillCompatibilityTableTest {
+
+    private static final Agent ENGLISH_AGENT = new Agent(1L, "Ann", EnumSet.of(Skill.ENGLISH, Skill.CAR_INSURANCE));
+    private static final Agent SPANISH_AGENT = new Agent(2L, "Beth", EnumSet.of(Skill.SPANISH, Skill.LIFE_INSURANCE));
+
+    @Test
+    void missingSkillCount() {
+        Call call = new Call(1L, "123-456-7891", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+        assertThat(call.getRequiredSkillMask()).isEqualTo(Skill.ENGLISH.getMask() | Skill.LIFE_INSURANCE.getMask());
+        assertThat(call.getMissingSkillCount()).isZero();
+
+        call.setAgent(ENGLISH_AGENT);
+        assertThat(call.getMissingSkillCount()).isEqualTo(1);
+        call.setAgent(SPANISH_AGENT);
+        assertThat(call.getMissingSkillCount()).isEqualTo(1);
+        call.setAgent(new Agent(3L, "Carl", EnumSet.of(Skill.SPANISH)));
+        assertThat(call.getMissingSkillCount()).isEqualTo(2);
+    }
+
+    @Test
+    void skillMaskRoundTrip() {
+        EnumSet<Skill> skills = EnumSet.of(Skill.GERMAN, Skill.PROPERTY_INSURANCE);
+        assertThat(Skill.fromMask(Skill.toMask(skills))).isEqualTo(skills);
+    }
+
+    @Test
+    void compatibleAgents() {
+        SkillCompatibilityTable table = new SkillCompatibilityTable(List.of(ENGLISH_AGENT, SPANISH_AGENT));
+        assertThat(ENGLISH_AGENT.getIndex()).isZero();
+        assertThat(SPANISH_AGENT.getIndex()).isEqualTo(1);
+
+        long englishCarMask = Skill.toMask(EnumSet.of(Skill.ENGLISH, Skill.CAR_INSURANCE));
+        assertThat(table.isCompatible(ENGLISH_AGENT, englishCarMask)).isTrue();
+        assertThat(table.isCompatible(SPANISH_AGENT, englishCarMask)).isFalse();
+        assertThat(table.hasCompatibleAgent(englishCarMask)).isTrue();
+
+        long englishLifeMask = Skill.toMask(EnumSet.of(Skill.ENGLISH, Skill.LIFE_INSURANCE));
+        assertThat(table.isCompatible(ENGLISH_AGENT, englishLifeMask)).isFalse();
+        assertThat(table.isCompatible(SPANISH_AGENT, englishLifeMask)).isFalse();
+        assertThat(table.hasCompatibleAgent(englishLifeMask)).isFalse();
+
+        assertThat(table.isCompatible(SPANISH_AGENT, 0L)).isTrue();
+    }
+}
@@ -0,0 +1,60 @@
+package org.acme.callcenter.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.Skill;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CallCenterSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoreAssignedCalls() throws IOException {
+        Agent agent = new Agent(1L, "Ann", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+        Call pinnedCall = new Call(2L, "123-456-7891", Skill.ENGLISH);
+        Call waitingCall = new Call(3L, "123-456-7892", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+        Call unassignedCall = new Call(4L, "123-456-7893", Skill.GERMAN);
+        agent.setNextCall(pinnedCall);
+        pinnedCall.setPreviousCallOrAgent(agent);
+        pinnedCall.setAgent(agent);
+        pinnedCall.setPinned(true);
+        pinnedCall.setEstimatedWaiting(Duration.ZERO);
+        pinnedCall.setNextCall(waitingCall);
+        waitingCall.setPreviousCallOrAgent(pinnedCall);
+        waitingCall.setAgent(agent);
+        waitingCall.setEstimatedWaiting(Duration.ofSeconds(30));
+        CallCenter callCenter = new CallCenter(EnumSet.allOf(Skill.class), List.of(agent),
+                new ArrayList<>(List.of(pinnedCall, waitingCall, unassignedCall)));
+        callCenter.setLastChangeSequence(42L);
+
+        CallCenterSnapshotStore snapshotStore = new CallCenterSnapshotStore(directory.resolve("call-center.snapshot"));
+        assertThat(snapshotStore.read()).isEmpty();
+        snapshotStore.write(callCenter);
+        CallCenter restoredCallCenter = snapshotStore.read().orElseThrow();
+
+        assertThat(restoredCallCenter.getLastChangeSequence()).isEqualTo(42L);
+        assertThat(restoredCallCenter.getSkills()).containsExactlyInAnyOrder(Skill.values());
+        assertThat(restoredCallCenter.getCalls()).containsExactly(pinnedCall, waitingCall, unassignedCall);
+        Agent restoredAgent = restoredCallCenter.getAgents().get(0);
+        assertThat(restoredAgent.getName()).isEqualTo("Ann");
+        assertThat(restoredAgent.getAssignedCalls()).containsExactly(pinnedCall, waitingCall);
+        Call restoredPinnedCall = restoredAgent.getAssignedCalls().get(0);
+        assertThat(restoredPinnedCall.isPinned()).isTrue();
+        assertThat(restoredPinnedCall.getAgent()).isSameAs(restoredAgent);
+        assertThat(restoredAgent.getAssignedCalls().get(1).getEstimatedWaiting()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(restoredCallCenter.getCalls().get(2).getPreviousCallOrAgent()).isNull();
+    }
+}
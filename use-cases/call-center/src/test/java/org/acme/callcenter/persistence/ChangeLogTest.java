@@ -0,0 +1,93 @@
+package org.acme.callcenter.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.ProlongCallByMinuteProblemChange;
+import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.acme.callcenter.solver.change.SequencedProblemChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readChangesAfterReopening() throws IOException {
+        Path file = directory.resolve("changes.log");
+        Call call = new Call(7L, "123-456-7891", Skill.ENGLISH, Skill.CAR_INSURANCE);
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            assertThat(changeLog.append(new AddCallProblemChange(call))).isEqualTo(1L);
+            assertThat(changeLog.append(new ProlongCallByMinuteProblemChange(7L))).isEqualTo(2L);
+            assertThat(changeLog.append(new RemoveCallProblemChange(7L))).isEqualTo(3L);
+        }
+
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            assertThat(changeLog.getLastSequence()).isEqualTo(3L);
+            List<SequencedProblemChange> problemChanges = changeLog.readAfter(1L);
+            assertThat(problemChanges).extracting(SequencedProblemChange::getSequence).containsExactly(2L, 3L);
+            assertThat(problemChanges.get(0).getProblemChange()).isInstanceOf(ProlongCallByMinuteProblemChange.class);
+            assertThat(((RemoveCallProblemChange) problemChanges.get(1).getProblemChange()).getCallId()).isEqualTo(7L);
+
+            Call loggedCall = ((AddCallProblemChange) changeLog.readAfter(0L).get(0).getProblemChange()).getCall();
+            assertThat(loggedCall.getId()).isEqualTo(7L);
+            assertThat(loggedCall.getPhoneNumber()).isEqualTo("123-456-7891");
+            assertThat(loggedCall.getRequiredSkills()).containsExactlyInAnyOrder(Skill.ENGLISH, Skill.CAR_INSURANCE);
+            assertThat(loggedCall.getStartTime()).isEqualTo(call.getStartTime());
+        }
+    }
+
+    @Test
+    void discardIncompleteChange() throws IOException {
+        Path file = directory.resolve("changes.log");
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            changeLog.append(new RemoveCallProblemChange(1L));
+            changeLog.append(new RemoveCallProblemChange(2L));
+        }
+        // Corrupt the last byte of the second change, as if the process crashed while writing it.
+        long secondChangeLastByte = 16 + 2 * (4 + 8 + 1 + 8 + 4) - 5;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 42 }), secondChangeLastByte);
+        }
+
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            assertThat(changeLog.getLastSequence()).isEqualTo(1L);
+            assertThat(changeLog.append(new RemoveCallProblemChange(3L))).isEqualTo(2L);
+        }
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            assertThat(changeLog.readAfter(0L))
+                    .extracting(problemChange -> ((RemoveCallProblemChange) problemChange.getProblemChange()).getCallId())
+                    .containsExactly(1L, 3L);
+        }
+    }
+
+    @Test
+    void continueSequenceAfterTruncation() throws IOException {
+        Path file = directory.resolve("changes.log");
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            changeLog.append(new RemoveCallProblemChange(1L));
+            changeLog.append(new RemoveCallProblemChange(2L));
+            changeLog.append(new RemoveCallProblemChange(3L));
+            changeLog.truncateUpTo(2L);
+            assertThat(changeLog.readAfter(0L)).extracting(SequencedProblemChange::getSequence).containsExactly(3L);
+            changeLog.truncateUpTo(3L);
+            assertThat(changeLog.readAfter(0L)).isEmpty();
+        }
+
+        try (ChangeLog changeLog = ChangeLog.open(file)) {
+            assertThat(changeLog.getLastSequence()).isEqualTo(3L);
+            assertThat(changeLog.append(new RemoveCallProblemChange(4L))).isEqualTo(4L);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class ProblemChangeBatcherTest {
+
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @Timeout(10)
+    void coalesceConcurrentChanges() throws Exception {
+        List<ProblemChange<CallCenter>> batches = new CopyOnWriteArrayList<>();
+        ProblemChangeBatcher batcher = new ProblemChangeBatcher(executorService, Duration.ofMillis(200),
+                batch -> {
+                    batches.add(batch);
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Void>> completions = new CopyOnWriteArrayList<>();
+        for (long callId = 0; callId < 100; callId++) {
+            long removedCallId = callId;
+            producers.execute(() -> completions.add(batcher.submit(new RemoveCallProblemChange(removedCallId))));
+        }
+        producers.shutdown();
+        assertThat(producers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(completions).hasSize(100);
+        assertThat(batches).hasSizeLessThan(100);
+        int changeCount = batches.stream()
+                .mapToInt(batch -> batch instanceof CompositeProblemChange compositeProblemChange
+                        ? compositeProblemChange.getProblemChanges().size()
+                        : 1)
+                .sum();
+        assertThat(changeCount).isEqualTo(100);
+    }
+
+    @Test
+    @Timeout(10)
+    void completeExceptionallyIfBatchFails() {
+        IllegalStateException exception = new IllegalStateException("Solver failed.");
+        ProblemChangeBatcher batcher = new ProblemChangeBatcher(executorService, Duration.ofMillis(10),
+                batch -> CompletableFuture.failedFuture(exception));
+
+        List<CompletableFuture<Void>> completions = new ArrayList<>();
+        completions.add(batcher.submit(new RemoveCallProblemChange(1L)));
+        completions.add(batcher.submit(new RemoveCallProblemChange(2L)));
+
+        for (CompletableFuture<Void> completion : completions) {
+            assertThat(completion).failsWithin(Duration.ofSeconds(5))
+                    .withThrowableOfType(Exception.class)
+                    .withRootCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+}
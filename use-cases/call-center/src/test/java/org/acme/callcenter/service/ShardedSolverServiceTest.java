@@ -0,0 +1,243 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverJobBuilder;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.PreviousCallOrAgent;
+import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.acme.callcenter.solver.change.SequencedProblemChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class ShardedSolverServiceTest {
+
+    private static final long ENGLISH_SHARD_ID = 1L;
+    private static final long SPANISH_SHARD_ID = 2L;
+    private static final long TRANSFERRED_CALL_ID = 12L;
+
+    @Test
+    @Timeout(60)
+    void removeCallWhileRebalancing() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            RecordingSolverManager solverManager = new RecordingSolverManager();
+            SolverService solverService = new SolverService(solverManager, Duration.ZERO, Optional.empty(),
+                    Duration.ZERO, Optional.of(List.of(Skill.ENGLISH, Skill.SPANISH)), 1, "2");
+            try {
+                CountDownLatch rebalancing = new CountDownLatch(1);
+                // The best solution is published right before the saturated English shard is rebalanced.
+                solverService.startSolving(createCallCenter(), bestSolution -> rebalancing.countDown(),
+                        exception -> {
+                        });
+                CompletableFuture<Void> removed = CompletableFuture.runAsync(() -> {
+                    try {
+                        rebalancing.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    solverService.removeCall(TRANSFERRED_CALL_ID).join();
+                });
+                CallCenter englishBestSolution = solverManager.findProblem(ENGLISH_SHARD_ID);
+                englishBestSolution.setScore(HardSoftScore.ZERO);
+                solverManager.publishBestSolution(ENGLISH_SHARD_ID, englishBestSolution);
+                removed.get(10, TimeUnit.SECONDS);
+
+                List<String> spanishChanges = solverManager.getCallChanges(SPANISH_SHARD_ID, TRANSFERRED_CALL_ID);
+                if (spanishChanges.isEmpty()) {
+                    // Removed before the rebalance, so the English shard, which was no longer saturated, kept it.
+                    assertThat(solverManager.getCallChanges(ENGLISH_SHARD_ID, TRANSFERRED_CALL_ID))
+                            .containsExactly("remove");
+                } else {
+                    // Removed after the rebalance, so the removal follows the call to the Spanish shard.
+                    assertThat(spanishChanges).containsExactly("add", "remove");
+                    assertThat(solverManager.getCallChanges(ENGLISH_SHARD_ID, TRANSFERRED_CALL_ID))
+                            .containsExactly("remove");
+                }
+            } finally {
+                solverService.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void failWithMoreShardsThanParallelSolvers() {
+        RecordingSolverManager solverManager = new RecordingSolverManager();
+        assertThatIllegalArgumentException().isThrownBy(() -> new SolverService(solverManager, Duration.ZERO,
+                Optional.empty(), Duration.ZERO, Optional.of(List.of(Skill.ENGLISH, Skill.SPANISH, Skill.GERMAN)), 5,
+                "2"));
+    }
+
+    /**
+     * Ann has 3 English life insurance calls queued, which saturates the English shard.
+     * Only Dennis, in the Spanish shard, can take over one of them.
+     */
+    private static CallCenter createCallCenter() {
+        Agent ann = new Agent(1L, "Ann", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+        Agent dennis = new Agent(4L, "Dennis", Skill.ENGLISH, Skill.SPANISH, Skill.LIFE_INSURANCE);
+        Agent beth = new Agent(2L, "Beth", Skill.ENGLISH, Skill.SPANISH, Skill.CAR_INSURANCE);
+        Agent carl = new Agent(3L, "Carl", Skill.SPANISH, Skill.LIFE_INSURANCE);
+        List<Call> calls = new ArrayList<>();
+        PreviousCallOrAgent previousCallOrAgent = ann;
+        for (long id = 10L; id <= TRANSFERRED_CALL_ID; id++) {
+            Call call = new Call(id, "123-456-7891", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+            call.setEstimatedWaitingSeconds((id - 10L) * 30L);
+            call.setPreviousCallOrAgent(previousCallOrAgent);
+            call.setAgent(ann);
+            previousCallOrAgent.setNextCall(call);
+            calls.add(call);
+            previousCallOrAgent = call;
+        }
+        return new CallCenter(EnumSet.allOf(Skill.class), List.of(ann, dennis, beth, carl), calls);
+    }
+
+    /**
+     * Records the problem changes instead of solving, so the test decides when a shard publishes a best solution.
+     */
+    private static final class RecordingSolverManager implements SolverManager<CallCenter, Long> {
+
+        private final Map<Long, Function<? super Long, ? extends CallCenter>> problemIdToProblemFinder =
+                new ConcurrentHashMap<>();
+        private final Map<Long, Consumer<? super CallCenter>> problemIdToBestSolutionConsumer =
+                new ConcurrentHashMap<>();
+        private final List<RecordedCallChange> callChanges = Collections.synchronizedList(new ArrayList<>());
+
+        CallCenter findProblem(long problemId) {
+            return problemIdToProblemFinder.get(problemId).apply(problemId);
+        }
+
+        void publishBestSolution(long problemId, CallCenter bestSolution) {
+            problemIdToBestSolutionConsumer.get(problemId).accept(bestSolution);
+        }
+
+        List<String> getCallChanges(long problemId, long callId) {
+            synchronized (callChanges) {
+                return callChanges.stream()
+                        .filter(callChange -> callChange.problemId() == problemId && callChange.callId() == callId)
+                        .map(RecordedCallChange::type)
+                        .toList();
+            }
+        }
+
+        @Override
+        public SolverJobBuilder<CallCenter, Long> solveBuilder() {
+            return new RecordingSolverJobBuilder();
+        }
+
+        @Override
+        public SolverStatus getSolverStatus(Long problemId) {
+            return problemIdToProblemFinder.containsKey(problemId) ? SolverStatus.SOLVING_ACTIVE
+                    : SolverStatus.NOT_SOLVING;
+        }
+
+        @Override
+        public CompletableFuture<Void> addProblemChange(Long problemId, ProblemChange<CallCenter> problemChange) {
+            record(problemId, problemChange);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private void record(long problemId, ProblemChange<CallCenter> problemChange) {
+            if (problemChange instanceof CompositeProblemChange compositeProblemChange) {
+                compositeProblemChange.getProblemChanges().forEach(child -> record(problemId, child));
+            } else if (problemChange instanceof SequencedProblemChange sequencedProblemChange) {
+                record(problemId, sequencedProblemChange.getProblemChange());
+            } else if (problemChange instanceof AddCallProblemChange addCallProblemChange) {
+                callChanges.add(new RecordedCallChange(problemId, "add", addCallProblemChange.getCall().getId()));
+            } else if (problemChange instanceof RemoveCallProblemChange removeCallProblemChange) {
+                callChanges.add(new RecordedCallChange(problemId, "remove", removeCallProblemChange.getCallId()));
+            }
+        }
+
+        @Override
+        public void terminateEarly(Long problemId) {
+            problemIdToProblemFinder.remove(problemId);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private record RecordedCallChange(long problemId, String type, long callId) {
+        }
+
+        private final class RecordingSolverJobBuilder implements SolverJobBuilder<CallCenter, Long> {
+
+            private Long problemId;
+            private Function<? super Long, ? extends CallCenter> problemFinder;
+            private Consumer<? super CallCenter> bestSolutionConsumer;
+
+            @Override
+            public SolverJobBuilder<CallCenter, Long> withProblemId(Long problemId) {
+                this.problemId = problemId;
+                return this;
+            }
+
+            @Override
+            public SolverJobBuilder<CallCenter, Long> withProblemFinder(
+                    Function<? super Long, ? extends CallCenter> problemFinder) {
+                this.problemFinder = problemFinder;
+                return this;
+            }
+
+            @Override
+            public SolverJobBuilder<CallCenter, Long> withBestSolutionConsumer(
+                    Consumer<? super CallCenter> bestSolutionConsumer) {
+                this.bestSolutionConsumer = bestSolutionConsumer;
+                return this;
+            }
+
+            @Override
+            public SolverJobBuilder<CallCenter, Long> withFinalBestSolutionConsumer(
+                    Consumer<? super CallCenter> finalBestSolutionConsumer) {
+                return this;
+            }
+
+            @Override
+            public SolverJobBuilder<CallCenter, Long> withExceptionHandler(
+                    BiConsumer<? super Long, ? super Throwable> exceptionHandler) {
+                return this;
+            }
+
+            @Override
+            public SolverJobBuilder<CallCenter, Long> withConfigOverride(
+                    SolverConfigOverride<CallCenter> solverConfigOverride) {
+                return this;
+            }
+
+            @Override
+            public SolverJob<CallCenter, Long> run() {
+                problemIdToProblemFinder.put(problemId, problemFinder);
+                problemIdToBestSolutionConsumer.put(problemId, bestSolutionConsumer);
+                return null;
+            }
+        }
+    }
+}
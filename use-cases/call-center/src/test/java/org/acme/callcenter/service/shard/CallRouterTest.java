@@ -0,0 +1,129 @@
+package org.acme.callcenter.service.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.PreviousCallOrAgent;
+import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.service.SolverService;
+import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.junit.jupiter.api.Test;
+
+class CallRouterTest {
+
+    private static final long LANGUAGES = Skill.toMask(EnumSet.of(Skill.ENGLISH, Skill.SPANISH));
+
+    private final Agent ann = new Agent(1L, "Ann", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+    private final Agent beth = new Agent(2L, "Beth", Skill.ENGLISH, Skill.SPANISH, Skill.CAR_INSURANCE);
+    private final Agent carl = new Agent(3L, "Carl", Skill.SPANISH, Skill.LIFE_INSURANCE);
+    private final List<Agent> agents = List.of(ann, beth, carl);
+
+    @Test
+    void singleShardWithoutGroupSkills() {
+        CallRouter callRouter = new CallRouter(agents, 0L, 5);
+        assertThat(callRouter.getShards()).singleElement().satisfies(shard -> {
+            assertThat(shard.getId()).isEqualTo(SolverService.SINGLETON_ID);
+            assertThat(shard.getAgents()).containsExactlyElementsOf(agents);
+        });
+
+        CallCenter callCenter = new CallCenter(EnumSet.allOf(Skill.class), agents, new ArrayList<>());
+        assertThat(callRouter.split(callCenter)).containsExactly(callCenter);
+        // The only shard receives the changes of calls it does not know.
+        assertThat(callRouter.route(new RemoveCallProblemChange(99L))).containsOnlyKeys(callRouter.getShards().get(0));
+    }
+
+    @Test
+    void splitByLanguage() {
+        CallRouter callRouter = new CallRouter(agents, LANGUAGES, 5);
+        // Beth speaks both languages and joins the smaller group.
+        assertThat(callRouter.getShards()).extracting(CallCenterShard::getAgents)
+                .containsExactly(List.of(ann), List.of(beth, carl));
+
+        Call assignedCall = new Call(10L, "123-456-7891", Skill.ENGLISH, Skill.CAR_INSURANCE);
+        assign(assignedCall, beth);
+        CallCenter callCenter = new CallCenter(EnumSet.allOf(Skill.class), agents, List.of(assignedCall));
+        callCenter.setLastChangeSequence(7L);
+        List<CallCenter> shardCallCenters = callRouter.split(callCenter);
+        assertThat(shardCallCenters).hasSize(2);
+        assertThat(shardCallCenters.get(0).getCalls()).isEmpty();
+        // An assigned call stays with the shard of its agent.
+        assertThat(shardCallCenters.get(1).getCalls()).containsExactly(assignedCall);
+        assertThat(shardCallCenters.get(1).getLastChangeSequence()).isEqualTo(7L);
+    }
+
+    @Test
+    void routeToShardWithCompatibleAgent() {
+        CallRouter callRouter = new CallRouter(agents, LANGUAGES, 5);
+        CallCenterShard englishShard = callRouter.getShards().get(0);
+        CallCenterShard spanishShard = callRouter.getShards().get(1);
+
+        Call englishLifeCall = new Call(10L, "123-456-7891", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+        Call englishCarCall = new Call(11L, "123-456-7892", Skill.ENGLISH, Skill.CAR_INSURANCE);
+        Map<CallCenterShard, List<ProblemChange<CallCenter>>> shardProblemChanges =
+                callRouter.route(new CompositeProblemChange(List.of(new AddCallProblemChange(englishLifeCall),
+                        new AddCallProblemChange(englishCarCall))));
+        assertThat(shardProblemChanges).containsOnlyKeys(englishShard, spanishShard);
+        assertThat(shardProblemChanges.get(englishShard)).hasSize(1);
+        // Only Beth has the car insurance skill, so the English call goes to the Spanish shard.
+        assertThat(shardProblemChanges.get(spanishShard)).hasSize(1);
+
+        assertThat(callRouter.route(new RemoveCallProblemChange(11L))).containsOnlyKeys(spanishShard);
+        // Already removed.
+        assertThat(callRouter.route(new RemoveCallProblemChange(11L))).isEmpty();
+    }
+
+    @Test
+    void rebalanceSaturatedShard() {
+        // Ann has 3 English life insurance calls queued.
+        List<Call> calls = new ArrayList<>();
+        PreviousCallOrAgent previousCallOrAgent = ann;
+        for (long id = 10L; id < 13L; id++) {
+            Call call = new Call(id, "123-456-7891", Skill.ENGLISH, Skill.LIFE_INSURANCE);
+            call.setEstimatedWaitingSeconds((id - 10L) * 30L);
+            assign(call, previousCallOrAgent);
+            calls.add(call);
+            previousCallOrAgent = call;
+        }
+        CallCenter englishCallCenter = new CallCenter(EnumSet.allOf(Skill.class), List.of(ann), calls);
+
+        CallRouter callRouter = new CallRouter(agents, LANGUAGES, 1);
+        callRouter.split(new CallCenter(EnumSet.allOf(Skill.class), agents, calls));
+        // The English shard is saturated, but no other agent has both skills, so nothing moves.
+        assertThat(callRouter.rebalance(callRouter.getShards().get(0), englishCallCenter)).isEmpty();
+
+        Agent dennis = new Agent(4L, "Dennis", Skill.ENGLISH, Skill.SPANISH, Skill.LIFE_INSURANCE);
+        List<Agent> moreAgents = List.of(ann, dennis, beth, carl);
+        CallRouter moreAgentsCallRouter = new CallRouter(moreAgents, LANGUAGES, 1);
+        CallCenterShard englishShard = moreAgentsCallRouter.getShards().get(0);
+        CallCenterShard spanishShard = moreAgentsCallRouter.getShards().get(1);
+        assertThat(englishShard.getAgents()).containsExactly(ann, beth);
+        assertThat(spanishShard.getAgents()).containsExactly(dennis, carl);
+        moreAgentsCallRouter.split(new CallCenter(EnumSet.allOf(Skill.class), moreAgents, calls));
+        // Saturated above 2 calls: the call waiting longest moves to Dennis, the first call is about to be picked up.
+        assertThat(moreAgentsCallRouter.rebalance(englishShard, englishCallCenter)).singleElement()
+                .satisfies(callTransfer -> {
+                    assertThat(callTransfer.call().getId()).isEqualTo(12L);
+                    assertThat(callTransfer.call().getPreviousCallOrAgent()).isNull();
+                    assertThat(callTransfer.fromShard()).isSameAs(englishShard);
+                    assertThat(callTransfer.toShard()).isSameAs(spanishShard);
+                });
+        assertThat(moreAgentsCallRouter.route(new RemoveCallProblemChange(12L))).containsOnlyKeys(spanishShard);
+    }
+
+    private static void assign(Call call, PreviousCallOrAgent previousCallOrAgent) {
+        call.setPreviousCallOrAgent(previousCallOrAgent);
+        call.setAgent(previousCallOrAgent instanceof Agent agent ? agent : ((Call) previousCallOrAgent).getAgent());
+        previousCallOrAgent.setNextCall(call);
+    }
+}
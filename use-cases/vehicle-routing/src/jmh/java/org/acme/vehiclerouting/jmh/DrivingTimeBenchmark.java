@@ -0,0 +1,70 @@
+package org.acme.vehiclerouting.jmh;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.HaversineDrivingTimeCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Driving times between random pairs of customer locations: calculated from the coordinates,
+ * as when the matrix is initialized, and looked up in the matrix, as the solver does for every move.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DrivingTimeBenchmark {
+
+    private static final int PAIR_COUNT = 1024;
+
+    private final HaversineDrivingTimeCalculator drivingTimeCalculator = HaversineDrivingTimeCalculator.getInstance();
+
+    private Location[] fromLocations;
+    private Location[] toLocations;
+
+    @Setup(Level.Trial)
+    public void setUp(RoutePlanState state) {
+        List<Customer> customers = state.routePlan.getCustomers();
+        Random random = new Random(37);
+        fromLocations = new Location[PAIR_COUNT];
+        toLocations = new Location[PAIR_COUNT];
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            fromLocations[i] = customers.get(random.nextInt(customers.size())).getLocation();
+            toLocations[i] = customers.get(random.nextInt(customers.size())).getLocation();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIR_COUNT)
+    public void calculateDrivingTime(Blackhole blackhole) {
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            blackhole.consume(drivingTimeCalculator.calculateDrivingTime(fromLocations[i], toLocations[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIR_COUNT)
+    public void getDrivingTimeTo(Blackhole blackhole) {
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            blackhole.consume(fromLocations[i].getDrivingTimeTo(toLocations[i]));
+        }
+    }
+}
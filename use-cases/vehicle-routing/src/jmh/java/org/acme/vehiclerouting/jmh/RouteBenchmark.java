@@ -0,0 +1,70 @@
+package org.acme.vehiclerouting.jmh;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.solver.ArrivalTimeUpdatingVariableListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Work per route: the total driving time the web UI and the score explanation read,
+ * and the arrival time propagation the solver runs after every move that changes a route.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteBenchmark {
+
+    private final ArrivalTimeUpdatingVariableListener arrivalTimeListener = new ArrivalTimeUpdatingVariableListener();
+
+    private VehicleRoutePlan routePlan;
+    private NoOpScoreDirector scoreDirector;
+    private Vehicle longestRouteVehicle;
+    private LocalDateTime earlyDepartureTime;
+    private LocalDateTime lateDepartureTime;
+    private boolean departLate = false;
+
+    @Setup(Level.Trial)
+    public void setUp(RoutePlanState state) {
+        routePlan = state.routePlan;
+        scoreDirector = new NoOpScoreDirector(routePlan);
+        longestRouteVehicle = routePlan.getVehicles().stream()
+                .max(Comparator.comparingInt(vehicle -> vehicle.getCustomers().size()))
+                .orElseThrow();
+        earlyDepartureTime = longestRouteVehicle.getDepartureTime();
+        // After every time window opened, so no customer absorbs the shift by waiting less.
+        lateDepartureTime = earlyDepartureTime.plusHours(12);
+    }
+
+    @Benchmark
+    public long getTotalDrivingTimeSeconds() {
+        return routePlan.getTotalDrivingTimeSeconds();
+    }
+
+    @Benchmark
+    public Long updateArrivalTimes() {
+        departLate = !departLate;
+        longestRouteVehicle.setDepartureTime(departLate ? lateDepartureTime : earlyDepartureTime);
+        Customer firstCustomer = longestRouteVehicle.getCustomers().get(0);
+        arrivalTimeListener.afterVariableChanged(scoreDirector, firstCustomer);
+        return longestRouteVehicle.getCustomers().get(longestRouteVehicle.getCustomers().size() - 1)
+                .getArrivalEpochSecond();
+    }
+}
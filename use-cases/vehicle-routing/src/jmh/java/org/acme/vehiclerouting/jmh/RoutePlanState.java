@@ -0,0 +1,51 @@
+package org.acme.vehiclerouting.jmh;
+
+import java.util.List;
+
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A demo route plan of the given size, with every customer assigned and all shadow variables initialized.
+ * The customers are spread over the vehicles in the order they were generated,
+ * so the routes are long and random, like early in solving.
+ */
+@State(Scope.Benchmark)
+public class RoutePlanState {
+
+    @Param({ "FIRENZE" })
+    public VehicleRouteDemoResource.DemoData demoData;
+
+    @Param({ "100", "1000", "5000" })
+    public int customerCount;
+
+    /**
+     * About as many customers per vehicle as the demo data sets.
+     */
+    public static final int CUSTOMERS_PER_VEHICLE = 12;
+
+    public VehicleRoutePlan routePlan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int vehicleCount = Math.max(1, customerCount / CUSTOMERS_PER_VEHICLE);
+        routePlan = new VehicleRouteDemoResource().build(demoData, customerCount, vehicleCount);
+        List<Vehicle> vehicles = routePlan.getVehicles();
+        List<Customer> customers = routePlan.getCustomers();
+        for (int i = 0; i < customers.size(); i++) {
+            vehicles.get(i % vehicles.size()).getCustomers().add(customers.get(i));
+        }
+        SolutionManager.create(SolverFactory.<VehicleRoutePlan> createFromXmlResource("solverConfig.xml"))
+                .update(routePlan);
+    }
+}
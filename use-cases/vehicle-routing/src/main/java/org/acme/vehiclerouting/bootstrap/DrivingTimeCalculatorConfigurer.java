@@ -0,0 +1,74 @@
+package org.acme.vehiclerouting.bootstrap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import org.acme.vehiclerouting.domain.geo.CachingDrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeCalculators;
+import org.acme.vehiclerouting.domain.geo.LazyDrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.road.RoadNetwork;
+import org.acme.vehiclerouting.domain.geo.road.RoadNetworkDrivingTimeCalculator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the {@link DrivingTimeCalculator} for all route plans according to the application configuration.
+ */
+@ApplicationScoped
+public class DrivingTimeCalculatorConfigurer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DrivingTimeCalculatorConfigurer.class);
+
+    @ConfigProperty(name = "driving-time.road-network-file")
+    Optional<String> roadNetworkFile;
+
+    @ConfigProperty(name = "driving-time.road-network-max-snap-distance-meters",
+            defaultValue = "" + RoadNetworkDrivingTimeCalculator.DEFAULT_MAX_SNAP_DISTANCE_METERS)
+    double roadNetworkMaxSnapDistanceMeters;
+
+    @ConfigProperty(name = "driving-time.cache-directory")
+    Optional<String> cacheDirectory;
+
+    @ConfigProperty(name = "driving-time.lazy-matrix.max-cached-row-count")
+    Optional<Integer> lazyMatrixMaxCachedRowCount;
+
+    @ConfigProperty(name = "driving-time.lazy-matrix.nearby-count", defaultValue = "0")
+    int lazyMatrixNearbyCount;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    public void configureDrivingTimeCalculator(@Observes StartupEvent startupEvent) {
+        DrivingTimeCalculator drivingTimeCalculator = DrivingTimeCalculators.getDefault();
+        if (roadNetworkFile.isPresent()) {
+            LOGGER.info("Loading the road network ({}).", roadNetworkFile.get());
+            try {
+                drivingTimeCalculator = new RoadNetworkDrivingTimeCalculator(RoadNetwork.read(Path.of(roadNetworkFile.get())),
+                        roadNetworkMaxSnapDistanceMeters);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed loading the road network (%s).".formatted(roadNetworkFile.get()), e);
+            }
+        }
+        if (cacheDirectory.isPresent()) {
+            LOGGER.info("Caching driving time matrices in ({}).", cacheDirectory.get());
+            drivingTimeCalculator = new CachingDrivingTimeCalculator(drivingTimeCalculator, Path.of(cacheDirectory.get()));
+        }
+        if (lazyMatrixMaxCachedRowCount.isPresent()) {
+            LOGGER.info("Calculating driving time matrix rows on demand, keeping at most {} rows.",
+                    lazyMatrixMaxCachedRowCount.get());
+            drivingTimeCalculator = new LazyDrivingTimeCalculator(drivingTimeCalculator, lazyMatrixNearbyCount,
+                    lazyMatrixMaxCachedRowCount.get());
+        }
+        DrivingTimeCalculators.setDefault(new TimedDrivingTimeCalculator(drivingTimeCalculator, meterRegistry));
+    }
+}
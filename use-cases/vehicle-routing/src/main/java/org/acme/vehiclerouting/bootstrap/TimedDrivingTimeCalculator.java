@@ -0,0 +1,85 @@
+package org.acme.vehiclerouting.bootstrap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeMatrix;
+
+/**
+ * Decorates another {@link DrivingTimeCalculator} with a {@value #TIMER_NAME} timer
+ * of how long it takes to initialize the driving time matrix of a route plan, including cache hits.
+ * <p>
+ * The matrix is initialized while the route plan is read, before it has a job ID,
+ * so the timer is tagged by calculator instead.
+ */
+final class TimedDrivingTimeCalculator implements DrivingTimeCalculator {
+
+    static final String TIMER_NAME = "vehicle.routing.driving.time.matrix";
+
+    private final DrivingTimeCalculator delegate;
+    private final Timer timer;
+
+    TimedDrivingTimeCalculator(DrivingTimeCalculator delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timer = Timer.builder(TIMER_NAME)
+                .description("Time to initialize the driving time matrix of a route plan.")
+                .tag("calculator", delegate.getClass().getSimpleName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long calculateDrivingTime(Location from, Location to) {
+        return delegate.calculateDrivingTime(from, to);
+    }
+
+    @Override
+    public Map<Location, Map<Location, Long>> calculateBulkDrivingTime(Collection<Location> fromLocations,
+            Collection<Location> toLocations) {
+        return delegate.calculateBulkDrivingTime(fromLocations, toLocations);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeRow(Location from, List<Location> toLocations) {
+        return delegate.calculateDrivingTimeRow(from, toLocations);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeColumn(List<Location> fromLocations, Location to) {
+        return delegate.calculateDrivingTimeColumn(fromLocations, to);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeMatrix(List<Location> locations) {
+        return delegate.calculateDrivingTimeMatrix(locations);
+    }
+
+    @Override
+    public DrivingTimeMatrix createDrivingTimeMatrix(List<Location> locations) {
+        return delegate.createDrivingTimeMatrix(locations);
+    }
+
+    @Override
+    public void initDrivingTimeMaps(Collection<Location> locations) {
+        timer.record(() -> delegate.initDrivingTimeMaps(locations));
+    }
+
+    @Override
+    public void initDrivingTimeMaps(List<Location> locations, int hubCount) {
+        timer.record(() -> delegate.initDrivingTimeMaps(locations, hubCount));
+    }
+
+    @Override
+    public void extendDrivingTimeMaps(List<Location> locations, Location newLocation) {
+        delegate.extendDrivingTimeMaps(locations, newLocation);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return delegate.getCacheKey();
+    }
+}
@@ -4,12 +4,16 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.variable.IndexShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.InverseRelationShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.NextElementShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.PreviousElementShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
 
 import org.acme.vehiclerouting.solver.ArrivalTimeUpdatingVariableListener;
+import org.acme.vehiclerouting.solver.CumulativeDemandUpdatingVariableListener;
+import org.acme.vehiclerouting.solver.DrivingTimeUpdatingVariableListener;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIdentityReference;
@@ -21,13 +25,15 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @PlanningEntity
 public class Customer {
 
+    @PlanningId
     private String id;
     private String name;
     private Location location;
     private int demand;
-    private LocalDateTime minStartTime;
-    private LocalDateTime maxEndTime;
-    private Duration serviceDuration;
+    private long minStartEpochSecond;
+    private long maxEndEpochSecond;
+    private long serviceDurationSeconds;
+    private Long actualDepartureEpochSecond;
 
     private Vehicle vehicle;
 
@@ -35,7 +41,13 @@ public class Customer {
 
     private Customer nextCustomer;
 
-    private LocalDateTime arrivalTime;
+    private Integer index;
+
+    private Long arrivalEpochSecond;
+
+    private Long drivingTimeSecondsFromPreviousStandstill;
+
+    private Integer cumulativeDemand;
 
     public Customer() {
     }
@@ -46,9 +58,9 @@ public class Customer {
         this.name = name;
         this.location = location;
         this.demand = demand;
-        this.minStartTime = minStartTime;
-        this.maxEndTime = maxEndTime;
-        this.serviceDuration = serviceDuration;
+        setMinStartTime(minStartTime);
+        setMaxEndTime(maxEndTime);
+        setServiceDuration(serviceDuration);
     }
 
     public String getId() {
@@ -80,15 +92,53 @@ public class Customer {
     }
 
     public LocalDateTime getMinStartTime() {
-        return minStartTime;
+        return EpochSeconds.toLocalDateTime(minStartEpochSecond);
+    }
+
+    public void setMinStartTime(LocalDateTime minStartTime) {
+        this.minStartEpochSecond = EpochSeconds.of(minStartTime);
+    }
+
+    @JsonIgnore
+    public long getMinStartEpochSecond() {
+        return minStartEpochSecond;
     }
 
     public LocalDateTime getMaxEndTime() {
-        return maxEndTime;
+        return EpochSeconds.toLocalDateTime(maxEndEpochSecond);
+    }
+
+    public void setMaxEndTime(LocalDateTime maxEndTime) {
+        this.maxEndEpochSecond = EpochSeconds.of(maxEndTime);
+    }
+
+    @JsonIgnore
+    public long getMaxEndEpochSecond() {
+        return maxEndEpochSecond;
     }
 
     public Duration getServiceDuration() {
-        return serviceDuration;
+        return Duration.ofSeconds(serviceDurationSeconds);
+    }
+
+    public void setServiceDuration(Duration serviceDuration) {
+        this.serviceDurationSeconds = serviceDuration.getSeconds();
+    }
+
+    @JsonIgnore
+    public long getServiceDurationSeconds() {
+        return serviceDurationSeconds;
+    }
+
+    /**
+     * @return null unless the vehicle reported leaving this customer
+     */
+    public LocalDateTime getActualDepartureTime() {
+        return actualDepartureEpochSecond == null ? null : EpochSeconds.toLocalDateTime(actualDepartureEpochSecond);
+    }
+
+    public void setActualDepartureTime(LocalDateTime actualDepartureTime) {
+        this.actualDepartureEpochSecond = actualDepartureTime == null ? null : EpochSeconds.of(actualDepartureTime);
     }
 
     @JsonIdentityReference(alwaysAsId = true)
@@ -121,52 +171,128 @@ public class Customer {
         this.nextCustomer = nextCustomer;
     }
 
+    /**
+     * @return the position in {@link Vehicle#getCustomers()}, null if not assigned to a vehicle
+     */
+    @JsonIgnore
+    @IndexShadowVariable(sourceVariableName = "customers")
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    /**
+     * @return null if not assigned to a vehicle
+     */
+    @JsonIgnore
     @ShadowVariable(variableListenerClass = ArrivalTimeUpdatingVariableListener.class, sourceVariableName = "vehicle")
     @ShadowVariable(variableListenerClass = ArrivalTimeUpdatingVariableListener.class, sourceVariableName = "previousCustomer")
-    public LocalDateTime getArrivalTime() {
-        return arrivalTime;
+    public Long getArrivalEpochSecond() {
+        return arrivalEpochSecond;
+    }
+
+    public void setArrivalEpochSecond(Long arrivalEpochSecond) {
+        this.arrivalEpochSecond = arrivalEpochSecond;
     }
 
-    public void setArrivalTime(LocalDateTime arrivalTime) {
-        this.arrivalTime = arrivalTime;
+    /**
+     * @return null if not assigned to a vehicle
+     */
+    @JsonIgnore
+    @ShadowVariable(variableListenerClass = DrivingTimeUpdatingVariableListener.class, sourceVariableName = "vehicle")
+    @ShadowVariable(variableListenerClass = DrivingTimeUpdatingVariableListener.class,
+            sourceVariableName = "previousCustomer")
+    public Long getDrivingTimeSecondsFromPreviousStandstill() {
+        return drivingTimeSecondsFromPreviousStandstill;
+    }
+
+    public void setDrivingTimeSecondsFromPreviousStandstill(Long drivingTimeSecondsFromPreviousStandstill) {
+        this.drivingTimeSecondsFromPreviousStandstill = drivingTimeSecondsFromPreviousStandstill;
+    }
+
+    /**
+     * @return the total demand of this customer and all customers before it on the same vehicle,
+     *         null if not assigned to a vehicle
+     */
+    @JsonIgnore
+    @ShadowVariable(variableListenerClass = CumulativeDemandUpdatingVariableListener.class, sourceVariableName = "vehicle")
+    @ShadowVariable(variableListenerClass = CumulativeDemandUpdatingVariableListener.class,
+            sourceVariableName = "previousCustomer")
+    public Integer getCumulativeDemand() {
+        return cumulativeDemand;
+    }
+
+    public void setCumulativeDemand(Integer cumulativeDemand) {
+        this.cumulativeDemand = cumulativeDemand;
     }
 
     // ************************************************************************
     // Complex methods
     // ************************************************************************
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public LocalDateTime getArrivalTime() {
+        if (arrivalEpochSecond == null) {
+            return null;
+        }
+        return EpochSeconds.toLocalDateTime(arrivalEpochSecond);
+    }
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime getDepartureTime() {
-        if (arrivalTime == null) {
+        if (arrivalEpochSecond == null) {
             return null;
         }
-        return getStartServiceTime().plus(serviceDuration);
+        return EpochSeconds.toLocalDateTime(calculateDepartureEpochSecond());
     }
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime getStartServiceTime() {
-        if (arrivalTime == null) {
+        if (arrivalEpochSecond == null) {
             return null;
         }
-        return arrivalTime.isBefore(minStartTime) ? minStartTime : arrivalTime;
+        return EpochSeconds.toLocalDateTime(calculateStartServiceEpochSecond());
+    }
+
+    @JsonIgnore
+    public long calculateStartServiceEpochSecond() {
+        if (arrivalEpochSecond == null) {
+            throw new IllegalStateException(
+                    "This method must not be called when the shadow variables are not initialized yet.");
+        }
+        return Math.max(arrivalEpochSecond, minStartEpochSecond);
+    }
+
+    /**
+     * @return the reported departure time if the vehicle already left this customer, otherwise the planned one
+     */
+    @JsonIgnore
+    public long calculateDepartureEpochSecond() {
+        if (actualDepartureEpochSecond != null) {
+            return actualDepartureEpochSecond;
+        }
+        return calculateStartServiceEpochSecond() + serviceDurationSeconds;
     }
 
     @JsonIgnore
     public boolean isServiceFinishedAfterMaxEndTime() {
-        return arrivalTime != null
-                && arrivalTime.plus(serviceDuration).isAfter(maxEndTime);
+        return arrivalEpochSecond != null
+                && arrivalEpochSecond + serviceDurationSeconds > maxEndEpochSecond;
     }
 
     @JsonIgnore
     public long getServiceFinishedDelayInMinutes() {
-        if (arrivalTime == null) {
+        if (arrivalEpochSecond == null) {
             return 0;
         }
-        return Duration.between(maxEndTime, arrivalTime.plus(serviceDuration)).toMinutes();
+        return (arrivalEpochSecond + serviceDurationSeconds - maxEndEpochSecond) / 60;
     }
 
     @JsonIgnore
-    public long getDrivingTimeSecondsFromPreviousStandstill() {
+    public long calculateDrivingTimeSecondsFromPreviousStandstill() {
         if (vehicle == null) {
             throw new IllegalStateException(
                     "This method must not be called when the shadow variables are not initialized yet.");
@@ -177,13 +303,35 @@ public class Customer {
         return previousCustomer.getLocation().getDrivingTimeTo(location);
     }
 
+    /**
+     * The driving time of the legs this customer accounts for in its route:
+     * the leg from the previous standstill and, for the last customer, also the leg back to the depot.
+     *
+     * @return driving time in seconds
+     */
+    @JsonIgnore
+    public long getRouteLegsDrivingTimeSeconds() {
+        if (drivingTimeSecondsFromPreviousStandstill == null) {
+            return 0L;
+        }
+        if (nextCustomer == null) {
+            return drivingTimeSecondsFromPreviousStandstill + location.getDrivingTimeTo(vehicle.getDepot().getLocation());
+        }
+        return drivingTimeSecondsFromPreviousStandstill;
+    }
+
+    @JsonIgnore
+    public boolean isLastCustomerOverVehicleCapacity() {
+        return cumulativeDemand != null && nextCustomer == null && cumulativeDemand > vehicle.getCapacity();
+    }
+
     // Required by the web UI even before the solution has been initialized.
     @JsonProperty(value = "drivingTimeSecondsFromPreviousStandstill", access = JsonProperty.Access.READ_ONLY)
     public Long getDrivingTimeSecondsFromPreviousStandstillOrNull() {
         if (vehicle == null) {
             return null;
         }
-        return getDrivingTimeSecondsFromPreviousStandstill();
+        return calculateDrivingTimeSecondsFromPreviousStandstill();
     }
 
     @Override
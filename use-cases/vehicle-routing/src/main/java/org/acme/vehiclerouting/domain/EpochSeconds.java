@@ -0,0 +1,22 @@
+package org.acme.vehiclerouting.domain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Converts between {@link LocalDateTime} and the epoch seconds the solver works with.
+ * The conversion uses a fixed offset, so it ignores daylight saving time just like {@link LocalDateTime} does.
+ */
+public final class EpochSeconds {
+
+    public static long of(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private EpochSeconds() {
+    }
+}
@@ -1,25 +1,47 @@
 package org.acme.vehiclerouting.domain;
 
-import java.util.Map;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeMatrix;
+import org.acme.vehiclerouting.domain.geo.LazyDrivingTimeMatrix;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+/**
+ * In JSON, a location is an array of its latitude, its longitude and, optionally, its traffic profile index.
+ */
 @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({ "latitude", "longitude", "trafficProfileIndex" })
 public class Location {
 
     private double latitude;
     private double longitude;
 
     @JsonIgnore
-    private Map<Location, Long> drivingTimeSeconds;
+    private int index = -1;
+    // Volatile, because adding a customer replaces the matrix while other threads read it.
+    @JsonIgnore
+    private volatile DrivingTimeMatrix drivingTimeMatrix;
+    // Only used if the driving time matrix is null.
+    @JsonIgnore
+    private volatile LazyDrivingTimeMatrix lazyDrivingTimeMatrix;
+    private int trafficProfileIndex;
+
+    public Location(double latitude, double longitude) {
+        this(latitude, longitude, 0);
+    }
 
+    /**
+     * @param trafficProfileIndex at least 0, 0 if absent in JSON
+     */
     @JsonCreator
-    public Location(@JsonProperty("latitude") double latitude, @JsonProperty("longitude") double longitude) {
+    public Location(@JsonProperty("latitude") double latitude, @JsonProperty("longitude") double longitude,
+            @JsonProperty("trafficProfileIndex") int trafficProfileIndex) {
         this.latitude = latitude;
         this.longitude = longitude;
+        setTrafficProfileIndex(trafficProfileIndex);
     }
 
     public double getLatitude() {
@@ -30,27 +52,84 @@ public class Location {
         return longitude;
     }
 
-    public Map<Location, Long> getDrivingTimeSeconds() {
-        return drivingTimeSeconds;
+    /**
+     * Dense index of this location in the driving time matrix.
+     *
+     * @return {@code -1} if the driving time matrix has not been set yet
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return null if the driving times are calculated on demand or have not been set yet
+     */
+    public DrivingTimeMatrix getDrivingTimeMatrix() {
+        return drivingTimeMatrix;
+    }
+
+    /**
+     * Set the driving time matrix (in seconds), shared by all locations in it.
+     *
+     * @param index dense index of this location in the matrix
+     * @param drivingTimeMatrix never null
+     */
+    public void setDrivingTimeMatrix(int index, DrivingTimeMatrix drivingTimeMatrix) {
+        this.index = index;
+        // Set before clearing the lazy matrix, so readers on other threads always find one of both.
+        this.drivingTimeMatrix = drivingTimeMatrix;
+        this.lazyDrivingTimeMatrix = null;
+    }
+
+    /**
+     * @return null if the driving time matrix is set instead
+     */
+    public LazyDrivingTimeMatrix getLazyDrivingTimeMatrix() {
+        return lazyDrivingTimeMatrix;
     }
 
     /**
-     * Set the driving time map (in seconds).
+     * Set the driving time matrix (in seconds) of which this location calculates its row on demand,
+     * instead of holding it.
      *
-     * @param drivingTimeSeconds a map containing driving time from here to other locations
+     * @param index dense index of this location in the matrix
+     * @param lazyDrivingTimeMatrix never null, shared by all locations in the matrix
      */
-    public void setDrivingTimeSeconds(Map<Location, Long> drivingTimeSeconds) {
-        this.drivingTimeSeconds = drivingTimeSeconds;
+    public void setLazyDrivingTimeMatrix(int index, LazyDrivingTimeMatrix lazyDrivingTimeMatrix) {
+        this.index = index;
+        // Set before clearing the matrix, so readers on other threads always find one of both.
+        this.lazyDrivingTimeMatrix = lazyDrivingTimeMatrix;
+        this.drivingTimeMatrix = null;
     }
 
     /**
      * Driving time to the given location in seconds.
      *
-     * @param location other location
+     * @param location other location, sharing the same driving time matrix
      * @return driving time in seconds
      */
     public long getDrivingTimeTo(Location location) {
-        return drivingTimeSeconds.get(location);
+        DrivingTimeMatrix matrix = drivingTimeMatrix;
+        if (matrix == null) {
+            return lazyDrivingTimeMatrix.getDrivingTime(index, location.index);
+        }
+        return matrix.getDrivingTime(index, location.index);
+    }
+
+    /**
+     * @return at least 0, the {@link org.acme.vehiclerouting.domain.geo.TrafficProfiles traffic profile}
+     *         of the legs that start at this location
+     */
+    public int getTrafficProfileIndex() {
+        return trafficProfileIndex;
+    }
+
+    public void setTrafficProfileIndex(int trafficProfileIndex) {
+        if (trafficProfileIndex < 0) {
+            throw new IllegalArgumentException("The trafficProfileIndex (%d) of the location (%s) must not be negative."
+                    .formatted(trafficProfileIndex, this));
+        }
+        this.trafficProfileIndex = trafficProfileIndex;
     }
 
     @Override
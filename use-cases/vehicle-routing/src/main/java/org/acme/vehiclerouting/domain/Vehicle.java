@@ -5,11 +5,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.entity.PlanningPinToIndex;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIdentityReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -23,12 +25,15 @@ public class Vehicle {
     @JsonIdentityReference
     private Depot depot;
 
-    private LocalDateTime departureTime;
+    private long departureEpochSecond;
 
     @JsonIdentityReference(alwaysAsId = true)
     @PlanningListVariable
     private List<Customer> customers;
 
+    @PlanningPinToIndex
+    private int visitedCustomerCount;
+
     public Vehicle() {
     }
 
@@ -36,7 +41,7 @@ public class Vehicle {
         this.id = id;
         this.capacity = capacity;
         this.depot = depot;
-        this.departureTime = departureTime;
+        setDepartureTime(departureTime);
         this.customers = new ArrayList<>();
     }
 
@@ -65,7 +70,16 @@ public class Vehicle {
     }
 
     public LocalDateTime getDepartureTime() {
-        return departureTime;
+        return EpochSeconds.toLocalDateTime(departureEpochSecond);
+    }
+
+    public void setDepartureTime(LocalDateTime departureTime) {
+        this.departureEpochSecond = EpochSeconds.of(departureTime);
+    }
+
+    @JsonIgnore
+    public long getDepartureEpochSecond() {
+        return departureEpochSecond;
     }
 
     public List<Customer> getCustomers() {
@@ -76,6 +90,18 @@ public class Vehicle {
         this.customers = customers;
     }
 
+    /**
+     * @return the number of customers at the start of {@link #getCustomers()} that this vehicle already visited,
+     *         the solver does not move them
+     */
+    public int getVisitedCustomerCount() {
+        return visitedCustomerCount;
+    }
+
+    public void setVisitedCustomerCount(int visitedCustomerCount) {
+        this.visitedCustomerCount = visitedCustomerCount;
+    }
+
     // ************************************************************************
     // Complex methods
     // ************************************************************************
@@ -110,11 +136,15 @@ public class Vehicle {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime arrivalTime() {
         if (customers.isEmpty()) {
-            return departureTime;
+            return getDepartureTime();
         }
 
         Customer lastCustomer = customers.get(customers.size() - 1);
-        return lastCustomer.getDepartureTime().plusSeconds(lastCustomer.getLocation().getDrivingTimeTo(depot.getLocation()));
+        if (lastCustomer.getArrivalEpochSecond() == null) {
+            return null;
+        }
+        return EpochSeconds.toLocalDateTime(lastCustomer.calculateDepartureEpochSecond()
+                + lastCustomer.getLocation().getDrivingTimeTo(depot.getLocation()));
     }
 
     @Override
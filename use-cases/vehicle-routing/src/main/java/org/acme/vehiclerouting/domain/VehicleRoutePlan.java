@@ -13,9 +13,15 @@ import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
 import org.acme.vehiclerouting.domain.geo.DrivingTimeCalculator;
-import org.acme.vehiclerouting.domain.geo.HaversineDrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeCalculators;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeMatrix;
+import org.acme.vehiclerouting.domain.geo.LocationDistanceMeter;
+import org.acme.vehiclerouting.domain.geo.NearbyLocationIndex;
+import org.acme.vehiclerouting.domain.geo.TimeDependentDrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.TrafficProfiles;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -44,6 +50,9 @@ public class VehicleRoutePlan {
 
     private LocalDateTime endDateTime;
 
+    // Null if every leg takes its free-flow driving time.
+    private TrafficProfiles trafficProfiles;
+
     @ProblemFactCollectionProperty
     private List<Depot> depots;
 
@@ -61,6 +70,9 @@ public class VehicleRoutePlan {
 
     private String scoreExplanation;
 
+    // Shared with the planning clones, which have the same customers in the same order.
+    private NearbyLocationIndex nearbyCustomerIndex;
+
     public VehicleRoutePlan() {
     }
 
@@ -87,12 +99,23 @@ public class VehicleRoutePlan {
         this.depots = depots;
         this.vehicles = vehicles;
         this.customers = customers;
-        List<Location> locations = Stream.concat(
-                depots.stream().map(Depot::getLocation),
-                customers.stream().map(Customer::getLocation)).toList();
+        initDrivingTimeMaps();
+    }
 
-        DrivingTimeCalculator drivingTimeCalculator = HaversineDrivingTimeCalculator.getInstance();
-        drivingTimeCalculator.initDrivingTimeMaps(locations);
+    /**
+     * Creates a plan over a part of the depots, vehicles and customers of another plan.
+     * Their locations keep the driving time matrix that was initialized for the other plan.
+     */
+    public VehicleRoutePlan(VehicleRoutePlan plan, List<Depot> depots, List<Vehicle> vehicles, List<Customer> customers) {
+        this.name = plan.name;
+        this.southWestCorner = plan.southWestCorner;
+        this.northEastCorner = plan.northEastCorner;
+        this.startDateTime = plan.startDateTime;
+        this.endDateTime = plan.endDateTime;
+        this.trafficProfiles = plan.trafficProfiles;
+        this.depots = depots;
+        this.vehicles = vehicles;
+        this.customers = customers;
     }
 
     public String getName() {
@@ -115,6 +138,22 @@ public class VehicleRoutePlan {
         return endDateTime;
     }
 
+    public TrafficProfiles getTrafficProfiles() {
+        return trafficProfiles;
+    }
+
+    /**
+     * @param trafficProfiles null if every leg takes its free-flow driving time,
+     *        otherwise it must have the traffic profile of every depot and customer location
+     */
+    public void setTrafficProfiles(TrafficProfiles trafficProfiles) {
+        if (trafficProfiles != null) {
+            // Fail when the plan is read, instead of while solving.
+            listLocations().forEach(trafficProfiles::checkProfileIndex);
+        }
+        this.trafficProfiles = trafficProfiles;
+    }
+
     public List<Depot> getDepots() {
         return depots;
     }
@@ -139,6 +178,67 @@ public class VehicleRoutePlan {
     // Complex methods
     // ************************************************************************
 
+    /**
+     * Initializes the driving time matrix between the locations of all depots and customers.
+     */
+    public void initDrivingTimeMaps() {
+        DrivingTimeCalculator drivingTimeCalculator = DrivingTimeCalculators.getDefault();
+        drivingTimeCalculator.initDrivingTimeMaps(listLocations(), depots.size());
+    }
+
+    /**
+     * Adds the location of a new customer to the driving time matrix,
+     * calculating only its driving times from and to the other locations.
+     *
+     * @param newLocation never null, not yet in this plan
+     */
+    public void extendDrivingTimeMaps(Location newLocation) {
+        List<Location> locations = listLocations();
+        if (locations.isEmpty()) {
+            newLocation.setDrivingTimeMatrix(0, new DrivingTimeMatrix(new int[1], 1));
+            return;
+        }
+        DrivingTimeCalculators.getDefault().extendDrivingTimeMaps(locations, newLocation);
+    }
+
+    private List<Location> listLocations() {
+        return Stream.concat(
+                depots.stream().map(Depot::getLocation),
+                customers.stream().map(Customer::getLocation)).toList();
+    }
+
+    /**
+     * @return never null, calculates the driving time of a leg depending on when it starts
+     */
+    @JsonIgnore
+    public TimeDependentDrivingTimeCalculator getTimeDependentDrivingTimeCalculator() {
+        return trafficProfiles == null ? TimeDependentDrivingTimeCalculator.FREE_FLOW : trafficProfiles;
+    }
+
+    /**
+     * Builds the index on first use and reuses it as long as the customers and the parameters do not change.
+     *
+     * @param nearbyDistanceMeter never null
+     * @param nearbyCount at least 1
+     * @return never null, positions in the index are positions in {@link #getCustomers()}
+     */
+    public NearbyLocationIndex getNearbyCustomerIndex(LocationDistanceMeter nearbyDistanceMeter, int nearbyCount) {
+        NearbyLocationIndex index = nearbyCustomerIndex;
+        if (index == null || !index.isBuiltFor(nearbyDistanceMeter.getClass(), customers.size(), nearbyCount)) {
+            index = NearbyLocationIndex.build(customers.stream().map(Customer::getLocation).toList(),
+                    nearbyDistanceMeter, nearbyCount);
+            nearbyCustomerIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Forgets the nearby customer index, so it is rebuilt on next use, for example after customers were replaced.
+     */
+    public void resetNearbyCustomerIndex() {
+        nearbyCustomerIndex = null;
+    }
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public long getTotalDrivingTimeSeconds() {
         return vehicles == null ? 0 : vehicles.stream().mapToLong(Vehicle::getTotalDrivingTimeSeconds).sum();
@@ -0,0 +1,186 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decorates another {@link DrivingTimeCalculator} with a persistent cache of driving time matrices,
+ * keyed by a hash of the delegate's {@link #getCacheKey() cache key} and the (ordered) location set.
+ * <p>
+ * Each matrix is stored in a compact binary file (a small header followed by the raw little-endian matrix)
+ * and read back through a {@link MappedByteBuffer}, so a recurring plan skips the matrix calculation entirely.
+ * The driving times are read through that buffer, without copying them to the heap,
+ * so the operating system shares the pages of a matrix between all processes that map the same file.
+ * Within one JVM, plans with the same locations also share a single matrix instead of each holding a copy.
+ */
+public final class CachingDrivingTimeCalculator implements DrivingTimeCalculator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingDrivingTimeCalculator.class);
+
+    private static final int MAGIC_NUMBER = 0x56525044; // "VRPD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final String FILE_SUFFIX = ".matrix";
+
+    private final DrivingTimeCalculator delegate;
+    private final Path cacheDirectory;
+    private final Map<String, WeakReference<DrivingTimeMatrix>> sharedMatrixMap = new ConcurrentHashMap<>();
+
+    public CachingDrivingTimeCalculator(DrivingTimeCalculator delegate, Path cacheDirectory) {
+        this.delegate = delegate;
+        this.cacheDirectory = cacheDirectory;
+        try {
+            Files.createDirectories(cacheDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the driving time cache directory (%s)."
+                    .formatted(cacheDirectory), e);
+        }
+    }
+
+    public DrivingTimeCalculator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public long calculateDrivingTime(Location from, Location to) {
+        return delegate.calculateDrivingTime(from, to);
+    }
+
+    @Override
+    public Map<Location, Map<Location, Long>> calculateBulkDrivingTime(Collection<Location> fromLocations,
+            Collection<Location> toLocations) {
+        return delegate.calculateBulkDrivingTime(fromLocations, toLocations);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return delegate.getCacheKey();
+    }
+
+    @Override
+    public int[] calculateDrivingTimeRow(Location from, List<Location> toLocations) {
+        return delegate.calculateDrivingTimeRow(from, toLocations);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeColumn(List<Location> fromLocations, Location to) {
+        return delegate.calculateDrivingTimeColumn(fromLocations, to);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeMatrix(List<Location> locations) {
+        return createDrivingTimeMatrix(locations).toArray();
+    }
+
+    @Override
+    public DrivingTimeMatrix createDrivingTimeMatrix(List<Location> locations) {
+        String key = calculateKey(locations);
+        WeakReference<DrivingTimeMatrix> sharedMatrixReference = sharedMatrixMap.get(key);
+        DrivingTimeMatrix drivingTimeMatrix = sharedMatrixReference == null ? null : sharedMatrixReference.get();
+        if (drivingTimeMatrix != null) {
+            return drivingTimeMatrix;
+        }
+        Path cacheFile = cacheDirectory.resolve(key + FILE_SUFFIX);
+        drivingTimeMatrix = readMatrix(cacheFile, locations.size());
+        if (drivingTimeMatrix == null) {
+            int[] calculatedMatrix = delegate.calculateDrivingTimeMatrix(locations);
+            writeMatrix(cacheFile, locations.size(), calculatedMatrix);
+            drivingTimeMatrix = new DrivingTimeMatrix(calculatedMatrix, locations.size());
+        }
+        sharedMatrixMap.put(key, new WeakReference<>(drivingTimeMatrix));
+        return drivingTimeMatrix;
+    }
+
+    private String calculateKey(List<Location> locations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+        digest.update(delegate.getCacheKey().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer coordinates = ByteBuffer.allocate(2 * Double.BYTES);
+        for (Location location : locations) {
+            coordinates.clear();
+            coordinates.putDouble(location.getLatitude()).putDouble(location.getLongitude());
+            digest.update(coordinates.array());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private DrivingTimeMatrix readMatrix(Path cacheFile, int locationCount) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES
+                    || buffer.getInt() != MAGIC_NUMBER
+                    || buffer.getInt() != FORMAT_VERSION
+                    || buffer.getInt() != locationCount
+                    || buffer.remaining() != (long) DrivingTimeCalculator.matrixSize(locationCount) * Integer.BYTES) {
+                LOGGER.warn("Ignoring the driving time cache file ({}) with an unexpected layout.", cacheFile);
+                return null;
+            }
+            // The mapping stays valid after the channel is closed, as long as the buffer is reachable.
+            return new DrivingTimeMatrix(buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(), locationCount);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring the unreadable driving time cache file ({}).", cacheFile, e);
+            return null;
+        }
+    }
+
+    private void writeMatrix(Path cacheFile, int locationCount, int[] drivingTimeMatrix) {
+        long fileSize = HEADER_BYTES + (long) drivingTimeMatrix.length * Integer.BYTES;
+        Path temporaryFile = null;
+        try {
+            // Write to a temporary file first, so concurrent readers never see a partially written matrix.
+            temporaryFile = Files.createTempFile(cacheDirectory, "driving-time-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putInt(locationCount);
+                buffer.asIntBuffer().put(drivingTimeMatrix);
+                buffer.force();
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed writing the driving time cache file ({}).", cacheFile, e);
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.debug("Failed deleting the temporary file ({}).", file, e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.acme.vehiclerouting.domain.geo;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -37,12 +38,139 @@ public interface DrivingTimeCalculator {
     }
 
     /**
-     * Calculate driving time matrix for the given list of locations and assign driving time maps accordingly.
+     * Calculation of the driving times from one location to each of the given locations.
+     *
+     * @param from never null
+     * @param toLocations never null
+     * @return never null, the driving time in seconds to {@code toLocations.get(j)} is at {@code j}
+     */
+    default int[] calculateDrivingTimeRow(Location from, List<Location> toLocations) {
+        int[] drivingTimeRow = new int[toLocations.size()];
+        for (int j = 0; j < drivingTimeRow.length; j++) {
+            drivingTimeRow[j] = Math.toIntExact(calculateDrivingTime(from, toLocations.get(j)));
+        }
+        return drivingTimeRow;
+    }
+
+    /**
+     * Calculation of the driving times from each of the given locations to one location.
+     *
+     * @param fromLocations never null
+     * @param to never null
+     * @return never null, the driving time in seconds from {@code fromLocations.get(i)} is at {@code i}
+     */
+    default int[] calculateDrivingTimeColumn(List<Location> fromLocations, Location to) {
+        int[] drivingTimeColumn = new int[fromLocations.size()];
+        for (int i = 0; i < drivingTimeColumn.length; i++) {
+            drivingTimeColumn[i] = Math.toIntExact(calculateDrivingTime(fromLocations.get(i), to));
+        }
+        return drivingTimeColumn;
+    }
+
+    /**
+     * Bulk calculation of the driving time matrix between all the given locations.
+     *
+     * @param locations never null
+     * @return never null, a flat row-major matrix in which the driving time in seconds
+     *         from {@code locations.get(i)} to {@code locations.get(j)} is at {@code i * locations.size() + j}
+     */
+    default int[] calculateDrivingTimeMatrix(List<Location> locations) {
+        int locationCount = locations.size();
+        int[] drivingTimeMatrix = new int[matrixSize(locationCount)];
+        for (int i = 0; i < locationCount; i++) {
+            Location from = locations.get(i);
+            int rowOffset = i * locationCount;
+            for (int j = 0; j < locationCount; j++) {
+                drivingTimeMatrix[rowOffset + j] = Math.toIntExact(calculateDrivingTime(from, locations.get(j)));
+            }
+        }
+        return drivingTimeMatrix;
+    }
+
+    /**
+     * Like {@link #calculateDrivingTimeMatrix(List)}, but the matrix may be shared or read from a file.
+     *
+     * @param locations never null
+     * @return never null, the index of a location in the matrix is its position in {@code locations}
+     */
+    default DrivingTimeMatrix createDrivingTimeMatrix(List<Location> locations) {
+        return new DrivingTimeMatrix(calculateDrivingTimeMatrix(locations), locations.size());
+    }
+
+    /**
+     * Calculate driving time matrix for the given list of locations and assign it to each location
+     * together with its index in that matrix.
      *
      * @param locations locations list
      */
     default void initDrivingTimeMaps(Collection<Location> locations) {
-        Map<Location, Map<Location, Long>> drivingTimeMatrix = calculateBulkDrivingTime(locations, locations);
-        locations.forEach(location -> location.setDrivingTimeSeconds(drivingTimeMatrix.get(location)));
+        List<Location> locationList = List.copyOf(locations);
+        DrivingTimeMatrix drivingTimeMatrix = createDrivingTimeMatrix(locationList);
+        for (int i = 0; i < locationList.size(); i++) {
+            locationList.get(i).setDrivingTimeMatrix(i, drivingTimeMatrix);
+        }
+    }
+
+    /**
+     * Like {@link #initDrivingTimeMaps(Collection)}, for locations of which the first {@code hubCount},
+     * such as the depots, start or end most routes.
+     * Calculators that only calculate the driving times between some locations always include those to the hubs.
+     *
+     * @param locations never null
+     * @param hubCount between 0 and {@code locations.size()}
+     */
+    default void initDrivingTimeMaps(List<Location> locations, int hubCount) {
+        initDrivingTimeMaps(locations);
+    }
+
+    /**
+     * Adds a location to the driving time matrix that was initialized for the other locations,
+     * for example after a customer was added,
+     * calculating only the driving times from and to the new location instead of the whole matrix again.
+     * The new location gets the next index, so the indexes of the other locations do not change,
+     * and the other locations switch to the extended matrix, which leaves the matrix they had unchanged
+     * for other threads that still read it.
+     *
+     * @param locations never null, not empty, the locations that share the matrix, not including the new location;
+     *        locations that were removed from the plan may be left out
+     * @param newLocation never null
+     */
+    default void extendDrivingTimeMaps(List<Location> locations, Location newLocation) {
+        DrivingTimeMatrix drivingTimeMatrix = locations.get(0).getDrivingTimeMatrix();
+        int newIndex = drivingTimeMatrix.getLocationCount();
+        int[] drivingTimeRow = calculateDrivingTimeRow(newLocation, locations);
+        int[] drivingTimeColumn = calculateDrivingTimeColumn(locations, newLocation);
+        // The cells of locations that were left out stay 0, nothing reads them anymore.
+        int[] drivingTimesFrom = new int[newIndex + 1];
+        int[] drivingTimesTo = new int[newIndex];
+        for (int i = 0; i < locations.size(); i++) {
+            int index = locations.get(i).getIndex();
+            drivingTimesFrom[index] = drivingTimeRow[i];
+            drivingTimesTo[index] = drivingTimeColumn[i];
+        }
+        DrivingTimeMatrix extendedDrivingTimeMatrix = drivingTimeMatrix.extend(drivingTimesFrom, drivingTimesTo);
+        for (Location location : locations) {
+            location.setDrivingTimeMatrix(location.getIndex(), extendedDrivingTimeMatrix);
+        }
+        newLocation.setDrivingTimeMatrix(newIndex, extendedDrivingTimeMatrix);
+    }
+
+    /**
+     * Identifies the driving times this calculator produces, for example to key cached matrices.
+     * Calculators that depend on external data, such as a road network, must include that data's identity.
+     *
+     * @return never null
+     */
+    default String getCacheKey() {
+        return getClass().getName();
+    }
+
+    static int matrixSize(int locationCount) {
+        long matrixSize = (long) locationCount * locationCount;
+        if (matrixSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(
+                    "The locationCount (%d) is too large for a driving time matrix.".formatted(locationCount));
+        }
+        return (int) matrixSize;
     }
 }
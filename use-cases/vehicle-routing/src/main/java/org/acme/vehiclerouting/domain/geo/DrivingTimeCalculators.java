@@ -0,0 +1,24 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Objects;
+
+/**
+ * Holds the {@link DrivingTimeCalculator} used to initialize the driving time matrix of every new
+ * {@link org.acme.vehiclerouting.domain.VehicleRoutePlan}.
+ * It defaults to {@link HaversineDrivingTimeCalculator} and may be replaced once, at application startup.
+ */
+public final class DrivingTimeCalculators {
+
+    private static volatile DrivingTimeCalculator defaultCalculator = HaversineDrivingTimeCalculator.getInstance();
+
+    public static DrivingTimeCalculator getDefault() {
+        return defaultCalculator;
+    }
+
+    public static void setDefault(DrivingTimeCalculator drivingTimeCalculator) {
+        defaultCalculator = Objects.requireNonNull(drivingTimeCalculator);
+    }
+
+    private DrivingTimeCalculators() {
+    }
+}
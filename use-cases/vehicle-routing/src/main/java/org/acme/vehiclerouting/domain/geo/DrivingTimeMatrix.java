@@ -0,0 +1,138 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A square matrix of driving times in seconds, shared by all locations of a route plan,
+ * which each know their own index in it.
+ * <p>
+ * Readers only ever see complete matrices: {@link #extend(int[], int[])} never changes a cell this matrix exposes,
+ * but returns a new matrix with one more location.
+ * That new matrix shares this matrix's array if it has spare capacity, otherwise it copies the array once
+ * with room for more locations, so adding customers one by one does not copy the matrix each time.
+ * <p>
+ * A matrix read from a file keeps reading the driving times through the memory-mapped buffer,
+ * so processes that map the same file share its pages instead of each holding a copy on the heap.
+ */
+public final class DrivingTimeMatrix {
+
+    private static final int MIN_SPARE_CAPACITY = 16;
+
+    // Exactly one of both is set.
+    private final int[] drivingTimes;
+    private final IntBuffer mappedDrivingTimes;
+    // Distance between the starts of two rows in the array, at least the locationCount.
+    private final int stride;
+    private final int locationCount;
+    // Only the first extension may write into the spare capacity, later ones would overwrite its cells.
+    private final AtomicBoolean spareCapacityAvailable;
+
+    /**
+     * @param drivingTimes never null, a flat row-major matrix of {@code locationCount * locationCount} driving times,
+     *        not changed afterwards, so it can be shared with other matrices
+     * @param locationCount at least 0
+     */
+    public DrivingTimeMatrix(int[] drivingTimes, int locationCount) {
+        this(drivingTimes, null, locationCount, locationCount, false);
+        checkLength(drivingTimes.length, locationCount);
+    }
+
+    /**
+     * @param mappedDrivingTimes never null, a flat row-major matrix of {@code locationCount * locationCount}
+     *        driving times, typically a read-only view of a {@link java.nio.MappedByteBuffer}
+     * @param locationCount at least 0
+     */
+    public DrivingTimeMatrix(IntBuffer mappedDrivingTimes, int locationCount) {
+        this(null, mappedDrivingTimes, locationCount, locationCount, false);
+        checkLength(mappedDrivingTimes.limit(), locationCount);
+    }
+
+    private DrivingTimeMatrix(int[] drivingTimes, IntBuffer mappedDrivingTimes, int stride, int locationCount,
+            boolean spareCapacityAvailable) {
+        this.drivingTimes = drivingTimes;
+        this.mappedDrivingTimes = mappedDrivingTimes;
+        this.stride = stride;
+        this.locationCount = locationCount;
+        this.spareCapacityAvailable = new AtomicBoolean(spareCapacityAvailable);
+    }
+
+    /**
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return driving time in seconds
+     */
+    public int getDrivingTime(int fromIndex, int toIndex) {
+        int cell = fromIndex * stride + toIndex;
+        // Absolute gets do not change the position of the buffer, so they are thread-safe.
+        return drivingTimes != null ? drivingTimes[cell] : mappedDrivingTimes.get(cell);
+    }
+
+    public int getLocationCount() {
+        return locationCount;
+    }
+
+    private static void checkLength(int length, int locationCount) {
+        if (length != DrivingTimeCalculator.matrixSize(locationCount)) {
+            throw new IllegalArgumentException("The drivingTimes length (%d) does not match the locationCount (%d)."
+                    .formatted(length, locationCount));
+        }
+    }
+
+    // ************************************************************************
+    // Complex methods
+    // ************************************************************************
+
+    /**
+     * @return never null, a new flat row-major matrix of {@code locationCount * locationCount} driving times
+     */
+    public int[] toArray() {
+        int[] array = new int[DrivingTimeCalculator.matrixSize(locationCount)];
+        copyRows(array, locationCount);
+        return array;
+    }
+
+    /**
+     * Adds a location at index {@link #getLocationCount()}.
+     *
+     * @param drivingTimesFrom never null, {@code locationCount + 1} driving times from the new location,
+     *        the driving time to the new location itself last
+     * @param drivingTimesTo never null, {@code locationCount} driving times to the new location
+     * @return never null, this matrix with the new location
+     */
+    public DrivingTimeMatrix extend(int[] drivingTimesFrom, int[] drivingTimesTo) {
+        int newLocationCount = locationCount + 1;
+        if (drivingTimesFrom.length != newLocationCount || drivingTimesTo.length != locationCount) {
+            throw new IllegalArgumentException(("The drivingTimesFrom length (%d) or drivingTimesTo length (%d)"
+                    + " does not match the locationCount (%d).")
+                    .formatted(drivingTimesFrom.length, drivingTimesTo.length, locationCount));
+        }
+        int[] newDrivingTimes;
+        int newStride;
+        if (drivingTimes != null && newLocationCount <= stride && spareCapacityAvailable.compareAndSet(true, false)) {
+            newDrivingTimes = drivingTimes;
+            newStride = stride;
+        } else {
+            // Grow by a quarter, so copying costs amortized linear time per added location, like its driving times.
+            newStride = locationCount + Math.max(MIN_SPARE_CAPACITY, locationCount >> 2);
+            newDrivingTimes = new int[DrivingTimeCalculator.matrixSize(newStride)];
+            copyRows(newDrivingTimes, newStride);
+        }
+        System.arraycopy(drivingTimesFrom, 0, newDrivingTimes, locationCount * newStride, newLocationCount);
+        for (int i = 0; i < locationCount; i++) {
+            newDrivingTimes[i * newStride + locationCount] = drivingTimesTo[i];
+        }
+        return new DrivingTimeMatrix(newDrivingTimes, null, newStride, newLocationCount,
+                newLocationCount < newStride);
+    }
+
+    private void copyRows(int[] target, int targetStride) {
+        for (int i = 0; i < locationCount; i++) {
+            if (drivingTimes != null) {
+                System.arraycopy(drivingTimes, i * stride, target, i * targetStride, locationCount);
+            } else {
+                mappedDrivingTimes.get(i * stride, target, i * targetStride, locationCount);
+            }
+        }
+    }
+}
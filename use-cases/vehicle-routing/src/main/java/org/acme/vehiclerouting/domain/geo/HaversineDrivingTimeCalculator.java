@@ -1,5 +1,8 @@
 package org.acme.vehiclerouting.domain.geo;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import org.acme.vehiclerouting.domain.Location;
 
 /**
@@ -37,6 +40,47 @@ public final class HaversineDrivingTimeCalculator implements DrivingTimeCalculat
         return metersToDrivingSeconds(calculateDistance(fromCartesian, toCartesian));
     }
 
+    /**
+     * Converts every location to Cartesian coordinates only once and then fills the rows of the matrix in parallel.
+     */
+    @Override
+    public int[] calculateDrivingTimeMatrix(List<Location> locations) {
+        int locationCount = locations.size();
+        // Structure of arrays keeps the inner loop free of object dereferences.
+        double[] cartesianX = new double[locationCount];
+        double[] cartesianY = new double[locationCount];
+        double[] cartesianZ = new double[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            CartesianCoordinate cartesian = locationToCartesian(locations.get(i));
+            cartesianX[i] = cartesian.x;
+            cartesianY[i] = cartesian.y;
+            cartesianZ[i] = cartesian.z;
+        }
+
+        int[] drivingTimeMatrix = new int[DrivingTimeCalculator.matrixSize(locationCount)];
+        IntStream.range(0, locationCount).parallel()
+                .forEach(i -> fillDrivingTimeRow(drivingTimeMatrix, i, cartesianX, cartesianY, cartesianZ));
+        return drivingTimeMatrix;
+    }
+
+    private static void fillDrivingTimeRow(int[] drivingTimeMatrix, int fromIndex,
+            double[] cartesianX, double[] cartesianY, double[] cartesianZ) {
+        int locationCount = cartesianX.length;
+        int rowOffset = fromIndex * locationCount;
+        double fromX = cartesianX[fromIndex];
+        double fromY = cartesianY[fromIndex];
+        double fromZ = cartesianZ[fromIndex];
+        for (int j = 0; j < locationCount; j++) {
+            double dX = fromX - cartesianX[j];
+            double dY = fromY - cartesianY[j];
+            double dZ = fromZ - cartesianZ[j];
+            double r = Math.sqrt((dX * dX) + (dY * dY) + (dZ * dZ));
+            // The diagonal needs no special case: r is 0.0 there.
+            drivingTimeMatrix[rowOffset + j] =
+                    (int) metersToDrivingSeconds(Math.round(TWICE_EARTH_RADIUS_IN_M * Math.asin(r)));
+        }
+    }
+
     private long calculateDistance(CartesianCoordinate from, CartesianCoordinate to) {
         if (from.equals(to)) {
             return 0L;
@@ -0,0 +1,94 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Decorates another {@link DrivingTimeCalculator} so that initializing the driving times of a route plan
+ * no longer calculates the matrix up front, but gives its locations a {@link LazyDrivingTimeMatrix} instead.
+ * This keeps the memory linear in the number of locations, for plans too large for a complete matrix.
+ */
+public final class LazyDrivingTimeCalculator implements DrivingTimeCalculator {
+
+    private final DrivingTimeCalculator delegate;
+    private final int nearbyCount;
+    private final int maxCachedRowCount;
+
+    /**
+     * @param delegate never null
+     * @param nearbyCount 0 to calculate complete rows, see {@link LazyDrivingTimeMatrix}
+     * @param maxCachedRowCount at least 1
+     */
+    public LazyDrivingTimeCalculator(DrivingTimeCalculator delegate, int nearbyCount, int maxCachedRowCount) {
+        this.delegate = delegate;
+        this.nearbyCount = nearbyCount;
+        this.maxCachedRowCount = maxCachedRowCount;
+    }
+
+    public DrivingTimeCalculator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public long calculateDrivingTime(Location from, Location to) {
+        return delegate.calculateDrivingTime(from, to);
+    }
+
+    @Override
+    public Map<Location, Map<Location, Long>> calculateBulkDrivingTime(Collection<Location> fromLocations,
+            Collection<Location> toLocations) {
+        return delegate.calculateBulkDrivingTime(fromLocations, toLocations);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeRow(Location from, List<Location> toLocations) {
+        return delegate.calculateDrivingTimeRow(from, toLocations);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeColumn(List<Location> fromLocations, Location to) {
+        return delegate.calculateDrivingTimeColumn(fromLocations, to);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeMatrix(List<Location> locations) {
+        return delegate.calculateDrivingTimeMatrix(locations);
+    }
+
+    @Override
+    public DrivingTimeMatrix createDrivingTimeMatrix(List<Location> locations) {
+        return delegate.createDrivingTimeMatrix(locations);
+    }
+
+    @Override
+    public void initDrivingTimeMaps(Collection<Location> locations) {
+        initDrivingTimeMaps(List.copyOf(locations), 0);
+    }
+
+    @Override
+    public void initDrivingTimeMaps(List<Location> locations, int hubCount) {
+        LazyDrivingTimeMatrix drivingTimeMatrix = new LazyDrivingTimeMatrix(delegate, locations, hubCount,
+                nearbyCount, maxCachedRowCount);
+        for (int i = 0; i < locations.size(); i++) {
+            locations.get(i).setLazyDrivingTimeMatrix(i, drivingTimeMatrix);
+        }
+    }
+
+    @Override
+    public void extendDrivingTimeMaps(List<Location> locations, Location newLocation) {
+        LazyDrivingTimeMatrix drivingTimeMatrix = locations.get(0).getLazyDrivingTimeMatrix();
+        LazyDrivingTimeMatrix extendedDrivingTimeMatrix = drivingTimeMatrix.extend(newLocation);
+        for (Location location : locations) {
+            location.setLazyDrivingTimeMatrix(location.getIndex(), extendedDrivingTimeMatrix);
+        }
+        newLocation.setLazyDrivingTimeMatrix(drivingTimeMatrix.getLocationCount(), extendedDrivingTimeMatrix);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return delegate.getCacheKey();
+    }
+}
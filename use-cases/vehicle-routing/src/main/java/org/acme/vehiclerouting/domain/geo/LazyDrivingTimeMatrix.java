@@ -0,0 +1,301 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * A driving time matrix of which each row is calculated on first access, instead of all rows up front.
+ * <p>
+ * At most {@code maxCachedRowCount} rows are kept. Beyond that, a row that was not accessed recently is evicted
+ * (clock eviction) and calculated again on its next access.
+ * With a {@code nearbyCount}, a row only holds the driving times to the hubs and to the nearest other locations
+ * (as the crow flies), so it takes constant memory. Driving times to the other locations are calculated one by one
+ * on first access and kept with the row in a bounded overflow map, which is cleared when it is full.
+ * The rows of the hubs themselves stay complete: every route starts from a hub, to any location.
+ * <p>
+ * This class is thread-safe: planning clones on other threads share the same locations, so the same matrix.
+ */
+public final class LazyDrivingTimeMatrix {
+
+    private static final int NOT_IN_ROW = -1;
+    private static final int MIN_MAX_OVERFLOW_SIZE = 64;
+
+    private final DrivingTimeCalculator drivingTimeCalculator;
+    private final List<Location> locations;
+    private final int hubCount;
+    private final int nearbyCount;
+    private final int maxCachedRowCount;
+    // Coordinates on the unit sphere, only to pick the nearby locations of a row or of a nearby index.
+    private final double[] cartesianX;
+    private final double[] cartesianY;
+    private final double[] cartesianZ;
+
+    private final AtomicReferenceArray<Row> rows;
+    private final AtomicInteger cachedRowCount = new AtomicInteger();
+    private final AtomicInteger clockHand = new AtomicInteger();
+
+    /**
+     * @param drivingTimeCalculator never null, calculates the rows
+     * @param locations never null, the index of a location in the matrix is its position in this list
+     * @param hubCount between 0 and {@code locations.size()}, the first locations, which every row includes
+     * @param nearbyCount 0 to calculate complete rows, otherwise the number of nearest other locations in a row,
+     *        except in the rows of the hubs, which are always complete
+     * @param maxCachedRowCount at least 1
+     */
+    public LazyDrivingTimeMatrix(DrivingTimeCalculator drivingTimeCalculator, List<Location> locations, int hubCount,
+            int nearbyCount, int maxCachedRowCount) {
+        if (hubCount < 0 || hubCount > locations.size()) {
+            throw new IllegalArgumentException("The hubCount (%d) must be between 0 and the locationCount (%d)."
+                    .formatted(hubCount, locations.size()));
+        }
+        if (nearbyCount < 0) {
+            throw new IllegalArgumentException("The nearbyCount (%d) must not be negative.".formatted(nearbyCount));
+        }
+        if (maxCachedRowCount < 1) {
+            throw new IllegalArgumentException("The maxCachedRowCount (%d) must be at least 1."
+                    .formatted(maxCachedRowCount));
+        }
+        this.drivingTimeCalculator = drivingTimeCalculator;
+        this.locations = List.copyOf(locations);
+        this.hubCount = hubCount;
+        this.nearbyCount = nearbyCount;
+        this.maxCachedRowCount = maxCachedRowCount;
+        int locationCount = locations.size();
+        cartesianX = new double[locationCount];
+        cartesianY = new double[locationCount];
+        cartesianZ = new double[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            setCartesian(i, locations.get(i));
+        }
+        this.rows = new AtomicReferenceArray<>(locationCount);
+    }
+
+    private LazyDrivingTimeMatrix(LazyDrivingTimeMatrix matrix, Location newLocation) {
+        this.drivingTimeCalculator = matrix.drivingTimeCalculator;
+        List<Location> newLocations = new ArrayList<>(matrix.locations.size() + 1);
+        newLocations.addAll(matrix.locations);
+        newLocations.add(newLocation);
+        this.locations = newLocations;
+        this.hubCount = matrix.hubCount;
+        this.nearbyCount = matrix.nearbyCount;
+        this.maxCachedRowCount = matrix.maxCachedRowCount;
+        int locationCount = newLocations.size();
+        cartesianX = Arrays.copyOf(matrix.cartesianX, locationCount);
+        cartesianY = Arrays.copyOf(matrix.cartesianY, locationCount);
+        cartesianZ = Arrays.copyOf(matrix.cartesianZ, locationCount);
+        setCartesian(locationCount - 1, newLocation);
+        this.rows = new AtomicReferenceArray<>(locationCount);
+        // The cached rows stay valid: they just lack the new location, like rows without it nearby.
+        for (int i = 0; i < locationCount - 1; i++) {
+            Row row = matrix.rows.get(i);
+            if (row != null) {
+                rows.set(i, row);
+                cachedRowCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void setCartesian(int index, Location location) {
+        double latitudeInRads = Math.toRadians(location.getLatitude());
+        double longitudeInRads = Math.toRadians(location.getLongitude());
+        cartesianX[index] = Math.cos(latitudeInRads) * Math.sin(longitudeInRads);
+        cartesianY[index] = Math.cos(latitudeInRads) * Math.cos(longitudeInRads);
+        cartesianZ[index] = Math.sin(latitudeInRads);
+    }
+
+    /**
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return driving time in seconds
+     */
+    public long getDrivingTime(int fromIndex, int toIndex) {
+        Row row = rows.get(fromIndex);
+        if (row == null) {
+            row = loadRow(fromIndex);
+        } else if (!row.referenced) {
+            row.referenced = true;
+        }
+        int drivingTime = row.getDrivingTime(toIndex);
+        if (drivingTime == NOT_IN_ROW) {
+            drivingTime = row.getOverflowDrivingTime(toIndex);
+            if (drivingTime == NOT_IN_ROW) {
+                // Another thread may calculate the same driving time concurrently, which is harmless.
+                drivingTime = Math.toIntExact(drivingTimeCalculator.calculateDrivingTime(locations.get(fromIndex),
+                        locations.get(toIndex)));
+                row.putOverflowDrivingTime(toIndex, drivingTime);
+            }
+        }
+        return drivingTime;
+    }
+
+    /**
+     * Ranks locations like the nearby locations of a row, without calculating any driving time.
+     *
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return at least 0, the squared chord length between both locations on the unit sphere,
+     *         which orders locations like their great-circle distance
+     */
+    public double getCrowFliesDistance(int fromIndex, int toIndex) {
+        double dX = cartesianX[fromIndex] - cartesianX[toIndex];
+        double dY = cartesianY[fromIndex] - cartesianY[toIndex];
+        double dZ = cartesianZ[fromIndex] - cartesianZ[toIndex];
+        return (dX * dX) + (dY * dY) + (dZ * dZ);
+    }
+
+    public int getLocationCount() {
+        return locations.size();
+    }
+
+    /**
+     * @return at most {@code maxCachedRowCount}, except briefly while rows are being added concurrently
+     */
+    public int getCachedRowCount() {
+        return cachedRowCount.get();
+    }
+
+    // ************************************************************************
+    // Complex methods
+    // ************************************************************************
+
+    /**
+     * Leaves this matrix unchanged for the threads that still read it.
+     *
+     * @param newLocation never null
+     * @return never null, this matrix with the new location at index {@link #getLocationCount()},
+     *         keeping the rows calculated so far
+     */
+    public LazyDrivingTimeMatrix extend(Location newLocation) {
+        return new LazyDrivingTimeMatrix(this, newLocation);
+    }
+
+    private Row loadRow(int fromIndex) {
+        Row row = calculateRow(fromIndex);
+        if (!rows.compareAndSet(fromIndex, null, row)) {
+            // Another thread calculated the same row first.
+            Row cachedRow = rows.get(fromIndex);
+            return cachedRow == null ? row : cachedRow;
+        }
+        if (cachedRowCount.incrementAndGet() > maxCachedRowCount) {
+            evictRows(fromIndex);
+        }
+        return row;
+    }
+
+    private void evictRows(int keptIndex) {
+        int locationCount = rows.length();
+        while (cachedRowCount.get() > maxCachedRowCount) {
+            int index = Math.floorMod(clockHand.getAndIncrement(), locationCount);
+            Row row = rows.get(index);
+            if (index == keptIndex || row == null) {
+                continue;
+            }
+            if (row.referenced) {
+                // Second chance: evicted on the next sweep unless accessed again before.
+                row.referenced = false;
+            } else if (rows.compareAndSet(index, row, null)) {
+                cachedRowCount.decrementAndGet();
+            }
+        }
+    }
+
+    private Row calculateRow(int fromIndex) {
+        Location from = locations.get(fromIndex);
+        if (nearbyCount == 0 || fromIndex < hubCount) {
+            return new Row(null, drivingTimeCalculator.calculateDrivingTimeRow(from, locations));
+        }
+        int[] toIndexes = selectRowIndexes(fromIndex);
+        List<Location> toLocations = Arrays.stream(toIndexes).mapToObj(locations::get).toList();
+        return new Row(toIndexes, drivingTimeCalculator.calculateDrivingTimeRow(from, toLocations));
+    }
+
+    /**
+     * @return never null, sorted, the hubs and the nearest other locations
+     */
+    private int[] selectRowIndexes(int fromIndex) {
+        int locationCount = locations.size();
+        int cappedNearbyCount = Math.min(nearbyCount, Math.max(0, locationCount - hubCount - 1));
+        int[] nearbyIndexes = new int[cappedNearbyCount];
+        double[] distances = new double[cappedNearbyCount];
+        int size = 0;
+        double fromX = cartesianX[fromIndex];
+        double fromY = cartesianY[fromIndex];
+        double fromZ = cartesianZ[fromIndex];
+        for (int toIndex = hubCount; toIndex < locationCount && cappedNearbyCount > 0; toIndex++) {
+            if (toIndex == fromIndex) {
+                continue;
+            }
+            double dX = fromX - cartesianX[toIndex];
+            double dY = fromY - cartesianY[toIndex];
+            double dZ = fromZ - cartesianZ[toIndex];
+            // The squared chord length orders locations like their great-circle distance.
+            double distance = (dX * dX) + (dY * dY) + (dZ * dZ);
+            if (size == cappedNearbyCount && distance >= distances[size - 1]) {
+                continue;
+            }
+            int position = size == cappedNearbyCount ? size - 1 : size++;
+            while (position > 0 && distances[position - 1] > distance) {
+                distances[position] = distances[position - 1];
+                nearbyIndexes[position] = nearbyIndexes[position - 1];
+                position--;
+            }
+            distances[position] = distance;
+            nearbyIndexes[position] = toIndex;
+        }
+        int[] toIndexes = new int[hubCount + size];
+        for (int i = 0; i < hubCount; i++) {
+            toIndexes[i] = i;
+        }
+        System.arraycopy(nearbyIndexes, 0, toIndexes, hubCount, size);
+        Arrays.sort(toIndexes, hubCount, toIndexes.length);
+        return toIndexes;
+    }
+
+    private static final class Row {
+
+        // Null if the row holds the driving times to all locations.
+        private final int[] toIndexes;
+        private final int[] drivingTimes;
+        // Driving times to the locations outside the row, by their index, at most maxOverflowSize.
+        private final Map<Integer, Integer> overflowDrivingTimes = new ConcurrentHashMap<>();
+        private final int maxOverflowSize;
+        // Written racily: a lost update only changes which row is evicted.
+        private volatile boolean referenced = true;
+
+        private Row(int[] toIndexes, int[] drivingTimes) {
+            this.toIndexes = toIndexes;
+            this.drivingTimes = drivingTimes;
+            // Bounded by the row itself, so the overflow map at most doubles the memory of the cached rows.
+            this.maxOverflowSize = Math.max(MIN_MAX_OVERFLOW_SIZE, drivingTimes.length);
+        }
+
+        private int getDrivingTime(int toIndex) {
+            if (toIndexes == null) {
+                // A complete row calculated before the matrix was extended lacks the new locations.
+                return toIndex < drivingTimes.length ? drivingTimes[toIndex] : NOT_IN_ROW;
+            }
+            int position = Arrays.binarySearch(toIndexes, toIndex);
+            return position < 0 ? NOT_IN_ROW : drivingTimes[position];
+        }
+
+        private int getOverflowDrivingTime(int toIndex) {
+            Integer drivingTime = overflowDrivingTimes.get(toIndex);
+            return drivingTime == null ? NOT_IN_ROW : drivingTime;
+        }
+
+        private void putOverflowDrivingTime(int toIndex, int drivingTime) {
+            if (overflowDrivingTimes.size() >= maxOverflowSize) {
+                // Start over, so the map follows the pairs the solver currently uses.
+                overflowDrivingTimes.clear();
+            }
+            overflowDrivingTimes.put(toIndex, drivingTime);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Measures how near one location is to another, to rank them in a {@link NearbyLocationIndex}.
+ * Only the order of the distances matters, not their unit, and they need not be symmetric.
+ */
+@FunctionalInterface
+public interface LocationDistanceMeter {
+
+    /**
+     * Must be thread-safe, because the rows of an index are built in parallel.
+     *
+     * @param origin never null
+     * @param destination never null
+     * @return at least 0, lower if the destination is nearer
+     */
+    double getNearbyDistance(Location origin, Location destination);
+}
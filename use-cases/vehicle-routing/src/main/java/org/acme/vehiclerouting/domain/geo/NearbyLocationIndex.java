@@ -0,0 +1,98 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * A k-nearest-neighbour index: for every location, the positions of the nearest other locations
+ * sorted by ascending nearby distance. Positions refer to the list the index was built from.
+ */
+public final class NearbyLocationIndex {
+
+    private final Class<?> nearbyDistanceMeterClass;
+    private final int locationCount;
+    private final int nearbyCount;
+    // Row-major: the nearby locations of location i are at [i * nearbyCount, (i + 1) * nearbyCount).
+    private final int[] nearbyIndexes;
+
+    private NearbyLocationIndex(Class<?> nearbyDistanceMeterClass, int locationCount, int nearbyCount,
+            int[] nearbyIndexes) {
+        this.nearbyDistanceMeterClass = nearbyDistanceMeterClass;
+        this.locationCount = locationCount;
+        this.nearbyCount = nearbyCount;
+        this.nearbyIndexes = nearbyIndexes;
+    }
+
+    /**
+     * @param locations never null
+     * @param nearbyDistanceMeter never null, must be thread-safe because rows are computed in parallel
+     * @param nearbyCount at least 1, capped to the number of other locations
+     * @return never null
+     */
+    public static NearbyLocationIndex build(List<Location> locations, LocationDistanceMeter nearbyDistanceMeter,
+            int nearbyCount) {
+        if (nearbyCount < 1) {
+            throw new IllegalArgumentException("The nearbyCount (%d) must be at least 1.".formatted(nearbyCount));
+        }
+        int locationCount = locations.size();
+        int cappedNearbyCount = Math.max(0, Math.min(nearbyCount, locationCount - 1));
+        int[] nearbyIndexes = new int[locationCount * cappedNearbyCount];
+        if (cappedNearbyCount > 0) {
+            IntStream.range(0, locationCount).parallel()
+                    .forEach(origin -> fillNearbyRow(locations, nearbyDistanceMeter, origin, cappedNearbyCount,
+                            nearbyIndexes));
+        }
+        return new NearbyLocationIndex(nearbyDistanceMeter.getClass(), locationCount, cappedNearbyCount, nearbyIndexes);
+    }
+
+    private static void fillNearbyRow(List<Location> locations, LocationDistanceMeter nearbyDistanceMeter,
+            int origin, int nearbyCount, int[] nearbyIndexes) {
+        Location originLocation = locations.get(origin);
+        int offset = origin * nearbyCount;
+        double[] distances = new double[nearbyCount];
+        int size = 0;
+        for (int destination = 0; destination < locations.size(); destination++) {
+            if (destination == origin) {
+                continue;
+            }
+            double distance = nearbyDistanceMeter.getNearbyDistance(originLocation, locations.get(destination));
+            if (size == nearbyCount && distance >= distances[size - 1]) {
+                continue;
+            }
+            // Insertion into the sorted row; ties keep the lowest position first to stay reproducible.
+            int position = size == nearbyCount ? size - 1 : size++;
+            while (position > 0 && distances[position - 1] > distance) {
+                distances[position] = distances[position - 1];
+                nearbyIndexes[offset + position] = nearbyIndexes[offset + position - 1];
+                position--;
+            }
+            distances[position] = distance;
+            nearbyIndexes[offset + position] = destination;
+        }
+    }
+
+    public boolean isBuiltFor(Class<?> nearbyDistanceMeterClass, int locationCount, int nearbyCount) {
+        return this.nearbyDistanceMeterClass == nearbyDistanceMeterClass
+                && this.locationCount == locationCount
+                && this.nearbyCount == Math.max(0, Math.min(nearbyCount, locationCount - 1));
+    }
+
+    public int getLocationCount() {
+        return locationCount;
+    }
+
+    public int getNearbyCount() {
+        return nearbyCount;
+    }
+
+    /**
+     * @param origin position of the origin location
+     * @param nearbyOrdinal 0 for the nearest location, 1 for the second nearest, and so on
+     * @return position of the nearby location
+     */
+    public int getNearbyIndex(int origin, int nearbyOrdinal) {
+        return nearbyIndexes[origin * nearbyCount + nearbyOrdinal];
+    }
+}
@@ -0,0 +1,26 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Calculates driving times that depend on when a leg starts, such as longer ones during rush hour,
+ * on top of the free-flow driving time matrix of the locations.
+ * Used while solving, so implementations must be fast and must always return the same driving time
+ * for the same arguments.
+ */
+@FunctionalInterface
+public interface TimeDependentDrivingTimeCalculator {
+
+    /**
+     * Ignores the departure time, so every leg takes its free-flow driving time.
+     */
+    TimeDependentDrivingTimeCalculator FREE_FLOW = (from, to, departureEpochSecond) -> from.getDrivingTimeTo(to);
+
+    /**
+     * @param from starting location, with its driving time matrix initialized
+     * @param to target location, sharing the same driving time matrix
+     * @param departureEpochSecond when the leg starts, see {@link org.acme.vehiclerouting.domain.EpochSeconds}
+     * @return driving time in seconds
+     */
+    long calculateDrivingTime(Location from, Location to, long departureEpochSecond);
+}
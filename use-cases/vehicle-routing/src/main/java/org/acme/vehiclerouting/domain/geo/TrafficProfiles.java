@@ -0,0 +1,105 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import org.acme.vehiclerouting.domain.Location;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Multiplies the free-flow driving time of a leg by a factor of the hour of the day in which the leg starts.
+ * <p>
+ * Instead of a driving time matrix per hour, every profile holds 24 multipliers, one per hour of the day,
+ * each quantized to a byte in steps of {@code 1/}{@value #MULTIPLIER_SCALE}, up to almost 4 times the free-flow time.
+ * A leg uses the profile of the location it starts from, see {@link Location#getTrafficProfileIndex()},
+ * so a few profiles, such as city center and highway, cost 24 bytes each on top of the one matrix.
+ * In JSON, the profiles are an array of 24 multipliers per profile,
+ * and a location's profile index is the optional third element of its array.
+ */
+public final class TrafficProfiles implements TimeDependentDrivingTimeCalculator {
+
+    public static final int HOURS_PER_DAY = 24;
+    static final int MULTIPLIER_SCALE = 64;
+    private static final int MAX_QUANTIZED_MULTIPLIER = 0xFF;
+    private static final long SECONDS_PER_HOUR = 3600L;
+    private static final long SECONDS_PER_DAY = HOURS_PER_DAY * SECONDS_PER_HOUR;
+
+    private final int profileCount;
+    // Profile after profile, each with 24 unsigned multipliers.
+    private final byte[] quantizedMultipliers;
+
+    private TrafficProfiles(int profileCount, byte[] quantizedMultipliers) {
+        this.profileCount = profileCount;
+        this.quantizedMultipliers = quantizedMultipliers;
+    }
+
+    /**
+     * @param hourlyMultipliers never null, at least 1 profile of 24 multipliers each,
+     *        a multiplier of 1.0 keeps the free-flow driving time
+     * @return never null
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static TrafficProfiles of(double[][] hourlyMultipliers) {
+        if (hourlyMultipliers.length == 0) {
+            throw new IllegalArgumentException("There must be at least 1 traffic profile.");
+        }
+        byte[] quantizedMultipliers = new byte[hourlyMultipliers.length * HOURS_PER_DAY];
+        for (int profileIndex = 0; profileIndex < hourlyMultipliers.length; profileIndex++) {
+            double[] profile = hourlyMultipliers[profileIndex];
+            if (profile.length != HOURS_PER_DAY) {
+                throw new IllegalArgumentException(
+                        "The traffic profile (%d) has %d multipliers instead of one per hour (%d)."
+                                .formatted(profileIndex, profile.length, HOURS_PER_DAY));
+            }
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                long quantizedMultiplier = Math.round(profile[hour] * MULTIPLIER_SCALE);
+                if (quantizedMultiplier < 1 || quantizedMultiplier > MAX_QUANTIZED_MULTIPLIER) {
+                    throw new IllegalArgumentException(
+                            "The multiplier (%s) of traffic profile (%d) at hour (%d) must be between %s and %s."
+                                    .formatted(profile[hour], profileIndex, hour, 1.0 / MULTIPLIER_SCALE,
+                                            (double) MAX_QUANTIZED_MULTIPLIER / MULTIPLIER_SCALE));
+                }
+                quantizedMultipliers[profileIndex * HOURS_PER_DAY + hour] = (byte) quantizedMultiplier;
+            }
+        }
+        return new TrafficProfiles(hourlyMultipliers.length, quantizedMultipliers);
+    }
+
+    /**
+     * @return never null, the multipliers after quantization
+     */
+    @JsonValue
+    public double[][] getHourlyMultipliers() {
+        double[][] hourlyMultipliers = new double[profileCount][HOURS_PER_DAY];
+        for (int i = 0; i < quantizedMultipliers.length; i++) {
+            hourlyMultipliers[i / HOURS_PER_DAY][i % HOURS_PER_DAY] =
+                    (double) Byte.toUnsignedInt(quantizedMultipliers[i]) / MULTIPLIER_SCALE;
+        }
+        return hourlyMultipliers;
+    }
+
+    public int getProfileCount() {
+        return profileCount;
+    }
+
+    /**
+     * @param location never null
+     * @throws IllegalArgumentException if the location refers to a profile that does not exist
+     */
+    public void checkProfileIndex(Location location) {
+        if (location.getTrafficProfileIndex() >= profileCount) {
+            throw new IllegalArgumentException(
+                    "The trafficProfileIndex (%d) of the location (%s) must be lower than the profileCount (%d)."
+                            .formatted(location.getTrafficProfileIndex(), location, profileCount));
+        }
+    }
+
+    @Override
+    public long calculateDrivingTime(Location from, Location to, long departureEpochSecond) {
+        long freeFlowDrivingTime = from.getDrivingTimeTo(to);
+        int hour = (int) (Math.floorMod(departureEpochSecond, SECONDS_PER_DAY) / SECONDS_PER_HOUR);
+        int quantizedMultiplier =
+                Byte.toUnsignedInt(quantizedMultipliers[from.getTrafficProfileIndex() * HOURS_PER_DAY + hour]);
+        // Integer arithmetic, rounded to the nearest second, so incremental score calculation stays exact.
+        return (freeFlowDrivingTime * quantizedMultiplier + MULTIPLIER_SCALE / 2) / MULTIPLIER_SCALE;
+    }
+}
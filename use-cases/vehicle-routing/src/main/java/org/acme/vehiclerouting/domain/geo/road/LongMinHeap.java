@@ -0,0 +1,79 @@
+package org.acme.vehiclerouting.domain.geo.road;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of primitive longs, used as a priority queue of {@code (priority << 32) | node} entries
+ * without boxing.
+ */
+final class LongMinHeap {
+
+    private long[] elements = new long[64];
+    private int size = 0;
+
+    static long pack(int priority, int node) {
+        return ((long) priority << 32) | node;
+    }
+
+    static int priority(long element) {
+        return (int) (element >> 32);
+    }
+
+    static int node(long element) {
+        return (int) element;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(long element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            long parent = elements[parentIndex];
+            if (parent <= element) {
+                break;
+            }
+            elements[index] = parent;
+            index = parentIndex;
+        }
+        elements[index] = element;
+    }
+
+    long peek() {
+        return elements[0];
+    }
+
+    long poll() {
+        long result = elements[0];
+        long last = elements[--size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            long child = elements[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && elements[rightIndex] < child) {
+                childIndex = rightIndex;
+                child = elements[rightIndex];
+            }
+            if (last <= child) {
+                break;
+            }
+            elements[index] = child;
+            index = childIndex;
+        }
+        if (size > 0) {
+            elements[index] = last;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,295 @@
+package org.acme.vehiclerouting.domain.geo.road;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * A road network preprocessed into a contraction hierarchy by {@link RoadNetworkBuilder}.
+ * <p>
+ * Every edge leads either up or down the hierarchy of node importance.
+ * The upward edges are used by forward searches from a source,
+ * the downward edges are stored reversed and used by backward searches from a target.
+ * Both searches only ever go up, so their search spaces stay small even on large networks,
+ * and a shortest path is found where they meet.
+ * <p>
+ * The binary file is little-endian: a header (magic number, format version, node count, upward edge count,
+ * downward edge count), the node coordinates, then both edge sets in compressed sparse row layout.
+ */
+public final class RoadNetwork {
+
+    static final int MAGIC_NUMBER = 0x5652524E; // "VRRN"
+    static final int FORMAT_VERSION = 1;
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    public static final int NO_NODE = -1;
+
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final double GRID_CELL_DEGREES = 0.01;
+    private static final int GRID_LATITUDE_OFFSET = 9_000;
+    private static final int GRID_LONGITUDE_OFFSET = 18_000;
+    // Wraps around at the antimeridian: a longitude of 180 degrees falls in the cell of -180 degrees.
+    private static final int GRID_LONGITUDE_CELLS = 36_000;
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180.0;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] upwardFirstEdge;
+    private final int[] upwardTargets;
+    private final int[] upwardWeights;
+    private final int[] downwardFirstEdge;
+    private final int[] downwardSources;
+    private final int[] downwardWeights;
+    private final long checksum;
+
+    /**
+     * Node indexes sorted by grid cell, each packed as {@code (cellKey << 32) | node}.
+     */
+    private final long[] nodesByGridCell;
+    private final ThreadLocal<UpwardSearch> upwardSearch;
+
+    RoadNetwork(double[] latitudes, double[] longitudes,
+            int[] upwardFirstEdge, int[] upwardTargets, int[] upwardWeights,
+            int[] downwardFirstEdge, int[] downwardSources, int[] downwardWeights) {
+        if (latitudes.length == 0) {
+            throw new IllegalArgumentException("The road network must have at least one node.");
+        }
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.upwardFirstEdge = upwardFirstEdge;
+        this.upwardTargets = upwardTargets;
+        this.upwardWeights = upwardWeights;
+        this.downwardFirstEdge = downwardFirstEdge;
+        this.downwardSources = downwardSources;
+        this.downwardWeights = downwardWeights;
+        this.checksum = calculateChecksum(new double[][] { latitudes, longitudes },
+                new int[][] { upwardFirstEdge, upwardTargets, upwardWeights,
+                        downwardFirstEdge, downwardSources, downwardWeights });
+        this.nodesByGridCell = new long[latitudes.length];
+        for (int node = 0; node < latitudes.length; node++) {
+            nodesByGridCell[node] = ((long) gridCellKey(latitudeCell(latitudes[node]), longitudeCell(longitudes[node])) << 32)
+                    | node;
+        }
+        Arrays.sort(nodesByGridCell);
+        int nodeCount = latitudes.length;
+        this.upwardSearch = ThreadLocal.withInitial(() -> new UpwardSearch(nodeCount));
+    }
+
+    public int getNodeCount() {
+        return latitudes.length;
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * @return a checksum of the network contents, which identifies the driving times it produces
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    // ************************************************************************
+    // Queries
+    // ************************************************************************
+
+    /**
+     * Find the node closest to the given coordinates, using a grid index of {@link #GRID_CELL_DEGREES} cells.
+     * Only the cells within the maximum distance are searched, so a location outside the network fails fast.
+     *
+     * @param maxDistanceMeters at least 0, as the crow flies
+     * @return the node index, or {@link #NO_NODE} if no node is within the maximum distance
+     */
+    public int findNearestNode(double latitude, double longitude, double maxDistanceMeters) {
+        int latitudeCell = latitudeCell(latitude);
+        int longitudeCell = longitudeCell(longitude);
+        double longitudeScale = Math.cos(Math.toRadians(latitude));
+        double maxDistanceDegrees = maxDistanceMeters / METERS_PER_DEGREE;
+        // A cell spans less distance in longitude than in latitude, so the longitude decides the ring count.
+        double longitudeCellDegrees = GRID_CELL_DEGREES * Math.max(longitudeScale, 1e-9);
+        int maxRing = (int) Math.min(GRID_LONGITUDE_CELLS / 2, Math.ceil(maxDistanceDegrees / longitudeCellDegrees));
+        int nearestNode = NO_NODE;
+        // Just beyond the maximum distance, so a node at exactly that distance is found.
+        double nearestDistanceSquared = Math.nextUp(maxDistanceDegrees * maxDistanceDegrees);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (ring > 0) {
+                // Any node in this ring or further is at least (ring - 1) cells away in one of both directions.
+                double ringDistance = (ring - 1) * GRID_CELL_DEGREES * longitudeScale;
+                if (ringDistance * ringDistance > nearestDistanceSquared) {
+                    break;
+                }
+            }
+            for (int dLatitude = -ring; dLatitude <= ring; dLatitude++) {
+                boolean latitudeBorder = dLatitude == -ring || dLatitude == ring;
+                int dLongitudeStep = latitudeBorder ? 1 : 2 * ring;
+                for (int dLongitude = -ring; dLongitude <= ring; dLongitude += Math.max(1, dLongitudeStep)) {
+                    int cellKey = gridCellKey(latitudeCell + dLatitude, longitudeCell + dLongitude);
+                    if (cellKey < 0) {
+                        continue;
+                    }
+                    int index = firstIndexOfCell(cellKey);
+                    for (; index < nodesByGridCell.length && (int) (nodesByGridCell[index] >>> 32) == cellKey; index++) {
+                        int node = (int) nodesByGridCell[index];
+                        double dY = latitudes[node] - latitude;
+                        double dX = wrapLongitude(longitudes[node] - longitude) * longitudeScale;
+                        double distanceSquared = dX * dX + dY * dY;
+                        if (distanceSquared < nearestDistanceSquared) {
+                            nearestDistanceSquared = distanceSquared;
+                            nearestNode = node;
+                        }
+                    }
+                }
+            }
+        }
+        return nearestNode;
+    }
+
+    /**
+     * Search upward from a source node. Not to be confused with a full shortest path search.
+     */
+    UpwardSearch.SearchSpace searchForward(int sourceNode) {
+        return upwardSearch.get().search(sourceNode, upwardFirstEdge, upwardTargets, upwardWeights);
+    }
+
+    /**
+     * Search upward from a target node, following the downward edges in reverse.
+     */
+    UpwardSearch.SearchSpace searchBackward(int targetNode) {
+        return upwardSearch.get().search(targetNode, downwardFirstEdge, downwardSources, downwardWeights);
+    }
+
+    private static long calculateChecksum(double[][] doubleArrays, int[][] intArrays) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer chunk = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+        for (double[] doubleArray : doubleArrays) {
+            for (double value : doubleArray) {
+                if (chunk.remaining() < Double.BYTES) {
+                    crc.update(chunk.flip());
+                    chunk.clear();
+                }
+                chunk.putDouble(value);
+            }
+        }
+        for (int[] intArray : intArrays) {
+            for (int value : intArray) {
+                if (chunk.remaining() < Integer.BYTES) {
+                    crc.update(chunk.flip());
+                    chunk.clear();
+                }
+                chunk.putInt(value);
+            }
+        }
+        crc.update(chunk.flip());
+        return crc.getValue();
+    }
+
+    private int firstIndexOfCell(int cellKey) {
+        long key = (long) cellKey << 32;
+        int index = Arrays.binarySearch(nodesByGridCell, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int latitudeCell(double latitude) {
+        return (int) Math.floor(latitude / GRID_CELL_DEGREES);
+    }
+
+    private static int longitudeCell(double longitude) {
+        return (int) Math.floor(longitude / GRID_CELL_DEGREES);
+    }
+
+    private static int gridCellKey(int latitudeCell, int longitudeCell) {
+        int shiftedLatitudeCell = latitudeCell + GRID_LATITUDE_OFFSET;
+        if (shiftedLatitudeCell < 0 || shiftedLatitudeCell > 2 * GRID_LATITUDE_OFFSET) {
+            return -1;
+        }
+        int shiftedLongitudeCell = Math.floorMod(longitudeCell + GRID_LONGITUDE_OFFSET, GRID_LONGITUDE_CELLS);
+        return shiftedLatitudeCell * GRID_LONGITUDE_CELLS + shiftedLongitudeCell;
+    }
+
+    /**
+     * @return between -180 and 180, the shortest way around the globe
+     */
+    private static double wrapLongitude(double dLongitude) {
+        if (dLongitude > 180.0) {
+            return dLongitude - 360.0;
+        } else if (dLongitude < -180.0) {
+            return dLongitude + 360.0;
+        }
+        return dLongitude;
+    }
+
+    // ************************************************************************
+    // I/O
+    // ************************************************************************
+
+    public static RoadNetwork read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC_NUMBER) {
+                throw new IOException("The file (%s) is not a road network.".formatted(file));
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("The road network file (%s) has an unsupported format version (%d)."
+                        .formatted(file, formatVersion));
+            }
+            int nodeCount = buffer.getInt();
+            int upwardEdgeCount = buffer.getInt();
+            int downwardEdgeCount = buffer.getInt();
+            long expectedBytes = HEADER_BYTES + 2L * nodeCount * Double.BYTES
+                    + 2L * (nodeCount + 1) * Integer.BYTES
+                    + 2L * (upwardEdgeCount + downwardEdgeCount) * Integer.BYTES;
+            if (channel.size() != expectedBytes) {
+                throw new IOException("The road network file (%s) is %d bytes instead of the expected %d bytes."
+                        .formatted(file, channel.size(), expectedBytes));
+            }
+            double[] latitudes = new double[nodeCount];
+            double[] longitudes = new double[nodeCount];
+            buffer.asDoubleBuffer().get(latitudes).get(longitudes);
+            buffer.position(buffer.position() + 2 * nodeCount * Double.BYTES);
+            int[] upwardFirstEdge = new int[nodeCount + 1];
+            int[] upwardTargets = new int[upwardEdgeCount];
+            int[] upwardWeights = new int[upwardEdgeCount];
+            int[] downwardFirstEdge = new int[nodeCount + 1];
+            int[] downwardSources = new int[downwardEdgeCount];
+            int[] downwardWeights = new int[downwardEdgeCount];
+            buffer.asIntBuffer()
+                    .get(upwardFirstEdge).get(upwardTargets).get(upwardWeights)
+                    .get(downwardFirstEdge).get(downwardSources).get(downwardWeights);
+            return new RoadNetwork(latitudes, longitudes, upwardFirstEdge, upwardTargets, upwardWeights,
+                    downwardFirstEdge, downwardSources, downwardWeights);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        long fileBytes = HEADER_BYTES + 2L * latitudes.length * Double.BYTES
+                + 2L * (latitudes.length + 1) * Integer.BYTES
+                + 2L * (upwardTargets.length + downwardSources.length) * Integer.BYTES;
+        Files.deleteIfExists(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putInt(latitudes.length)
+                    .putInt(upwardTargets.length).putInt(downwardSources.length);
+            buffer.asDoubleBuffer().put(latitudes).put(longitudes);
+            buffer.position(buffer.position() + 2 * latitudes.length * Double.BYTES);
+            buffer.asIntBuffer()
+                    .put(upwardFirstEdge).put(upwardTargets).put(upwardWeights)
+                    .put(downwardFirstEdge).put(downwardSources).put(downwardWeights);
+            buffer.force();
+        }
+    }
+}
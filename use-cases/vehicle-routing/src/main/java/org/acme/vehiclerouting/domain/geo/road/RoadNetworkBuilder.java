@@ -0,0 +1,418 @@
+package org.acme.vehiclerouting.domain.geo.road;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Builds a {@link RoadNetwork} from a plain road graph by contracting its nodes into a contraction hierarchy.
+ * This is the offline preprocessing step: it is much slower than loading the resulting file.
+ * <p>
+ * Nodes are contracted in order of increasing edge difference (the shortcuts a contraction adds minus the edges
+ * it removes) plus the number of already contracted neighbors, with lazy priority updates.
+ * A shortcut is only skipped if a bounded local witness search finds a path that is at least as short.
+ * <p>
+ * Run it as a program to convert a road graph text file (typically exported from an OSM extract)
+ * with one record per line, {@code node,<latitude>,<longitude>} or {@code edge,<from>,<to>,<drivingTimeSeconds>},
+ * where nodes are numbered in order of appearance starting at 0 and edges are directed:
+ *
+ * <pre>
+ * java -cp ... org.acme.vehiclerouting.domain.geo.road.RoadNetworkBuilder roadGraph.csv roadNetwork.bin
+ * </pre>
+ */
+public final class RoadNetworkBuilder {
+
+    private static final int WITNESS_SEARCH_SETTLED_LIMIT = 500;
+    private static final int SIMULATED_WITNESS_SEARCH_SETTLED_LIMIT = 50;
+
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private int nodeCount = 0;
+
+    private int[][] outNodes = new int[1024][];
+    private int[][] outWeights = new int[1024][];
+    private int[] outDegrees = new int[1024];
+    private int[][] inNodes = new int[1024][];
+    private int[][] inWeights = new int[1024][];
+    private int[] inDegrees = new int[1024];
+
+    /**
+     * The edges of contracted nodes, which no longer take part in the contraction.
+     */
+    private int[] finishedEdgeFrom = new int[1024];
+    private int[] finishedEdgeTo = new int[1024];
+    private int[] finishedEdgeWeights = new int[1024];
+    private int finishedEdgeCount = 0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: RoadNetworkBuilder <roadGraph.csv> <roadNetwork.bin>");
+        }
+        RoadNetworkBuilder builder = new RoadNetworkBuilder();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split(",");
+                switch (tokens[0].trim()) {
+                    case "node" -> builder.addNode(Double.parseDouble(tokens[1].trim()), Double.parseDouble(tokens[2].trim()));
+                    case "edge" -> builder.addEdge(Integer.parseInt(tokens[1].trim()), Integer.parseInt(tokens[2].trim()),
+                            (int) Math.round(Double.parseDouble(tokens[3].trim())));
+                    default -> throw new IllegalArgumentException("Unsupported road graph line (%s).".formatted(line));
+                }
+            }
+        }
+        builder.build().write(Path.of(args[1]));
+    }
+
+    /**
+     * @return the index of the new node
+     */
+    public int addNode(double latitude, double longitude) {
+        if (nodeCount == latitudes.length) {
+            int capacity = nodeCount * 2;
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            outNodes = Arrays.copyOf(outNodes, capacity);
+            outWeights = Arrays.copyOf(outWeights, capacity);
+            outDegrees = Arrays.copyOf(outDegrees, capacity);
+            inNodes = Arrays.copyOf(inNodes, capacity);
+            inWeights = Arrays.copyOf(inWeights, capacity);
+            inDegrees = Arrays.copyOf(inDegrees, capacity);
+        }
+        latitudes[nodeCount] = latitude;
+        longitudes[nodeCount] = longitude;
+        outNodes[nodeCount] = new int[4];
+        outWeights[nodeCount] = new int[4];
+        inNodes[nodeCount] = new int[4];
+        inWeights[nodeCount] = new int[4];
+        return nodeCount++;
+    }
+
+    /**
+     * Add a directed edge. Self loops are ignored and of parallel edges only the fastest one is kept.
+     *
+     * @param drivingTimeSeconds at least 0
+     */
+    public void addEdge(int from, int to, int drivingTimeSeconds) {
+        if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+            throw new IllegalArgumentException("The edge (%d -> %d) refers to an unknown node.".formatted(from, to));
+        }
+        if (drivingTimeSeconds < 0) {
+            throw new IllegalArgumentException("The edge (%d -> %d) has a negative drivingTimeSeconds (%d)."
+                    .formatted(from, to, drivingTimeSeconds));
+        }
+        if (from != to) {
+            addOrImproveEdge(from, to, drivingTimeSeconds);
+        }
+    }
+
+    public RoadNetwork build() {
+        boolean[] contracted = new boolean[nodeCount];
+        int[] ranks = new int[nodeCount];
+        int[] contractedNeighborCounts = new int[nodeCount];
+        int[] priorities = new int[nodeCount];
+        WitnessSearch witnessSearch = new WitnessSearch(nodeCount);
+
+        LongMinHeap queue = new LongMinHeap();
+        for (int node = 0; node < nodeCount; node++) {
+            priorities[node] = contractNode(node, witnessSearch, false);
+            queue.add(packPriority(priorities[node], node));
+        }
+        int nextRank = 0;
+        while (!queue.isEmpty()) {
+            long element = queue.poll();
+            int node = LongMinHeap.node(element);
+            if (contracted[node] || element != packPriority(priorities[node], node)) {
+                continue; // Outdated queue entry.
+            }
+            // Lazy update: the priority may have grown since the node was queued.
+            priorities[node] = contractNode(node, witnessSearch, false) + contractedNeighborCounts[node];
+            long priority = packPriority(priorities[node], node);
+            if (!queue.isEmpty() && priority > queue.peek()) {
+                queue.add(priority);
+                continue;
+            }
+            contractNode(node, witnessSearch, true);
+            contracted[node] = true;
+            ranks[node] = nextRank++;
+            // The contraction changed the neighborhood of the adjacent nodes, so update their priority too.
+            for (int neighbor : detachContractedNode(node)) {
+                contractedNeighborCounts[neighbor]++;
+                priorities[neighbor] = contractNode(neighbor, witnessSearch, false) + contractedNeighborCounts[neighbor];
+                queue.add(packPriority(priorities[neighbor], neighbor));
+            }
+        }
+        return toRoadNetwork(ranks);
+    }
+
+    private static long packPriority(int priority, int node) {
+        // Shift the priority to keep negative edge differences ordered correctly.
+        return LongMinHeap.pack(priority + (1 << 30), node);
+    }
+
+    /**
+     * The adjacency only contains uncontracted nodes, see {@link #detachContractedNode(int)}.
+     *
+     * @param apply if false, only count the shortcuts that contracting the node would add
+     * @return the edge difference of contracting the node
+     */
+    private int contractNode(int node, WitnessSearch witnessSearch, boolean apply) {
+        int shortcutCount = 0;
+        int[] shortcutFrom = new int[0];
+        int[] shortcutTo = new int[0];
+        int[] shortcutWeights = new int[0];
+        for (int i = 0; i < inDegrees[node]; i++) {
+            int from = inNodes[node][i];
+            int inWeight = inWeights[node][i];
+            int maxOutWeight = -1;
+            for (int j = 0; j < outDegrees[node]; j++) {
+                if (outNodes[node][j] != from) {
+                    maxOutWeight = Math.max(maxOutWeight, outWeights[node][j]);
+                }
+            }
+            if (maxOutWeight < 0) {
+                continue;
+            }
+            witnessSearch.search(from, node, inWeight + maxOutWeight,
+                    apply ? WITNESS_SEARCH_SETTLED_LIMIT : SIMULATED_WITNESS_SEARCH_SETTLED_LIMIT);
+            for (int j = 0; j < outDegrees[node]; j++) {
+                int to = outNodes[node][j];
+                if (to == from) {
+                    continue;
+                }
+                int shortcutWeight = inWeight + outWeights[node][j];
+                if (witnessSearch.getDistance(to) > shortcutWeight) {
+                    if (apply) {
+                        if (shortcutCount == shortcutFrom.length) {
+                            int capacity = Math.max(8, shortcutCount * 2);
+                            shortcutFrom = Arrays.copyOf(shortcutFrom, capacity);
+                            shortcutTo = Arrays.copyOf(shortcutTo, capacity);
+                            shortcutWeights = Arrays.copyOf(shortcutWeights, capacity);
+                        }
+                        shortcutFrom[shortcutCount] = from;
+                        shortcutTo[shortcutCount] = to;
+                        shortcutWeights[shortcutCount] = shortcutWeight;
+                    }
+                    shortcutCount++;
+                }
+            }
+        }
+        // Added after all witness searches, so they do not iterate over a changing adjacency.
+        for (int i = 0; i < (apply ? shortcutCount : 0); i++) {
+            addOrImproveEdge(shortcutFrom[i], shortcutTo[i], shortcutWeights[i]);
+        }
+        return shortcutCount - inDegrees[node] - outDegrees[node];
+    }
+
+    /**
+     * Move the edges of a contracted node to the finished edges,
+     * so the remaining contraction only iterates over uncontracted nodes.
+     *
+     * @return the uncontracted neighbors of the node
+     */
+    private int[] detachContractedNode(int node) {
+        int[] neighbors = new int[outDegrees[node] + inDegrees[node]];
+        int neighborCount = 0;
+        for (int i = 0; i < outDegrees[node]; i++) {
+            int to = outNodes[node][i];
+            addFinishedEdge(node, to, outWeights[node][i]);
+            removeAdjacency(inNodes[to], inWeights[to], inDegrees, to, node);
+            neighbors[neighborCount++] = to;
+        }
+        for (int i = 0; i < inDegrees[node]; i++) {
+            int from = inNodes[node][i];
+            addFinishedEdge(from, node, inWeights[node][i]);
+            removeAdjacency(outNodes[from], outWeights[from], outDegrees, from, node);
+            if (!containsNode(neighbors, neighborCount, from)) {
+                neighbors[neighborCount++] = from;
+            }
+        }
+        outNodes[node] = null;
+        outWeights[node] = null;
+        outDegrees[node] = 0;
+        inNodes[node] = null;
+        inWeights[node] = null;
+        inDegrees[node] = 0;
+        return Arrays.copyOf(neighbors, neighborCount);
+    }
+
+    private static boolean containsNode(int[] nodes, int count, int node) {
+        for (int i = 0; i < count; i++) {
+            if (nodes[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void removeAdjacency(int[] nodes, int[] weights, int[] degrees, int owner, int removedNode) {
+        int degree = degrees[owner];
+        for (int i = 0; i < degree; i++) {
+            if (nodes[i] == removedNode) {
+                nodes[i] = nodes[degree - 1];
+                weights[i] = weights[degree - 1];
+                degrees[owner] = degree - 1;
+                return;
+            }
+        }
+    }
+
+    private void addFinishedEdge(int from, int to, int weight) {
+        if (finishedEdgeCount == finishedEdgeFrom.length) {
+            int capacity = finishedEdgeCount * 2;
+            finishedEdgeFrom = Arrays.copyOf(finishedEdgeFrom, capacity);
+            finishedEdgeTo = Arrays.copyOf(finishedEdgeTo, capacity);
+            finishedEdgeWeights = Arrays.copyOf(finishedEdgeWeights, capacity);
+        }
+        finishedEdgeFrom[finishedEdgeCount] = from;
+        finishedEdgeTo[finishedEdgeCount] = to;
+        finishedEdgeWeights[finishedEdgeCount++] = weight;
+    }
+
+    private void addOrImproveEdge(int from, int to, int weight) {
+        int[] fromOutNodes = outNodes[from];
+        for (int i = 0; i < outDegrees[from]; i++) {
+            if (fromOutNodes[i] == to) {
+                if (weight < outWeights[from][i]) {
+                    outWeights[from][i] = weight;
+                    int[] toInNodes = inNodes[to];
+                    for (int j = 0; j < inDegrees[to]; j++) {
+                        if (toInNodes[j] == from) {
+                            inWeights[to][j] = weight;
+                            break;
+                        }
+                    }
+                }
+                return;
+            }
+        }
+        if (outDegrees[from] == fromOutNodes.length) {
+            outNodes[from] = Arrays.copyOf(fromOutNodes, fromOutNodes.length * 2);
+            outWeights[from] = Arrays.copyOf(outWeights[from], fromOutNodes.length * 2);
+        }
+        outNodes[from][outDegrees[from]] = to;
+        outWeights[from][outDegrees[from]++] = weight;
+        if (inDegrees[to] == inNodes[to].length) {
+            inNodes[to] = Arrays.copyOf(inNodes[to], inNodes[to].length * 2);
+            inWeights[to] = Arrays.copyOf(inWeights[to], inWeights[to].length * 2);
+        }
+        inNodes[to][inDegrees[to]] = from;
+        inWeights[to][inDegrees[to]++] = weight;
+    }
+
+    /**
+     * Split all original and shortcut edges into the upward and the (reversed) downward graph.
+     * Every edge has been finished exactly once, when the first of both its nodes got contracted.
+     */
+    private RoadNetwork toRoadNetwork(int[] ranks) {
+        int[] upwardFirstEdge = new int[nodeCount + 1];
+        int[] downwardFirstEdge = new int[nodeCount + 1];
+        for (int edge = 0; edge < finishedEdgeCount; edge++) {
+            int from = finishedEdgeFrom[edge];
+            int to = finishedEdgeTo[edge];
+            if (ranks[to] > ranks[from]) {
+                upwardFirstEdge[from + 1]++;
+            } else {
+                downwardFirstEdge[to + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            upwardFirstEdge[node + 1] += upwardFirstEdge[node];
+            downwardFirstEdge[node + 1] += downwardFirstEdge[node];
+        }
+        int[] upwardTargets = new int[upwardFirstEdge[nodeCount]];
+        int[] upwardWeights = new int[upwardTargets.length];
+        int[] downwardSources = new int[downwardFirstEdge[nodeCount]];
+        int[] downwardWeights = new int[downwardSources.length];
+        int[] upwardNextEdge = Arrays.copyOf(upwardFirstEdge, nodeCount);
+        int[] downwardNextEdge = Arrays.copyOf(downwardFirstEdge, nodeCount);
+        for (int edge = 0; edge < finishedEdgeCount; edge++) {
+            int from = finishedEdgeFrom[edge];
+            int to = finishedEdgeTo[edge];
+            if (ranks[to] > ranks[from]) {
+                int upwardEdge = upwardNextEdge[from]++;
+                upwardTargets[upwardEdge] = to;
+                upwardWeights[upwardEdge] = finishedEdgeWeights[edge];
+            } else {
+                int downwardEdge = downwardNextEdge[to]++;
+                downwardSources[downwardEdge] = from;
+                downwardWeights[downwardEdge] = finishedEdgeWeights[edge];
+            }
+        }
+        return new RoadNetwork(Arrays.copyOf(latitudes, nodeCount), Arrays.copyOf(longitudes, nodeCount),
+                upwardFirstEdge, upwardTargets, upwardWeights,
+                downwardFirstEdge, downwardSources, downwardWeights);
+    }
+
+    /**
+     * Bounded Dijkstra search among the uncontracted nodes, skipping the node being contracted.
+     */
+    private final class WitnessSearch {
+
+        private final int[] distances;
+        private int[] touchedNodes = new int[64];
+        private int touchedCount = 0;
+        private final LongMinHeap heap = new LongMinHeap();
+
+        WitnessSearch(int nodeCount) {
+            distances = new int[nodeCount];
+            Arrays.fill(distances, RoadNetwork.UNREACHABLE);
+        }
+
+        void search(int origin, int skippedNode, int maxDistance, int settledLimit) {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touchedNodes[i]] = RoadNetwork.UNREACHABLE;
+            }
+            touchedCount = 0;
+            heap.clear();
+            touch(origin, 0);
+            heap.add(LongMinHeap.pack(0, origin));
+            int settledCount = 0;
+            while (!heap.isEmpty() && settledCount < settledLimit) {
+                long element = heap.poll();
+                int node = LongMinHeap.node(element);
+                int distance = LongMinHeap.priority(element);
+                if (distance > distances[node]) {
+                    continue;
+                }
+                if (distance > maxDistance) {
+                    break;
+                }
+                settledCount++;
+                for (int i = 0; i < outDegrees[node]; i++) {
+                    int adjacentNode = outNodes[node][i];
+                    if (adjacentNode == skippedNode) {
+                        continue;
+                    }
+                    int adjacentDistance = distance + outWeights[node][i];
+                    if (adjacentDistance < distances[adjacentNode]) {
+                        touch(adjacentNode, adjacentDistance);
+                        heap.add(LongMinHeap.pack(adjacentDistance, adjacentNode));
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the length of a path found by the last search, or {@link RoadNetwork#UNREACHABLE} if none found
+         */
+        int getDistance(int node) {
+            return distances[node];
+        }
+
+        private void touch(int node, int distance) {
+            if (distances[node] == RoadNetwork.UNREACHABLE) {
+                if (touchedCount == touchedNodes.length) {
+                    touchedNodes = Arrays.copyOf(touchedNodes, touchedCount * 2);
+                }
+                touchedNodes[touchedCount++] = node;
+            }
+            distances[node] = distance;
+        }
+    }
+}
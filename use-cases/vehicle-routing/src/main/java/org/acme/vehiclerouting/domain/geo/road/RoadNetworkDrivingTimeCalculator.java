@@ -0,0 +1,259 @@
+package org.acme.vehiclerouting.domain.geo.road;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.DrivingTimeCalculator;
+import org.acme.vehiclerouting.domain.geo.HaversineDrivingTimeCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the driving time (in seconds) between two locations over a local {@link RoadNetwork},
+ * without any routing server.
+ * <p>
+ * Each location is snapped to its nearest road network node; the way from the location to that node
+ * is driven in a straight line according to {@link HaversineDrivingTimeCalculator}.
+ * A location without any node within the maximum snap distance, for example outside the loaded extract,
+ * is not snapped: its driving times to and from all other locations fall back to straight lines.
+ * Bulk calculations use the bucket-based many-to-many algorithm:
+ * one backward search per target fills per-node buckets, then one forward search per source scans them.
+ * Both phases run in parallel.
+ * A single pair only takes one forward and one backward search, which meet at the node with the shortest sum.
+ * Pairs that the road network does not connect fall back to {@link HaversineDrivingTimeCalculator}.
+ */
+public final class RoadNetworkDrivingTimeCalculator implements DrivingTimeCalculator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoadNetworkDrivingTimeCalculator.class);
+
+    public static final double DEFAULT_MAX_SNAP_DISTANCE_METERS = 5_000.0;
+
+    private final RoadNetwork roadNetwork;
+    private final double maxSnapDistanceMeters;
+    private final HaversineDrivingTimeCalculator haversineDrivingTimeCalculator =
+            HaversineDrivingTimeCalculator.getInstance();
+
+    public RoadNetworkDrivingTimeCalculator(RoadNetwork roadNetwork) {
+        this(roadNetwork, DEFAULT_MAX_SNAP_DISTANCE_METERS);
+    }
+
+    /**
+     * @param roadNetwork never null
+     * @param maxSnapDistanceMeters at least 0, the farthest a location is snapped to a road network node
+     */
+    public RoadNetworkDrivingTimeCalculator(RoadNetwork roadNetwork, double maxSnapDistanceMeters) {
+        if (maxSnapDistanceMeters < 0.0) {
+            throw new IllegalArgumentException("The maxSnapDistanceMeters (%s) must not be negative."
+                    .formatted(maxSnapDistanceMeters));
+        }
+        this.roadNetwork = roadNetwork;
+        this.maxSnapDistanceMeters = maxSnapDistanceMeters;
+    }
+
+    @Override
+    public long calculateDrivingTime(Location from, Location to) {
+        if (from.equals(to)) {
+            return 0L;
+        }
+        SnappedLocation fromSnapped = snap(from);
+        SnappedLocation toSnapped = snap(to);
+        if (fromSnapped.node() == RoadNetwork.NO_NODE || toSnapped.node() == RoadNetwork.NO_NODE) {
+            LOGGER.debug("The road network has no node near ({}) or ({}); their driving time is a straight line.",
+                    from, to);
+            return haversineDrivingTimeCalculator.calculateDrivingTime(from, to);
+        }
+        if (fromSnapped.node() == toSnapped.node()) {
+            return haversineDrivingTimeCalculator.calculateDrivingTime(from, to);
+        }
+        int distance = searchPair(fromSnapped.node(), toSnapped.node());
+        if (distance == RoadNetwork.UNREACHABLE) {
+            LOGGER.debug("The road network does not connect ({}) to ({}); their driving time is a straight line.",
+                    from, to);
+            return haversineDrivingTimeCalculator.calculateDrivingTime(from, to);
+        }
+        return (long) fromSnapped.offsetSeconds() + distance + toSnapped.offsetSeconds();
+    }
+
+    @Override
+    public Map<Location, Map<Location, Long>> calculateBulkDrivingTime(Collection<Location> fromLocations,
+            Collection<Location> toLocations) {
+        List<Location> fromLocationList = List.copyOf(fromLocations);
+        List<Location> toLocationList = List.copyOf(toLocations);
+        int[] drivingTimes = calculateDrivingTimes(fromLocationList, toLocationList);
+        Map<Location, Map<Location, Long>> drivingTimeMap = new HashMap<>(fromLocationList.size() * 2);
+        for (int i = 0; i < fromLocationList.size(); i++) {
+            Map<Location, Long> row = new HashMap<>(toLocationList.size() * 2);
+            for (int j = 0; j < toLocationList.size(); j++) {
+                row.put(toLocationList.get(j), (long) drivingTimes[i * toLocationList.size() + j]);
+            }
+            drivingTimeMap.put(fromLocationList.get(i), row);
+        }
+        return drivingTimeMap;
+    }
+
+    @Override
+    public int[] calculateDrivingTimeRow(Location from, List<Location> toLocations) {
+        return calculateDrivingTimes(List.of(from), toLocations);
+    }
+
+    @Override
+    public int[] calculateDrivingTimeColumn(List<Location> fromLocations, Location to) {
+        return calculateDrivingTimes(fromLocations, List.of(to));
+    }
+
+    @Override
+    public int[] calculateDrivingTimeMatrix(List<Location> locations) {
+        return calculateDrivingTimes(locations, locations);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return getClass().getName() + ":" + Long.toHexString(roadNetwork.getChecksum()) + ":" + maxSnapDistanceMeters;
+    }
+
+    /**
+     * @return never null, a flat row-major matrix of {@code fromLocations.size() * toLocations.size()} driving times
+     */
+    private int[] calculateDrivingTimes(List<Location> fromLocations, List<Location> toLocations) {
+        int fromCount = fromLocations.size();
+        int toCount = toLocations.size();
+        SnappedLocation[] fromSnapped = snap(fromLocations);
+        SnappedLocation[] toSnapped = fromLocations == toLocations ? fromSnapped : snap(toLocations);
+        long unsnappedCount = Arrays.stream(fromSnapped).filter(SnappedLocation::isUnsnapped).count();
+        if (toSnapped != fromSnapped) {
+            unsnappedCount += Arrays.stream(toSnapped).filter(SnappedLocation::isUnsnapped).count();
+        }
+        if (unsnappedCount > 0) {
+            LOGGER.warn("The road network has no node within {} m of {} locations; "
+                    + "their driving times are straight lines.", maxSnapDistanceMeters, unsnappedCount);
+        }
+
+        // Backward searches from every target, collected in per-node buckets of (target, distance).
+        UpwardSearch.SearchSpace[] backwardSearchSpaces = IntStream.range(0, toCount).parallel()
+                .mapToObj(j -> toSnapped[j].isUnsnapped() ? UpwardSearch.SearchSpace.EMPTY
+                        : roadNetwork.searchBackward(toSnapped[j].node()))
+                .toArray(UpwardSearch.SearchSpace[]::new);
+        int nodeCount = roadNetwork.getNodeCount();
+        int[] bucketFirstEntry = new int[nodeCount + 1];
+        for (UpwardSearch.SearchSpace searchSpace : backwardSearchSpaces) {
+            for (int node : searchSpace.nodes()) {
+                bucketFirstEntry[node + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            bucketFirstEntry[node + 1] += bucketFirstEntry[node];
+        }
+        int[] bucketTargets = new int[bucketFirstEntry[nodeCount]];
+        int[] bucketDistances = new int[bucketTargets.length];
+        int[] bucketNextEntry = new int[nodeCount];
+        System.arraycopy(bucketFirstEntry, 0, bucketNextEntry, 0, nodeCount);
+        for (int j = 0; j < toCount; j++) {
+            UpwardSearch.SearchSpace searchSpace = backwardSearchSpaces[j];
+            for (int k = 0; k < searchSpace.nodes().length; k++) {
+                int entry = bucketNextEntry[searchSpace.nodes()[k]]++;
+                bucketTargets[entry] = j;
+                bucketDistances[entry] = searchSpace.distances()[k];
+            }
+        }
+
+        // Forward searches from every source scan the buckets of the nodes they settle.
+        int[] drivingTimes = new int[Math.multiplyExact(fromCount, toCount)];
+        AtomicInteger unreachableCount = new AtomicInteger();
+        IntStream.range(0, fromCount).parallel().forEach(i -> {
+            int[] row = new int[toCount];
+            Arrays.fill(row, RoadNetwork.UNREACHABLE);
+            UpwardSearch.SearchSpace searchSpace = fromSnapped[i].isUnsnapped() ? UpwardSearch.SearchSpace.EMPTY
+                    : roadNetwork.searchForward(fromSnapped[i].node());
+            for (int k = 0; k < searchSpace.nodes().length; k++) {
+                int node = searchSpace.nodes()[k];
+                int distance = searchSpace.distances()[k];
+                for (int entry = bucketFirstEntry[node]; entry < bucketFirstEntry[node + 1]; entry++) {
+                    int target = bucketTargets[entry];
+                    int targetDistance = distance + bucketDistances[entry];
+                    if (targetDistance < row[target]) {
+                        row[target] = targetDistance;
+                    }
+                }
+            }
+            Location from = fromLocations.get(i);
+            int rowOffset = i * toCount;
+            for (int j = 0; j < toCount; j++) {
+                Location to = toLocations.get(j);
+                if (from.equals(to)) {
+                    drivingTimes[rowOffset + j] = 0;
+                } else if (fromSnapped[i].isUnsnapped() || toSnapped[j].isUnsnapped()
+                        || fromSnapped[i].node() == toSnapped[j].node()) {
+                    drivingTimes[rowOffset + j] = (int) haversineDrivingTimeCalculator.calculateDrivingTime(from, to);
+                } else if (row[j] == RoadNetwork.UNREACHABLE) {
+                    unreachableCount.incrementAndGet();
+                    drivingTimes[rowOffset + j] = (int) haversineDrivingTimeCalculator.calculateDrivingTime(from, to);
+                } else {
+                    drivingTimes[rowOffset + j] = fromSnapped[i].offsetSeconds() + row[j] + toSnapped[j].offsetSeconds();
+                }
+            }
+        });
+        if (unreachableCount.get() > 0) {
+            LOGGER.warn("The road network does not connect {} location pairs; their driving time is a straight line.",
+                    unreachableCount.get());
+        }
+        return drivingTimes;
+    }
+
+    /**
+     * @return {@link RoadNetwork#UNREACHABLE} if the nodes are not connected
+     */
+    private int searchPair(int fromNode, int toNode) {
+        UpwardSearch.SearchSpace forwardSearchSpace = roadNetwork.searchForward(fromNode);
+        UpwardSearch.SearchSpace backwardSearchSpace = roadNetwork.searchBackward(toNode);
+        // Sorted by node, then distance, to look up the nodes of the forward search.
+        long[] backwardEntries = new long[backwardSearchSpace.nodes().length];
+        for (int k = 0; k < backwardEntries.length; k++) {
+            backwardEntries[k] = ((long) backwardSearchSpace.nodes()[k] << 32) | backwardSearchSpace.distances()[k];
+        }
+        Arrays.sort(backwardEntries);
+        int shortestDistance = RoadNetwork.UNREACHABLE;
+        for (int k = 0; k < forwardSearchSpace.nodes().length; k++) {
+            int node = forwardSearchSpace.nodes()[k];
+            int entry = Arrays.binarySearch(backwardEntries, (long) node << 32);
+            entry = entry >= 0 ? entry : -entry - 1;
+            if (entry < backwardEntries.length && (int) (backwardEntries[entry] >>> 32) == node) {
+                int distance = forwardSearchSpace.distances()[k] + (int) backwardEntries[entry];
+                if (distance < shortestDistance) {
+                    shortestDistance = distance;
+                }
+            }
+        }
+        return shortestDistance;
+    }
+
+    private SnappedLocation[] snap(List<Location> locations) {
+        return locations.parallelStream()
+                .map(this::snap)
+                .toArray(SnappedLocation[]::new);
+    }
+
+    private SnappedLocation snap(Location location) {
+        int node = roadNetwork.findNearestNode(location.getLatitude(), location.getLongitude(), maxSnapDistanceMeters);
+        if (node == RoadNetwork.NO_NODE) {
+            return SnappedLocation.UNSNAPPED;
+        }
+        Location nodeLocation = new Location(roadNetwork.getLatitude(node), roadNetwork.getLongitude(node));
+        return new SnappedLocation(node,
+                (int) haversineDrivingTimeCalculator.calculateDrivingTime(location, nodeLocation));
+    }
+
+    private record SnappedLocation(int node, int offsetSeconds) {
+
+        private static final SnappedLocation UNSNAPPED = new SnappedLocation(RoadNetwork.NO_NODE, 0);
+
+        private boolean isUnsnapped() {
+            return node == RoadNetwork.NO_NODE;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.acme.vehiclerouting.domain.geo.road;
+
+import java.util.Arrays;
+
+/**
+ * Reusable Dijkstra search over one direction of a {@link RoadNetwork} contraction hierarchy.
+ * Only the nodes touched by the previous search are reset, so a search costs its search space, not the node count.
+ * Not thread-safe.
+ */
+final class UpwardSearch {
+
+    private final int[] distances;
+    private int[] touchedNodes = new int[64];
+    private int touchedCount = 0;
+    private final LongMinHeap heap = new LongMinHeap();
+
+    UpwardSearch(int nodeCount) {
+        distances = new int[nodeCount];
+        Arrays.fill(distances, RoadNetwork.UNREACHABLE);
+    }
+
+    /**
+     * @param origin the node to start from
+     * @param firstEdge per node, the index of its first edge; the last element is the edge count
+     * @param adjacentNodes per edge, the node it leads to
+     * @param weights per edge, the driving time in seconds
+     * @return never null, every node reachable from the origin with its shortest driving time
+     */
+    SearchSpace search(int origin, int[] firstEdge, int[] adjacentNodes, int[] weights) {
+        reset();
+        int[] settledNodes = new int[16];
+        int[] settledDistances = new int[16];
+        int settledCount = 0;
+        touch(origin, 0);
+        heap.add(LongMinHeap.pack(0, origin));
+        while (!heap.isEmpty()) {
+            long element = heap.poll();
+            int node = LongMinHeap.node(element);
+            int distance = LongMinHeap.priority(element);
+            if (distance > distances[node]) {
+                continue; // Stale heap entry.
+            }
+            if (settledCount == settledNodes.length) {
+                settledNodes = Arrays.copyOf(settledNodes, settledCount * 2);
+                settledDistances = Arrays.copyOf(settledDistances, settledCount * 2);
+            }
+            settledNodes[settledCount] = node;
+            settledDistances[settledCount] = distance;
+            settledCount++;
+            for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+                int adjacentNode = adjacentNodes[edge];
+                int adjacentDistance = distance + weights[edge];
+                if (adjacentDistance < distances[adjacentNode]) {
+                    touch(adjacentNode, adjacentDistance);
+                    heap.add(LongMinHeap.pack(adjacentDistance, adjacentNode));
+                }
+            }
+        }
+        return new SearchSpace(Arrays.copyOf(settledNodes, settledCount), Arrays.copyOf(settledDistances, settledCount));
+    }
+
+    private void touch(int node, int distance) {
+        if (distances[node] == RoadNetwork.UNREACHABLE) {
+            if (touchedCount == touchedNodes.length) {
+                touchedNodes = Arrays.copyOf(touchedNodes, touchedCount * 2);
+            }
+            touchedNodes[touchedCount++] = node;
+        }
+        distances[node] = distance;
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            distances[touchedNodes[i]] = RoadNetwork.UNREACHABLE;
+        }
+        touchedCount = 0;
+        heap.clear();
+    }
+
+    /**
+     * The nodes settled by one search, in order of increasing distance.
+     */
+    record SearchSpace(int[] nodes, int[] distances) {
+
+        static final SearchSpace EMPTY = new SearchSpace(new int[0], new int[0]);
+    }
+}
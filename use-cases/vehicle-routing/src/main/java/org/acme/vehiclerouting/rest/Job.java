@@ -0,0 +1,31 @@
+package org.acme.vehiclerouting.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * The best route plan of a submitted job so far, or the exception that made solving it fail.
+ *
+ * @param scoreExplanation null until the route plan is a best solution
+ * @param version increases with every new best route plan, across all jobs
+ */
+record Job(VehicleRoutePlan routePlan, String scoreExplanation, long version, Throwable exception) {
+
+    static Job ofRoutePlan(VehicleRoutePlan routePlan, String scoreExplanation, long version) {
+        return new Job(routePlan, scoreExplanation, version, null);
+    }
+
+    static Job ofException(Throwable exception) {
+        return new Job(null, null, -1L, exception);
+    }
+
+    /**
+     * @param solverStatus never null, because the route plan is returned with the solver status
+     * @return never null, changes when the returned route plan changes
+     */
+    String entityTag(SolverStatus solverStatus) {
+        return version + "-" + solverStatus;
+    }
+
+}
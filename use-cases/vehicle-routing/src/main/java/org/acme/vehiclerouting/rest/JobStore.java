@@ -0,0 +1,371 @@
+package org.acme.vehiclerouting.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the jobs of submitted route plans within a fixed heap budget.
+ * <p>
+ * A job stays on the heap while it is being solved.
+ * Once it is no longer solving, it is evicted when it has not been accessed for the time to live,
+ * or when the store holds more than its maximum size of jobs, least recently accessed first.
+ * With a spill directory, an evicted job is written there as gzipped JSON
+ * and transparently read back by {@link #get(String)}. Without one, an evicted job is forgotten.
+ * <p>
+ * Writing and reading spill files happens outside the lock of this store,
+ * because it serializes the route plan and rebuilds its driving time matrix,
+ * and {@link #put(String, Job)} is called by the solver threads that publish the best solutions.
+ * Only renaming and deleting spill files happens under the lock, so the files on disk always match this store.
+ */
+final class JobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobStore.class);
+
+    private static final String FILE_SUFFIX = ".json.gz";
+
+    private final int maxSize;
+    private final Duration timeToLive;
+    private final Path spillDirectory;
+    private final ObjectMapper objectMapper;
+    private final Predicate<String> evictable;
+    private final Consumer<VehicleRoutePlan> shadowVariableUpdater;
+    private final Clock clock;
+
+    // Guarded by this. In access order, so the least recently accessed job comes first.
+    private final LinkedHashMap<String, Entry> jobIdToEntry = new LinkedHashMap<>(16, 0.75f, true);
+    // Guarded by this. Evicted jobs whose spill file is still being written.
+    private final Map<String, PendingSpill> jobIdToPendingSpill = new HashMap<>();
+    // Guarded by this.
+    private final Set<String> spilledJobIds = new HashSet<>();
+    // Guarded by this. Spilled jobs whose spill file is being read, so concurrent gets read it only once.
+    private final Map<String, CompletableFuture<Job>> jobIdToReload = new HashMap<>();
+
+    /**
+     * @param maxSize at least 1, the maximum number of jobs on the heap unless more of them are solving
+     * @param timeToLive never null, how long a job that is no longer solving stays on the heap without being accessed
+     * @param spillDirectory null if evicted jobs are forgotten
+     * @param objectMapper never null
+     * @param evictable never null, tests if the job of a job ID is no longer solving
+     * @param shadowVariableUpdater never null, recalculates the shadow variables of a reloaded route plan,
+     *        such as the arrival times, because the spill file does not hold them
+     */
+    JobStore(int maxSize, Duration timeToLive, Path spillDirectory, ObjectMapper objectMapper,
+            Predicate<String> evictable, Consumer<VehicleRoutePlan> shadowVariableUpdater) {
+        this(maxSize, timeToLive, spillDirectory, objectMapper, evictable, shadowVariableUpdater, Clock.systemUTC());
+    }
+
+    JobStore(int maxSize, Duration timeToLive, Path spillDirectory, ObjectMapper objectMapper,
+            Predicate<String> evictable, Consumer<VehicleRoutePlan> shadowVariableUpdater, Clock clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maxSize (%d) must be at least 1.".formatted(maxSize));
+        }
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.spillDirectory = spillDirectory;
+        this.objectMapper = objectMapper;
+        this.evictable = evictable;
+        this.shadowVariableUpdater = shadowVariableUpdater;
+        this.clock = clock;
+        if (spillDirectory != null) {
+            prepareSpillDirectory();
+        }
+    }
+
+    private void prepareSpillDirectory() {
+        try {
+            Files.createDirectories(spillDirectory);
+            // Spilled jobs do not survive a restart, because their job IDs are only known to this instance.
+            try (DirectoryStream<Path> spillFiles = Files.newDirectoryStream(spillDirectory, "*" + FILE_SUFFIX)) {
+                for (Path spillFile : spillFiles) {
+                    Files.delete(spillFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare the job spill directory (%s)."
+                    .formatted(spillDirectory), e);
+        }
+    }
+
+    /**
+     * @return never null, the job IDs on the heap and on disk
+     */
+    synchronized Collection<String> jobIds() {
+        List<String> jobIds = new ArrayList<>(jobIdToEntry.size() + jobIdToPendingSpill.size()
+                + spilledJobIds.size() + jobIdToReload.size());
+        jobIds.addAll(jobIdToEntry.keySet());
+        jobIds.addAll(jobIdToPendingSpill.keySet());
+        jobIds.addAll(spilledJobIds);
+        jobIds.addAll(jobIdToReload.keySet());
+        return jobIds;
+    }
+
+    void put(String jobId, Job job) {
+        List<PendingSpill> pendingSpills;
+        synchronized (this) {
+            jobIdToEntry.put(jobId, new Entry(job, clock.instant()));
+            // A pending spill or reload of the previous job notices it was superseded and leaves the new job alone.
+            jobIdToPendingSpill.remove(jobId);
+            jobIdToReload.remove(jobId);
+            if (spilledJobIds.remove(jobId)) {
+                deleteSpillFile(jobId);
+            }
+            pendingSpills = evict(jobId);
+        }
+        writeSpillFiles(pendingSpills);
+    }
+
+    /**
+     * @return null if the job ID is unknown or its job was evicted without a spill directory
+     */
+    Job get(String jobId) {
+        Job job;
+        CompletableFuture<Job> reload = null;
+        boolean reloadedByThisThread = false;
+        List<PendingSpill> pendingSpills = List.of();
+        synchronized (this) {
+            Entry entry = jobIdToEntry.get(jobId);
+            PendingSpill pendingSpill;
+            if (entry != null) {
+                job = entry.job;
+            } else if ((pendingSpill = jobIdToPendingSpill.remove(jobId)) != null) {
+                // Its spill file is not written yet, the writer deletes it again.
+                job = pendingSpill.job;
+            } else if (spilledJobIds.remove(jobId)) {
+                job = null;
+                reload = new CompletableFuture<>();
+                reloadedByThisThread = true;
+                jobIdToReload.put(jobId, reload);
+            } else {
+                job = null;
+                reload = jobIdToReload.get(jobId);
+                if (reload == null) {
+                    return null;
+                }
+            }
+            if (job != null) {
+                jobIdToEntry.put(jobId, new Entry(job, clock.instant()));
+                pendingSpills = evict(jobId);
+            }
+        }
+        writeSpillFiles(pendingSpills);
+        if (job != null) {
+            return job;
+        }
+        if (reloadedByThisThread) {
+            return reload(jobId, reload);
+        }
+        try {
+            return reload.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // ************************************************************************
+    // Complex methods
+    // ************************************************************************
+
+    /**
+     * @param accessedJobId never evicted, for instance because the solver manager has yet to receive its problem
+     * @return never null, the evicted jobs to write to the spill directory after releasing the lock
+     */
+    private List<PendingSpill> evict(String accessedJobId) {
+        List<PendingSpill> pendingSpills = new ArrayList<>();
+        Instant expiry = clock.instant().minus(timeToLive);
+        int size = jobIdToEntry.size();
+        Iterator<Map.Entry<String, Entry>> iterator = jobIdToEntry.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> mapEntry = iterator.next();
+            boolean expired = mapEntry.getValue().lastAccessed.isBefore(expiry);
+            if (!expired && size <= maxSize) {
+                // Later entries were accessed more recently, so they have not expired either.
+                break;
+            }
+            String jobId = mapEntry.getKey();
+            if (!jobId.equals(accessedJobId) && evictable.test(jobId)) {
+                if (spillDirectory != null) {
+                    PendingSpill pendingSpill = new PendingSpill(jobId, mapEntry.getValue().job);
+                    jobIdToPendingSpill.put(jobId, pendingSpill);
+                    pendingSpills.add(pendingSpill);
+                }
+                iterator.remove();
+                size--;
+            }
+        }
+        if (size > maxSize) {
+            LOGGER.debug("The job store holds {} jobs that are still solving, more than its maxSize ({}).",
+                    size, maxSize);
+        }
+        return pendingSpills;
+    }
+
+    /**
+     * Must be called without holding the lock.
+     */
+    private void writeSpillFiles(List<PendingSpill> pendingSpills) {
+        for (PendingSpill pendingSpill : pendingSpills) {
+            writeSpillFile(pendingSpill);
+        }
+    }
+
+    private void writeSpillFile(PendingSpill pendingSpill) {
+        String jobId = pendingSpill.jobId;
+        Job job = pendingSpill.job;
+        Path spillFile = spillDirectory.resolve(jobId + FILE_SUFFIX);
+        SpilledJob spilledJob = job.exception() == null
+                ? new SpilledJob(job.routePlan(), job.scoreExplanation(), job.version(), null)
+                : new SpilledJob(null, null, job.version(), job.exception().getMessage());
+        Path tempFile = null;
+        try {
+            // Write to a temporary file first, so a crash never leaves a truncated spill file behind.
+            tempFile = Files.createTempFile(spillDirectory, jobId, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                objectMapper.writeValue(out, spilledJob);
+            }
+            synchronized (this) {
+                // Compared by identity: the job may have been accessed, put or even evicted again meanwhile.
+                if (jobIdToPendingSpill.get(jobId) == pendingSpill) {
+                    Files.move(tempFile, spillFile, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    jobIdToPendingSpill.remove(jobId);
+                    spilledJobIds.add(jobId);
+                    return;
+                }
+            }
+            Files.delete(tempFile);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot spill the job ({}) to ({}), it stays on the heap.", jobId, spillFile, e);
+            synchronized (this) {
+                if (jobIdToPendingSpill.remove(jobId, pendingSpill)) {
+                    jobIdToEntry.put(jobId, new Entry(job, clock.instant()));
+                }
+            }
+            if (tempFile != null) {
+                deleteFile(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Must be called without holding the lock.
+     */
+    private Job reload(String jobId, CompletableFuture<Job> reload) {
+        Job job;
+        try {
+            job = readSpillFile(jobId);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                // Keep the spill file, so a later get can try again.
+                if (jobIdToReload.remove(jobId, reload)) {
+                    spilledJobIds.add(jobId);
+                }
+            }
+            reload.completeExceptionally(e);
+            throw e;
+        }
+        List<PendingSpill> pendingSpills;
+        synchronized (this) {
+            // Unless a newer job was put meanwhile, which already deleted the spill file.
+            if (jobIdToReload.remove(jobId, reload)) {
+                jobIdToEntry.put(jobId, new Entry(job, clock.instant()));
+                deleteSpillFile(jobId);
+            }
+            pendingSpills = evict(jobId);
+        }
+        reload.complete(job);
+        writeSpillFiles(pendingSpills);
+        return job;
+    }
+
+    private Job readSpillFile(String jobId) {
+        Path spillFile = spillDirectory.resolve(jobId + FILE_SUFFIX);
+        SpilledJob spilledJob;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(spillFile))) {
+            spilledJob = objectMapper.readValue(in, SpilledJob.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reload the job (%s) from (%s).".formatted(jobId, spillFile), e);
+        }
+        if (spilledJob.routePlan() == null) {
+            return Job.ofException(new IllegalStateException(spilledJob.exceptionMessage()));
+        }
+        VehicleRoutePlan routePlan = spilledJob.routePlan();
+        // The spill file holds the vehicle and the previous and next customer of each customer,
+        // so the shadow variable listeners would not notice any change and leave the arrival times null.
+        for (Customer customer : routePlan.getCustomers()) {
+            customer.setVehicle(null);
+            customer.setPreviousCustomer(null);
+            customer.setNextCustomer(null);
+        }
+        shadowVariableUpdater.accept(routePlan);
+        return Job.ofRoutePlan(routePlan, spilledJob.scoreExplanation(), spilledJob.version());
+    }
+
+    private void deleteSpillFile(String jobId) {
+        deleteFile(spillDirectory.resolve(jobId + FILE_SUFFIX));
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot delete the spilled job file ({}).", file, e);
+        }
+    }
+
+    private record Entry(Job job, Instant lastAccessed) {
+    }
+
+    /**
+     * An evicted job whose spill file is being written.
+     * Not a record, because it must only equal itself: the same job can be evicted again before its file is written.
+     */
+    private static final class PendingSpill {
+
+        private final String jobId;
+        private final Job job;
+
+        private PendingSpill(String jobId, Job job) {
+            this.jobId = jobId;
+            this.job = job;
+        }
+    }
+
+    /**
+     * The on-disk form of a {@link Job}, which keeps only the message of its exception.
+     */
+    @RegisterForReflection
+    record SpilledJob(VehicleRoutePlan routePlan, String scoreExplanation, long version, String exceptionMessage) {
+    }
+}
@@ -0,0 +1,170 @@
+package org.acme.vehiclerouting.rest;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams the best solutions of one job to its subscribers as server-sent events.
+ * <p>
+ * A subscriber first receives the full route plan in a {@value #ROUTE_PLAN_EVENT} event.
+ * Every later best solution is sent as a {@value #ROUTE_PLAN_DELTA_EVENT} event with the new score,
+ * the vehicles whose route changed since the previous event and the customers of those vehicles.
+ * A route changes if its customers, their order, the visited customer count or any arrival or departure time changed,
+ * for example because the vehicle reported its progress.
+ * The other vehicles and their customers did not change at all.
+ * Once solving ends, a {@value #SOLVER_STATUS_EVENT} event tells the subscribers to stop listening.
+ * Every event is serialized once, however many subscribers there are.
+ */
+final class RoutePlanEventStream {
+
+    static final String ROUTE_PLAN_EVENT = "routePlan";
+    static final String ROUTE_PLAN_DELTA_EVENT = "routePlanDelta";
+    static final String SOLVER_STATUS_EVENT = "solverStatus";
+
+    private final Sse sse;
+    private final ObjectMapper objectMapper;
+    private final SseBroadcaster broadcaster;
+
+    // Guarded by this.
+    private VehicleRoutePlan lastRoutePlan = null;
+    private Map<String, RouteSnapshot> vehicleIdToLastRouteSnapshot = null;
+    private boolean closed = false;
+
+    RoutePlanEventStream(Sse sse, ObjectMapper objectMapper) {
+        this.sse = sse;
+        this.objectMapper = objectMapper;
+        this.broadcaster = sse.newBroadcaster();
+    }
+
+    /**
+     * @param eventSink never null
+     * @param routePlan never null, the best route plan so far, ignored if this stream already published one
+     * @return false if this stream is closed, so the event sink was not registered
+     */
+    synchronized boolean subscribe(SseEventSink eventSink, VehicleRoutePlan routePlan) {
+        if (closed) {
+            return false;
+        }
+        if (lastRoutePlan == null) {
+            lastRoutePlan = routePlan;
+            vehicleIdToLastRouteSnapshot = extractRouteSnapshots(routePlan);
+        }
+        eventSink.send(buildEvent(sse, objectMapper, ROUTE_PLAN_EVENT, lastRoutePlan));
+        broadcaster.register(eventSink);
+        return true;
+    }
+
+    /**
+     * Sends a single subscriber the full route plan and the solver status, without subscribing it.
+     */
+    static void sendFinished(Sse sse, ObjectMapper objectMapper, SseEventSink eventSink, VehicleRoutePlan routePlan,
+            SolverStatus solverStatus) {
+        eventSink.send(buildEvent(sse, objectMapper, ROUTE_PLAN_EVENT, routePlan));
+        eventSink.send(buildEvent(sse, objectMapper, SOLVER_STATUS_EVENT, solverStatus));
+        eventSink.close();
+    }
+
+    synchronized void publish(VehicleRoutePlan routePlan) {
+        if (closed || lastRoutePlan == null) {
+            return;
+        }
+        Map<String, RouteSnapshot> vehicleIdToRouteSnapshot = extractRouteSnapshots(routePlan);
+        List<Vehicle> changedVehicles = new ArrayList<>();
+        List<Customer> changedCustomers = new ArrayList<>();
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            RouteSnapshot routeSnapshot = vehicleIdToRouteSnapshot.get(vehicle.getId());
+            if (!routeSnapshot.equals(vehicleIdToLastRouteSnapshot.get(vehicle.getId()))) {
+                changedVehicles.add(vehicle);
+                changedCustomers.addAll(vehicle.getCustomers());
+            }
+        }
+        lastRoutePlan = routePlan;
+        vehicleIdToLastRouteSnapshot = vehicleIdToRouteSnapshot;
+        broadcaster.broadcast(buildEvent(sse, objectMapper, ROUTE_PLAN_DELTA_EVENT,
+                new RoutePlanDelta(routePlan.getScore(), changedVehicles, changedCustomers)));
+    }
+
+    /**
+     * Tells the subscribers that solving ended and closes their event sinks.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        broadcaster.broadcast(buildEvent(sse, objectMapper, SOLVER_STATUS_EVENT, SolverStatus.NOT_SOLVING));
+        broadcaster.close();
+    }
+
+    private static Map<String, RouteSnapshot> extractRouteSnapshots(VehicleRoutePlan routePlan) {
+        Map<String, RouteSnapshot> vehicleIdToRouteSnapshot = new HashMap<>(routePlan.getVehicles().size());
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            vehicleIdToRouteSnapshot.put(vehicle.getId(), RouteSnapshot.of(vehicle));
+        }
+        return vehicleIdToRouteSnapshot;
+    }
+
+    private static OutboundSseEvent buildEvent(Sse sse, ObjectMapper objectMapper, String name, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize the %s event.".formatted(name), e);
+        }
+        return sse.newEventBuilder()
+                .name(name)
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(String.class, json)
+                .build();
+    }
+
+    /**
+     * The part of a route plan that changed since the previous event.
+     */
+    @RegisterForReflection
+    record RoutePlanDelta(HardSoftLongScore score, List<Vehicle> vehicles, List<Customer> customers) {
+    }
+
+    /**
+     * Everything a subscriber shows of one vehicle's route, the solver changes the domain objects in place.
+     */
+    private record RouteSnapshot(List<String> customerIds, List<LocalDateTime> customerArrivalTimes,
+            List<LocalDateTime> customerDepartureTimes, int visitedCustomerCount, LocalDateTime arrivalTime) {
+
+        static RouteSnapshot of(Vehicle vehicle) {
+            List<Customer> customers = vehicle.getCustomers();
+            List<String> customerIds = new ArrayList<>(customers.size());
+            // The times are null until the shadow variables are initialized.
+            List<LocalDateTime> customerArrivalTimes = new ArrayList<>(customers.size());
+            List<LocalDateTime> customerDepartureTimes = new ArrayList<>(customers.size());
+            for (Customer customer : customers) {
+                customerIds.add(customer.getId());
+                customerArrivalTimes.add(customer.getArrivalTime());
+                customerDepartureTimes.add(customer.getDepartureTime());
+            }
+            return new RouteSnapshot(customerIds, customerArrivalTimes, customerDepartureTimes,
+                    vehicle.getVisitedCustomerCount(), vehicle.arrivalTime());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.acme.vehiclerouting.rest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Where a vehicle is during the day: at its last visited customer, or at its depot if it visited none yet.
+ *
+ * @param visitedCustomerIds never null, all customers the vehicle visited so far, in the order it visited them
+ * @param departureTime null if the vehicle did not leave its current location yet or left it as planned
+ */
+public record VehicleProgress(List<String> visitedCustomerIds, LocalDateTime departureTime) {
+}
@@ -154,6 +154,26 @@ public class VehicleRouteDemoResource {
     }
 
     public VehicleRoutePlan build(DemoData demoData) {
+        return build(demoData, demoData.customerCount, demoData.vehicleCount);
+    }
+
+    /**
+     * Builds a route plan in the area of the demo data, but with a different size, for example to benchmark.
+     *
+     * @param demoData never null
+     * @param customerCount at least 1
+     * @param vehicleCount at least 1
+     * @return never null
+     */
+    public VehicleRoutePlan build(DemoData demoData, int customerCount, int vehicleCount) {
+        if (customerCount < 1) {
+            throw new IllegalArgumentException(
+                    "Number of customerCount (%s) must be greater than zero.".formatted(customerCount));
+        }
+        if (vehicleCount < 1) {
+            throw new IllegalArgumentException(
+                    "Number of vehicleCount (%s) must be greater than zero.".formatted(vehicleCount));
+        }
         String name = "demo";
 
         Random random = new Random(demoData.seed);
@@ -186,7 +206,7 @@ public class VehicleRouteDemoResource {
                 tomorrowAt(demoData.vehicleStartTime));
 
         List<Vehicle> vehicles = Stream.generate(vehicleSupplier)
-                .limit(demoData.vehicleCount)
+                .limit(vehicleCount)
                 .collect(Collectors.toList());
 
         Supplier<String> nameSupplier = () -> {
@@ -215,7 +235,7 @@ public class VehicleRouteDemoResource {
         };
 
         List<Customer> customers = Stream.generate(customerSupplier)
-                .limit(demoData.customerCount)
+                .limit(customerCount)
                 .collect(Collectors.toList());
 
         return new VehicleRoutePlan(name, demoData.southWestCorner, demoData.northEastCorner,
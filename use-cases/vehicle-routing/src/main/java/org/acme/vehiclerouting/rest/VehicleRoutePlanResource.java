@@ -1,10 +1,20 @@
 package org.acme.vehiclerouting.rest;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -15,19 +25,43 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
 import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
 import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
 
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
 import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.TrafficProfiles;
+import org.acme.vehiclerouting.solver.change.AddCustomerProblemChange;
+import org.acme.vehiclerouting.solver.change.RemoveCustomerProblemChange;
+import org.acme.vehiclerouting.solver.change.UpdateVehicleProgressProblemChange;
+import org.acme.vehiclerouting.solver.partition.PartitionedSolverJob;
+import org.acme.vehiclerouting.solver.partition.StitchingPolicy;
+import org.acme.vehiclerouting.solver.resource.CpuCoreQuota;
+import org.acme.vehiclerouting.solver.resource.ResourceClass;
+import org.acme.vehiclerouting.solver.warmstart.WarmStart;
 import org.acme.vehiclerouting.rest.exception.ErrorInfo;
 import org.acme.vehiclerouting.rest.exception.VehicleRoutingSolverException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -39,6 +73,8 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 @Tag(name = "Vehicle Routing with Capacity and Time Windows",
         description = "Vehicle Routing optimizes routes of vehicles with given capacities to visit customers available in specified time windows.")
 @Path("route-plans")
@@ -46,24 +82,79 @@ public class VehicleRoutePlanResource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VehicleRoutePlanResource.class);
 
-    private final SolverManager<VehicleRoutePlan, String> solverManager;
+    private final Map<ResourceClass, SolverManager<VehicleRoutePlan, String>> resourceClassToSolverManager;
+
+    private final boolean moveThreadsEnabled;
+
+    private final CpuCoreQuota cpuCoreQuota;
 
     private final SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager;
 
-    // TODO: Without any "time to live", the map may eventually grow out of memory.
-    private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
+    private final Duration refinementSpentLimit;
+
+    private final ObjectMapper objectMapper;
+
+    private final JobStore jobStore;
+
+    private final AtomicLong jobVersionSequence = new AtomicLong();
+
+    private final ConcurrentMap<String, ResourceClass> jobIdToResourceClass = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, PartitionedSolverJob> jobIdToPartitionedSolverJob = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, RoutePlanEventStream> jobIdToEventStream = new ConcurrentHashMap<>();
 
     // Workaround to make Quarkus CDI happy. Do not use.
     public VehicleRoutePlanResource() {
-        this.solverManager = null;
+        this.resourceClassToSolverManager = null;
+        this.moveThreadsEnabled = false;
+        this.cpuCoreQuota = null;
         this.solutionManager = null;
+        this.refinementSpentLimit = null;
+        this.objectMapper = null;
+        this.jobStore = null;
     }
 
     @Inject
-    public VehicleRoutePlanResource(SolverManager<VehicleRoutePlan, String> solverManager,
-            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager) {
-        this.solverManager = solverManager;
+    public VehicleRoutePlanResource(SolverManager<VehicleRoutePlan, String> solverManager, SolverConfig solverConfig,
+            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager,
+            @ConfigProperty(name = "resource-class.move-threads-enabled",
+                    defaultValue = "false") boolean moveThreadsEnabled,
+            @ConfigProperty(name = "resource-class.core-quota") Optional<Integer> coreQuota,
+            @ConfigProperty(name = "partitioned-solving.refinement-spent-limit",
+                    defaultValue = "10s") Duration refinementSpentLimit,
+            @ConfigProperty(name = "job-store.max-size", defaultValue = "1000") int jobStoreMaxSize,
+            @ConfigProperty(name = "job-store.time-to-live", defaultValue = "1h") Duration jobStoreTimeToLive,
+            @ConfigProperty(name = "job-store.spill-directory") Optional<String> jobStoreSpillDirectory,
+            ObjectMapper objectMapper) {
+        this.moveThreadsEnabled = moveThreadsEnabled;
+        this.resourceClassToSolverManager = new EnumMap<>(ResourceClass.class);
+        // SMALL jobs keep the configured solver manager, the other classes get their own move threads and budget.
+        resourceClassToSolverManager.put(ResourceClass.SMALL, solverManager);
+        for (ResourceClass resourceClass : List.of(ResourceClass.LARGE, ResourceClass.XL)) {
+            SolverConfig resourceClassSolverConfig = solverConfig.copyConfig()
+                    .withMoveThreadCount(moveThreadsEnabled ? Integer.toString(resourceClass.getMoveThreadCount())
+                            : SolverConfig.MOVE_THREAD_COUNT_NONE);
+            resourceClassToSolverManager.put(resourceClass, SolverManager.create(resourceClassSolverConfig,
+                    new SolverManagerConfig()
+                            .withParallelSolverCount(Integer.toString(resourceClass.getParallelSolverCount()))));
+        }
+        this.cpuCoreQuota = new CpuCoreQuota(coreQuota.orElse(Runtime.getRuntime().availableProcessors()));
         this.solutionManager = solutionManager;
+        this.refinementSpentLimit = refinementSpentLimit;
+        this.objectMapper = objectMapper;
+        this.jobStore = new JobStore(jobStoreMaxSize, jobStoreTimeToLive,
+                jobStoreSpillDirectory.map(java.nio.file.Path::of).orElse(null), objectMapper,
+                jobId -> getSolverStatus(jobId) == SolverStatus.NOT_SOLVING, solutionManager::update);
+    }
+
+    @PreDestroy
+    void closeSolverManagers() {
+        resourceClassToSolverManager.forEach((resourceClass, resourceClassSolverManager) -> {
+            if (resourceClass != ResourceClass.SMALL) {
+                resourceClassSolverManager.close();
+            }
+        });
     }
 
     @Operation(summary = "List the job IDs of all submitted route plans.")
@@ -74,7 +165,7 @@ public class VehicleRoutePlanResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public Collection<String> list() {
-        return jobIdToJob.keySet();
+        return jobStore.jobIds();
     }
 
     @Operation(summary = "Submit a route plan to start solving as soon as CPU resources are available.")
@@ -83,29 +174,110 @@ public class VehicleRoutePlanResource {
                     description = "The job ID. Use that ID to get the solution with the other methods.",
                     content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))) })
     @POST
-    @Consumes({ MediaType.APPLICATION_JSON })
+    @Consumes({ MediaType.APPLICATION_JSON, SmileRoutePlanProvider.APPLICATION_SMILE })
     @Produces(MediaType.TEXT_PLAIN)
-    public String solve(VehicleRoutePlan problem) {
+    public String solve(VehicleRoutePlan problem,
+            @Parameter(description = "Split the route plan into this many regions and solve them concurrently.")
+            @QueryParam("partitionCount") Integer partitionCount,
+            @Parameter(description = "How to combine the solved regions, defaults to REFINE. Requires a partitionCount.")
+            @QueryParam("stitchingPolicy") StitchingPolicy stitchingPolicy,
+            @Parameter(description = "The job ID of a previous route plan to start from: customers with the same ID "
+                    + "keep their previous vehicle and order, only the other customers are constructed from scratch.")
+            @QueryParam("warmStartJobId") String warmStartJobId,
+            @Parameter(description = "How much CPU the route plan gets, defaults to SMALL. "
+                    + "LARGE and XL solve longer, with more move threads if enabled, but fewer of them at the same time.")
+            @QueryParam("resourceClass") ResourceClass resourceClass) {
         String jobId = UUID.randomUUID().toString();
-        jobIdToJob.put(jobId, Job.ofRoutePlan(problem));
-        solverManager.solveBuilder()
+        if (partitionCount != null && partitionCount < 1) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.BAD_REQUEST,
+                    "The partitionCount (%d) must be at least 1.".formatted(partitionCount));
+        }
+        if (warmStartJobId != null) {
+            VehicleRoutePlan previousSolution = getJobAndCheckForExceptions(warmStartJobId).routePlan();
+            int seededCount = WarmStart.seed(problem, previousSolution);
+            // The seeded routes need their shadow variables before the construction heuristic adds to them.
+            solutionManager.update(problem);
+            LOGGER.info("Warm started jobId ({}) from jobId ({}) with {} of {} customers assigned.",
+                    jobId, warmStartJobId, seededCount, problem.getCustomers().size());
+        }
+        jobStore.put(jobId, Job.ofRoutePlan(problem, null, jobVersionSequence.incrementAndGet()));
+        ResourceClass jobResourceClass = resourceClass == null ? ResourceClass.SMALL : resourceClass;
+        int jobCoreCount = jobResourceClass.getCoreCount(moveThreadsEnabled)
+                * (partitionCount == null ? 1 : partitionCount);
+        jobIdToResourceClass.put(jobId, jobResourceClass);
+        // Until enough cores are free, the job waits as SOLVING_SCHEDULED.
+        cpuCoreQuota.submit(jobId, jobResourceClass, jobCoreCount,
+                () -> startSolving(jobId, jobResourceClass, problem, partitionCount, stitchingPolicy));
+        return jobId;
+    }
+
+    private void startSolving(String jobId, ResourceClass resourceClass, VehicleRoutePlan problem,
+            Integer partitionCount, StitchingPolicy stitchingPolicy) {
+        SolverManager<VehicleRoutePlan, String> jobSolverManager = resourceClassToSolverManager.get(resourceClass);
+        if (partitionCount != null) {
+            PartitionedSolverJob partitionedSolverJob = PartitionedSolverJob.start(jobSolverManager, solutionManager,
+                    jobId, problem, partitionCount, resourceClass.getSpentLimit(),
+                    stitchingPolicy == null ? StitchingPolicy.REFINE : stitchingPolicy, refinementSpentLimit,
+                    solution -> updateBestSolution(jobId, solution),
+                    solution -> finishSolving(jobId),
+                    (jobId_, exception) -> failSolving(jobId, exception));
+            jobIdToPartitionedSolverJob.put(jobId, partitionedSolverJob);
+            return;
+        }
+        SolverConfigOverride<VehicleRoutePlan> configOverride = new SolverConfigOverride<>();
+        if (resourceClass.getSpentLimit() != null) {
+            configOverride.withTerminationConfig(new TerminationConfig().withSpentLimit(resourceClass.getSpentLimit()));
+        }
+        jobSolverManager.solveBuilder()
                 .withProblemId(jobId)
-                .withProblemFinder(jobId_ -> jobIdToJob.get(jobId).routePlan)
-                .withBestSolutionConsumer(solution -> jobIdToJob.put(jobId, Job.ofRoutePlan(solution)))
-                .withExceptionHandler((jobId_, exception) -> {
-                    jobIdToJob.put(jobId, Job.ofException(exception));
-                    LOGGER.error("Failed solving jobId ({}).", jobId, exception);
-                })
+                .withProblemFinder(jobId_ -> jobStore.get(jobId).routePlan())
+                .withConfigOverride(configOverride)
+                .withBestSolutionConsumer(solution -> updateBestSolution(jobId, solution))
+                .withFinalBestSolutionConsumer(solution -> finishSolving(jobId))
+                .withExceptionHandler((jobId_, exception) -> failSolving(jobId, exception))
                 .run();
-        return jobId;
+    }
+
+    private void finishSolving(String jobId) {
+        cpuCoreQuota.release(jobId);
+        jobIdToResourceClass.remove(jobId);
+        closeEventStream(jobId);
+    }
+
+    private void failSolving(String jobId, Throwable exception) {
+        jobStore.put(jobId, Job.ofException(exception));
+        finishSolving(jobId);
+        LOGGER.error("Failed solving jobId ({}).", jobId, exception);
+    }
+
+    private void updateBestSolution(String jobId, VehicleRoutePlan solution) {
+        // Explain the score once per best solution, on the consumer thread, instead of on every poll.
+        // Intermediate best solutions are skipped while this consumer is busy.
+        String scoreExplanation = solutionManager.explain(solution).getSummary();
+        jobStore.put(jobId, Job.ofRoutePlan(solution, scoreExplanation, jobVersionSequence.incrementAndGet()));
+        RoutePlanEventStream eventStream = jobIdToEventStream.get(jobId);
+        if (eventStream != null) {
+            eventStream.publish(solution);
+        }
+    }
+
+    private void closeEventStream(String jobId) {
+        RoutePlanEventStream eventStream = jobIdToEventStream.remove(jobId);
+        if (eventStream != null) {
+            eventStream.close();
+        }
     }
 
     @Operation(
             summary = "Get the route plan and score for a given job ID. This is the best solution so far, as it might still be running or not even started.")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "The best solution of the route plan so far.",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
-                            schema = @Schema(implementation = VehicleRoutePlan.class))),
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON,
+                                    schema = @Schema(implementation = VehicleRoutePlan.class)),
+                            @Content(mediaType = SmileRoutePlanProvider.APPLICATION_SMILE,
+                                    schema = @Schema(implementation = VehicleRoutePlan.class)) }),
+            @APIResponse(responseCode = "304", description = "The route plan did not change since the given ETag."),
             @APIResponse(responseCode = "404", description = "No route plan found.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = ErrorInfo.class))),
@@ -114,16 +286,15 @@ public class VehicleRoutePlanResource {
                             schema = @Schema(implementation = ErrorInfo.class)))
     })
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({ MediaType.APPLICATION_JSON, SmileRoutePlanProvider.APPLICATION_SMILE })
     @Path("{jobId}")
-    public VehicleRoutePlan getRoutePlan(
-            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        VehicleRoutePlan routePlan = getRoutePlanAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        String scoreExplanation = solutionManager.explain(routePlan).getSummary();
-        routePlan.setSolverStatus(solverStatus);
-        routePlan.setScoreExplanation(scoreExplanation);
-        return routePlan;
+    public Response getRoutePlan(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Context Request request) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        SolverStatus solverStatus = getSolverStatus(jobId);
+        return respondUnlessNotModified(request, job.entityTag(solverStatus),
+                () -> withSolverStatus(job, solverStatus));
     }
 
     @Operation(
@@ -132,6 +303,7 @@ public class VehicleRoutePlanResource {
             @APIResponse(responseCode = "200", description = "The route plan status and the best score so far.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = VehicleRoutePlan.class))),
+            @APIResponse(responseCode = "304", description = "The status did not change since the given ETag."),
             @APIResponse(responseCode = "404", description = "No route plan found.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = ErrorInfo.class))),
@@ -142,22 +314,105 @@ public class VehicleRoutePlanResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{jobId}/status")
-    public VehicleRoutePlan getStatus(
-            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        VehicleRoutePlan routePlan = getRoutePlanAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        return new VehicleRoutePlan(routePlan.getName(), routePlan.getScore(), solverStatus);
+    public Response getStatus(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Context Request request) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        SolverStatus solverStatus = getSolverStatus(jobId);
+        return respondUnlessNotModified(request, job.entityTag(solverStatus), () -> new VehicleRoutePlan(
+                job.routePlan().getName(), job.routePlan().getScore(), solverStatus));
+    }
+
+    @Operation(
+            summary = "Stream the best solutions for a given job ID as server-sent events, with only the vehicles that changed.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "A routePlan event with the best solution so far, followed by a routePlanDelta event "
+                            + "per new best solution, until a solverStatus event ends the stream.",
+                    content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS)),
+            @APIResponse(responseCode = "404", description = "No route plan found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a route plan.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Path("{jobId}/updates")
+    public void streamUpdates(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Context SseEventSink eventSink, @Context Sse sse) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        if (getSolverStatus(jobId) != SolverStatus.NOT_SOLVING) {
+            RoutePlanEventStream eventStream = jobIdToEventStream.computeIfAbsent(jobId,
+                    jobId_ -> new RoutePlanEventStream(sse, objectMapper));
+            if (eventStream.subscribe(eventSink, job.routePlan())) {
+                // Solving might have ended before this event stream existed, so nothing else would close it.
+                if (getSolverStatus(jobId) == SolverStatus.NOT_SOLVING) {
+                    closeEventStream(jobId);
+                }
+                return;
+            }
+        }
+        job = getJobAndCheckForExceptions(jobId);
+        SolverStatus solverStatus = getSolverStatus(jobId);
+        RoutePlanEventStream.sendFinished(sse, objectMapper, eventSink, withSolverStatus(job, solverStatus),
+                solverStatus);
     }
 
-    private VehicleRoutePlan getRoutePlanAndCheckForExceptions(String jobId) {
-        Job job = jobIdToJob.get(jobId);
+    private Job getJobAndCheckForExceptions(String jobId) {
+        Job job = jobStore.get(jobId);
         if (job == null) {
             throw new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND, "No route plan found.");
         }
-        if (job.exception != null) {
-            throw new VehicleRoutingSolverException(jobId, job.exception);
+        if (job.exception() != null) {
+            throw new VehicleRoutingSolverException(jobId, job.exception());
         }
-        return job.routePlan;
+        return job;
+    }
+
+    private static VehicleRoutePlan withSolverStatus(Job job, SolverStatus solverStatus) {
+        VehicleRoutePlan routePlan = job.routePlan();
+        routePlan.setSolverStatus(solverStatus);
+        routePlan.setScoreExplanation(job.scoreExplanation());
+        return routePlan;
+    }
+
+    private static Response respondUnlessNotModified(Request request, String entityTagValue,
+            Supplier<VehicleRoutePlan> routePlanSupplier) {
+        EntityTag entityTag = new EntityTag(entityTagValue);
+        // Clients revalidate on every poll, so an unchanged route plan costs a bodiless 304 response.
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+        // The same ETag applies to the JSON and the Smile representation, because they always change together.
+        return Response.ok(routePlanSupplier.get()).tag(entityTag).cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    private SolverManager<VehicleRoutePlan, String> getSolverManager(String jobId) {
+        // Once a job finished solving, it is forgotten here, and every solver manager reports it as not solving.
+        return resourceClassToSolverManager.get(jobIdToResourceClass.getOrDefault(jobId, ResourceClass.SMALL));
+    }
+
+    private SolverStatus getSolverStatus(String jobId) {
+        if (cpuCoreQuota.isWaiting(jobId)) {
+            return SolverStatus.SOLVING_SCHEDULED;
+        }
+        PartitionedSolverJob partitionedSolverJob = jobIdToPartitionedSolverJob.get(jobId);
+        if (partitionedSolverJob == null) {
+            return getSolverManager(jobId).getSolverStatus(jobId);
+        }
+        SolverStatus solverStatus = partitionedSolverJob.getSolverStatus();
+        if (solverStatus == SolverStatus.NOT_SOLVING) {
+            // Finished for good, so the solver manager reports the same status from now on.
+            jobIdToPartitionedSolverJob.remove(jobId);
+        }
+        return solverStatus;
     }
 
     @Operation(
@@ -179,8 +434,149 @@ public class VehicleRoutePlanResource {
     public VehicleRoutePlan terminateSolving(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
         // TODO: Replace with .terminateEarlyAndWait(... [, timeout]); see https://github.com/TimefoldAI/timefold-solver/issues/77
-        solverManager.terminateEarly(jobId);
-        return getRoutePlan(jobId);
+        if (cpuCoreQuota.cancel(jobId)) {
+            // The job never started, so no solver finishes it.
+            finishSolving(jobId);
+        } else {
+            PartitionedSolverJob partitionedSolverJob = jobIdToPartitionedSolverJob.get(jobId);
+            if (partitionedSolverJob == null) {
+                getSolverManager(jobId).terminateEarly(jobId);
+            } else {
+                partitionedSolverJob.terminateEarly();
+            }
+            // A job the solver manager had not started yet ends without calling its final best solution consumer.
+            if (getSolverStatus(jobId) == SolverStatus.NOT_SOLVING) {
+                finishSolving(jobId);
+            }
+        }
+        return withSolverStatus(getJobAndCheckForExceptions(jobId), getSolverStatus(jobId));
+    }
+
+    @Operation(summary = "Add a customer to a route plan while it is being solved.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The solver inserts the customer into a route and continues from the current routes."),
+            @APIResponse(responseCode = "400",
+                    description = "The customer has no id or location, or a traffic profile the route plan lacks.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No route plan found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409",
+                    description = "The route plan is not being solved or already has a customer with that ID.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Path("{jobId}/customers")
+    public Response addCustomer(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            Customer customer) {
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        if (customer.getId() == null || customer.getLocation() == null) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.BAD_REQUEST,
+                    "The customer needs an id and a location.");
+        }
+        TrafficProfiles trafficProfiles = routePlan.getTrafficProfiles();
+        int trafficProfileIndex = customer.getLocation().getTrafficProfileIndex();
+        if (trafficProfiles != null && trafficProfileIndex >= trafficProfiles.getProfileCount()) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.BAD_REQUEST,
+                    "The customer's trafficProfileIndex (%d) must be lower than the profileCount (%d)."
+                            .formatted(trafficProfileIndex, trafficProfiles.getProfileCount()));
+        }
+        if (routePlan.getCustomers().stream().anyMatch(c -> c.getId().equals(customer.getId()))) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "The customer (%s) already exists.".formatted(customer.getId()));
+        }
+        return addProblemChange(jobId, new AddCustomerProblemChange(customer));
+    }
+
+    @Operation(summary = "Remove a cancelled customer from a route plan while it is being solved.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The solver removes the customer and continues from the current routes."),
+            @APIResponse(responseCode = "404", description = "No route plan or customer found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409",
+                    description = "The route plan is not being solved or the customer was already visited.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @DELETE
+    @Path("{jobId}/customers/{customerId}")
+    public Response removeCustomer(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @PathParam("customerId") String customerId) {
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        Customer customer = routePlan.getCustomers().stream()
+                .filter(c -> c.getId().equals(customerId))
+                .findFirst()
+                .orElseThrow(() -> new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND,
+                        "No customer (%s) found.".formatted(customerId)));
+        Vehicle vehicle = customer.getVehicle();
+        if (vehicle != null && vehicle.getCustomers().indexOf(customer) < vehicle.getVisitedCustomerCount()) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "The customer (%s) was already visited by vehicle (%s).".formatted(customerId, vehicle.getId()));
+        }
+        return addProblemChange(jobId, new RemoveCustomerProblemChange(customerId));
+    }
+
+    @Operation(summary = "Report which customers a vehicle visited and when it left its current location, "
+            + "while the route plan is being solved.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The solver pins the visited customers and replans the rest of the vehicle's route."),
+            @APIResponse(responseCode = "400", description = "Unknown visited customers.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No route plan or vehicle found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The route plan is not being solved right now.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @PUT
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Path("{jobId}/vehicles/{vehicleId}/progress")
+    public Response updateVehicleProgress(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @PathParam("vehicleId") String vehicleId, VehicleProgress progress) {
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        if (routePlan.getVehicles().stream().noneMatch(vehicle -> vehicle.getId().equals(vehicleId))) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND,
+                    "No vehicle (%s) found.".formatted(vehicleId));
+        }
+        List<String> visitedCustomerIds = progress.visitedCustomerIds() == null ? List.of()
+                : progress.visitedCustomerIds();
+        Set<String> customerIds = routePlan.getCustomers().stream().map(Customer::getId).collect(Collectors.toSet());
+        List<String> unknownCustomerIds = visitedCustomerIds.stream()
+                .filter(customerId -> !customerIds.contains(customerId))
+                .toList();
+        if (!unknownCustomerIds.isEmpty()) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.BAD_REQUEST,
+                    "The visited customers (%s) do not exist.".formatted(unknownCustomerIds));
+        }
+        return addProblemChange(jobId,
+                new UpdateVehicleProgressProblemChange(vehicleId, visitedCustomerIds, progress.departureTime()));
+    }
+
+    private Response addProblemChange(String jobId, ProblemChange<VehicleRoutePlan> problemChange) {
+        if (jobIdToPartitionedSolverJob.containsKey(jobId)) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "A route plan that is solved in partitions does not accept changes.");
+        }
+        try {
+            // The solver applies the change to its working solution and continues from there, instead of restarting.
+            getSolverManager(jobId).addProblemChange(jobId, problemChange);
+        } catch (IllegalStateException e) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "The route plan is not being solved (%s).".formatted(getSolverStatus(jobId)));
+        }
+        return Response.accepted().build();
     }
 
     @Operation(summary = "Submit a route plan to analyze its score.")
@@ -197,16 +593,4 @@ public class VehicleRoutePlanResource {
             @QueryParam("fetchPolicy") ScoreAnalysisFetchPolicy fetchPolicy) {
         return fetchPolicy == null ? solutionManager.analyze(problem) : solutionManager.analyze(problem, fetchPolicy);
     }
-
-    private record Job(VehicleRoutePlan routePlan, Throwable exception) {
-
-        static Job ofRoutePlan(VehicleRoutePlan routePlan) {
-            return new Job(routePlan, null);
-        }
-
-        static Job ofException(Throwable exception) {
-            return new Job(null, exception);
-        }
-
-    }
 }
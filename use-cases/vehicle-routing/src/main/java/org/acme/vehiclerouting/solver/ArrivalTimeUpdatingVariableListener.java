@@ -1,17 +1,16 @@
 package org.acme.vehiclerouting.solver;
 
-import java.time.LocalDateTime;
-import java.util.Objects;
-
 import ai.timefold.solver.core.api.domain.variable.VariableListener;
 import ai.timefold.solver.core.api.score.director.ScoreDirector;
 
 import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
 import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.TimeDependentDrivingTimeCalculator;
 
 public class ArrivalTimeUpdatingVariableListener implements VariableListener<VehicleRoutePlan, Customer> {
 
-    private static final String ARRIVAL_TIME_FIELD = "arrivalTime";
+    private static final String ARRIVAL_TIME_FIELD = "arrivalEpochSecond";
 
     @Override
     public void beforeVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
@@ -21,27 +20,45 @@ public class ArrivalTimeUpdatingVariableListener implements VariableListener<Veh
     @Override
     public void afterVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
         if (customer.getVehicle() == null) {
-            if (customer.getArrivalTime() != null) {
+            if (customer.getArrivalEpochSecond() != null) {
                 scoreDirector.beforeVariableChanged(customer, ARRIVAL_TIME_FIELD);
-                customer.setArrivalTime(null);
+                customer.setArrivalEpochSecond(null);
                 scoreDirector.afterVariableChanged(customer, ARRIVAL_TIME_FIELD);
             }
             return;
         }
 
         Customer previousCustomer = customer.getPreviousCustomer();
-        LocalDateTime departureTime =
-                previousCustomer == null ? customer.getVehicle().getDepartureTime() : previousCustomer.getDepartureTime();
+        long departureTime;
+        Location departureLocation;
+        if (previousCustomer == null) {
+            departureTime = customer.getVehicle().getDepartureEpochSecond();
+            departureLocation = customer.getVehicle().getDepot().getLocation();
+        } else if (previousCustomer.getArrivalEpochSecond() == null) {
+            // The previous customer is notified too and propagates its arrival time down to this customer.
+            return;
+        } else {
+            departureTime = previousCustomer.calculateDepartureEpochSecond();
+            departureLocation = previousCustomer.getLocation();
+        }
 
+        // Legs take longer when they start during rush hour, if the plan has traffic profiles.
+        TimeDependentDrivingTimeCalculator drivingTimeCalculator =
+                scoreDirector.getWorkingSolution().getTimeDependentDrivingTimeCalculator();
         Customer nextCustomer = customer;
-        LocalDateTime arrivalTime = calculateArrivalTime(nextCustomer, departureTime);
-        while (nextCustomer != null && !Objects.equals(nextCustomer.getArrivalTime(), arrivalTime)) {
+        while (nextCustomer != null) {
+            long arrivalTime = departureTime + drivingTimeCalculator.calculateDrivingTime(departureLocation,
+                    nextCustomer.getLocation(), departureTime);
+            Long oldArrivalTime = nextCustomer.getArrivalEpochSecond();
+            if (oldArrivalTime != null && oldArrivalTime == arrivalTime) {
+                break;
+            }
             scoreDirector.beforeVariableChanged(nextCustomer, ARRIVAL_TIME_FIELD);
-            nextCustomer.setArrivalTime(arrivalTime);
+            nextCustomer.setArrivalEpochSecond(arrivalTime);
             scoreDirector.afterVariableChanged(nextCustomer, ARRIVAL_TIME_FIELD);
-            departureTime = nextCustomer.getDepartureTime();
+            departureTime = nextCustomer.calculateDepartureEpochSecond();
+            departureLocation = nextCustomer.getLocation();
             nextCustomer = nextCustomer.getNextCustomer();
-            arrivalTime = calculateArrivalTime(nextCustomer, departureTime);
         }
     }
 
@@ -64,11 +81,4 @@ public class ArrivalTimeUpdatingVariableListener implements VariableListener<Veh
     public void afterEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
 
     }
-
-    private LocalDateTime calculateArrivalTime(Customer customer, LocalDateTime previousDepartureTime) {
-        if (customer == null || previousDepartureTime == null) {
-            return null;
-        }
-        return previousDepartureTime.plusSeconds(customer.getDrivingTimeSecondsFromPreviousStandstill());
-    }
 }
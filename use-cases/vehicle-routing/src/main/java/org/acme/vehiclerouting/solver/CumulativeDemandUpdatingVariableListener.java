@@ -0,0 +1,66 @@
+package org.acme.vehiclerouting.solver;
+
+import ai.timefold.solver.core.api.domain.variable.VariableListener;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+public class CumulativeDemandUpdatingVariableListener implements VariableListener<VehicleRoutePlan, Customer> {
+
+    private static final String CUMULATIVE_DEMAND_FIELD = "cumulativeDemand";
+
+    @Override
+    public void beforeVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void afterVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+        if (customer.getVehicle() == null) {
+            if (customer.getCumulativeDemand() != null) {
+                scoreDirector.beforeVariableChanged(customer, CUMULATIVE_DEMAND_FIELD);
+                customer.setCumulativeDemand(null);
+                scoreDirector.afterVariableChanged(customer, CUMULATIVE_DEMAND_FIELD);
+            }
+            return;
+        }
+
+        Customer previousCustomer = customer.getPreviousCustomer();
+        int cumulativeDemand = previousCustomer == null || previousCustomer.getCumulativeDemand() == null ? 0
+                : previousCustomer.getCumulativeDemand();
+
+        Customer nextCustomer = customer;
+        while (nextCustomer != null) {
+            cumulativeDemand += nextCustomer.getDemand();
+            Integer oldCumulativeDemand = nextCustomer.getCumulativeDemand();
+            if (oldCumulativeDemand != null && oldCumulativeDemand == cumulativeDemand) {
+                break;
+            }
+            scoreDirector.beforeVariableChanged(nextCustomer, CUMULATIVE_DEMAND_FIELD);
+            nextCustomer.setCumulativeDemand(cumulativeDemand);
+            scoreDirector.afterVariableChanged(nextCustomer, CUMULATIVE_DEMAND_FIELD);
+            nextCustomer = nextCustomer.getNextCustomer();
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+}
@@ -0,0 +1,53 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.Objects;
+
+import ai.timefold.solver.core.api.domain.variable.VariableListener;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Only the customer itself is affected: a customer whose previous standstill changes is notified on its own.
+ */
+public class DrivingTimeUpdatingVariableListener implements VariableListener<VehicleRoutePlan, Customer> {
+
+    private static final String DRIVING_TIME_FIELD = "drivingTimeSecondsFromPreviousStandstill";
+
+    @Override
+    public void beforeVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void afterVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+        Long drivingTime = customer.getVehicle() == null ? null
+                : customer.calculateDrivingTimeSecondsFromPreviousStandstill();
+        if (!Objects.equals(customer.getDrivingTimeSecondsFromPreviousStandstill(), drivingTime)) {
+            scoreDirector.beforeVariableChanged(customer, DRIVING_TIME_FIELD);
+            customer.setDrivingTimeSecondsFromPreviousStandstill(drivingTime);
+            scoreDirector.afterVariableChanged(customer, DRIVING_TIME_FIELD);
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+}
@@ -2,11 +2,11 @@ package org.acme.vehiclerouting.solver;
 
 import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintCollectors;
 import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
 import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
 
 import org.acme.vehiclerouting.domain.Customer;
-import org.acme.vehiclerouting.domain.Vehicle;
 import org.acme.vehiclerouting.solver.justifications.MinimizeTravelTimeJustification;
 import org.acme.vehiclerouting.solver.justifications.ServiceFinishedAfterMaxEndTimeJustification;
 import org.acme.vehiclerouting.solver.justifications.VehicleCapacityJustification;
@@ -31,12 +31,13 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
     // ************************************************************************
 
     protected Constraint vehicleCapacity(ConstraintFactory factory) {
-        return factory.forEach(Vehicle.class)
-                .filter(vehicle -> vehicle.getTotalDemand() > vehicle.getCapacity())
+        // The cumulative demand of the last customer is the total demand of its vehicle.
+        return factory.forEach(Customer.class)
+                .filter(Customer::isLastCustomerOverVehicleCapacity)
                 .penalizeLong(HardSoftLongScore.ONE_HARD,
-                        vehicle -> vehicle.getTotalDemand() - vehicle.getCapacity())
-                .justifyWith((vehicle, score) -> new VehicleCapacityJustification(vehicle.getId(), vehicle.getTotalDemand(),
-                        vehicle.getCapacity()))
+                        customer -> customer.getCumulativeDemand() - customer.getVehicle().getCapacity())
+                .justifyWith((customer, score) -> new VehicleCapacityJustification(customer.getVehicle().getId(),
+                        customer.getVehicle().getCapacity(), customer.getCumulativeDemand()))
                 .asConstraint(VEHICLE_CAPACITY);
     }
 
@@ -55,11 +56,13 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
     // ************************************************************************
 
     protected Constraint minimizeTravelTime(ConstraintFactory factory) {
-        return factory.forEach(Vehicle.class)
+        return factory.forEach(Customer.class)
+                .filter(customer -> customer.getVehicle() != null)
+                .groupBy(Customer::getVehicle, ConstraintCollectors.sumLong(Customer::getRouteLegsDrivingTimeSeconds))
                 .penalizeLong(HardSoftLongScore.ONE_SOFT,
-                        Vehicle::getTotalDrivingTimeSeconds)
-                .justifyWith((vehicle, score) -> new MinimizeTravelTimeJustification(vehicle.getId(),
-                        vehicle.getTotalDrivingTimeSeconds()))
+                        (vehicle, totalDrivingTimeSeconds) -> totalDrivingTimeSeconds)
+                .justifyWith((vehicle, totalDrivingTimeSeconds, score) -> new MinimizeTravelTimeJustification(
+                        vehicle.getId(), totalDrivingTimeSeconds))
                 .asConstraint(MINIMIZE_TRAVEL_TIME);
     }
 }
@@ -0,0 +1,28 @@
+package org.acme.vehiclerouting.solver.change;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Adds a customer to a route plan that is being solved.
+ * The customer starts unassigned, so the construction heuristic inserts it into a route when solving continues,
+ * before the local search improves the routes further.
+ *
+ * @param customer never null, unassigned, ignored if the route plan already has a customer with the same ID
+ */
+public record AddCustomerProblemChange(Customer customer) implements ProblemChange<VehicleRoutePlan> {
+
+    @Override
+    public void doChange(VehicleRoutePlan routePlan, ProblemChangeDirector director) {
+        if (RouteEdits.findCustomer(routePlan, customer.getId()).isPresent()) {
+            return;
+        }
+        // The new location needs driving times to and from all other locations.
+        routePlan.extendDrivingTimeMaps(customer.getLocation());
+        director.addEntity(customer, routePlan.getCustomers()::add);
+        routePlan.resetNearbyCustomerIndex();
+    }
+}
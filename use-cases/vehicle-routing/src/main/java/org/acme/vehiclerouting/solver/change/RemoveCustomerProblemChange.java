@@ -0,0 +1,35 @@
+package org.acme.vehiclerouting.solver.change;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Removes a cancelled customer from a route plan that is being solved.
+ * The rest of its route stays in the same order, so solving continues from the current routes.
+ *
+ * @param customerId never null, ignored if the route plan has no such customer or its vehicle already visited it
+ */
+public record RemoveCustomerProblemChange(String customerId) implements ProblemChange<VehicleRoutePlan> {
+
+    @Override
+    public void doChange(VehicleRoutePlan routePlan, ProblemChangeDirector director) {
+        Customer customer = RouteEdits.findCustomer(routePlan, customerId).orElse(null);
+        if (customer == null) {
+            return;
+        }
+        Vehicle vehicle = customer.getVehicle();
+        if (vehicle != null) {
+            if (customer.getIndex() < vehicle.getVisitedCustomerCount()) {
+                return;
+            }
+            // The shadow variables of the removed customer itself no longer matter.
+            RouteEdits.editRoute(director, vehicle, customers -> customers.remove(customer));
+        }
+        director.removeEntity(customer, routePlan.getCustomers()::remove);
+        routePlan.resetNearbyCustomerIndex();
+    }
+}
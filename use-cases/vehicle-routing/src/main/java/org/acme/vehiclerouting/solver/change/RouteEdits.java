@@ -0,0 +1,105 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Edits routes of the working solution inside a {@link ProblemChange}.
+ * <p>
+ * The {@link ProblemChangeDirector} cannot change a planning list variable,
+ * so a route is edited as a problem property of its vehicle instead,
+ * after which the shadow variables that the list variable normally maintains are changed customer by customer.
+ * Those changes trigger the variable listeners of the arrival times, driving times and cumulative demands.
+ */
+final class RouteEdits {
+
+    private static final String VEHICLE_FIELD = "vehicle";
+    private static final String INDEX_FIELD = "index";
+    private static final String PREVIOUS_CUSTOMER_FIELD = "previousCustomer";
+    private static final String NEXT_CUSTOMER_FIELD = "nextCustomer";
+
+    static Optional<Customer> findCustomer(VehicleRoutePlan routePlan, String customerId) {
+        return routePlan.getCustomers().stream()
+                .filter(customer -> customer.getId().equals(customerId))
+                .findFirst();
+    }
+
+    static Optional<Vehicle> findVehicle(VehicleRoutePlan routePlan, String vehicleId) {
+        return routePlan.getVehicles().stream()
+                .filter(vehicle -> vehicle.getId().equals(vehicleId))
+                .findFirst();
+    }
+
+    /**
+     * @param director never null
+     * @param vehicle never null, a working object
+     * @param routeEditor never null, changes the customers of the vehicle
+     */
+    static void editRoute(ProblemChangeDirector director, Vehicle vehicle, Consumer<List<Customer>> routeEditor) {
+        director.changeProblemProperty(vehicle, workingVehicle -> routeEditor.accept(workingVehicle.getCustomers()));
+        List<Customer> customers = vehicle.getCustomers();
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            Integer index = i;
+            Customer previousCustomer = i == 0 ? null : customers.get(i - 1);
+            Customer nextCustomer = i == customers.size() - 1 ? null : customers.get(i + 1);
+            if (customer.getVehicle() != vehicle) {
+                director.changeVariable(customer, VEHICLE_FIELD, c -> c.setVehicle(vehicle));
+            }
+            if (!index.equals(customer.getIndex())) {
+                director.changeVariable(customer, INDEX_FIELD, c -> c.setIndex(index));
+            }
+            if (customer.getPreviousCustomer() != previousCustomer) {
+                director.changeVariable(customer, PREVIOUS_CUSTOMER_FIELD, c -> c.setPreviousCustomer(previousCustomer));
+            }
+            if (customer.getNextCustomer() != nextCustomer) {
+                director.changeVariable(customer, NEXT_CUSTOMER_FIELD, c -> c.setNextCustomer(nextCustomer));
+            }
+        }
+    }
+
+    /**
+     * Clears the shadow variables of a customer that {@link #editRoute} took out of its route,
+     * before another route takes it in.
+     *
+     * @param director never null
+     * @param customer never null, a working object
+     */
+    static void unassign(ProblemChangeDirector director, Customer customer) {
+        if (customer.getVehicle() != null) {
+            director.changeVariable(customer, VEHICLE_FIELD, c -> c.setVehicle(null));
+        }
+        if (customer.getIndex() != null) {
+            director.changeVariable(customer, INDEX_FIELD, c -> c.setIndex(null));
+        }
+        if (customer.getPreviousCustomer() != null) {
+            director.changeVariable(customer, PREVIOUS_CUSTOMER_FIELD, c -> c.setPreviousCustomer(null));
+        }
+        if (customer.getNextCustomer() != null) {
+            director.changeVariable(customer, NEXT_CUSTOMER_FIELD, c -> c.setNextCustomer(null));
+        }
+    }
+
+    /**
+     * Recalculates the arrival times from the given customer onwards, after the departure before it changed.
+     *
+     * @param director never null
+     * @param customer never null, a working object
+     */
+    static void updateArrivalTimes(ProblemChangeDirector director, Customer customer) {
+        // Notifies the variable listeners without changing the previous customer.
+        director.changeVariable(customer, PREVIOUS_CUSTOMER_FIELD, c -> {
+        });
+    }
+
+    private RouteEdits() {
+    }
+}
@@ -0,0 +1,70 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Reports where a vehicle of a route plan that is being solved is and when it left there.
+ * <p>
+ * The visited customers move to the start of the vehicle's route, in the order they were visited,
+ * and are pinned there, so the solver only plans the rest of the day.
+ * The vehicle is at its last visited customer, or still at its depot if it visited none.
+ * The departure time from there shifts the arrival times of all customers the vehicle still has to visit,
+ * for example after a delay.
+ *
+ * @param vehicleId never null, ignored if the route plan has no such vehicle
+ * @param visitedCustomerIds never null, in the order they were visited,
+ *        unknown customers and customers that another vehicle already visited are ignored
+ * @param departureTime null if the vehicle did not leave yet or left as planned
+ */
+public record UpdateVehicleProgressProblemChange(String vehicleId, List<String> visitedCustomerIds,
+        LocalDateTime departureTime) implements ProblemChange<VehicleRoutePlan> {
+
+    @Override
+    public void doChange(VehicleRoutePlan routePlan, ProblemChangeDirector director) {
+        Vehicle vehicle = RouteEdits.findVehicle(routePlan, vehicleId).orElse(null);
+        if (vehicle == null) {
+            return;
+        }
+        List<Customer> visitedCustomers = visitedCustomerIds.stream()
+                .map(customerId -> RouteEdits.findCustomer(routePlan, customerId))
+                .flatMap(Optional::stream)
+                .filter(customer -> customer.getVehicle() == null || customer.getVehicle() == vehicle
+                        || customer.getIndex() >= customer.getVehicle().getVisitedCustomerCount())
+                .distinct()
+                .toList();
+        for (Customer customer : visitedCustomers) {
+            Vehicle otherVehicle = customer.getVehicle();
+            if (otherVehicle != null && otherVehicle != vehicle) {
+                RouteEdits.editRoute(director, otherVehicle, customers -> customers.remove(customer));
+                RouteEdits.unassign(director, customer);
+            }
+        }
+        RouteEdits.editRoute(director, vehicle, customers -> {
+            customers.removeAll(visitedCustomers);
+            customers.addAll(0, visitedCustomers);
+        });
+        director.changeProblemProperty(vehicle, v -> v.setVisitedCustomerCount(visitedCustomers.size()));
+        if (departureTime == null) {
+            return;
+        }
+        if (visitedCustomers.isEmpty()) {
+            director.changeProblemProperty(vehicle, v -> v.setDepartureTime(departureTime));
+        } else {
+            director.changeProblemProperty(visitedCustomers.get(visitedCustomers.size() - 1),
+                    c -> c.setActualDepartureTime(departureTime));
+        }
+        List<Customer> customers = vehicle.getCustomers();
+        if (customers.size() > visitedCustomers.size()) {
+            RouteEdits.updateArrivalTimes(director, customers.get(visitedCustomers.size()));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.acme.vehiclerouting.solver.nearby;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.LazyDrivingTimeMatrix;
+import org.acme.vehiclerouting.domain.geo.LocationDistanceMeter;
+
+/**
+ * Measures how near two locations are by the driving time between them, read from the driving time matrix.
+ * <p>
+ * With a {@link LazyDrivingTimeMatrix}, it measures the distance as the crow flies instead,
+ * like that matrix picks the nearby locations of its rows,
+ * so building a nearby index over all pairs does not calculate every row.
+ */
+public class DrivingTimeNearbyDistanceMeter implements LocationDistanceMeter {
+
+    @Override
+    public double getNearbyDistance(Location origin, Location destination) {
+        LazyDrivingTimeMatrix lazyDrivingTimeMatrix = origin.getLazyDrivingTimeMatrix();
+        if (lazyDrivingTimeMatrix != null) {
+            return lazyDrivingTimeMatrix.getCrowFliesDistance(origin.getIndex(), destination.getIndex());
+        }
+        return origin.getDrivingTimeTo(destination);
+    }
+}
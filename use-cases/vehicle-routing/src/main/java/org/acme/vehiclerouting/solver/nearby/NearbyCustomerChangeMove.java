@@ -0,0 +1,124 @@
+package org.acme.vehiclerouting.solver.nearby;
+
+import java.util.Collection;
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Moves a customer to a position in a (possibly different) vehicle's route.
+ * The destination index is the index of the customer after it has been removed from its source position.
+ */
+public class NearbyCustomerChangeMove extends AbstractMove<VehicleRoutePlan> {
+
+    private static final String CUSTOMERS_FIELD = "customers";
+
+    private final Customer customer;
+    private final Vehicle sourceVehicle;
+    private final int sourceIndex;
+    private final Vehicle destinationVehicle;
+    private final int destinationIndex;
+
+    public NearbyCustomerChangeMove(Customer customer, Vehicle sourceVehicle, int sourceIndex,
+            Vehicle destinationVehicle, int destinationIndex) {
+        this.customer = customer;
+        this.sourceVehicle = sourceVehicle;
+        this.sourceIndex = sourceIndex;
+        this.destinationVehicle = destinationVehicle;
+        this.destinationIndex = destinationIndex;
+    }
+
+    /**
+     * @param customer never null, the customer to move
+     * @param nearbyCustomer never null, the customer to visit right before or right after the moved customer
+     * @param after true to visit the moved customer right after the nearby customer
+     * @return never null, but not doable if either customer is unassigned or would move among visited customers
+     */
+    public static NearbyCustomerChangeMove nextTo(Customer customer, Customer nearbyCustomer, boolean after) {
+        Vehicle sourceVehicle = customer.getVehicle();
+        Vehicle destinationVehicle = nearbyCustomer.getVehicle();
+        if (sourceVehicle == null || destinationVehicle == null) {
+            return new NearbyCustomerChangeMove(customer, sourceVehicle, -1, destinationVehicle, -1);
+        }
+        int sourceIndex = customer.getIndex();
+        int destinationIndex = after ? nearbyCustomer.getIndex() + 1 : nearbyCustomer.getIndex();
+        if (sourceVehicle == destinationVehicle && sourceIndex < destinationIndex) {
+            destinationIndex--;
+        }
+        return new NearbyCustomerChangeMove(customer, sourceVehicle, sourceIndex, destinationVehicle, destinationIndex);
+    }
+
+    Customer getCustomer() {
+        return customer;
+    }
+
+    Vehicle getDestinationVehicle() {
+        return destinationVehicle;
+    }
+
+    int getDestinationIndex() {
+        return destinationIndex;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        return sourceVehicle != null && destinationVehicle != null
+                && (sourceVehicle != destinationVehicle || sourceIndex != destinationIndex)
+                // Neither move a visited customer nor insert before one.
+                && sourceIndex >= sourceVehicle.getVisitedCustomerCount()
+                && destinationIndex >= destinationVehicle.getVisitedCustomerCount();
+    }
+
+    @Override
+    protected NearbyCustomerChangeMove createUndoMove(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        return new NearbyCustomerChangeMove(customer, destinationVehicle, destinationIndex, sourceVehicle, sourceIndex);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        if (sourceVehicle == destinationVehicle) {
+            int fromIndex = Math.min(sourceIndex, destinationIndex);
+            int toIndex = Math.max(sourceIndex, destinationIndex) + 1;
+            scoreDirector.beforeListVariableChanged(sourceVehicle, CUSTOMERS_FIELD, fromIndex, toIndex);
+            List<Customer> customers = sourceVehicle.getCustomers();
+            customers.add(destinationIndex, customers.remove(sourceIndex));
+            scoreDirector.afterListVariableChanged(sourceVehicle, CUSTOMERS_FIELD, fromIndex, toIndex);
+        } else {
+            scoreDirector.beforeListVariableChanged(sourceVehicle, CUSTOMERS_FIELD, sourceIndex, sourceIndex + 1);
+            sourceVehicle.getCustomers().remove(sourceIndex);
+            scoreDirector.afterListVariableChanged(sourceVehicle, CUSTOMERS_FIELD, sourceIndex, sourceIndex);
+            scoreDirector.beforeListVariableChanged(destinationVehicle, CUSTOMERS_FIELD, destinationIndex, destinationIndex);
+            destinationVehicle.getCustomers().add(destinationIndex, customer);
+            scoreDirector.afterListVariableChanged(destinationVehicle, CUSTOMERS_FIELD, destinationIndex,
+                    destinationIndex + 1);
+        }
+    }
+
+    @Override
+    public NearbyCustomerChangeMove rebase(ScoreDirector<VehicleRoutePlan> destinationScoreDirector) {
+        return new NearbyCustomerChangeMove(destinationScoreDirector.lookUpWorkingObject(customer),
+                destinationScoreDirector.lookUpWorkingObject(sourceVehicle), sourceIndex,
+                destinationScoreDirector.lookUpWorkingObject(destinationVehicle), destinationIndex);
+    }
+
+    @Override
+    public Collection<?> getPlanningEntities() {
+        return sourceVehicle == destinationVehicle ? List.of(sourceVehicle) : List.of(sourceVehicle, destinationVehicle);
+    }
+
+    @Override
+    public Collection<?> getPlanningValues() {
+        return List.of(customer);
+    }
+
+    @Override
+    public String toString() {
+        return customer + " {" + sourceVehicle + "[" + sourceIndex + "] -> "
+                + destinationVehicle + "[" + destinationIndex + "]}";
+    }
+}
@@ -0,0 +1,142 @@
+package org.acme.vehiclerouting.solver.nearby;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.LocationDistanceMeter;
+import org.acme.vehiclerouting.domain.geo.NearbyLocationIndex;
+
+/**
+ * Generates {@link NearbyCustomerChangeMove}s that move a random customer right before or right after one of its
+ * nearest customers, instead of to a random position that is most likely far away.
+ * With original (non-random) selection, it generates those moves for every customer and nearby customer in order.
+ * <p>
+ * Configured through custom properties in {@code solverConfig.xml}:
+ * <ul>
+ * <li>{@code nearbyCount} - how many of the nearest customers are considered (defaults to 40),</li>
+ * <li>{@code nearbyDistanceMeterClass} - a {@link LocationDistanceMeter} between {@link Location}s
+ * (defaults to {@link DrivingTimeNearbyDistanceMeter}).</li>
+ * </ul>
+ */
+public class NearbyCustomerChangeMoveIteratorFactory
+        implements MoveIteratorFactory<VehicleRoutePlan, NearbyCustomerChangeMove> {
+
+    private int nearbyCount = 40;
+    private LocationDistanceMeter nearbyDistanceMeter = new DrivingTimeNearbyDistanceMeter();
+
+    public void setNearbyCount(int nearbyCount) {
+        if (nearbyCount < 1) {
+            throw new IllegalArgumentException("The nearbyCount (%d) must be at least 1.".formatted(nearbyCount));
+        }
+        this.nearbyCount = nearbyCount;
+    }
+
+    public void setNearbyDistanceMeterClass(String nearbyDistanceMeterClass) {
+        try {
+            Class<?> meterClass = Class.forName(nearbyDistanceMeterClass, true,
+                    Thread.currentThread().getContextClassLoader());
+            if (!LocationDistanceMeter.class.isAssignableFrom(meterClass)) {
+                throw new IllegalArgumentException("The nearbyDistanceMeterClass (%s) does not implement %s."
+                        .formatted(nearbyDistanceMeterClass, LocationDistanceMeter.class.getSimpleName()));
+            }
+            this.nearbyDistanceMeter = (LocationDistanceMeter) meterClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("The nearbyDistanceMeterClass (%s) cannot be instantiated."
+                    .formatted(nearbyDistanceMeterClass), e);
+        }
+    }
+
+    @Override
+    public long getSize(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        VehicleRoutePlan plan = scoreDirector.getWorkingSolution();
+        return (long) plan.getCustomers().size() * nearbyIndex(plan).getNearbyCount() * 2L;
+    }
+
+    @Override
+    public Iterator<NearbyCustomerChangeMove> createOriginalMoveIterator(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        VehicleRoutePlan plan = scoreDirector.getWorkingSolution();
+        return new OriginalNearbyCustomerChangeMoveIterator(plan.getCustomers(), nearbyIndex(plan));
+    }
+
+    @Override
+    public Iterator<NearbyCustomerChangeMove> createRandomMoveIterator(ScoreDirector<VehicleRoutePlan> scoreDirector,
+            Random workingRandom) {
+        VehicleRoutePlan plan = scoreDirector.getWorkingSolution();
+        return new RandomNearbyCustomerChangeMoveIterator(plan.getCustomers(), nearbyIndex(plan), workingRandom);
+    }
+
+    private NearbyLocationIndex nearbyIndex(VehicleRoutePlan plan) {
+        return plan.getNearbyCustomerIndex(nearbyDistanceMeter, nearbyCount);
+    }
+
+    private static class OriginalNearbyCustomerChangeMoveIterator implements Iterator<NearbyCustomerChangeMove> {
+
+        private final List<Customer> customers;
+        private final NearbyLocationIndex nearbyIndex;
+        private int origin = 0;
+        private int nearbyOrdinal = 0;
+        private boolean after = false;
+
+        private OriginalNearbyCustomerChangeMoveIterator(List<Customer> customers, NearbyLocationIndex nearbyIndex) {
+            this.customers = customers;
+            this.nearbyIndex = nearbyIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nearbyIndex.getNearbyCount() > 0 && origin < customers.size();
+        }
+
+        @Override
+        public NearbyCustomerChangeMove next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int nearby = nearbyIndex.getNearbyIndex(origin, nearbyOrdinal);
+            NearbyCustomerChangeMove move = NearbyCustomerChangeMove.nextTo(customers.get(origin), customers.get(nearby),
+                    after);
+            // Before and after each nearby customer, then the next nearby customer, then the next customer.
+            after = !after;
+            if (!after && ++nearbyOrdinal == nearbyIndex.getNearbyCount()) {
+                nearbyOrdinal = 0;
+                origin++;
+            }
+            return move;
+        }
+    }
+
+    private static class RandomNearbyCustomerChangeMoveIterator implements Iterator<NearbyCustomerChangeMove> {
+
+        private final List<Customer> customers;
+        private final NearbyLocationIndex nearbyIndex;
+        private final Random workingRandom;
+
+        private RandomNearbyCustomerChangeMoveIterator(List<Customer> customers, NearbyLocationIndex nearbyIndex,
+                Random workingRandom) {
+            this.customers = customers;
+            this.nearbyIndex = nearbyIndex;
+            this.workingRandom = workingRandom;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nearbyIndex.getNearbyCount() > 0;
+        }
+
+        @Override
+        public NearbyCustomerChangeMove next() {
+            int origin = workingRandom.nextInt(customers.size());
+            int nearby = nearbyIndex.getNearbyIndex(origin, workingRandom.nextInt(nearbyIndex.getNearbyCount()));
+            return NearbyCustomerChangeMove.nextTo(customers.get(origin), customers.get(nearby),
+                    workingRandom.nextBoolean());
+        }
+    }
+}
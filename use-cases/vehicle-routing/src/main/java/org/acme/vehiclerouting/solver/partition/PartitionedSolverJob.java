@@ -0,0 +1,229 @@
+package org.acme.vehiclerouting.solver.partition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Solves the partitions of a route plan concurrently, each as a separate job of the {@link SolverManager},
+ * so they run on separate cores up to its parallel solver count.
+ * Every time a partition improves, the stitched route plan is published as the new best solution.
+ * Once all partitions are solved, the {@link StitchingPolicy} decides whether the stitched route plan is refined
+ * as a whole, under the job ID of the route plan itself.
+ */
+public final class PartitionedSolverJob {
+
+    private final SolverManager<VehicleRoutePlan, String> solverManager;
+    private final SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager;
+    private final String jobId;
+    private final VehicleRoutePlan problem;
+    private final Duration partitionSpentLimit;
+    private final StitchingPolicy stitchingPolicy;
+    private final Duration refinementSpentLimit;
+    private final Consumer<VehicleRoutePlan> bestSolutionConsumer;
+    private final Consumer<VehicleRoutePlan> finalBestSolutionConsumer;
+    private final BiConsumer<String, Throwable> exceptionHandler;
+
+    private final List<String> partitionIds;
+    private final Object publishLock = new Object();
+    // Guarded by this.
+    private final VehicleRoutePlan[] bestPartitions;
+    private long stitchedVersion = 0L;
+    // Guarded by publishLock, which is never held while waiting for this.
+    private long publishedVersion = 0L;
+    // Written under this, but read without it, so a status poll never waits for a stitch or a consumer.
+    private volatile boolean terminatedEarly = false;
+    private volatile boolean refining = false;
+
+    private PartitionedSolverJob(SolverManager<VehicleRoutePlan, String> solverManager,
+            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager, String jobId,
+            VehicleRoutePlan problem, int partitionCount, Duration partitionSpentLimit,
+            StitchingPolicy stitchingPolicy, Duration refinementSpentLimit,
+            Consumer<VehicleRoutePlan> bestSolutionConsumer, Consumer<VehicleRoutePlan> finalBestSolutionConsumer,
+            BiConsumer<String, Throwable> exceptionHandler) {
+        this.solverManager = solverManager;
+        this.solutionManager = solutionManager;
+        this.jobId = jobId;
+        this.problem = problem;
+        this.partitionSpentLimit = partitionSpentLimit;
+        this.stitchingPolicy = stitchingPolicy;
+        this.refinementSpentLimit = refinementSpentLimit;
+        this.bestSolutionConsumer = bestSolutionConsumer;
+        this.finalBestSolutionConsumer = finalBestSolutionConsumer;
+        this.exceptionHandler = exceptionHandler;
+        List<String> partitionIds = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitionIds.add(jobId + "-partition-" + i);
+        }
+        this.partitionIds = List.copyOf(partitionIds);
+        this.bestPartitions = new VehicleRoutePlan[partitionCount];
+    }
+
+    /**
+     * @param solverManager never null
+     * @param solutionManager never null
+     * @param jobId never null, also the problem ID of the refinement, if any
+     * @param problem never null
+     * @param partitionCount at least 1
+     * @param partitionSpentLimit null if the configured termination applies to each partition
+     * @param stitchingPolicy never null
+     * @param refinementSpentLimit never null, ignored unless the stitching policy is {@link StitchingPolicy#REFINE}
+     * @param bestSolutionConsumer never null, receives stitched route plans
+     * @param finalBestSolutionConsumer never null, receives the final route plan once, unless solving fails
+     * @param exceptionHandler never null
+     * @return never null
+     */
+    public static PartitionedSolverJob start(SolverManager<VehicleRoutePlan, String> solverManager,
+            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager, String jobId,
+            VehicleRoutePlan problem, int partitionCount, Duration partitionSpentLimit,
+            StitchingPolicy stitchingPolicy, Duration refinementSpentLimit,
+            Consumer<VehicleRoutePlan> bestSolutionConsumer, Consumer<VehicleRoutePlan> finalBestSolutionConsumer,
+            BiConsumer<String, Throwable> exceptionHandler) {
+        List<VehicleRoutePlan> partitions = VehicleRoutePlanPartitioner.split(problem, partitionCount);
+        PartitionedSolverJob job = new PartitionedSolverJob(solverManager, solutionManager, jobId, problem,
+                partitions.size(), partitionSpentLimit, stitchingPolicy, refinementSpentLimit,
+                bestSolutionConsumer, finalBestSolutionConsumer, exceptionHandler);
+        job.solvePartitions(partitions);
+        return job;
+    }
+
+    private void solvePartitions(List<VehicleRoutePlan> partitions) {
+        CompletableFuture<?>[] partitionsSolved = new CompletableFuture<?>[partitions.size()];
+        SolverConfigOverride<VehicleRoutePlan> partitionConfigOverride = new SolverConfigOverride<>();
+        if (partitionSpentLimit != null) {
+            partitionConfigOverride.withTerminationConfig(new TerminationConfig().withSpentLimit(partitionSpentLimit));
+        }
+        for (int i = 0; i < partitions.size(); i++) {
+            int partitionIndex = i;
+            String partitionId = partitionIds.get(i);
+            CompletableFuture<Void> partitionSolved = new CompletableFuture<>();
+            partitionsSolved[i] = partitionSolved;
+            // A partition keeps the routes of an initialized plan, which need their shadow variables.
+            solutionManager.update(partitions.get(i));
+            solverManager.solveBuilder()
+                    .withProblemId(partitionId)
+                    .withProblem(partitions.get(i))
+                    .withConfigOverride(partitionConfigOverride)
+                    .withBestSolutionConsumer(solution -> updateBestPartition(partitionIndex, solution))
+                    .withFinalBestSolutionConsumer(solution -> {
+                        updateBestPartition(partitionIndex, solution);
+                        partitionSolved.complete(null);
+                    })
+                    .withExceptionHandler((partitionId_, exception) -> {
+                        partitionSolved.completeExceptionally(exception);
+                        terminateEarly();
+                    })
+                    .run();
+        }
+        CompletableFuture.allOf(partitionsSolved).whenComplete((ignored, exception) -> {
+            if (exception != null) {
+                exceptionHandler.accept(jobId,
+                        exception instanceof CompletionException ? exception.getCause() : exception);
+            } else {
+                stitchAndRefine();
+            }
+        });
+    }
+
+    private void updateBestPartition(int partitionIndex, VehicleRoutePlan solution) {
+        VehicleRoutePlan stitchedPlan;
+        long version;
+        synchronized (this) {
+            bestPartitions[partitionIndex] = solution;
+            if (!Arrays.stream(bestPartitions).allMatch(partition -> partition != null)) {
+                return;
+            }
+            stitchedPlan = VehicleRoutePlanPartitioner.stitch(problem, Arrays.asList(bestPartitions));
+            version = ++stitchedVersion;
+        }
+        // The consumer explains and stores the plan, which takes the job store's lock,
+        // and the job store asks for the solver status while holding it.
+        synchronized (publishLock) {
+            // A plan stitched later by another partition's thread may have been published already.
+            if (version > publishedVersion) {
+                publishedVersion = version;
+                bestSolutionConsumer.accept(stitchedPlan);
+            }
+        }
+    }
+
+    private void stitchAndRefine() {
+        VehicleRoutePlan stitchedPlan;
+        synchronized (this) {
+            stitchedPlan = VehicleRoutePlanPartitioner.stitch(problem, Arrays.asList(bestPartitions));
+            if (stitchingPolicy == StitchingPolicy.REFINE && !terminatedEarly) {
+                refine(stitchedPlan);
+                return;
+            }
+        }
+        finalBestSolutionConsumer.accept(stitchedPlan);
+    }
+
+    // Called under this, so terminateEarly() either prevents the refinement or terminates it.
+    private void refine(VehicleRoutePlan stitchedPlan) {
+        // The published best solution shares its vehicles and customers with the stitched plan, the solver must not.
+        VehicleRoutePlan refinementProblem = VehicleRoutePlanPartitioner.copy(stitchedPlan, stitchedPlan.getVehicles(),
+                stitchedPlan.getCustomers());
+        solutionManager.update(refinementProblem);
+        solverManager.solveBuilder()
+                .withProblemId(jobId)
+                .withProblem(refinementProblem)
+                .withConfigOverride(new SolverConfigOverride<VehicleRoutePlan>()
+                        .withTerminationConfig(new TerminationConfig().withSpentLimit(refinementSpentLimit)))
+                .withBestSolutionConsumer(bestSolutionConsumer)
+                .withFinalBestSolutionConsumer(finalBestSolutionConsumer)
+                .withExceptionHandler(exceptionHandler)
+                .run();
+        // Only now, so the status of the refinement is known to the solver manager when a poll asks for it.
+        refining = true;
+    }
+
+    /**
+     * Terminates the partitions or the refinement, whichever is running.
+     * The last stitched route plan stays the best solution.
+     */
+    public synchronized void terminateEarly() {
+        terminatedEarly = true;
+        partitionIds.forEach(solverManager::terminateEarly);
+        if (refining) {
+            solverManager.terminateEarly(jobId);
+        }
+    }
+
+    /**
+     * @return never null, {@link SolverStatus#SOLVING_ACTIVE} if any partition or the refinement is being solved
+     */
+    public SolverStatus getSolverStatus() {
+        if (refining) {
+            return solverManager.getSolverStatus(jobId);
+        }
+        SolverStatus solverStatus = SolverStatus.NOT_SOLVING;
+        for (String partitionId : partitionIds) {
+            SolverStatus partitionStatus = solverManager.getSolverStatus(partitionId);
+            if (partitionStatus == SolverStatus.SOLVING_ACTIVE) {
+                return SolverStatus.SOLVING_ACTIVE;
+            } else if (partitionStatus == SolverStatus.SOLVING_SCHEDULED) {
+                solverStatus = SolverStatus.SOLVING_SCHEDULED;
+            }
+        }
+        if (solverStatus == SolverStatus.NOT_SOLVING && stitchingPolicy == StitchingPolicy.REFINE && !terminatedEarly) {
+            // All partitions are solved, but the refinement has yet to start.
+            return SolverStatus.SOLVING_ACTIVE;
+        }
+        return solverStatus;
+    }
+}
@@ -0,0 +1,17 @@
+package org.acme.vehiclerouting.solver.partition;
+
+/**
+ * What happens after the partitions of a route plan have been solved and stitched back together.
+ */
+public enum StitchingPolicy {
+    /**
+     * The stitched route plan is the final solution.
+     * Customers never move between vehicles of different partitions.
+     */
+    CONCATENATE,
+    /**
+     * The stitched route plan is solved once more as a whole, for a short time,
+     * so customers near a partition border can move to a vehicle of another partition.
+     */
+    REFINE
+}
@@ -0,0 +1,339 @@
+package org.acme.vehiclerouting.solver.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Splits a route plan into geographical regions that can be solved independently, and stitches them back together.
+ * <p>
+ * The customers are clustered with k-means, starting from the depot locations, so with as many partitions as depots
+ * every depot gets its own region. Each region gets a number of vehicles in proportion to its total demand,
+ * preferring the vehicles whose depot is nearest to the region.
+ * The customers a vehicle already visited stay in the region of that vehicle, wherever they are.
+ * The split is deterministic: the same plan and partition count always give the same partitions.
+ */
+public final class VehicleRoutePlanPartitioner {
+
+    private static final int MAX_CLUSTERING_ITERATIONS = 50;
+
+    /**
+     * @param plan never null
+     * @param partitionCount at least 1, capped to the number of vehicles and customers
+     * @return never null, never empty; the partitions contain copies of the vehicles and customers,
+     *         so solving them does not modify the original plan
+     */
+    public static List<VehicleRoutePlan> split(VehicleRoutePlan plan, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("The partitionCount (%d) must be at least 1.".formatted(partitionCount));
+        }
+        List<Customer> customers = plan.getCustomers();
+        List<Vehicle> vehicles = plan.getVehicles();
+        int clusterCount = Math.min(partitionCount, Math.min(vehicles.size(), customers.size()));
+        if (clusterCount <= 1) {
+            return List.of(copy(plan, plan.getVehicles(), plan.getCustomers()));
+        }
+
+        double longitudeScale = Math.cos(Math.toRadians(customers.stream()
+                .mapToDouble(customer -> customer.getLocation().getLatitude()).average().orElseThrow()));
+        double[][] centroids = initialCentroids(plan, clusterCount, longitudeScale);
+        int[] customerClusters = cluster(customers, centroids, longitudeScale);
+
+        // Drop the clusters that ended up without customers.
+        List<List<Customer>> clusterCustomers = new ArrayList<>();
+        List<double[]> clusterCentroids = new ArrayList<>();
+        for (int cluster = 0; cluster < centroids.length; cluster++) {
+            List<Customer> members = new ArrayList<>();
+            for (int i = 0; i < customers.size(); i++) {
+                if (customerClusters[i] == cluster) {
+                    members.add(customers.get(i));
+                }
+            }
+            if (!members.isEmpty()) {
+                clusterCustomers.add(members);
+                clusterCentroids.add(centroids[cluster]);
+            }
+        }
+
+        int[] vehicleQuotas = vehicleQuotas(clusterCustomers, vehicles.size());
+        List<List<Vehicle>> clusterVehicles = assignVehicles(vehicles, clusterCentroids, vehicleQuotas, longitudeScale);
+        keepVisitedCustomersWithTheirVehicle(customers, clusterCustomers, clusterVehicles);
+
+        List<VehicleRoutePlan> partitions = new ArrayList<>(clusterCustomers.size());
+        for (int cluster = 0; cluster < clusterCustomers.size(); cluster++) {
+            partitions.add(copy(plan, clusterVehicles.get(cluster), clusterCustomers.get(cluster)));
+        }
+        return partitions;
+    }
+
+    /**
+     * @param plan never null, the plan that was split
+     * @param partitions never null, solved partitions of the plan, in any order
+     * @return never null, a plan with the vehicles and customers of the partitions, in the order of the original plan
+     */
+    public static VehicleRoutePlan stitch(VehicleRoutePlan plan, List<VehicleRoutePlan> partitions) {
+        Map<String, Vehicle> idToVehicle = new HashMap<>();
+        Map<String, Customer> idToCustomer = new HashMap<>();
+        HardSoftLongScore score = HardSoftLongScore.ZERO;
+        for (VehicleRoutePlan partition : partitions) {
+            partition.getVehicles().forEach(vehicle -> idToVehicle.put(vehicle.getId(), vehicle));
+            partition.getCustomers().forEach(customer -> idToCustomer.put(customer.getId(), customer));
+            // Every constraint is about a single vehicle or customer, so the partition scores add up.
+            score = score == null || partition.getScore() == null ? null : score.add(partition.getScore());
+        }
+        List<Vehicle> vehicles = new ArrayList<>(plan.getVehicles().size());
+        for (Vehicle vehicle : plan.getVehicles()) {
+            vehicles.add(findPartitionCopy(idToVehicle, vehicle.getId(), plan));
+        }
+        List<Customer> customers = new ArrayList<>(plan.getCustomers().size());
+        for (Customer customer : plan.getCustomers()) {
+            customers.add(findPartitionCopy(idToCustomer, customer.getId(), plan));
+        }
+        VehicleRoutePlan stitchedPlan = new VehicleRoutePlan(plan, plan.getDepots(), vehicles, customers);
+        stitchedPlan.setScore(score);
+        return stitchedPlan;
+    }
+
+    private static <T> T findPartitionCopy(Map<String, T> idToCopy, String id, VehicleRoutePlan plan) {
+        T copy = idToCopy.get(id);
+        if (copy == null) {
+            throw new IllegalArgumentException("The partitions of the plan (%s) do not contain the id (%s)."
+                    .formatted(plan.getName(), id));
+        }
+        return copy;
+    }
+
+    // ************************************************************************
+    // Clustering
+    // ************************************************************************
+
+    private static double[][] initialCentroids(VehicleRoutePlan plan, int clusterCount, double longitudeScale) {
+        List<double[]> centroids = new ArrayList<>(clusterCount);
+        for (Depot depot : plan.getDepots()) {
+            double[] point = toPoint(depot.getLocation(), longitudeScale);
+            boolean duplicate = centroids.stream().anyMatch(centroid -> distanceSquared(centroid, point) == 0.0);
+            if (centroids.size() < clusterCount && !duplicate) {
+                centroids.add(point);
+            }
+        }
+        // More partitions than depots: continue with the customer farthest from all centroids so far.
+        List<Customer> customers = plan.getCustomers();
+        while (centroids.size() < clusterCount) {
+            double[] farthestPoint = null;
+            double farthestDistance = -1.0;
+            for (Customer customer : customers) {
+                double[] point = toPoint(customer.getLocation(), longitudeScale);
+                double distance = centroids.stream().mapToDouble(centroid -> distanceSquared(centroid, point)).min()
+                        .orElse(Double.MAX_VALUE);
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthestPoint = point;
+                }
+            }
+            centroids.add(farthestPoint);
+        }
+        return centroids.toArray(double[][]::new);
+    }
+
+    private static int[] cluster(List<Customer> customers, double[][] centroids, double longitudeScale) {
+        double[][] points = customers.stream().map(customer -> toPoint(customer.getLocation(), longitudeScale))
+                .toArray(double[][]::new);
+        int[] clusters = new int[points.length];
+        for (int iteration = 0; iteration < MAX_CLUSTERING_ITERATIONS; iteration++) {
+            boolean changed = false;
+            for (int i = 0; i < points.length; i++) {
+                int nearestCluster = nearest(points[i], centroids);
+                if (iteration == 0 || clusters[i] != nearestCluster) {
+                    clusters[i] = nearestCluster;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+            double[][] sums = new double[centroids.length][2];
+            int[] counts = new int[centroids.length];
+            for (int i = 0; i < points.length; i++) {
+                sums[clusters[i]][0] += points[i][0];
+                sums[clusters[i]][1] += points[i][1];
+                counts[clusters[i]]++;
+            }
+            for (int cluster = 0; cluster < centroids.length; cluster++) {
+                if (counts[cluster] > 0) {
+                    centroids[cluster] =
+                            new double[] { sums[cluster][0] / counts[cluster], sums[cluster][1] / counts[cluster] };
+                }
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Every cluster gets at least one vehicle; the others go one by one to the cluster with the most demand
+     * per vehicle (D'Hondt method).
+     */
+    private static int[] vehicleQuotas(List<List<Customer>> clusterCustomers, int vehicleCount) {
+        long[] demands = clusterCustomers.stream()
+                .mapToLong(customers -> customers.stream().mapToLong(Customer::getDemand).sum())
+                .toArray();
+        int[] quotas = new int[demands.length];
+        Arrays.fill(quotas, 1);
+        for (int remaining = vehicleCount - demands.length; remaining > 0; remaining--) {
+            int bestCluster = 0;
+            for (int cluster = 1; cluster < demands.length; cluster++) {
+                // demands[cluster] / quotas[cluster] > demands[bestCluster] / quotas[bestCluster]
+                if (demands[cluster] * quotas[bestCluster] > demands[bestCluster] * quotas[cluster]) {
+                    bestCluster = cluster;
+                }
+            }
+            quotas[bestCluster]++;
+        }
+        return quotas;
+    }
+
+    private static List<List<Vehicle>> assignVehicles(List<Vehicle> vehicles, List<double[]> centroids, int[] quotas,
+            double longitudeScale) {
+        record Candidate(int vehicle, int cluster, double distance) {
+        }
+        List<Candidate> candidates = new ArrayList<>(vehicles.size() * centroids.size());
+        for (int vehicle = 0; vehicle < vehicles.size(); vehicle++) {
+            double[] depotPoint = toPoint(vehicles.get(vehicle).getDepot().getLocation(), longitudeScale);
+            for (int cluster = 0; cluster < centroids.size(); cluster++) {
+                candidates.add(new Candidate(vehicle, cluster, distanceSquared(depotPoint, centroids.get(cluster))));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+        int[] remainingQuotas = quotas.clone();
+        boolean[] assigned = new boolean[vehicles.size()];
+        int[] vehicleClusters = new int[vehicles.size()];
+        for (Candidate candidate : candidates) {
+            if (!assigned[candidate.vehicle()] && remainingQuotas[candidate.cluster()] > 0) {
+                assigned[candidate.vehicle()] = true;
+                vehicleClusters[candidate.vehicle()] = candidate.cluster();
+                remainingQuotas[candidate.cluster()]--;
+            }
+        }
+        List<List<Vehicle>> clusterVehicles = new ArrayList<>(centroids.size());
+        for (int cluster = 0; cluster < centroids.size(); cluster++) {
+            clusterVehicles.add(new ArrayList<>());
+        }
+        for (int vehicle = 0; vehicle < vehicles.size(); vehicle++) {
+            clusterVehicles.get(vehicleClusters[vehicle]).add(vehicles.get(vehicle));
+        }
+        return clusterVehicles;
+    }
+
+    /**
+     * The solver does not move the visited customers at the start of a route,
+     * so a partition without their vehicle could never assign them.
+     */
+    private static void keepVisitedCustomersWithTheirVehicle(List<Customer> customers,
+            List<List<Customer>> clusterCustomers, List<List<Vehicle>> clusterVehicles) {
+        Map<Customer, Integer> customerToCluster = new HashMap<>(customers.size());
+        for (int cluster = 0; cluster < clusterCustomers.size(); cluster++) {
+            for (Customer customer : clusterCustomers.get(cluster)) {
+                customerToCluster.put(customer, cluster);
+            }
+        }
+        boolean moved = false;
+        for (int cluster = 0; cluster < clusterVehicles.size(); cluster++) {
+            for (Vehicle vehicle : clusterVehicles.get(cluster)) {
+                for (Customer visitedCustomer : vehicle.getCustomers().subList(0, vehicle.getVisitedCustomerCount())) {
+                    Integer previousCluster = customerToCluster.put(visitedCustomer, cluster);
+                    moved |= previousCluster == null || previousCluster != cluster;
+                }
+            }
+        }
+        if (!moved) {
+            return;
+        }
+        // Rebuild the clusters in the order of the plan, so the split stays deterministic.
+        clusterCustomers.forEach(List::clear);
+        for (Customer customer : customers) {
+            clusterCustomers.get(customerToCluster.get(customer)).add(customer);
+        }
+    }
+
+    private static int nearest(double[] point, double[][] centroids) {
+        int nearestCluster = 0;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int cluster = 0; cluster < centroids.length; cluster++) {
+            double distance = distanceSquared(point, centroids[cluster]);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestCluster = cluster;
+            }
+        }
+        return nearestCluster;
+    }
+
+    // Equirectangular projection, accurate enough to compare distances within a region.
+    private static double[] toPoint(Location location, double longitudeScale) {
+        return new double[] { location.getLongitude() * longitudeScale, location.getLatitude() };
+    }
+
+    private static double distanceSquared(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        return dx * dx + dy * dy;
+    }
+
+    // ************************************************************************
+    // Copying
+    // ************************************************************************
+
+    /**
+     * @return never null, a plan with copies of the given vehicles and customers that keeps the routes among them
+     */
+    static VehicleRoutePlan copy(VehicleRoutePlan plan, List<Vehicle> vehicles, List<Customer> customers) {
+        Map<String, Customer> idToCustomerCopy = new HashMap<>(customers.size());
+        List<Customer> customerCopies = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            Customer customerCopy = new Customer(customer.getId(), customer.getName(), customer.getLocation(),
+                    customer.getDemand(), customer.getMinStartTime(), customer.getMaxEndTime(),
+                    customer.getServiceDuration());
+            customerCopy.setActualDepartureTime(customer.getActualDepartureTime());
+            idToCustomerCopy.put(customer.getId(), customerCopy);
+            customerCopies.add(customerCopy);
+        }
+        Set<Depot> depots = new LinkedHashSet<>();
+        List<Vehicle> vehicleCopies = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            Vehicle vehicleCopy = new Vehicle(vehicle.getId(), vehicle.getCapacity(), vehicle.getDepot(),
+                    vehicle.getDepartureTime());
+            // Keep the visits of an initialized plan that stay within this partition.
+            int visitedCustomerCount = 0;
+            for (int i = 0; i < vehicle.getCustomers().size(); i++) {
+                Customer customerCopy = idToCustomerCopy.get(vehicle.getCustomers().get(i).getId());
+                if (customerCopy != null) {
+                    vehicleCopy.getCustomers().add(customerCopy);
+                    if (i < vehicle.getVisitedCustomerCount()) {
+                        visitedCustomerCount++;
+                    }
+                }
+            }
+            vehicleCopy.setVisitedCustomerCount(visitedCustomerCount);
+            depots.add(vehicle.getDepot());
+            vehicleCopies.add(vehicleCopy);
+        }
+        List<Depot> partitionDepots = plan.getDepots().stream().filter(depots::contains).toList();
+        return new VehicleRoutePlan(plan, partitionDepots, vehicleCopies, customerCopies);
+    }
+
+    private VehicleRoutePlanPartitioner() {
+    }
+}
@@ -0,0 +1,212 @@
+package org.acme.vehiclerouting.solver.resource;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limits the total number of cores of all solving jobs, across all {@link ResourceClass resource classes}.
+ * <p>
+ * A submitted job starts as soon as its cores are available and fewer jobs of its resource class are solving
+ * than the {@link ResourceClass#getParallelSolverCount() parallel solver count} of that class.
+ * Until then it waits. Waiting jobs start in submission order, but a job that does not fit yet
+ * does not hold back a later job that does, so small jobs keep flowing while a large job waits for cores.
+ * A job that needs more cores than the whole quota starts once no other job is solving.
+ * <p>
+ * The cores of a job are reserved under this quota's lock, but the job is started after releasing it,
+ * so status polls never wait for a job to start. Until its start returns, the job still counts as waiting.
+ */
+public final class CpuCoreQuota {
+
+    private final int coreCount;
+
+    // Guarded by this. In submission order.
+    private final LinkedHashMap<String, Reservation> jobIdToWaitingReservation = new LinkedHashMap<>();
+    private final Map<String, Reservation> jobIdToSolvingReservation = new HashMap<>();
+    private final Map<ResourceClass, Integer> resourceClassToSolvingCount = new EnumMap<>(ResourceClass.class);
+    // Guarded by this. Jobs with reserved cores whose start did not return yet.
+    private final Set<String> startingJobIds = new HashSet<>();
+    private int availableCoreCount;
+
+    /**
+     * @param coreCount at least 1
+     */
+    public CpuCoreQuota(int coreCount) {
+        if (coreCount < 1) {
+            throw new IllegalArgumentException("The coreCount (%d) must be at least 1.".formatted(coreCount));
+        }
+        this.coreCount = coreCount;
+        this.availableCoreCount = coreCount;
+    }
+
+    /**
+     * Starts the job now if it fits, otherwise once enough other jobs are {@link #release(String) released}.
+     * The start runs on the calling thread, without holding this quota's lock.
+     *
+     * @param jobId never null, unique
+     * @param resourceClass never null
+     * @param jobCoreCount at least 1
+     * @param start never null, starts solving without blocking
+     */
+    public void submit(String jobId, ResourceClass resourceClass, int jobCoreCount, Runnable start) {
+        List<StartingJob> startingJobs;
+        synchronized (this) {
+            if (jobIdToWaitingReservation.containsKey(jobId) || jobIdToSolvingReservation.containsKey(jobId)
+                    || startingJobIds.contains(jobId)) {
+                throw new IllegalStateException("The jobId (%s) was already submitted.".formatted(jobId));
+            }
+            jobIdToWaitingReservation.put(jobId,
+                    new Reservation(resourceClass, Math.min(jobCoreCount, coreCount), start));
+            // An earlier waiting job might not fit, while this one does.
+            startingJobs = reserveWaitingJobs();
+        }
+        start(startingJobs);
+    }
+
+    /**
+     * @param jobId never null
+     * @return true if the job was submitted, but did not start yet
+     */
+    public synchronized boolean isWaiting(String jobId) {
+        return jobIdToWaitingReservation.containsKey(jobId) || startingJobIds.contains(jobId);
+    }
+
+    /**
+     * Drops a job that is still waiting, so it never starts.
+     * If the job is starting, waits until its start returns, so the caller can terminate it instead.
+     *
+     * @param jobId never null
+     * @return true if the job was waiting, false if it already started or was never submitted
+     */
+    public synchronized boolean cancel(String jobId) {
+        if (jobIdToWaitingReservation.remove(jobId) != null) {
+            return true;
+        }
+        while (startingJobIds.contains(jobId)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Frees the cores of a job that stopped solving, or drops a job that is still waiting.
+     * Releasing a job more than once, or a job that was never submitted, does nothing.
+     *
+     * @param jobId never null
+     */
+    public void release(String jobId) {
+        List<StartingJob> startingJobs;
+        synchronized (this) {
+            if (jobIdToWaitingReservation.remove(jobId) != null) {
+                return;
+            }
+            Reservation reservation = jobIdToSolvingReservation.remove(jobId);
+            if (reservation == null) {
+                return;
+            }
+            unreserve(reservation);
+            startingJobs = reserveWaitingJobs();
+        }
+        start(startingJobs);
+    }
+
+    /**
+     * @return at least 0
+     */
+    public synchronized int getAvailableCoreCount() {
+        return availableCoreCount;
+    }
+
+    /**
+     * Must be called while holding the lock.
+     *
+     * @return never null, the jobs whose cores are reserved, to {@link #start(List) start} after releasing the lock
+     */
+    private List<StartingJob> reserveWaitingJobs() {
+        List<StartingJob> startingJobs = new ArrayList<>();
+        Iterator<Map.Entry<String, Reservation>> it = jobIdToWaitingReservation.entrySet().iterator();
+        while (it.hasNext() && availableCoreCount > 0) {
+            Map.Entry<String, Reservation> entry = it.next();
+            Reservation reservation = entry.getValue();
+            if (fits(reservation)) {
+                it.remove();
+                availableCoreCount -= reservation.coreCount();
+                resourceClassToSolvingCount.merge(reservation.resourceClass(), 1, Integer::sum);
+                jobIdToSolvingReservation.put(entry.getKey(), reservation);
+                startingJobIds.add(entry.getKey());
+                startingJobs.add(new StartingJob(entry.getKey(), reservation));
+            }
+        }
+        return startingJobs;
+    }
+
+    private void unreserve(Reservation reservation) {
+        availableCoreCount += reservation.coreCount();
+        resourceClassToSolvingCount.merge(reservation.resourceClass(), -1, Integer::sum);
+    }
+
+    private boolean fits(Reservation reservation) {
+        return reservation.coreCount() <= availableCoreCount
+                && resourceClassToSolvingCount.getOrDefault(reservation.resourceClass(), 0)
+                        < reservation.resourceClass().getParallelSolverCount();
+    }
+
+    /**
+     * Must be called without holding the lock.
+     * A job that fails to start frees its cores for the waiting jobs, which are started too.
+     *
+     * @throws RuntimeException the exception of the first job that failed to start, after starting the others
+     */
+    private void start(List<StartingJob> startingJobs) {
+        RuntimeException exception = null;
+        List<StartingJob> remainingJobs = startingJobs;
+        while (!remainingJobs.isEmpty()) {
+            List<StartingJob> nextJobs = new ArrayList<>();
+            for (StartingJob startingJob : remainingJobs) {
+                RuntimeException startException = null;
+                try {
+                    startingJob.reservation().start().run();
+                } catch (RuntimeException e) {
+                    startException = e;
+                    if (exception == null) {
+                        exception = e;
+                    } else {
+                        exception.addSuppressed(e);
+                    }
+                }
+                synchronized (this) {
+                    startingJobIds.remove(startingJob.jobId());
+                    // Wake up the cancel calls waiting for this job to start.
+                    notifyAll();
+                    // Unless the job already failed and was released.
+                    if (startException != null
+                            && jobIdToSolvingReservation.remove(startingJob.jobId(), startingJob.reservation())) {
+                        unreserve(startingJob.reservation());
+                        nextJobs.addAll(reserveWaitingJobs());
+                    }
+                }
+            }
+            remainingJobs = nextJobs;
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private record Reservation(ResourceClass resourceClass, int coreCount, Runnable start) {
+    }
+
+    private record StartingJob(String jobId, Reservation reservation) {
+    }
+}
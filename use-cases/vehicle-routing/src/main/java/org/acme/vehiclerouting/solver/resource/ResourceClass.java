@@ -0,0 +1,65 @@
+package org.acme.vehiclerouting.solver.resource;
+
+import java.time.Duration;
+
+/**
+ * How much CPU a route plan job gets, chosen per job when it is submitted.
+ * <p>
+ * A resource class maps to a move thread count, a termination and a parallel solver count:
+ * the maximum number of jobs of that class that solve at the same time.
+ * Every solving job also reserves its cores from the {@link CpuCoreQuota} shared by all classes,
+ * so a few large jobs cannot take every core away from small, interactive ones.
+ */
+public enum ResourceClass {
+    /**
+     * Interactive route plans, solved by the configured solver with its configured termination.
+     */
+    SMALL(0, null, Integer.MAX_VALUE),
+    /**
+     * Route plans with hundreds of customers.
+     */
+    LARGE(2, Duration.ofMinutes(2), 2),
+    /**
+     * Route plans with thousands of customers.
+     */
+    XL(4, Duration.ofMinutes(5), 1);
+
+    private final int moveThreadCount;
+    private final Duration spentLimit;
+    private final int parallelSolverCount;
+
+    ResourceClass(int moveThreadCount, Duration spentLimit, int parallelSolverCount) {
+        this.moveThreadCount = moveThreadCount;
+        this.spentLimit = spentLimit;
+        this.parallelSolverCount = parallelSolverCount;
+    }
+
+    /**
+     * @return at least 0, 0 if the solver does not use move threads
+     */
+    public int getMoveThreadCount() {
+        return moveThreadCount;
+    }
+
+    /**
+     * @return null if the configured termination applies
+     */
+    public Duration getSpentLimit() {
+        return spentLimit;
+    }
+
+    /**
+     * @return at least 1, the maximum number of jobs of this class that solve at the same time
+     */
+    public int getParallelSolverCount() {
+        return parallelSolverCount;
+    }
+
+    /**
+     * @param moveThreadsEnabled false if move threads require an edition of the solver that is not available
+     * @return at least 1, the cores a job of this class keeps busy while solving
+     */
+    public int getCoreCount(boolean moveThreadsEnabled) {
+        return moveThreadsEnabled ? Math.max(1, moveThreadCount) : 1;
+    }
+}
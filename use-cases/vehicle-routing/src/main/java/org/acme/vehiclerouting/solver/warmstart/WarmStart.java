@@ -0,0 +1,62 @@
+package org.acme.vehiclerouting.solver.warmstart;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Seeds the routes of a route plan from a previous solution, for example yesterday's plan for a day
+ * with mostly the same customers.
+ * <p>
+ * Customers and vehicles are matched by ID. Every matched customer is assigned to its previous vehicle,
+ * in its previous order, so the construction heuristic only inserts the customers that are new,
+ * and the local search starts from routes that were already good.
+ * Customers that are gone from the plan simply drop out of their previous route.
+ */
+public final class WarmStart {
+
+    /**
+     * The seeded routes still need their shadow variables, for example through {@code SolutionManager.update()}.
+     *
+     * @param problem never null, vehicles that already have customers keep their route
+     * @param previousSolution never null, not modified
+     * @return the number of customers that were assigned
+     */
+    public static int seed(VehicleRoutePlan problem, VehicleRoutePlan previousSolution) {
+        Map<String, Vehicle> idToVehicle = new HashMap<>(problem.getVehicles().size());
+        Set<Customer> assignedCustomers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Vehicle vehicle : problem.getVehicles()) {
+            idToVehicle.put(vehicle.getId(), vehicle);
+            assignedCustomers.addAll(vehicle.getCustomers());
+        }
+        Map<String, Customer> idToCustomer = new HashMap<>(problem.getCustomers().size());
+        for (Customer customer : problem.getCustomers()) {
+            idToCustomer.put(customer.getId(), customer);
+        }
+
+        int seededCount = 0;
+        for (Vehicle previousVehicle : previousSolution.getVehicles()) {
+            Vehicle vehicle = idToVehicle.get(previousVehicle.getId());
+            if (vehicle == null || !vehicle.getCustomers().isEmpty()) {
+                continue;
+            }
+            for (Customer previousCustomer : previousVehicle.getCustomers()) {
+                Customer customer = idToCustomer.get(previousCustomer.getId());
+                if (customer != null && assignedCustomers.add(customer)) {
+                    vehicle.getCustomers().add(customer);
+                    seededCount++;
+                }
+            }
+        }
+        return seededCount;
+    }
+
+    private WarmStart() {
+    }
+}
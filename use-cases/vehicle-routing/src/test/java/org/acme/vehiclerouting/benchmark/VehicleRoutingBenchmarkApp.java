@@ -0,0 +1,32 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.benchmark.api.PlannerBenchmarkFactory;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+
+/**
+ * Compares the local search types, with and without nearby customer moves, on every demo data set.
+ * The problems are reported in the order of {@link VehicleRouteDemoResource.DemoData#values()}.
+ * The report is written to {@code target/benchmarks}.
+ * <p>
+ * The arguments are the move thread counts to compare, {@code NONE} by default.
+ * Any other move thread count requires Timefold Solver Enterprise Edition on the classpath.
+ */
+public class VehicleRoutingBenchmarkApp {
+
+    public static void main(String[] args) {
+        List<String> moveThreadCounts = args.length == 0 ? List.of("NONE") : List.of(args);
+        PlannerBenchmarkFactory benchmarkFactory = PlannerBenchmarkFactory.createFromFreemarkerXmlResource(
+                "vehicleRoutingBenchmarkConfigTemplate.xml.ftl", Map.of("moveThreadCounts", moveThreadCounts));
+        VehicleRouteDemoResource demoResource = new VehicleRouteDemoResource();
+        VehicleRoutePlan[] problems = Arrays.stream(VehicleRouteDemoResource.DemoData.values())
+                .map(demoResource::build)
+                .toArray(VehicleRoutePlan[]::new);
+        benchmarkFactory.buildPlannerBenchmark(problems).benchmarkAndShowReportInBrowser();
+    }
+}
@@ -0,0 +1,32 @@
+package org.acme.vehiclerouting.bootstrap;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.HaversineDrivingTimeCalculator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TimedDrivingTimeCalculatorTest {
+
+    @Test
+    void timeMatrixInitialization() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TimedDrivingTimeCalculator calculator =
+                new TimedDrivingTimeCalculator(HaversineDrivingTimeCalculator.getInstance(), meterRegistry);
+        Location a = new Location(51.05, 3.72);
+        Location b = new Location(50.85, 4.35);
+        calculator.initDrivingTimeMaps(List.of(a, b));
+
+        Assertions.assertThat(a.getDrivingTimeTo(b))
+                .isEqualTo(HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(a, b));
+        Timer timer = meterRegistry.get(TimedDrivingTimeCalculator.TIMER_NAME)
+                .tag("calculator", HaversineDrivingTimeCalculator.class.getSimpleName())
+                .timer();
+        Assertions.assertThat(timer.count()).isEqualTo(1);
+        Assertions.assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+}
@@ -0,0 +1,61 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingDrivingTimeCalculatorTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    void calculateDrivingTimeMatrixOnlyOnce() throws Exception {
+        AtomicInteger calculationCount = new AtomicInteger();
+        DrivingTimeCalculator countingCalculator = new DrivingTimeCalculator() {
+            @Override
+            public long calculateDrivingTime(Location from, Location to) {
+                calculationCount.incrementAndGet();
+                return HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(from, to);
+            }
+        };
+        List<Location> locations = List.of(new Location(51.0441461, 3.7336349), new Location(49.1913945, 16.6122723));
+        int[] expectedMatrix = countingCalculator.calculateDrivingTimeMatrix(locations);
+        calculationCount.set(0);
+
+        int[] firstMatrix = new CachingDrivingTimeCalculator(countingCalculator, cacheDirectory)
+                .calculateDrivingTimeMatrix(locations);
+        Assertions.assertThat(firstMatrix).containsExactly(expectedMatrix);
+        Assertions.assertThat(calculationCount).hasValue(4);
+        try (var cacheFiles = Files.list(cacheDirectory)) {
+            Assertions.assertThat(cacheFiles).hasSize(1);
+        }
+
+        // A new calculator does not share the in-memory matrix, so it has to read the file.
+        List<Location> sameLocations = List.of(new Location(51.0441461, 3.7336349), new Location(49.1913945, 16.6122723));
+        int[] secondMatrix = new CachingDrivingTimeCalculator(countingCalculator, cacheDirectory)
+                .calculateDrivingTimeMatrix(sameLocations);
+        Assertions.assertThat(secondMatrix).containsExactly(expectedMatrix);
+        Assertions.assertThat(calculationCount).hasValue(4);
+
+        // Initializing the locations reads through the mapped file.
+        new CachingDrivingTimeCalculator(countingCalculator, cacheDirectory).initDrivingTimeMaps(sameLocations);
+        Assertions.assertThat(sameLocations.get(0).getDrivingTimeTo(sameLocations.get(1))).isEqualTo(expectedMatrix[1]);
+        Assertions.assertThat(sameLocations.get(1).getDrivingTimeTo(sameLocations.get(0))).isEqualTo(expectedMatrix[2]);
+        Assertions.assertThat(calculationCount).hasValue(4);
+        // Extending the mapped matrix copies it to the heap, the file stays unchanged.
+        Location newLocation = new Location(50.0, 10.0);
+        HaversineDrivingTimeCalculator.getInstance().extendDrivingTimeMaps(sameLocations, newLocation);
+        Assertions.assertThat(sameLocations.get(1).getDrivingTimeTo(sameLocations.get(0))).isEqualTo(expectedMatrix[2]);
+        Assertions.assertThat(newLocation.getDrivingTimeTo(sameLocations.get(0))).isEqualTo(
+                HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(newLocation, sameLocations.get(0)));
+        Assertions.assertThat(new CachingDrivingTimeCalculator(countingCalculator, cacheDirectory)
+                .calculateDrivingTimeMatrix(sameLocations)).containsExactly(expectedMatrix);
+    }
+}
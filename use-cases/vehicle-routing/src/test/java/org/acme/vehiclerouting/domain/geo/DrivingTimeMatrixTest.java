@@ -0,0 +1,71 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DrivingTimeMatrixTest {
+
+    @Test
+    void extendWithoutChangingOtherMatrices() {
+        int[] drivingTimes = { 0, 1, 2, 0 };
+        DrivingTimeMatrix matrix = new DrivingTimeMatrix(drivingTimes, 2);
+
+        DrivingTimeMatrix extendedMatrix = matrix.extend(new int[] { 5, 6, 0 }, new int[] { 3, 4 });
+        Assertions.assertThat(extendedMatrix.getLocationCount()).isEqualTo(3);
+        Assertions.assertThat(extendedMatrix.getDrivingTime(0, 1)).isEqualTo(1);
+        Assertions.assertThat(extendedMatrix.getDrivingTime(1, 0)).isEqualTo(2);
+        Assertions.assertThat(extendedMatrix.getDrivingTime(0, 2)).isEqualTo(3);
+        Assertions.assertThat(extendedMatrix.getDrivingTime(2, 1)).isEqualTo(6);
+        // The array of the original matrix may be shared with other plans, so it is copied.
+        Assertions.assertThat(drivingTimes).containsExactly(0, 1, 2, 0);
+
+        // Extending the same matrix twice must not overwrite the cells of the first extension.
+        DrivingTimeMatrix otherExtendedMatrix = extendedMatrix.extend(new int[] { 7, 7, 7, 0 }, new int[] { 8, 8, 8 });
+        DrivingTimeMatrix secondOtherExtendedMatrix =
+                extendedMatrix.extend(new int[] { 9, 9, 9, 0 }, new int[] { 10, 10, 10 });
+        Assertions.assertThat(otherExtendedMatrix.getDrivingTime(3, 0)).isEqualTo(7);
+        Assertions.assertThat(otherExtendedMatrix.getDrivingTime(0, 3)).isEqualTo(8);
+        Assertions.assertThat(secondOtherExtendedMatrix.getDrivingTime(3, 0)).isEqualTo(9);
+        Assertions.assertThat(secondOtherExtendedMatrix.getDrivingTime(0, 3)).isEqualTo(10);
+        Assertions.assertThat(extendedMatrix.getDrivingTime(2, 1)).isEqualTo(6);
+    }
+
+    @Test
+    void extendDrivingTimeMapsOnlyCalculatesTheNewLocation() {
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            locations.add(new Location(50.0 + i * 0.1, 4.0 + i * 0.05));
+        }
+        List<Location> initialLocations = List.copyOf(locations.subList(0, 4));
+        HaversineDrivingTimeCalculator.getInstance().initDrivingTimeMaps(initialLocations);
+        DrivingTimeMatrix initialMatrix = initialLocations.get(0).getDrivingTimeMatrix();
+
+        List<Location> calculatedFrom = new ArrayList<>();
+        DrivingTimeCalculator recordingCalculator = (from, to) -> {
+            calculatedFrom.add(from);
+            return HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(from, to);
+        };
+        // The second location was removed from the plan.
+        List<Location> remainingLocations = List.of(locations.get(0), locations.get(2), locations.get(3));
+        Location newLocation = locations.get(4);
+        recordingCalculator.extendDrivingTimeMaps(remainingLocations, newLocation);
+
+        Assertions.assertThat(calculatedFrom).hasSize(2 * remainingLocations.size());
+        Assertions.assertThat(initialLocations).extracting(Location::getIndex).containsExactly(0, 1, 2, 3);
+        Assertions.assertThat(newLocation.getIndex()).isEqualTo(4);
+        Assertions.assertThat(initialMatrix.getLocationCount()).isEqualTo(4);
+        for (Location from : remainingLocations) {
+            Assertions.assertThat(from.getDrivingTimeMatrix()).isSameAs(newLocation.getDrivingTimeMatrix());
+            for (Location to : List.of(locations.get(0), locations.get(2), newLocation)) {
+                Assertions.assertThat(from.getDrivingTimeTo(to))
+                        .isEqualTo(HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(from, to));
+                Assertions.assertThat(to.getDrivingTimeTo(from))
+                        .isEqualTo(HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(to, from));
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.acme.vehiclerouting.domain.geo;
 
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
 import org.acme.vehiclerouting.domain.Location;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -22,4 +26,36 @@ class HaversineDrivingTimeCalculatorTest {
         Assertions.assertThat(drivingTimeCalculator.calculateDrivingTime(Svolvaer, Lulea))
                 .isEqualTo(HaversineDrivingTimeCalculator.metersToDrivingSeconds(442297));
     }
-}
\ No newline at end of file
+
+    @Test
+    void initDrivingTimeMaps() {
+        Location Gent = new Location(51.0441461, 3.7336349);
+        Location Brno = new Location(49.1913945, 16.6122723);
+        Location Lulea = new Location(65.5887708, 22.1518707);
+        drivingTimeCalculator.initDrivingTimeMaps(List.of(Gent, Brno, Lulea));
+
+        Assertions.assertThat(Brno.getIndex()).isEqualTo(1);
+        Assertions.assertThat(Gent.getDrivingTimeTo(Gent)).isZero();
+        Assertions.assertThat(Gent.getDrivingTimeTo(Brno))
+                .isEqualTo(drivingTimeCalculator.calculateDrivingTime(Gent, Brno));
+        Assertions.assertThat(Lulea.getDrivingTimeTo(Brno))
+                .isEqualTo(drivingTimeCalculator.calculateDrivingTime(Lulea, Brno));
+    }
+
+    @Test
+    void calculateDrivingTimeMatrix() {
+        Random random = new Random(37);
+        List<Location> locations = Stream.generate(() -> new Location(random.nextDouble(-60, 60), random.nextDouble(-180, 180)))
+                .limit(50)
+                .toList();
+        int[] drivingTimeMatrix = drivingTimeCalculator.calculateDrivingTimeMatrix(locations);
+
+        Assertions.assertThat(drivingTimeMatrix).hasSize(locations.size() * locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = 0; j < locations.size(); j++) {
+                Assertions.assertThat((long) drivingTimeMatrix[i * locations.size() + j])
+                        .isEqualTo(drivingTimeCalculator.calculateDrivingTime(locations.get(i), locations.get(j)));
+            }
+        }
+    }
+}
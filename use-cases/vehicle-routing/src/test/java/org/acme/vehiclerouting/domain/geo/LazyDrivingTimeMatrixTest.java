@@ -0,0 +1,135 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LazyDrivingTimeMatrixTest {
+
+    private final AtomicInteger calculationCount = new AtomicInteger();
+    private final DrivingTimeCalculator countingCalculator = new DrivingTimeCalculator() {
+        @Override
+        public long calculateDrivingTime(Location from, Location to) {
+            calculationCount.incrementAndGet();
+            return HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(from, to);
+        }
+    };
+
+    @Test
+    void calculateRowsOnDemand() {
+        List<Location> locations = buildLocations(10);
+        int[] expectedMatrix = countingCalculator.calculateDrivingTimeMatrix(locations);
+        calculationCount.set(0);
+
+        new LazyDrivingTimeCalculator(countingCalculator, 0, 3).initDrivingTimeMaps(locations, 1);
+        Assertions.assertThat(calculationCount).hasValue(0);
+
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = 0; j < locations.size(); j++) {
+                Assertions.assertThat(locations.get(i).getDrivingTimeTo(locations.get(j)))
+                        .isEqualTo(expectedMatrix[i * locations.size() + j]);
+            }
+        }
+        Assertions.assertThat(calculationCount).hasValue(100);
+    }
+
+    @Test
+    void evictRowsBeyondMaxCachedRowCount() {
+        List<Location> locations = buildLocations(10);
+        LazyDrivingTimeMatrix matrix = new LazyDrivingTimeMatrix(countingCalculator, locations, 0, 0, 3);
+
+        for (int i = 0; i < locations.size(); i++) {
+            matrix.getDrivingTime(i, 0);
+            Assertions.assertThat(matrix.getCachedRowCount()).isLessThanOrEqualTo(3);
+        }
+        Assertions.assertThat(calculationCount).hasValue(100);
+
+        // The last loaded row stays cached.
+        matrix.getDrivingTime(9, 5);
+        Assertions.assertThat(calculationCount).hasValue(100);
+        // The first loaded row has been evicted.
+        matrix.getDrivingTime(0, 5);
+        Assertions.assertThat(calculationCount).hasValue(110);
+    }
+
+    @Test
+    void nearbyRowsOnlyHoldHubsAndNearestLocations() {
+        Location depot = new Location(50.0, 5.0);
+        Location customer = new Location(51.0, 3.0);
+        Location near = new Location(51.01, 3.0);
+        Location far = new Location(52.0, 3.0);
+        List<Location> locations = List.of(depot, customer, near, far);
+        LazyDrivingTimeMatrix matrix = new LazyDrivingTimeMatrix(countingCalculator, locations, 1, 1, 10);
+
+        Assertions.assertThat(matrix.getDrivingTime(1, 2))
+                .isEqualTo(countingCalculator.calculateDrivingTime(customer, near));
+        calculationCount.set(0);
+        // The row of the customer holds the depot and the nearest other customer.
+        matrix.getDrivingTime(1, 0);
+        matrix.getDrivingTime(1, 2);
+        Assertions.assertThat(calculationCount).hasValue(0);
+        // The far customer is not in the row, so it is calculated on first access, but only once.
+        long drivingTimeToFar = matrix.getDrivingTime(1, 3);
+        matrix.getDrivingTime(1, 3);
+        Assertions.assertThat(calculationCount).hasValue(1);
+        Assertions.assertThat(drivingTimeToFar).isEqualTo(countingCalculator.calculateDrivingTime(customer, far));
+        // The nearby customer moves rank the customers like the row does.
+        Assertions.assertThat(matrix.getCrowFliesDistance(1, 2)).isLessThan(matrix.getCrowFliesDistance(1, 3));
+    }
+
+    @Test
+    void hubRowsHoldAllLocations() {
+        List<Location> locations = buildLocations(10);
+        LazyDrivingTimeMatrix matrix = new LazyDrivingTimeMatrix(countingCalculator, locations, 1, 2, 10);
+
+        matrix.getDrivingTime(0, 1);
+        Assertions.assertThat(calculationCount).hasValue(10);
+        // The first leg of a route goes from the depot to any customer, even the farthest one.
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(matrix.getDrivingTime(0, 9))
+                    .isEqualTo(HaversineDrivingTimeCalculator.getInstance().calculateDrivingTime(locations.get(0),
+                            locations.get(9)));
+        }
+        Assertions.assertThat(calculationCount).hasValue(10);
+        // The row of a customer still only holds the depot and its nearest other customers.
+        matrix.getDrivingTime(1, 0);
+        Assertions.assertThat(calculationCount).hasValue(13);
+    }
+
+    @Test
+    void extendKeepsCalculatedRows() {
+        List<Location> locations = buildLocations(5);
+        List<Location> initialLocations = locations.subList(0, 4);
+        LazyDrivingTimeCalculator lazyCalculator = new LazyDrivingTimeCalculator(countingCalculator, 0, 10);
+        lazyCalculator.initDrivingTimeMaps(initialLocations, 1);
+        initialLocations.get(1).getDrivingTimeTo(initialLocations.get(2));
+        Assertions.assertThat(calculationCount).hasValue(4);
+
+        Location newLocation = locations.get(4);
+        lazyCalculator.extendDrivingTimeMaps(initialLocations, newLocation);
+        Assertions.assertThat(newLocation.getIndex()).isEqualTo(4);
+        Assertions.assertThat(newLocation.getLazyDrivingTimeMatrix().getLocationCount()).isEqualTo(5);
+        // The row calculated before is kept, only the driving time to the new location is calculated.
+        initialLocations.get(1).getDrivingTimeTo(initialLocations.get(3));
+        Assertions.assertThat(calculationCount).hasValue(4);
+        initialLocations.get(1).getDrivingTimeTo(newLocation);
+        initialLocations.get(1).getDrivingTimeTo(newLocation);
+        Assertions.assertThat(calculationCount).hasValue(5);
+        Assertions.assertThat(initialLocations.get(1).getDrivingTimeTo(newLocation))
+                .isEqualTo(countingCalculator.calculateDrivingTime(initialLocations.get(1), newLocation));
+        Assertions.assertThat(newLocation.getDrivingTimeTo(initialLocations.get(0)))
+                .isEqualTo(countingCalculator.calculateDrivingTime(newLocation, initialLocations.get(0)));
+    }
+
+    private static List<Location> buildLocations(int locationCount) {
+        List<Location> locations = new ArrayList<>(locationCount);
+        for (int i = 0; i < locationCount; i++) {
+            locations.add(new Location(50.0 + i * 0.1, 4.0 + i * 0.05));
+        }
+        return locations;
+    }
+}
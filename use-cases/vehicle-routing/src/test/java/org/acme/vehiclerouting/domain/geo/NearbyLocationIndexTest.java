@@ -0,0 +1,40 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.solver.nearby.DrivingTimeNearbyDistanceMeter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class NearbyLocationIndexTest {
+
+    @Test
+    void nearestLocationsFirst() {
+        // Along a meridian, so the order by driving time follows the latitude.
+        List<Location> locations = List.of(new Location(50.0, 4.0), new Location(50.3, 4.0), new Location(50.1, 4.0),
+                new Location(50.55, 4.0));
+        HaversineDrivingTimeCalculator.getInstance().initDrivingTimeMaps(locations);
+
+        NearbyLocationIndex index = NearbyLocationIndex.build(locations, new DrivingTimeNearbyDistanceMeter(), 2);
+        Assertions.assertThat(index.getNearbyCount()).isEqualTo(2);
+        Assertions.assertThat(index.getNearbyIndex(0, 0)).isEqualTo(2);
+        Assertions.assertThat(index.getNearbyIndex(0, 1)).isEqualTo(1);
+        Assertions.assertThat(index.getNearbyIndex(1, 0)).isEqualTo(2);
+        Assertions.assertThat(index.getNearbyIndex(1, 1)).isEqualTo(3);
+        Assertions.assertThat(index.getNearbyIndex(3, 0)).isEqualTo(1);
+        Assertions.assertThat(index.getNearbyIndex(3, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void nearbyCountIsCappedToOtherLocations() {
+        List<Location> locations = List.of(new Location(50.0, 4.0), new Location(50.3, 4.0));
+        HaversineDrivingTimeCalculator.getInstance().initDrivingTimeMaps(locations);
+
+        NearbyLocationIndex index = NearbyLocationIndex.build(locations, new DrivingTimeNearbyDistanceMeter(), 40);
+        Assertions.assertThat(index.getNearbyCount()).isEqualTo(1);
+        Assertions.assertThat(index.getNearbyIndex(0, 0)).isEqualTo(1);
+        Assertions.assertThat(index.isBuiltFor(DrivingTimeNearbyDistanceMeter.class, 2, 40)).isTrue();
+        Assertions.assertThat(index.isBuiltFor(DrivingTimeNearbyDistanceMeter.class, 3, 40)).isFalse();
+    }
+}
@@ -0,0 +1,136 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.EpochSeconds;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TrafficProfilesTest {
+
+    private static final double[] FREE_FLOW_PROFILE = constantProfile(1.0);
+
+    private static double[] constantProfile(double multiplier) {
+        double[] profile = new double[TrafficProfiles.HOURS_PER_DAY];
+        Arrays.fill(profile, multiplier);
+        return profile;
+    }
+
+    private static double[] rushHourProfile() {
+        double[] profile = constantProfile(1.0);
+        profile[8] = 2.0;
+        profile[17] = 1.5;
+        return profile;
+    }
+
+    @Test
+    void multiplyByHourOfDeparture() {
+        Location from = new Location(51.05, 3.72);
+        Location to = new Location(50.85, 4.35);
+        DrivingTimeMatrix drivingTimeMatrix = new DrivingTimeMatrix(new int[] { 0, 1000, 1000, 0 }, 2);
+        from.setDrivingTimeMatrix(0, drivingTimeMatrix);
+        to.setDrivingTimeMatrix(1, drivingTimeMatrix);
+        TrafficProfiles trafficProfiles = TrafficProfiles.of(new double[][] { FREE_FLOW_PROFILE, rushHourProfile() });
+
+        long morning = EpochSeconds.of(LocalDateTime.of(2024, 1, 1, 8, 59));
+        long evening = EpochSeconds.of(LocalDateTime.of(2024, 1, 1, 17, 0));
+        long night = EpochSeconds.of(LocalDateTime.of(2024, 1, 1, 23, 30));
+        Assertions.assertThat(trafficProfiles.calculateDrivingTime(from, to, morning)).isEqualTo(1000);
+        from.setTrafficProfileIndex(1);
+        Assertions.assertThat(trafficProfiles.calculateDrivingTime(from, to, morning)).isEqualTo(2000);
+        Assertions.assertThat(trafficProfiles.calculateDrivingTime(from, to, evening)).isEqualTo(1500);
+        Assertions.assertThat(trafficProfiles.calculateDrivingTime(from, to, night)).isEqualTo(1000);
+        // The profile of the location the leg starts from applies.
+        Assertions.assertThat(trafficProfiles.calculateDrivingTime(to, from, morning)).isEqualTo(1000);
+    }
+
+    @Test
+    void quantizeMultipliers() throws Exception {
+        double[] profile = constantProfile(1.0);
+        profile[7] = 1.33;
+        TrafficProfiles trafficProfiles = TrafficProfiles.of(new double[][] { profile });
+        Assertions.assertThat(trafficProfiles.getHourlyMultipliers()[0][7]).isEqualTo(85.0 / 64.0);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        TrafficProfiles readTrafficProfiles = objectMapper.readValue(
+                objectMapper.writeValueAsString(trafficProfiles), TrafficProfiles.class);
+        Assertions.assertThat(readTrafficProfiles.getHourlyMultipliers()).isEqualTo(trafficProfiles.getHourlyMultipliers());
+
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> TrafficProfiles.of(new double[][] { new double[] { 1.0 } }));
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> TrafficProfiles.of(new double[][] { constantProfile(4.0) }));
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> TrafficProfiles.of(new double[][] { constantProfile(0.0) }));
+    }
+
+    @Test
+    void readTrafficProfileIndexWithThePlan() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        Assertions.assertThat(objectMapper.readValue("[51.05, 3.72]", Location.class).getTrafficProfileIndex())
+                .isZero();
+        Location location = objectMapper.readValue("[51.05, 3.72, 1]", Location.class);
+        Assertions.assertThat(location.getTrafficProfileIndex()).isEqualTo(1);
+        Assertions.assertThat(objectMapper.writeValueAsString(location)).isEqualTo("[51.05,3.72,1]");
+
+        VehicleRoutePlan routePlan = buildRoutePlan(LocalDateTime.of(2024, 1, 1, 8, 0));
+        routePlan.getCustomers().get(0).getLocation().setTrafficProfileIndex(1);
+        String json = objectMapper.writeValueAsString(routePlan);
+        // The plan has a profile for index 0 only, so it is rejected before solving.
+        String oneProfileJson = json.replaceFirst("\\{", "{\"trafficProfiles\":"
+                + objectMapper.writeValueAsString(TrafficProfiles.of(new double[][] { FREE_FLOW_PROFILE })) + ",");
+        Assertions.assertThatThrownBy(() -> objectMapper.readValue(oneProfileJson, VehicleRoutePlan.class))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .hasRootCauseMessage("The trafficProfileIndex (1) of the location (51.1,3.8) must be lower than"
+                        + " the profileCount (1).");
+        String twoProfilesJson = json.replaceFirst("\\{", "{\"trafficProfiles\":" + objectMapper.writeValueAsString(
+                TrafficProfiles.of(new double[][] { FREE_FLOW_PROFILE, rushHourProfile() })) + ",");
+        VehicleRoutePlan readRoutePlan = objectMapper.readValue(twoProfilesJson, VehicleRoutePlan.class);
+        Assertions.assertThat(readRoutePlan.getCustomers().get(0).getLocation().getTrafficProfileIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void arrivalTimesDuringRushHour() {
+        LocalDateTime departureTime = LocalDateTime.of(2024, 1, 1, 8, 0);
+        SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager =
+                SolutionManager.create(SolverFactory.createFromXmlResource("solverConfig.xml"));
+
+        VehicleRoutePlan freeFlowRoutePlan = buildRoutePlan(departureTime);
+        solutionManager.update(freeFlowRoutePlan);
+        Customer freeFlowCustomer = freeFlowRoutePlan.getCustomers().get(0);
+        long freeFlowDrivingTime = freeFlowRoutePlan.getDepots().get(0).getLocation()
+                .getDrivingTimeTo(freeFlowCustomer.getLocation());
+        Assertions.assertThat(freeFlowCustomer.getArrivalEpochSecond())
+                .isEqualTo(EpochSeconds.of(departureTime) + freeFlowDrivingTime);
+
+        VehicleRoutePlan rushHourRoutePlan = buildRoutePlan(departureTime);
+        rushHourRoutePlan.setTrafficProfiles(TrafficProfiles.of(new double[][] { rushHourProfile() }));
+        solutionManager.update(rushHourRoutePlan);
+        Assertions.assertThat(rushHourRoutePlan.getCustomers().get(0).getArrivalEpochSecond())
+                .isEqualTo(EpochSeconds.of(departureTime) + 2 * freeFlowDrivingTime);
+    }
+
+    private static VehicleRoutePlan buildRoutePlan(LocalDateTime departureTime) {
+        Depot depot = new Depot("1", new Location(51.05, 3.72));
+        Vehicle vehicle = new Vehicle("A", 10, depot, departureTime);
+        Customer customer = new Customer("1", "Customer 1", new Location(51.10, 3.80), 1,
+                departureTime, departureTime.plusHours(8), Duration.ofMinutes(10));
+        vehicle.getCustomers().add(customer);
+        return new VehicleRoutePlan("Ghent", new Location(51.0, 3.7), new Location(51.2, 3.9),
+                departureTime, departureTime.plusDays(1), List.of(depot), List.of(vehicle), List.of(customer));
+    }
+}
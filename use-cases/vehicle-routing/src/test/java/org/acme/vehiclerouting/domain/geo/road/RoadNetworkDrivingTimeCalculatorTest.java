@@ -0,0 +1,143 @@
+package org.acme.vehiclerouting.domain.geo.road;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.HaversineDrivingTimeCalculator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoadNetworkDrivingTimeCalculatorTest {
+
+    private static final int GRID_SIZE = 12;
+
+    @TempDir
+    Path tempDirectory;
+
+    @Test
+    void calculateDrivingTimeMatrixMatchesDijkstra() throws Exception {
+        Random random = new Random(37);
+        RoadNetworkBuilder builder = new RoadNetworkBuilder();
+        List<int[]> edges = new ArrayList<>();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int column = 0; column < GRID_SIZE; column++) {
+                builder.addNode(43.75 + row * 0.005, 11.2 + column * 0.005);
+            }
+        }
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int column = 0; column < GRID_SIZE; column++) {
+                int node = row * GRID_SIZE + column;
+                if (column + 1 < GRID_SIZE) {
+                    edges.add(new int[] { node, node + 1, 30 + random.nextInt(60) });
+                    // Some streets are one way.
+                    if (random.nextInt(4) > 0) {
+                        edges.add(new int[] { node + 1, node, 30 + random.nextInt(60) });
+                    }
+                }
+                if (row + 1 < GRID_SIZE) {
+                    edges.add(new int[] { node, node + GRID_SIZE, 30 + random.nextInt(60) });
+                    edges.add(new int[] { node + GRID_SIZE, node, 30 + random.nextInt(60) });
+                }
+            }
+        }
+        edges.forEach(edge -> builder.addEdge(edge[0], edge[1], edge[2]));
+        Path roadNetworkFile = tempDirectory.resolve("roadNetwork.bin");
+        builder.build().write(roadNetworkFile);
+        RoadNetwork roadNetwork = RoadNetwork.read(roadNetworkFile);
+        RoadNetworkDrivingTimeCalculator calculator = new RoadNetworkDrivingTimeCalculator(roadNetwork);
+
+        // Locations exactly on the nodes, so there is no straight-line offset.
+        List<Integer> nodes = List.of(0, 5, 17, 42, 77, 100, 143);
+        List<Location> locations = nodes.stream()
+                .map(node -> new Location(roadNetwork.getLatitude(node), roadNetwork.getLongitude(node)))
+                .toList();
+        int[] drivingTimeMatrix = calculator.calculateDrivingTimeMatrix(locations);
+
+        for (int i = 0; i < nodes.size(); i++) {
+            int[] expectedDistances = dijkstra(edges, nodes.get(i));
+            for (int j = 0; j < nodes.size(); j++) {
+                Assertions.assertThat(drivingTimeMatrix[i * nodes.size() + j])
+                        .as("Driving time from node %d to node %d", nodes.get(i), nodes.get(j))
+                        .isEqualTo(expectedDistances[nodes.get(j)]);
+            }
+        }
+        // A single pair takes a search of its own, which must agree with the bulk calculation.
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < nodes.size(); j++) {
+                Assertions.assertThat(calculator.calculateDrivingTime(locations.get(i), locations.get(j)))
+                        .isEqualTo(drivingTimeMatrix[i * nodes.size() + j]);
+            }
+        }
+    }
+
+    @Test
+    void locationsBeyondTheMaxSnapDistanceDriveInStraightLines() {
+        RoadNetworkBuilder builder = new RoadNetworkBuilder();
+        int first = builder.addNode(43.75, 11.2);
+        int second = builder.addNode(43.76, 11.2);
+        builder.addEdge(first, second, 600);
+        builder.addEdge(second, first, 600);
+        RoadNetwork roadNetwork = builder.build();
+
+        // Within 1 km of both nodes, but hundreds of km from the road network.
+        Location near = new Location(43.755, 11.2);
+        Location far = new Location(47.0, 11.2);
+        Assertions.assertThat(roadNetwork.findNearestNode(near.getLatitude(), near.getLongitude(), 1_000.0))
+                .isNotEqualTo(RoadNetwork.NO_NODE);
+        Assertions.assertThat(roadNetwork.findNearestNode(far.getLatitude(), far.getLongitude(), 1_000.0))
+                .isEqualTo(RoadNetwork.NO_NODE);
+
+        RoadNetworkDrivingTimeCalculator calculator = new RoadNetworkDrivingTimeCalculator(roadNetwork, 1_000.0);
+        Location onFirst = new Location(43.75, 11.2);
+        Location onSecond = new Location(43.76, 11.2);
+        HaversineDrivingTimeCalculator haversine = HaversineDrivingTimeCalculator.getInstance();
+        Assertions.assertThat(calculator.calculateDrivingTime(onFirst, far))
+                .isEqualTo(haversine.calculateDrivingTime(onFirst, far));
+        Assertions.assertThat(calculator.calculateDrivingTime(far, onFirst))
+                .isEqualTo(haversine.calculateDrivingTime(far, onFirst));
+        int[] drivingTimeMatrix = calculator.calculateDrivingTimeMatrix(List.of(onFirst, onSecond, far));
+        Assertions.assertThat(drivingTimeMatrix).containsExactly(
+                0, 600, (int) haversine.calculateDrivingTime(onFirst, far),
+                600, 0, (int) haversine.calculateDrivingTime(onSecond, far),
+                (int) haversine.calculateDrivingTime(far, onFirst), (int) haversine.calculateDrivingTime(far, onSecond),
+                0);
+    }
+
+    @Test
+    void findNearestNodeAcrossTheAntimeridian() {
+        RoadNetworkBuilder builder = new RoadNetworkBuilder();
+        int east = builder.addNode(-17.0, 179.999);
+        builder.addNode(-17.0, 179.9);
+        RoadNetwork roadNetwork = builder.build();
+
+        Assertions.assertThat(roadNetwork.findNearestNode(-17.0, -179.999, 1_000.0)).isEqualTo(east);
+        Assertions.assertThat(roadNetwork.findNearestNode(-17.0, 180.0, 1_000.0)).isEqualTo(east);
+    }
+
+    private static int[] dijkstra(List<int[]> edges, int origin) {
+        int[] distances = new int[GRID_SIZE * GRID_SIZE];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        distances[origin] = 0;
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        queue.add(new int[] { origin, 0 });
+        while (!queue.isEmpty()) {
+            int[] element = queue.poll();
+            if (element[1] > distances[element[0]]) {
+                continue;
+            }
+            for (int[] edge : edges) {
+                if (edge[0] == element[0] && element[1] + edge[2] < distances[edge[1]]) {
+                    distances[edge[1]] = element[1] + edge[2];
+                    queue.add(new int[] { edge[1], distances[edge[1]] });
+                }
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,162 @@
+package org.acme.vehiclerouting.rest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JobStoreTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+    // Without a spill directory, no route plan is ever reloaded.
+    private static final Consumer<VehicleRoutePlan> IGNORE_SHADOW_VARIABLES = routePlan -> {
+    };
+
+    @TempDir
+    Path spillDirectory;
+
+    private final MutableClock clock = new MutableClock();
+    private final Set<String> solvingJobIds = new HashSet<>();
+
+    @Test
+    void evictLeastRecentlyAccessedBeyondMaxSize() {
+        JobStore jobStore = new JobStore(2, Duration.ofHours(1), null, OBJECT_MAPPER,
+                jobId -> !solvingJobIds.contains(jobId), IGNORE_SHADOW_VARIABLES, clock);
+        jobStore.put("a", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        jobStore.put("b", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        jobStore.get("a");
+        jobStore.put("c", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        Assertions.assertThat(jobStore.jobIds()).containsExactlyInAnyOrder("a", "c");
+        Assertions.assertThat(jobStore.get("b")).isNull();
+    }
+
+    @Test
+    void keepSolvingJobs() {
+        JobStore jobStore = new JobStore(1, Duration.ofMinutes(1), null, OBJECT_MAPPER,
+                jobId -> !solvingJobIds.contains(jobId), IGNORE_SHADOW_VARIABLES, clock);
+        solvingJobIds.addAll(List.of("a", "b"));
+        jobStore.put("a", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        jobStore.put("b", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        clock.advance(Duration.ofMinutes(2));
+        jobStore.put("c", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        Assertions.assertThat(jobStore.jobIds()).containsExactlyInAnyOrder("a", "b", "c");
+
+        solvingJobIds.remove("a");
+        jobStore.get("c");
+        Assertions.assertThat(jobStore.jobIds()).containsExactlyInAnyOrder("b", "c");
+    }
+
+    @Test
+    void evictExpiredJobs() {
+        JobStore jobStore = new JobStore(10, Duration.ofMinutes(1), null, OBJECT_MAPPER,
+                jobId -> !solvingJobIds.contains(jobId), IGNORE_SHADOW_VARIABLES, clock);
+        jobStore.put("a", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        clock.advance(Duration.ofSeconds(40));
+        jobStore.put("b", Job.ofRoutePlan(new VehicleRoutePlan(), null, 1L));
+        clock.advance(Duration.ofSeconds(40));
+        Assertions.assertThat(jobStore.get("b")).isNotNull();
+        Assertions.assertThat(jobStore.jobIds()).containsExactly("b");
+    }
+
+    @Test
+    void spillAndReload() throws Exception {
+        SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager =
+                SolutionManager.create(SolverFactory.createFromXmlResource("solverConfig.xml"));
+        JobStore jobStore = new JobStore(1, Duration.ofHours(1), spillDirectory, OBJECT_MAPPER,
+                jobId -> !solvingJobIds.contains(jobId), solutionManager::update, clock);
+        VehicleRoutePlan routePlan = createRoutePlan();
+        solutionManager.update(routePlan);
+        jobStore.put("a", Job.ofRoutePlan(routePlan, "Explanation of score (0hard/-1234soft).", 7L));
+        jobStore.put("b", Job.ofException(new IllegalStateException("Solving failed.")));
+        Assertions.assertThat(jobStore.jobIds()).containsExactlyInAnyOrder("a", "b");
+        try (var spillFiles = Files.list(spillDirectory)) {
+            Assertions.assertThat(spillFiles).hasSize(1);
+        }
+
+        Job reloadedJob = jobStore.get("a");
+        Assertions.assertThat(reloadedJob.version()).isEqualTo(7L);
+        Assertions.assertThat(reloadedJob.scoreExplanation()).isEqualTo("Explanation of score (0hard/-1234soft).");
+        VehicleRoutePlan reloadedRoutePlan = reloadedJob.routePlan();
+        Assertions.assertThat(reloadedRoutePlan).isNotSameAs(routePlan);
+        Assertions.assertThat(reloadedRoutePlan.getName()).isEqualTo(routePlan.getName());
+        Assertions.assertThat(reloadedRoutePlan.getScore()).isEqualTo(routePlan.getScore());
+        Assertions.assertThat(reloadedRoutePlan.getVehicles().get(0).getCustomers())
+                .extracting(Customer::getId).containsExactly("1", "2");
+        // The shadow variables are not spilled, but recalculated.
+        Assertions.assertThat(reloadedRoutePlan.getCustomers()).extracting(Customer::getArrivalTime)
+                .doesNotContainNull()
+                .containsExactlyElementsOf(routePlan.getCustomers().stream().map(Customer::getArrivalTime).toList());
+        Assertions.assertThat(reloadedRoutePlan.getCustomers()).extracting(Customer::getDepartureTime)
+                .containsExactlyElementsOf(routePlan.getCustomers().stream().map(Customer::getDepartureTime).toList());
+        Assertions.assertThat(reloadedRoutePlan.getVehicles().get(0).arrivalTime())
+                .isNotNull()
+                .isEqualTo(routePlan.getVehicles().get(0).arrivalTime());
+
+        Job failedJob = jobStore.get("b");
+        Assertions.assertThat(failedJob.routePlan()).isNull();
+        Assertions.assertThat(failedJob.exception()).hasMessage("Solving failed.");
+    }
+
+    private static VehicleRoutePlan createRoutePlan() {
+        LocalDateTime startDateTime = LocalDateTime.of(2024, 1, 1, 8, 0);
+        Depot depot = new Depot("1", new Location(51.05, 3.72));
+        Vehicle vehicle = new Vehicle("1", 10, depot, startDateTime);
+        List<Customer> customers = List.of(
+                new Customer("1", "Alice", new Location(51.06, 3.73), 2, startDateTime,
+                        startDateTime.plusHours(8), Duration.ofMinutes(10)),
+                new Customer("2", "Bob", new Location(51.04, 3.71), 3, startDateTime,
+                        startDateTime.plusHours(8), Duration.ofMinutes(10)));
+        vehicle.getCustomers().addAll(customers);
+        VehicleRoutePlan routePlan = new VehicleRoutePlan("Ghent", new Location(51.0, 3.7), new Location(51.1, 3.8),
+                startDateTime, startDateTime.plusDays(1), List.of(depot), List.of(vehicle), customers);
+        routePlan.setScore(HardSoftLongScore.of(0, -1234));
+        return routePlan;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
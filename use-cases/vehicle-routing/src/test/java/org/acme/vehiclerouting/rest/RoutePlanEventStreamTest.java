@@ -0,0 +1,155 @@
+package org.acme.vehiclerouting.rest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.EpochSeconds;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.HaversineDrivingTimeCalculator;
+import org.assertj.core.api.Assertions;
+import org.jboss.resteasy.plugins.providers.sse.SseImpl;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RoutePlanEventStreamTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void publishOnlyChangedVehicles() throws Exception {
+        LocalDateTime startDateTime = LocalDateTime.of(2024, 1, 1, 8, 0);
+        Depot depot = new Depot("1", new Location(51.05, 3.72));
+        Vehicle vehicleA = new Vehicle("A", 10, depot, startDateTime);
+        Vehicle vehicleB = new Vehicle("B", 10, depot, startDateTime);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            customers.add(new Customer(Integer.toString(i), "Customer " + i, new Location(51.0 + i / 100.0, 3.7), 1,
+                    startDateTime, startDateTime.plusHours(8), Duration.ofMinutes(10)));
+        }
+        vehicleA.getCustomers().addAll(List.of(customers.get(0), customers.get(1)));
+        vehicleB.getCustomers().add(customers.get(2));
+        VehicleRoutePlan routePlan = new VehicleRoutePlan("Ghent", new Location(51.0, 3.7), new Location(51.1, 3.8),
+                startDateTime, startDateTime.plusDays(1), List.of(depot), List.of(vehicleA, vehicleB), customers);
+        routePlan.setScore(HardSoftLongScore.of(0, -300));
+
+        RoutePlanEventStream eventStream = new RoutePlanEventStream(new SseImpl(), OBJECT_MAPPER);
+        RecordingEventSink eventSink = new RecordingEventSink();
+        Assertions.assertThat(eventStream.subscribe(eventSink, routePlan)).isTrue();
+        Assertions.assertThat(eventSink.events).extracting(OutboundSseEvent::getName)
+                .containsExactly(RoutePlanEventStream.ROUTE_PLAN_EVENT);
+
+        vehicleB.getCustomers().add(0, vehicleA.getCustomers().remove(1));
+        routePlan.setScore(HardSoftLongScore.of(0, -200));
+        eventStream.publish(routePlan);
+        eventStream.publish(routePlan);
+        Assertions.assertThat(eventSink.events).extracting(OutboundSseEvent::getName)
+                .containsExactly(RoutePlanEventStream.ROUTE_PLAN_EVENT, RoutePlanEventStream.ROUTE_PLAN_DELTA_EVENT,
+                        RoutePlanEventStream.ROUTE_PLAN_DELTA_EVENT);
+
+        JsonNode delta = OBJECT_MAPPER.readTree((String) eventSink.events.get(1).getData());
+        Assertions.assertThat(delta.get("score").asText()).isEqualTo("0hard/-200soft");
+        Assertions.assertThat(delta.get("vehicles")).hasSize(2);
+        Assertions.assertThat(delta.get("customers")).hasSize(3);
+        JsonNode unchangedDelta = OBJECT_MAPPER.readTree((String) eventSink.events.get(2).getData());
+        Assertions.assertThat(unchangedDelta.get("vehicles")).isEmpty();
+        Assertions.assertThat(unchangedDelta.get("customers")).isEmpty();
+
+        vehicleB.getCustomers().add(vehicleB.getCustomers().remove(0));
+        eventStream.publish(routePlan);
+        JsonNode reorderedDelta = OBJECT_MAPPER.readTree((String) eventSink.events.get(3).getData());
+        Assertions.assertThat(reorderedDelta.get("vehicles")).hasSize(1);
+        Assertions.assertThat(reorderedDelta.get("vehicles").get(0).get("id").asText()).isEqualTo("B");
+        Assertions.assertThat(reorderedDelta.get("customers")).hasSize(2);
+
+        eventStream.close();
+        Assertions.assertThat(eventSink.events).extracting(OutboundSseEvent::getName)
+                .endsWith(RoutePlanEventStream.SOLVER_STATUS_EVENT);
+        Assertions.assertThat(eventSink.closed).isTrue();
+        Assertions.assertThat(eventStream.subscribe(new RecordingEventSink(), routePlan)).isFalse();
+    }
+
+    @Test
+    void publishVehiclesWhoseTimesChanged() throws Exception {
+        LocalDateTime startDateTime = LocalDateTime.of(2024, 1, 1, 8, 0);
+        Depot depot = new Depot("1", new Location(51.05, 3.72));
+        Vehicle vehicleA = new Vehicle("A", 10, depot, startDateTime);
+        Vehicle vehicleB = new Vehicle("B", 10, depot, startDateTime);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Customer customer = new Customer(Integer.toString(i), "Customer " + i, new Location(51.0 + i / 100.0, 3.7),
+                    1, startDateTime, startDateTime.plusHours(8), Duration.ofMinutes(10));
+            customer.setArrivalEpochSecond(EpochSeconds.of(startDateTime.plusMinutes(30)));
+            customers.add(customer);
+        }
+        vehicleA.getCustomers().add(customers.get(0));
+        vehicleB.getCustomers().add(customers.get(1));
+        VehicleRoutePlan routePlan = new VehicleRoutePlan("Ghent", new Location(51.0, 3.7), new Location(51.1, 3.8),
+                startDateTime, startDateTime.plusDays(1), List.of(depot), List.of(vehicleA, vehicleB), customers);
+        HaversineDrivingTimeCalculator.getInstance().initDrivingTimeMaps(
+                List.of(depot.getLocation(), customers.get(0).getLocation(), customers.get(1).getLocation()));
+        routePlan.setScore(HardSoftLongScore.of(0, -300));
+
+        RoutePlanEventStream eventStream = new RoutePlanEventStream(new SseImpl(), OBJECT_MAPPER);
+        RecordingEventSink eventSink = new RecordingEventSink();
+        eventStream.subscribe(eventSink, routePlan);
+
+        // Vehicle A reports it left its customer late, the order of the customers stays the same.
+        customers.get(0).setActualDepartureTime(startDateTime.plusHours(1));
+        eventStream.publish(routePlan);
+        JsonNode progressDelta = OBJECT_MAPPER.readTree((String) eventSink.events.get(1).getData());
+        Assertions.assertThat(progressDelta.get("vehicles")).hasSize(1);
+        Assertions.assertThat(progressDelta.get("vehicles").get(0).get("id").asText()).isEqualTo("A");
+        Assertions.assertThat(progressDelta.get("customers")).hasSize(1);
+        Assertions.assertThat(progressDelta.get("customers").get(0).get("id").asText()).isEqualTo("0");
+
+        // The arrival time of vehicle B's customer shifts.
+        customers.get(1).setArrivalEpochSecond(EpochSeconds.of(startDateTime.plusMinutes(40)));
+        eventStream.publish(routePlan);
+        JsonNode shiftedDelta = OBJECT_MAPPER.readTree((String) eventSink.events.get(2).getData());
+        Assertions.assertThat(shiftedDelta.get("vehicles")).hasSize(1);
+        Assertions.assertThat(shiftedDelta.get("vehicles").get(0).get("id").asText()).isEqualTo("B");
+        Assertions.assertThat(shiftedDelta.get("customers")).hasSize(1);
+        Assertions.assertThat(shiftedDelta.get("customers").get(0).get("id").asText()).isEqualTo("1");
+
+        eventStream.publish(routePlan);
+        JsonNode unchangedDelta = OBJECT_MAPPER.readTree((String) eventSink.events.get(3).getData());
+        Assertions.assertThat(unchangedDelta.get("vehicles")).isEmpty();
+    }
+
+    private static final class RecordingEventSink implements SseEventSink {
+
+        private final List<OutboundSseEvent> events = new ArrayList<>();
+        private boolean closed = false;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.acme.vehiclerouting.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SmileRoutePlanProviderTest {
+
+    @Test
+    void writeAndReadRoutePlan() throws Exception {
+        VehicleRoutePlan routePlan = new VehicleRouteDemoResource().build(VehicleRouteDemoResource.DemoData.PHILADELPHIA);
+        Vehicle vehicle = routePlan.getVehicles().get(0);
+        vehicle.getCustomers().addAll(routePlan.getCustomers().subList(0, 3));
+
+        SmileRoutePlanProvider provider = new SmileRoutePlanProvider(new ObjectMapper().findAndRegisterModules());
+        Assertions.assertThat(provider.isWriteable(VehicleRoutePlan.class, VehicleRoutePlan.class, new Annotation[0],
+                SmileRoutePlanProvider.APPLICATION_SMILE_TYPE)).isTrue();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        provider.writeTo(routePlan, VehicleRoutePlan.class, VehicleRoutePlan.class, new Annotation[0],
+                SmileRoutePlanProvider.APPLICATION_SMILE_TYPE, new MultivaluedHashMap<>(), out);
+        VehicleRoutePlan readRoutePlan = provider.readFrom(VehicleRoutePlan.class, VehicleRoutePlan.class,
+                new Annotation[0], SmileRoutePlanProvider.APPLICATION_SMILE_TYPE, new MultivaluedHashMap<>(),
+                new ByteArrayInputStream(out.toByteArray()));
+
+        Assertions.assertThat(readRoutePlan.getName()).isEqualTo(routePlan.getName());
+        Assertions.assertThat(readRoutePlan.getCustomers()).extracting(Customer::getId)
+                .containsExactlyElementsOf(routePlan.getCustomers().stream().map(Customer::getId).toList());
+        Customer customer = routePlan.getCustomers().get(0);
+        Customer readCustomer = readRoutePlan.getCustomers().get(0);
+        Assertions.assertThat(readCustomer.getLocation().getLatitude()).isEqualTo(customer.getLocation().getLatitude());
+        Assertions.assertThat(readCustomer.getMinStartTime()).isEqualTo(customer.getMinStartTime());
+        Vehicle readVehicle = readRoutePlan.getVehicles().get(0);
+        Assertions.assertThat(readVehicle.getCustomers()).extracting(Customer::getId)
+                .containsExactly(vehicle.getCustomers().stream().map(Customer::getId).toArray(String[]::new));
+        // Customers are referenced by ID from their vehicle, and read back as the same instances.
+        Assertions.assertThat(readVehicle.getCustomers().get(0)).isSameAs(readCustomer);
+    }
+}
@@ -42,6 +42,52 @@ public class VehicleRoutePlanResourceTest {
         assertTrue(solution.getScore().isFeasible());
     }
 
+    @Test
+    public void getUnchangedRoutePlanNotModified() {
+        String jobId = solveDemoDataJobId();
+        String entityTag = get("/route-plans/" + jobId).then().statusCode(200).extract().header("ETag");
+        assertNotNull(entityTag);
+
+        given()
+                .header("If-None-Match", entityTag)
+                .when().get("/route-plans/" + jobId)
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    public void solveWarmStartedFromPreviousRoutePlan() {
+        String previousJobId = solveDemoDataJobId();
+        VehicleRoutePlan vehicleRoutePlan = get("/demo-data/FIRENZE").then().statusCode(200)
+                .extract().as(VehicleRoutePlan.class);
+
+        String jobId = given()
+                .contentType(ContentType.JSON)
+                .queryParam("warmStartJobId", previousJobId)
+                .body(vehicleRoutePlan)
+                .when().post("/route-plans")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+        await()
+                .atMost(Duration.ofMinutes(1))
+                .pollInterval(Duration.ofMillis(500L))
+                .until(() -> SolverStatus.NOT_SOLVING.name().equals(
+                        get("/route-plans/" + jobId + "/status")
+                                .jsonPath().get("solverStatus")));
+        VehicleRoutePlan solution = get("/route-plans/" + jobId).then().extract().as(VehicleRoutePlan.class);
+        assertTrue(solution.getScore().isFeasible());
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("warmStartJobId", "unknown")
+                .body(vehicleRoutePlan)
+                .when().post("/route-plans")
+                .then()
+                .statusCode(404);
+    }
+
     @Test
     public void analyzeFetchAll() throws JsonProcessingException {
         VehicleRoutePlan solution = solveDemoData();
@@ -93,6 +139,17 @@ public class VehicleRoutePlanResourceTest {
     }
 
     private VehicleRoutePlan solveDemoData() {
+        String jobId = solveDemoDataJobId();
+        VehicleRoutePlan solution = get("/route-plans/" + jobId).then().extract().as(VehicleRoutePlan.class);
+        assertEquals(solution.getSolverStatus(), SolverStatus.NOT_SOLVING);
+        assertNotNull(solution.getVehicles());
+        assertNotNull(solution.getCustomers());
+        assertNotNull(solution.getDepots());
+        assertNotNull(solution.getVehicles().get(0).getCustomers());
+        return solution;
+    }
+
+    private String solveDemoDataJobId() {
         VehicleRoutePlan vehicleRoutePlan = given()
                 .when().get("/demo-data/FIRENZE")
                 .then()
@@ -116,14 +173,7 @@ public class VehicleRoutePlanResourceTest {
                 .until(() -> SolverStatus.NOT_SOLVING.name().equals(
                         get("/route-plans/" + jobId + "/status")
                                 .jsonPath().get("solverStatus")));
-
-        VehicleRoutePlan solution = get("/route-plans/" + jobId).then().extract().as(VehicleRoutePlan.class);
-        assertEquals(solution.getSolverStatus(), SolverStatus.NOT_SOLVING);
-        assertNotNull(solution.getVehicles());
-        assertNotNull(solution.getCustomers());
-        assertNotNull(solution.getDepots());
-        assertNotNull(solution.getVehicles().get(0).getCustomers());
-        return solution;
+        return jobId;
     }
 
     private ScoreAnalysis<?> parseScoreAnalysis(String analysis) throws JsonProcessingException {
@@ -12,6 +12,7 @@ import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
 
 import org.acme.vehiclerouting.domain.Customer;
 import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.EpochSeconds;
 import org.acme.vehiclerouting.domain.Location;
 import org.acme.vehiclerouting.domain.Vehicle;
 import org.acme.vehiclerouting.domain.VehicleRoutePlan;
@@ -49,7 +50,8 @@ class VehicleRoutingConstraintProviderTest {
         LocalDateTime tomorrow_10_00 = LocalDateTime.of(TOMORROW, LocalTime.of(10, 0));
         Vehicle vehicleA = new Vehicle("1", 100, new Depot("1", LOCATION_1), tomorrow_07_00);
         Customer customer1 = new Customer("2", "John", LOCATION_2, 80, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer1);
+
+        connect(vehicleA, customer1);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::vehicleCapacity)
                 .given(vehicleA, customer1)
@@ -63,9 +65,9 @@ class VehicleRoutingConstraintProviderTest {
         LocalDateTime tomorrow_10_00 = LocalDateTime.of(TOMORROW, LocalTime.of(10, 0));
         Vehicle vehicleA = new Vehicle("1", 100, new Depot("1", LOCATION_1), tomorrow_07_00);
         Customer customer1 = new Customer("2", "John", LOCATION_2, 80, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer1);
         Customer customer2 = new Customer("3", "Paul", LOCATION_3, 40, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer2);
+
+        connect(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::vehicleCapacity)
                 .given(vehicleA, customer1, customer2)
@@ -79,9 +81,9 @@ class VehicleRoutingConstraintProviderTest {
         LocalDateTime tomorrow_10_00 = LocalDateTime.of(TOMORROW, LocalTime.of(10, 0));
         Vehicle vehicleA = new Vehicle("1", 100, new Depot("1", LOCATION_1), tomorrow_07_00);
         Customer customer1 = new Customer("2", "John", LOCATION_2, 80, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer1);
         Customer customer2 = new Customer("3", "Paul", LOCATION_3, 40, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer2);
+
+        connect(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::minimizeTravelTime)
                 .given(vehicleA, customer1, customer2)
@@ -98,9 +100,9 @@ class VehicleRoutingConstraintProviderTest {
         LocalDateTime tomorrow_18_00 = LocalDateTime.of(TOMORROW, LocalTime.of(18, 0));
 
         Customer customer1 = new Customer("2", "John", LOCATION_2, 80, tomorrow_08_00, tomorrow_18_00, Duration.ofHours(1L));
-        customer1.setArrivalTime(tomorrow_08_40);
+        customer1.setArrivalEpochSecond(EpochSeconds.of(tomorrow_08_40));
         Customer customer2 = new Customer("3", "Paul", LOCATION_3, 40, tomorrow_08_00, tomorrow_09_00, Duration.ofHours(1L));
-        customer2.setArrivalTime(tomorrow_10_30);
+        customer2.setArrivalEpochSecond(EpochSeconds.of(tomorrow_10_30));
         Vehicle vehicleA = new Vehicle("1", 100, new Depot("1", LOCATION_1), tomorrow_07_00);
 
         connect(vehicleA, customer1, customer2);
@@ -112,6 +114,7 @@ class VehicleRoutingConstraintProviderTest {
 
     static void connect(Vehicle vehicle, Customer... customers) {
         vehicle.setCustomers(Arrays.asList(customers));
+        int cumulativeDemand = 0;
         for (int i = 0; i < customers.length; i++) {
             Customer customer = customers[i];
             customer.setVehicle(vehicle);
@@ -121,6 +124,10 @@ class VehicleRoutingConstraintProviderTest {
             if (i < customers.length - 1) {
                 customer.setNextCustomer(customers[i + 1]);
             }
+            // The constraint verifier does not trigger variable listeners.
+            customer.setDrivingTimeSecondsFromPreviousStandstill(customer.calculateDrivingTimeSecondsFromPreviousStandstill());
+            cumulativeDemand += customer.getDemand();
+            customer.setCumulativeDemand(cumulativeDemand);
         }
     }
 }
@@ -0,0 +1,74 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ai.timefold.solver.core.api.solver.Solver;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RouteProblemChangeTest {
+
+    @Test
+    void continueSolvingAfterChanges() {
+        // FULL_ASSERT fails solving if a change leaves a shadow variable stale.
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationConfig(new TerminationConfig().withSpentLimit(Duration.ofSeconds(5)));
+        Solver<VehicleRoutePlan> solver = SolverFactory.<VehicleRoutePlan> create(solverConfig).buildSolver();
+        VehicleRoutePlan problem = new VehicleRouteDemoResource().build(VehicleRouteDemoResource.DemoData.FIRENZE);
+
+        Customer addedCustomer = new Customer("added", "Added", new Location(43.77, 11.25), 1,
+                problem.getStartDateTime(), problem.getStartDateTime().plusHours(10), Duration.ofMinutes(10));
+        AtomicReference<String> removedCustomerId = new AtomicReference<>();
+        AtomicReference<List<String>> visitedCustomerIds = new AtomicReference<>();
+        AtomicBoolean changesAdded = new AtomicBoolean(false);
+        solver.addEventListener(event -> {
+            VehicleRoutePlan bestSolution = event.getNewBestSolution();
+            if (!bestSolution.getScore().isSolutionInitialized() || !changesAdded.compareAndSet(false, true)) {
+                return;
+            }
+            List<Customer> firstRoute = bestSolution.getVehicles().get(0).getCustomers();
+            List<Customer> secondRoute = bestSolution.getVehicles().get(1).getCustomers();
+            // The vehicle also visited a customer of another vehicle.
+            visitedCustomerIds.set(List.of(firstRoute.get(0).getId(), firstRoute.get(1).getId(),
+                    secondRoute.get(0).getId()));
+            removedCustomerId.set(secondRoute.get(1).getId());
+            solver.addProblemChange(new RemoveCustomerProblemChange(removedCustomerId.get()));
+            solver.addProblemChange(new AddCustomerProblemChange(addedCustomer));
+            solver.addProblemChange(new UpdateVehicleProgressProblemChange(bestSolution.getVehicles().get(0).getId(),
+                    visitedCustomerIds.get(), problem.getStartDateTime().plusHours(3)));
+        });
+        VehicleRoutePlan solution = solver.solve(problem);
+
+        Assertions.assertThat(changesAdded).isTrue();
+        Assertions.assertThat(solution.getCustomers())
+                .extracting(Customer::getId)
+                .contains(addedCustomer.getId())
+                .doesNotContain(removedCustomerId.get());
+        Assertions.assertThat(solution.getCustomers()).allMatch(customer -> customer.getVehicle() != null);
+        Vehicle vehicle = solution.getVehicles().get(0);
+        Assertions.assertThat(vehicle.getVisitedCustomerCount()).isEqualTo(3);
+        Assertions.assertThat(vehicle.getCustomers().subList(0, 3))
+                .extracting(Customer::getId)
+                .containsExactlyElementsOf(visitedCustomerIds.get());
+        Customer lastVisitedCustomer = vehicle.getCustomers().get(2);
+        Assertions.assertThat(lastVisitedCustomer.getDepartureTime()).isEqualTo(problem.getStartDateTime().plusHours(3));
+        if (vehicle.getCustomers().size() > 3) {
+            Assertions.assertThat(vehicle.getCustomers().get(3).getArrivalTime())
+                    .isAfter(lastVisitedCustomer.getDepartureTime());
+        }
+    }
+}
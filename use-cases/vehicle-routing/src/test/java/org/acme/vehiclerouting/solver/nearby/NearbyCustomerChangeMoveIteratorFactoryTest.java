@@ -0,0 +1,224 @@
+package org.acme.vehiclerouting.solver.nearby;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.Solver;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import ai.timefold.solver.core.config.heuristic.selector.common.SelectionOrder;
+import ai.timefold.solver.core.config.heuristic.selector.move.factory.MoveIteratorFactoryConfig;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.NearbyLocationIndex;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class NearbyCustomerChangeMoveIteratorFactoryTest {
+
+    private static final LocalDateTime START_DATE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final int NEARBY_COUNT = 3;
+
+    private final DrivingTimeNearbyDistanceMeter nearbyDistanceMeter = new DrivingTimeNearbyDistanceMeter();
+
+    @Test
+    void solveWithOriginalSelection() {
+        // FULL_ASSERT fails solving if a move or its undo move corrupts the score.
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withPhases(new ConstructionHeuristicPhaseConfig(),
+                        new LocalSearchPhaseConfig()
+                                .withMoveSelectorConfig(new MoveIteratorFactoryConfig()
+                                        .withMoveIteratorFactoryClass(NearbyCustomerChangeMoveIteratorFactory.class)
+                                        .withMoveIteratorFactoryCustomProperties(Map.of("nearbyCount", "5"))
+                                        .withSelectionOrder(SelectionOrder.ORIGINAL))
+                                .withTerminationConfig(new TerminationConfig().withStepCountLimit(3)));
+        Solver<VehicleRoutePlan> solver = SolverFactory.<VehicleRoutePlan> create(solverConfig).buildSolver();
+        VehicleRoutePlan problem = new VehicleRouteDemoResource().build(VehicleRouteDemoResource.DemoData.FIRENZE);
+
+        VehicleRoutePlan solution = solver.solve(problem);
+        Assertions.assertThat(solution.getScore().isSolutionInitialized()).isTrue();
+    }
+
+    @Test
+    void originalSelectionMovesNextToEveryNearbyCustomer() {
+        VehicleRoutePlan plan = createAssignedPlan();
+        NearbyCustomerChangeMoveIteratorFactory factory = createFactory();
+        ScoreDirector<VehicleRoutePlan> scoreDirector = workingSolutionScoreDirector(plan);
+
+        List<NearbyCustomerChangeMove> moves = new ArrayList<>();
+        factory.createOriginalMoveIterator(scoreDirector).forEachRemaining(moves::add);
+        // Before and after each of the nearby customers of each customer.
+        Assertions.assertThat(moves).hasSize((int) factory.getSize(scoreDirector))
+                .hasSize(plan.getCustomers().size() * NEARBY_COUNT * 2);
+        moves.forEach(move -> assertNextToNearbyCustomer(plan, move));
+        // Every customer is moved, in order.
+        Assertions.assertThat(moves.stream().map(NearbyCustomerChangeMove::getCustomer).distinct())
+                .containsExactlyElementsOf(plan.getCustomers());
+    }
+
+    @Test
+    void randomSelectionMovesNextToNearbyCustomers() {
+        VehicleRoutePlan plan = createAssignedPlan();
+        Iterator<NearbyCustomerChangeMove> moveIterator = createFactory()
+                .createRandomMoveIterator(workingSolutionScoreDirector(plan), new Random(37));
+
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertThat(moveIterator.hasNext()).isTrue();
+            assertNextToNearbyCustomer(plan, moveIterator.next());
+        }
+    }
+
+    @Test
+    void rebuildIndexAfterReset() {
+        VehicleRoutePlan plan = createAssignedPlan();
+        NearbyCustomerChangeMoveIteratorFactory factory = createFactory();
+        ScoreDirector<VehicleRoutePlan> scoreDirector = workingSolutionScoreDirector(plan);
+        factory.createOriginalMoveIterator(scoreDirector);
+        NearbyLocationIndex index = plan.getNearbyCustomerIndex(nearbyDistanceMeter, NEARBY_COUNT);
+
+        // Added right next to the first customer.
+        Location firstLocation = plan.getCustomers().get(0).getLocation();
+        Customer addedCustomer = createCustomer("added",
+                new Location(firstLocation.getLatitude() + 0.0001, firstLocation.getLongitude()));
+        plan.extendDrivingTimeMaps(addedCustomer.getLocation());
+        plan.getCustomers().add(addedCustomer);
+        plan.resetNearbyCustomerIndex();
+        Assertions.assertThat(factory.getSize(scoreDirector))
+                .isEqualTo(plan.getCustomers().size() * NEARBY_COUNT * 2L);
+        NearbyLocationIndex addedIndex = plan.getNearbyCustomerIndex(nearbyDistanceMeter, NEARBY_COUNT);
+        Assertions.assertThat(addedIndex).isNotSameAs(index);
+        assertIndexOf(plan, addedIndex);
+        Assertions.assertThat(addedIndex.getNearbyIndex(0, 0)).isEqualTo(plan.getCustomers().size() - 1);
+
+        // Replacing a customer keeps the customer count, so only the reset tells the index is stale.
+        plan.getCustomers().remove(addedCustomer);
+        Customer replacingCustomer = createCustomer("replacing",
+                new Location(firstLocation.getLatitude() - 0.0001, firstLocation.getLongitude()));
+        plan.extendDrivingTimeMaps(replacingCustomer.getLocation());
+        plan.getCustomers().add(1, replacingCustomer);
+        plan.resetNearbyCustomerIndex();
+        NearbyLocationIndex replacedIndex = plan.getNearbyCustomerIndex(nearbyDistanceMeter, NEARBY_COUNT);
+        Assertions.assertThat(replacedIndex).isNotSameAs(addedIndex);
+        assertIndexOf(plan, replacedIndex);
+        Assertions.assertThat(replacedIndex.getNearbyIndex(0, 0)).isEqualTo(1);
+        // Unchanged customers reuse the index.
+        Assertions.assertThat(plan.getNearbyCustomerIndex(nearbyDistanceMeter, NEARBY_COUNT)).isSameAs(replacedIndex);
+    }
+
+    private void assertNextToNearbyCustomer(VehicleRoutePlan plan, NearbyCustomerChangeMove move) {
+        Customer customer = move.getCustomer();
+        List<Customer> nearbyCustomers = findNearbyCustomers(plan, plan.getCustomers().indexOf(customer));
+        // The route of the destination vehicle after the move.
+        List<Customer> route = new ArrayList<>(move.getDestinationVehicle().getCustomers());
+        route.remove(customer);
+        route.add(move.getDestinationIndex(), customer);
+        int index = move.getDestinationIndex();
+        List<Customer> neighbors = IntStream.of(index - 1, index + 1)
+                .filter(neighborIndex -> neighborIndex >= 0 && neighborIndex < route.size())
+                .mapToObj(route::get)
+                .toList();
+        Assertions.assertThat(neighbors).as("The neighbors of the moved customer (%s)", customer)
+                .containsAnyElementsOf(nearbyCustomers);
+    }
+
+    private void assertIndexOf(VehicleRoutePlan plan, NearbyLocationIndex index) {
+        Assertions.assertThat(index.getLocationCount()).isEqualTo(plan.getCustomers().size());
+        for (int origin = 0; origin < plan.getCustomers().size(); origin++) {
+            int indexOrigin = origin;
+            List<Customer> indexedNearbyCustomers = IntStream.range(0, index.getNearbyCount())
+                    .map(nearbyOrdinal -> index.getNearbyIndex(indexOrigin, nearbyOrdinal))
+                    .mapToObj(plan.getCustomers()::get)
+                    .toList();
+            Assertions.assertThat(indexedNearbyCustomers).containsExactlyElementsOf(findNearbyCustomers(plan, origin));
+        }
+    }
+
+    /**
+     * @return the nearest other customers, by brute force, nearest first
+     */
+    private List<Customer> findNearbyCustomers(VehicleRoutePlan plan, int origin) {
+        List<Customer> customers = plan.getCustomers();
+        Location originLocation = customers.get(origin).getLocation();
+        return IntStream.range(0, customers.size())
+                .filter(destination -> destination != origin)
+                .boxed()
+                // Ties keep the lowest position first, like the index.
+                .sorted(Comparator.<Integer> comparingDouble(destination -> nearbyDistanceMeter
+                        .getNearbyDistance(originLocation, customers.get(destination).getLocation()))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(NEARBY_COUNT)
+                .map(customers::get)
+                .toList();
+    }
+
+    private static NearbyCustomerChangeMoveIteratorFactory createFactory() {
+        NearbyCustomerChangeMoveIteratorFactory factory = new NearbyCustomerChangeMoveIteratorFactory();
+        factory.setNearbyCount(NEARBY_COUNT);
+        factory.setNearbyDistanceMeterClass(DrivingTimeNearbyDistanceMeter.class.getName());
+        return factory;
+    }
+
+    /**
+     * The move iterators only read the working solution.
+     */
+    @SuppressWarnings("unchecked")
+    private static ScoreDirector<VehicleRoutePlan> workingSolutionScoreDirector(VehicleRoutePlan plan) {
+        return (ScoreDirector<VehicleRoutePlan>) Proxy.newProxyInstance(ScoreDirector.class.getClassLoader(),
+                new Class<?>[] { ScoreDirector.class }, (proxy, method, arguments) -> {
+                    if (method.getName().equals("getWorkingSolution")) {
+                        return plan;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * 12 customers scattered around Ghent, dealt to 3 vehicles in turn.
+     */
+    private static VehicleRoutePlan createAssignedPlan() {
+        Depot depot = new Depot("ghent", new Location(51.05, 3.72));
+        List<Vehicle> vehicles = List.of(new Vehicle("v1", 100, depot, START_DATE_TIME),
+                new Vehicle("v2", 100, depot, START_DATE_TIME), new Vehicle("v3", 100, depot, START_DATE_TIME));
+        Random random = new Random(13);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Customer customer = createCustomer("c" + i,
+                    new Location(51.0 + random.nextDouble() * 0.1, 3.65 + random.nextDouble() * 0.15));
+            customers.add(customer);
+            vehicles.get(i % vehicles.size()).getCustomers().add(customer);
+        }
+        VehicleRoutePlan plan = new VehicleRoutePlan("Ghent", new Location(51.0, 3.65), new Location(51.1, 3.8),
+                START_DATE_TIME, START_DATE_TIME.plusDays(1), List.of(depot), vehicles, customers);
+        SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager = SolutionManager.create(
+                SolverFactory.create(SolverConfig.createFromXmlResource("solverConfig.xml")));
+        // The moves read the vehicle and the index of each customer.
+        solutionManager.update(plan);
+        return plan;
+    }
+
+    private static Customer createCustomer(String id, Location location) {
+        return new Customer(id, id, location, 1, START_DATE_TIME, START_DATE_TIME.plusHours(8),
+                Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,162 @@
+package org.acme.vehiclerouting.solver.partition;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PartitionedSolverJobTest {
+
+    private static final LocalDateTime START_DATE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @Test
+    void concatenate() throws Exception {
+        VehicleRoutePlan problem = createProblem();
+        List<VehicleRoutePlan> bestSolutions = new CopyOnWriteArrayList<>();
+        VehicleRoutePlan solution = solve(problem, StitchingPolicy.CONCATENATE, bestSolutions);
+
+        assertAllCustomersAssigned(solution);
+        // Customers never move between vehicles of different partitions.
+        for (Vehicle vehicle : solution.getVehicles()) {
+            String region = vehicle.getId().substring(0, 1);
+            Assertions.assertThat(vehicle.getCustomers()).extracting(Customer::getId)
+                    .allSatisfy(customerId -> Assertions.assertThat(customerId).startsWith(region));
+        }
+        Assertions.assertThat(bestSolutions).isNotEmpty();
+        // Without refinement, the final solution is the last stitched one.
+        Assertions.assertThat(bestSolutions.get(bestSolutions.size() - 1).getScore()).isEqualTo(solution.getScore());
+        // The problem itself is never modified.
+        Assertions.assertThat(problem.getVehicles()).allSatisfy(vehicle -> Assertions.assertThat(vehicle.getCustomers())
+                .isEmpty());
+    }
+
+    @Test
+    void refine() throws Exception {
+        VehicleRoutePlan problem = createProblem();
+        List<VehicleRoutePlan> bestSolutions = new CopyOnWriteArrayList<>();
+        VehicleRoutePlan solution = solve(problem, StitchingPolicy.REFINE, bestSolutions);
+
+        assertAllCustomersAssigned(solution);
+        // The refinement starts from the stitched plan, which all partitions published before.
+        VehicleRoutePlan firstStitchedPlan = bestSolutions.get(0);
+        Assertions.assertThat(solution.getScore()).isGreaterThanOrEqualTo(firstStitchedPlan.getScore());
+        Assertions.assertThat(problem.getVehicles()).allSatisfy(vehicle -> Assertions.assertThat(vehicle.getCustomers())
+                .isEmpty());
+    }
+
+    @Test
+    void getSolverStatusWhileConsumerIsBusy() throws Exception {
+        CountDownLatch consumerBusy = new CountDownLatch(1);
+        CountDownLatch consumerReleased = new CountDownLatch(1);
+        try (SolverManager<VehicleRoutePlan, String> solverManager = createSolverManager()) {
+            CompletableFuture<VehicleRoutePlan> finalBestSolution = new CompletableFuture<>();
+            // Like a consumer that waits for the job store, while the job store asks for the solver status.
+            PartitionedSolverJob job = PartitionedSolverJob.start(solverManager, createSolutionManager(), "job",
+                    createProblem(), 2, null, StitchingPolicy.CONCATENATE, Duration.ofSeconds(1), solution -> {
+                        consumerBusy.countDown();
+                        try {
+                            consumerReleased.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }, finalBestSolution::complete,
+                    (jobId, exception) -> finalBestSolution.completeExceptionally(exception));
+            Assertions.assertThat(consumerBusy.await(30, TimeUnit.SECONDS)).isTrue();
+            SolverStatus solverStatus = CompletableFuture.supplyAsync(job::getSolverStatus).get(5, TimeUnit.SECONDS);
+            Assertions.assertThat(solverStatus).isNotNull();
+            consumerReleased.countDown();
+            assertAllCustomersAssigned(finalBestSolution.get(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void partitionSpentLimitOverridesTheConfiguredTermination() throws Exception {
+        // Without the override, each partition would solve for an hour.
+        try (SolverManager<VehicleRoutePlan, String> solverManager = SolverManager.create(
+                createSolverConfig(Duration.ofHours(1)), new SolverManagerConfig().withParallelSolverCount("2"))) {
+            CompletableFuture<VehicleRoutePlan> finalBestSolution = new CompletableFuture<>();
+            PartitionedSolverJob.start(solverManager, createSolutionManager(), "job", createProblem(), 2,
+                    Duration.ofSeconds(1), StitchingPolicy.CONCATENATE, Duration.ofSeconds(1), solution -> {
+                    }, finalBestSolution::complete,
+                    (jobId, exception) -> finalBestSolution.completeExceptionally(exception));
+            assertAllCustomersAssigned(finalBestSolution.get(30, TimeUnit.SECONDS));
+        }
+    }
+
+    private static VehicleRoutePlan solve(VehicleRoutePlan problem, StitchingPolicy stitchingPolicy,
+            List<VehicleRoutePlan> bestSolutions) throws Exception {
+        try (SolverManager<VehicleRoutePlan, String> solverManager = createSolverManager()) {
+            CompletableFuture<VehicleRoutePlan> finalBestSolution = new CompletableFuture<>();
+            PartitionedSolverJob.start(solverManager, createSolutionManager(), "job", problem, 2, null,
+                    stitchingPolicy, Duration.ofSeconds(1), bestSolutions::add, finalBestSolution::complete,
+                    (jobId, exception) -> finalBestSolution.completeExceptionally(exception));
+            return finalBestSolution.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static SolverConfig createSolverConfig(Duration spentLimit) {
+        return SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withTerminationConfig(new TerminationConfig().withSpentLimit(spentLimit));
+    }
+
+    private static SolverManager<VehicleRoutePlan, String> createSolverManager() {
+        return SolverManager.create(createSolverConfig(Duration.ofSeconds(1)), new SolverManagerConfig().withParallelSolverCount("2"));
+    }
+
+    private static SolutionManager<VehicleRoutePlan, HardSoftLongScore> createSolutionManager() {
+        return SolutionManager.create(SolverFactory.create(createSolverConfig(Duration.ofSeconds(1))));
+    }
+
+    private static void assertAllCustomersAssigned(VehicleRoutePlan solution) {
+        Assertions.assertThat(solution.getVehicles()).extracting(Vehicle::getId)
+                .containsExactly("g-1", "g-2", "b-1", "b-2");
+        Assertions.assertThat(solution.getVehicles()).flatExtracting(Vehicle::getCustomers).extracting(Customer::getId)
+                .containsExactlyInAnyOrderElementsOf(solution.getCustomers().stream().map(Customer::getId).toList())
+                .hasSize(16);
+        Assertions.assertThat(solution.getScore().hardScore()).isZero();
+    }
+
+    private static VehicleRoutePlan createProblem() {
+        Depot ghentDepot = new Depot("ghent", new Location(51.05, 3.72));
+        Depot brusselsDepot = new Depot("brussels", new Location(50.85, 4.35));
+        List<Vehicle> vehicles = List.of(new Vehicle("g-1", 20, ghentDepot, START_DATE_TIME),
+                new Vehicle("g-2", 20, ghentDepot, START_DATE_TIME),
+                new Vehicle("b-1", 20, brusselsDepot, START_DATE_TIME),
+                new Vehicle("b-2", 20, brusselsDepot, START_DATE_TIME));
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            double offset = (i % 4 - 1.5) / 100.0;
+            double otherOffset = (i / 4 - 0.5) / 100.0;
+            customers.add(createCustomer("g" + i, 51.05 + offset, 3.72 + otherOffset));
+            customers.add(createCustomer("b" + i, 50.85 + offset, 4.35 + otherOffset));
+        }
+        return new VehicleRoutePlan("Belgium", new Location(50.8, 3.7), new Location(51.1, 4.4), START_DATE_TIME,
+                START_DATE_TIME.plusDays(1), List.of(ghentDepot, brusselsDepot), vehicles, customers);
+    }
+
+    private static Customer createCustomer(String id, double latitude, double longitude) {
+        return new Customer(id, id, new Location(latitude, longitude), 1, START_DATE_TIME,
+                START_DATE_TIME.plusHours(8), Duration.ofMinutes(10));
+    }
+}
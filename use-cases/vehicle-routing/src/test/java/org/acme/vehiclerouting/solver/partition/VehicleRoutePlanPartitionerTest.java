@@ -0,0 +1,144 @@
+package org.acme.vehiclerouting.solver.partition;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class VehicleRoutePlanPartitionerTest {
+
+    private static final LocalDateTime START_DATE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private final Depot ghentDepot = new Depot("ghent", new Location(51.05, 3.72));
+    private final Depot brusselsDepot = new Depot("brussels", new Location(50.85, 4.35));
+
+    @Test
+    void splitByRegion() {
+        // Listed out of order, the partitions keep the order of the plan.
+        List<Customer> customers = List.of(createCustomer("g1", 51.06, 3.73, 1), createCustomer("b1", 50.86, 4.36, 1),
+                createCustomer("g2", 51.04, 3.71, 1), createCustomer("b2", 50.84, 4.34, 1));
+        List<Vehicle> vehicles = List.of(new Vehicle("v1", 10, brusselsDepot, START_DATE_TIME),
+                new Vehicle("v2", 10, ghentDepot, START_DATE_TIME));
+        VehicleRoutePlan plan = createPlan(vehicles, customers);
+
+        List<VehicleRoutePlan> partitions = VehicleRoutePlanPartitioner.split(plan, 2);
+        Assertions.assertThat(partitions).hasSize(2);
+        Assertions.assertThat(partitions.get(0).getDepots()).containsExactly(ghentDepot);
+        Assertions.assertThat(partitions.get(0).getVehicles()).extracting(Vehicle::getId).containsExactly("v2");
+        Assertions.assertThat(partitions.get(0).getCustomers()).extracting(Customer::getId).containsExactly("g1", "g2");
+        Assertions.assertThat(partitions.get(1).getDepots()).containsExactly(brusselsDepot);
+        Assertions.assertThat(partitions.get(1).getVehicles()).extracting(Vehicle::getId).containsExactly("v1");
+        Assertions.assertThat(partitions.get(1).getCustomers()).extracting(Customer::getId).containsExactly("b1", "b2");
+        // Copies, so solving a partition does not modify the plan.
+        Assertions.assertThat(partitions.get(0).getCustomers().get(0)).isNotSameAs(customers.get(0));
+        Assertions.assertThat(partitions.get(1).getVehicles().get(0)).isNotSameAs(vehicles.get(0));
+
+        Assertions.assertThat(VehicleRoutePlanPartitioner.split(plan, 2))
+                .map(partition -> partition.getCustomers().stream().map(Customer::getId).toList())
+                .containsExactly(List.of("g1", "g2"), List.of("b1", "b2"));
+        Assertions.assertThat(VehicleRoutePlanPartitioner.split(plan, 1)).singleElement()
+                .satisfies(partition -> Assertions.assertThat(partition.getCustomers()).hasSize(4));
+    }
+
+    @Test
+    void distributeVehiclesByDemand() {
+        // Ghent has 3 times the demand of Brussels.
+        List<Customer> customers = List.of(createCustomer("g1", 51.06, 3.73, 15), createCustomer("g2", 51.04, 3.71, 15),
+                createCustomer("b1", 50.86, 4.36, 5), createCustomer("b2", 50.84, 4.34, 5));
+        List<Vehicle> vehicles = List.of(new Vehicle("g-v1", 10, ghentDepot, START_DATE_TIME),
+                new Vehicle("g-v2", 10, ghentDepot, START_DATE_TIME),
+                new Vehicle("b-v1", 10, brusselsDepot, START_DATE_TIME),
+                new Vehicle("b-v2", 10, brusselsDepot, START_DATE_TIME));
+        VehicleRoutePlan plan = createPlan(vehicles, customers);
+
+        List<VehicleRoutePlan> partitions = VehicleRoutePlanPartitioner.split(plan, 2);
+        // D'Hondt: after one vehicle each, Ghent wins both others (30 > 10, then 30 / 2 > 10).
+        Assertions.assertThat(partitions.get(0).getVehicles()).extracting(Vehicle::getId)
+                .containsExactly("g-v1", "g-v2", "b-v2");
+        Assertions.assertThat(partitions.get(0).getDepots()).containsExactly(ghentDepot, brusselsDepot);
+        Assertions.assertThat(partitions.get(1).getVehicles()).extracting(Vehicle::getId).containsExactly("b-v1");
+    }
+
+    @Test
+    void keepVisitedCustomersWithTheirVehicle() {
+        Customer visitedCustomer = createCustomer("b1", 50.86, 4.36, 1);
+        visitedCustomer.setActualDepartureTime(START_DATE_TIME.plusHours(1));
+        List<Customer> customers = List.of(createCustomer("g1", 51.06, 3.73, 1), visitedCustomer,
+                createCustomer("g2", 51.04, 3.71, 1), createCustomer("b2", 50.84, 4.34, 1));
+        Vehicle ghentVehicle = new Vehicle("v1", 10, ghentDepot, START_DATE_TIME);
+        // The Ghent vehicle already visited a customer in Brussels.
+        ghentVehicle.getCustomers().addAll(List.of(visitedCustomer, customers.get(0)));
+        ghentVehicle.setVisitedCustomerCount(1);
+        List<Vehicle> vehicles = List.of(ghentVehicle, new Vehicle("v2", 10, brusselsDepot, START_DATE_TIME));
+        VehicleRoutePlan plan = createPlan(vehicles, customers);
+
+        List<VehicleRoutePlan> partitions = VehicleRoutePlanPartitioner.split(plan, 2);
+        Assertions.assertThat(partitions.get(0).getCustomers()).extracting(Customer::getId)
+                .containsExactly("g1", "b1", "g2");
+        Vehicle vehicleCopy = partitions.get(0).getVehicles().get(0);
+        Assertions.assertThat(vehicleCopy.getCustomers()).extracting(Customer::getId).containsExactly("b1", "g1");
+        Assertions.assertThat(vehicleCopy.getVisitedCustomerCount()).isEqualTo(1);
+        Assertions.assertThat(vehicleCopy.getCustomers().get(0).getActualDepartureTime())
+                .isEqualTo(START_DATE_TIME.plusHours(1));
+        Assertions.assertThat(partitions.get(1).getCustomers()).extracting(Customer::getId).containsExactly("b2");
+    }
+
+    @Test
+    void stitchInTheOrderOfThePlan() {
+        List<Customer> customers = List.of(createCustomer("g1", 51.06, 3.73, 1), createCustomer("b1", 50.86, 4.36, 1),
+                createCustomer("g2", 51.04, 3.71, 1), createCustomer("b2", 50.84, 4.34, 1));
+        List<Vehicle> vehicles = List.of(new Vehicle("v1", 10, brusselsDepot, START_DATE_TIME),
+                new Vehicle("v2", 10, ghentDepot, START_DATE_TIME));
+        VehicleRoutePlan plan = createPlan(vehicles, customers);
+
+        List<VehicleRoutePlan> partitions = new ArrayList<>(VehicleRoutePlanPartitioner.split(plan, 2));
+        // Solve each partition by hand.
+        for (VehicleRoutePlan partition : partitions) {
+            for (Customer customer : partition.getCustomers()) {
+                partition.getVehicles().get(0).getCustomers().add(0, customer);
+            }
+        }
+        partitions.get(0).setScore(HardSoftLongScore.of(0, -100));
+        partitions.get(1).setScore(HardSoftLongScore.of(-1, -50));
+        VehicleRoutePlan stitchedPlan = VehicleRoutePlanPartitioner.stitch(plan,
+                List.of(partitions.get(1), partitions.get(0)));
+
+        Assertions.assertThat(stitchedPlan.getName()).isEqualTo(plan.getName());
+        Assertions.assertThat(stitchedPlan.getScore()).isEqualTo(HardSoftLongScore.of(-1, -150));
+        Assertions.assertThat(stitchedPlan.getVehicles()).extracting(Vehicle::getId).containsExactly("v1", "v2");
+        Assertions.assertThat(stitchedPlan.getVehicles().get(0).getCustomers()).extracting(Customer::getId)
+                .containsExactly("b2", "b1");
+        Assertions.assertThat(stitchedPlan.getVehicles().get(1).getCustomers()).extracting(Customer::getId)
+                .containsExactly("g2", "g1");
+        Assertions.assertThat(stitchedPlan.getCustomers()).extracting(Customer::getId)
+                .containsExactly("g1", "b1", "g2", "b2");
+        Assertions.assertThat(plan.getVehicles()).allSatisfy(vehicle -> Assertions.assertThat(vehicle.getCustomers())
+                .isEmpty());
+
+        // A partition without a score yet makes the stitched score unknown.
+        partitions.get(1).setScore(null);
+        Assertions.assertThat(VehicleRoutePlanPartitioner.stitch(plan, partitions).getScore()).isNull();
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> VehicleRoutePlanPartitioner.stitch(plan, partitions.subList(0, 1)));
+    }
+
+    private static Customer createCustomer(String id, double latitude, double longitude, int demand) {
+        return new Customer(id, id, new Location(latitude, longitude), demand, START_DATE_TIME,
+                START_DATE_TIME.plusHours(8), Duration.ofMinutes(10));
+    }
+
+    private VehicleRoutePlan createPlan(List<Vehicle> vehicles, List<Customer> customers) {
+        return new VehicleRoutePlan("Belgium", new Location(50.8, 3.7), new Location(51.1, 4.4), START_DATE_TIME,
+                START_DATE_TIME.plusDays(1), List.of(ghentDepot, brusselsDepot), vehicles, customers);
+    }
+}
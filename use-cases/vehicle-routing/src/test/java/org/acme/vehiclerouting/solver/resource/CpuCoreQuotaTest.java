@@ -0,0 +1,103 @@
+package org.acme.vehiclerouting.solver.resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CpuCoreQuotaTest {
+
+    @Test
+    void waitForCores() {
+        CpuCoreQuota cpuCoreQuota = new CpuCoreQuota(4);
+        List<String> startedJobIds = new ArrayList<>();
+        cpuCoreQuota.submit("xl", ResourceClass.XL, 4, () -> startedJobIds.add("xl"));
+        cpuCoreQuota.submit("small", ResourceClass.SMALL, 1, () -> startedJobIds.add("small"));
+        Assertions.assertThat(startedJobIds).containsExactly("xl");
+        Assertions.assertThat(cpuCoreQuota.isWaiting("small")).isTrue();
+
+        cpuCoreQuota.release("xl");
+        Assertions.assertThat(startedJobIds).containsExactly("xl", "small");
+        Assertions.assertThat(cpuCoreQuota.isWaiting("small")).isFalse();
+        Assertions.assertThat(cpuCoreQuota.getAvailableCoreCount()).isEqualTo(3);
+
+        cpuCoreQuota.release("small");
+        cpuCoreQuota.release("small");
+        Assertions.assertThat(cpuCoreQuota.getAvailableCoreCount()).isEqualTo(4);
+    }
+
+    @Test
+    void smallJobsPassWaitingLargeJob() {
+        CpuCoreQuota cpuCoreQuota = new CpuCoreQuota(4);
+        List<String> startedJobIds = new ArrayList<>();
+        cpuCoreQuota.submit("large", ResourceClass.LARGE, 2, () -> startedJobIds.add("large"));
+        cpuCoreQuota.submit("small1", ResourceClass.SMALL, 1, () -> startedJobIds.add("small1"));
+        cpuCoreQuota.submit("xl", ResourceClass.XL, 4, () -> startedJobIds.add("xl"));
+        cpuCoreQuota.submit("small2", ResourceClass.SMALL, 1, () -> startedJobIds.add("small2"));
+        Assertions.assertThat(startedJobIds).containsExactly("large", "small1", "small2");
+        Assertions.assertThat(cpuCoreQuota.isWaiting("xl")).isTrue();
+
+        Assertions.assertThat(cpuCoreQuota.cancel("xl")).isTrue();
+        Assertions.assertThat(cpuCoreQuota.cancel("small1")).isFalse();
+        Assertions.assertThat(cpuCoreQuota.getAvailableCoreCount()).isZero();
+    }
+
+    @Test
+    void parallelSolverCountPerResourceClass() {
+        CpuCoreQuota cpuCoreQuota = new CpuCoreQuota(16);
+        List<String> startedJobIds = new ArrayList<>();
+        cpuCoreQuota.submit("xl1", ResourceClass.XL, 4, () -> startedJobIds.add("xl1"));
+        cpuCoreQuota.submit("xl2", ResourceClass.XL, 4, () -> startedJobIds.add("xl2"));
+        cpuCoreQuota.submit("large", ResourceClass.LARGE, 2, () -> startedJobIds.add("large"));
+        Assertions.assertThat(startedJobIds).containsExactly("xl1", "large");
+
+        cpuCoreQuota.release("xl1");
+        Assertions.assertThat(startedJobIds).containsExactly("xl1", "large", "xl2");
+    }
+
+    @Test
+    void jobLargerThanQuotaRunsAlone() {
+        CpuCoreQuota cpuCoreQuota = new CpuCoreQuota(2);
+        List<String> startedJobIds = new ArrayList<>();
+        cpuCoreQuota.submit("small", ResourceClass.SMALL, 1, () -> startedJobIds.add("small"));
+        cpuCoreQuota.submit("xl", ResourceClass.XL, 4, () -> startedJobIds.add("xl"));
+        Assertions.assertThat(startedJobIds).containsExactly("small");
+
+        cpuCoreQuota.release("small");
+        Assertions.assertThat(startedJobIds).containsExactly("small", "xl");
+        Assertions.assertThat(cpuCoreQuota.getAvailableCoreCount()).isZero();
+    }
+
+    @Test
+    void startWithoutHoldingTheLock() {
+        CpuCoreQuota cpuCoreQuota = new CpuCoreQuota(4);
+        List<Boolean> waitingDuringStart = new ArrayList<>();
+        cpuCoreQuota.submit("small", ResourceClass.SMALL, 1, () -> {
+            // A status poll on another thread would block until the start returns if the lock were held.
+            waitingDuringStart.add(CompletableFuture.supplyAsync(() -> cpuCoreQuota.isWaiting("small"))
+                    .orTimeout(5, TimeUnit.SECONDS).join());
+        });
+        Assertions.assertThat(waitingDuringStart).containsExactly(true);
+        Assertions.assertThat(cpuCoreQuota.isWaiting("small")).isFalse();
+        Assertions.assertThat(cpuCoreQuota.getAvailableCoreCount()).isEqualTo(3);
+    }
+
+    @Test
+    void failedStartFreesCoresForWaitingJobs() {
+        CpuCoreQuota cpuCoreQuota = new CpuCoreQuota(4);
+        List<String> startedJobIds = new ArrayList<>();
+        cpuCoreQuota.submit("large", ResourceClass.LARGE, 4, () -> startedJobIds.add("large"));
+        cpuCoreQuota.submit("xl", ResourceClass.XL, 4, () -> {
+            throw new IllegalStateException("Cannot start.");
+        });
+        cpuCoreQuota.submit("small", ResourceClass.SMALL, 1, () -> startedJobIds.add("small"));
+        Assertions.assertThatIllegalStateException().isThrownBy(() -> cpuCoreQuota.release("large"));
+        // The xl job failed to start after the large one was released, so the small one started anyway.
+        Assertions.assertThat(startedJobIds).containsExactly("large", "small");
+        Assertions.assertThat(cpuCoreQuota.isWaiting("xl")).isFalse();
+        Assertions.assertThat(cpuCoreQuota.getAvailableCoreCount()).isEqualTo(3);
+    }
+}
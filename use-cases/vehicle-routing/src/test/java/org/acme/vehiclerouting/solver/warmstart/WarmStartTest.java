@@ -0,0 +1,65 @@
+package org.acme.vehiclerouting.solver.warmstart;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class WarmStartTest {
+
+    private static final LocalDateTime START_DATE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @Test
+    void seedMatchedCustomersInPreviousOrder() {
+        VehicleRoutePlan previousSolution = routePlan("1", "2", "3", "4");
+        Vehicle previousVehicleA = previousSolution.getVehicles().get(0);
+        Vehicle previousVehicleB = previousSolution.getVehicles().get(1);
+        List<Customer> previousCustomers = previousSolution.getCustomers();
+        previousVehicleA.getCustomers().addAll(List.of(previousCustomers.get(2), previousCustomers.get(0)));
+        previousVehicleB.getCustomers().addAll(List.of(previousCustomers.get(3), previousCustomers.get(1)));
+
+        // Customer 2 is gone and customer 5 is new.
+        VehicleRoutePlan problem = routePlan("1", "3", "4", "5");
+        Assertions.assertThat(WarmStart.seed(problem, previousSolution)).isEqualTo(3);
+        Assertions.assertThat(problem.getVehicles().get(0).getCustomers()).extracting(Customer::getId)
+                .containsExactly("3", "1");
+        Assertions.assertThat(problem.getVehicles().get(1).getCustomers()).extracting(Customer::getId)
+                .containsExactly("4");
+        Assertions.assertThat(previousVehicleB.getCustomers()).hasSize(2);
+    }
+
+    @Test
+    void keepRoutesOfTheProblem() {
+        VehicleRoutePlan previousSolution = routePlan("1", "2");
+        previousSolution.getVehicles().get(0).getCustomers().addAll(previousSolution.getCustomers());
+
+        VehicleRoutePlan problem = routePlan("1", "2");
+        problem.getVehicles().get(0).getCustomers().add(problem.getCustomers().get(1));
+        Assertions.assertThat(WarmStart.seed(problem, previousSolution)).isZero();
+        Assertions.assertThat(problem.getVehicles().get(0).getCustomers()).extracting(Customer::getId)
+                .containsExactly("2");
+        Assertions.assertThat(problem.getVehicles().get(1).getCustomers()).isEmpty();
+    }
+
+    private static VehicleRoutePlan routePlan(String... customerIds) {
+        Depot depot = new Depot("1", new Location(51.05, 3.72));
+        List<Vehicle> vehicles = List.of(new Vehicle("A", 10, depot, START_DATE_TIME),
+                new Vehicle("B", 10, depot, START_DATE_TIME));
+        List<Customer> customers = new ArrayList<>();
+        for (String customerId : customerIds) {
+            customers.add(new Customer(customerId, "Customer " + customerId,
+                    new Location(51.0 + Integer.parseInt(customerId) / 100.0, 3.7), 1,
+                    START_DATE_TIME, START_DATE_TIME.plusHours(8), Duration.ofMinutes(10)));
+        }
+        return new VehicleRoutePlan("Ghent", new Location(51.0, 3.7), new Location(51.1, 3.8),
+                START_DATE_TIME, START_DATE_TIME.plusDays(1), List.of(depot), vehicles, customers);
+    }
+}
@@ -0,0 +1,56 @@
+<?xml version="1.0" encoding="UTF-8"?>
+<plannerBenchmark xmlns="https://timefold.ai/xsd/benchmark" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                  xsi:schemaLocation="https://timefold.ai/xsd/benchmark https://timefold.ai/xsd/benchmark/benchmark.xsd">
+  <benchmarkDirectory>target/benchmarks</benchmarkDirectory>
+  <!-- One solver at a time, so the move threads of a solver benchmark do not compete with other solvers -->
+  <parallelBenchmarkCount>1</parallelBenchmarkCount>
+  <warmUpSecondsSpentLimit>30</warmUpSecondsSpentLimit>
+
+  <inheritedSolverBenchmark>
+    <solver>
+      <solutionClass>org.acme.vehiclerouting.domain.VehicleRoutePlan</solutionClass>
+      <entityClass>org.acme.vehiclerouting.domain.Vehicle</entityClass>
+      <entityClass>org.acme.vehiclerouting.domain.Customer</entityClass>
+      <scoreDirectorFactory>
+        <constraintProviderClass>org.acme.vehiclerouting.solver.VehicleRoutingConstraintProvider</constraintProviderClass>
+      </scoreDirectorFactory>
+      <termination>
+        <secondsSpentLimit>30</secondsSpentLimit>
+      </termination>
+    </solver>
+    <problemBenchmarks>
+      <problemStatisticType>BEST_SCORE</problemStatisticType>
+      <problemStatisticType>SCORE_CALCULATION_SPEED</problemStatisticType>
+    </problemBenchmarks>
+  </inheritedSolverBenchmark>
+
+<#list ["LATE_ACCEPTANCE", "TABU_SEARCH", "GREAT_DELUGE"] as localSearchType>
+<#list [false, true] as nearbySelection>
+<#list moveThreadCounts as moveThreadCount>
+  <solverBenchmark>
+    <name>${localSearchType}<#if nearbySelection> nearby</#if> moveThreadCount=${moveThreadCount}</name>
+    <solver>
+      <moveThreadCount>${moveThreadCount}</moveThreadCount>
+      <constructionHeuristic/>
+      <localSearch>
+        <localSearchType>${localSearchType}</localSearchType>
+        <unionMoveSelector>
+          <listChangeMoveSelector/>
+          <listSwapMoveSelector/>
+<#if nearbySelection>
+          <moveIteratorFactory>
+            <moveIteratorFactoryClass>org.acme.vehiclerouting.solver.nearby.NearbyCustomerChangeMoveIteratorFactory</moveIteratorFactoryClass>
+            <moveIteratorFactoryCustomProperties>
+              <property name="nearbyCount" value="40"/>
+              <property name="nearbyDistanceMeterClass" value="org.acme.vehiclerouting.solver.nearby.DrivingTimeNearbyDistanceMeter"/>
+            </moveIteratorFactoryCustomProperties>
+          </moveIteratorFactory>
+</#if>
+        </unionMoveSelector>
+      </localSearch>
+    </solver>
+  </solverBenchmark>
+</#list>
+</#list>
+</#list>
+</plannerBenchmark>